@@ -43,6 +43,7 @@ import org.neo4j.bolt.v1.runtime.BoltFactoryImpl;
 import org.neo4j.bolt.v1.runtime.BoltWorker;
 import org.neo4j.bolt.v1.runtime.MonitoredWorkerFactory;
 import org.neo4j.bolt.v1.runtime.WorkerFactory;
+import org.neo4j.bolt.v1.runtime.concurrent.PooledWorkerFactory;
 import org.neo4j.bolt.v1.runtime.concurrent.ThreadedWorkerFactory;
 import org.neo4j.bolt.v1.transport.BoltProtocolV1;
 import org.neo4j.configuration.Description;
@@ -72,7 +73,12 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.udc.UsageData;
 
 import static java.lang.String.format;
+import static org.neo4j.kernel.configuration.Settings.BOOLEAN;
+import static org.neo4j.kernel.configuration.Settings.FALSE;
+import static org.neo4j.kernel.configuration.Settings.INTEGER;
 import static org.neo4j.kernel.configuration.Settings.STRING;
+import static org.neo4j.kernel.configuration.Settings.buildSetting;
+import static org.neo4j.kernel.configuration.Settings.min;
 import static org.neo4j.kernel.configuration.Settings.setting;
 import static org.neo4j.kernel.configuration.ssl.LegacySslPolicyConfig.LEGACY_POLICY_NAME;
 import static org.neo4j.scheduler.JobScheduler.Groups.boltNetworkIO;
@@ -87,6 +93,24 @@ public class BoltKernelExtension extends KernelExtensionFactory<BoltKernelExtens
     {
         @Description( "SSL policy to use" )
         public static Setting<String> ssl_policy = setting( "bolt.ssl_policy", STRING, LEGACY_POLICY_NAME );
+
+        @Description( "Execute the requests of all Bolt sessions on a bounded pool of threads, instead of giving " +
+                      "every session a thread of its own. A session is then only bound to a thread while it has " +
+                      "requests to execute, which keeps the number of threads down when there are many idle " +
+                      "connections, for instance in driver connection pools." )
+        public static Setting<Boolean> thread_pool_enabled = setting( "bolt.thread_pool.enabled", BOOLEAN, FALSE );
+
+        @Description( "The maximum number of threads that execute Bolt requests, when `bolt.thread_pool.enabled` is " +
+                      "set. Requests that wait for locks hold on to their thread, so this should be well above the " +
+                      "number of requests that are expected to wait for locks at the same time." )
+        public static Setting<Integer> thread_pool_size =
+                buildSetting( "bolt.thread_pool.size", INTEGER, "400" ).constraint( min( 1 ) ).build();
+
+        @Description( "The maximum number of requests that can be queued for a single Bolt session, when " +
+                      "`bolt.thread_pool.enabled` is set. Receiving further requests for that session is held " +
+                      "back until there is room in its queue." )
+        public static Setting<Integer> thread_pool_queue_size =
+                buildSetting( "bolt.thread_pool.queue_size", INTEGER, "100" ).constraint( min( 1 ) ).build();
     }
 
     public interface Dependencies
@@ -203,8 +227,18 @@ public class BoltKernelExtension extends KernelExtensionFactory<BoltKernelExtens
     protected WorkerFactory createWorkerFactory( BoltFactory boltFactory, JobScheduler scheduler,
             Dependencies dependencies, LogService logService, Clock clock )
     {
-        WorkerFactory threadedWorkerFactory = new ThreadedWorkerFactory( boltFactory, scheduler, logService, clock );
-        return new MonitoredWorkerFactory( dependencies.monitors(), threadedWorkerFactory, clock );
+        Config config = dependencies.config();
+        WorkerFactory workerFactory;
+        if ( config.get( Settings.thread_pool_enabled ) )
+        {
+            workerFactory = new PooledWorkerFactory( boltFactory, scheduler, logService, clock,
+                    config.get( Settings.thread_pool_size ), config.get( Settings.thread_pool_queue_size ) );
+        }
+        else
+        {
+            workerFactory = new ThreadedWorkerFactory( boltFactory, scheduler, logService, clock );
+        }
+        return new MonitoredWorkerFactory( dependencies.monitors(), workerFactory, clock );
     }
 
     private SslContext createSslContext( SslPolicyLoader sslPolicyFactory, Config config )
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v1.runtime.concurrent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.bolt.v1.runtime.BoltConnectionAuthFatality;
+import org.neo4j.bolt.v1.runtime.BoltProtocolBreachFatality;
+import org.neo4j.bolt.v1.runtime.BoltStateMachine;
+import org.neo4j.bolt.v1.runtime.BoltWorker;
+import org.neo4j.bolt.v1.runtime.Job;
+import org.neo4j.kernel.impl.logging.LogService;
+import org.neo4j.logging.Log;
+
+/**
+ * Queues incoming Bolt requests for a given connection, and executes them on a thread borrowed from a
+ * {@link PooledWorkerFactory} whenever there are requests to execute.
+ */
+class PooledBoltWorker implements BoltWorker
+{
+    private final BlockingQueue<Job> jobQueue;
+    private final int maxJobsPerTurn;
+    private final BoltStateMachine machine;
+    private final PooledWorkerFactory pool;
+    private final Log log;
+    private final Log userLog;
+
+    // True while this worker is in the ready queue of the pool, or is executing jobs on a pool thread.
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean keepRunning = true;
+
+    PooledBoltWorker( BoltStateMachine machine, PooledWorkerFactory pool, LogService logging, int maxQueueSize )
+    {
+        this.machine = machine;
+        this.pool = pool;
+        this.jobQueue = new ArrayBlockingQueue<>( maxQueueSize );
+        this.maxJobsPerTurn = maxQueueSize;
+        this.log = logging.getInternalLog( getClass() );
+        this.userLog = logging.getUserLog( getClass() );
+    }
+
+    /**
+     * Accept a command to be executed at some point in the future. This will get queued and executed as soon as
+     * a pool thread is available. If the queue of this worker is full, the caller is blocked until there is room.
+     *
+     * @param job an operation to be performed on the session
+     */
+    @Override
+    public void enqueue( Job job )
+    {
+        if ( !keepRunning )
+        {
+            // The session is going away, and nobody will be executing this job.
+            return;
+        }
+        try
+        {
+            jobQueue.put( job );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Worker interrupted while queueing request, the session may have been " +
+                                        "forcibly closed, or the database may be shutting down." );
+        }
+        schedule();
+    }
+
+    private void schedule()
+    {
+        if ( scheduled.compareAndSet( false, true ) )
+        {
+            pool.ready( this );
+        }
+    }
+
+    /**
+     * Executes a bounded batch of the queued jobs. Only ever called on a pool thread, and never concurrently, since
+     * the worker is only handed to the pool once until it is {@link #scheduled unscheduled} again.
+     */
+    void executeQueuedJobs()
+    {
+        try
+        {
+            Job job;
+            for ( int i = 0; keepRunning && i < maxJobsPerTurn && (job = jobQueue.poll()) != null; i++ )
+            {
+                job.perform( machine );
+            }
+        }
+        catch ( BoltConnectionAuthFatality e )
+        {
+            // this is logged in the SecurityLog
+            keepRunning = false;
+        }
+        catch ( BoltProtocolBreachFatality e )
+        {
+            log.error( "Bolt protocol breach in session '" + machine.key() + "'", e );
+            keepRunning = false;
+        }
+        catch ( Throwable t )
+        {
+            userLog.error( "Worker for session '" + machine.key() + "' crashed.", t );
+            keepRunning = false;
+        }
+
+        if ( !keepRunning )
+        {
+            // We stay scheduled, so that this worker is never handed to the pool again.
+            jobQueue.clear();
+            closeStateMachine();
+            return;
+        }
+
+        scheduled.set( false );
+        if ( !jobQueue.isEmpty() || !keepRunning )
+        {
+            // Either more jobs arrived while we were executing, or there were more than we would take in one turn,
+            // or we have been halted and must close the state machine; back in line.
+            schedule();
+        }
+    }
+
+    @Override
+    public void interrupt()
+    {
+        machine.interrupt();
+    }
+
+    @Override
+    public void halt()
+    {
+        try
+        {
+            // Notify the state machine that it should terminate.
+            // We can't close it here because this method can be called from a different thread.
+            // State machine will be closed by a pool thread.
+            machine.terminate();
+        }
+        finally
+        {
+            keepRunning = false;
+            schedule();
+        }
+    }
+
+    private void closeStateMachine()
+    {
+        if ( !closed.compareAndSet( false, true ) )
+        {
+            return;
+        }
+        try
+        {
+            // Attempt to close the state machine, as an effort to release locks and other resources
+            machine.close();
+        }
+        catch ( Throwable t )
+        {
+            log.error( "Unable to close Bolt session '" + machine.key() + "'", t );
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v1.runtime.concurrent;
+
+import java.time.Clock;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.bolt.v1.runtime.BoltConnectionDescriptor;
+import org.neo4j.bolt.v1.runtime.BoltFactory;
+import org.neo4j.bolt.v1.runtime.BoltStateMachine;
+import org.neo4j.bolt.v1.runtime.BoltWorker;
+import org.neo4j.bolt.v1.runtime.WorkerFactory;
+import org.neo4j.kernel.impl.logging.LogService;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.scheduler.JobScheduler.Groups.sessionWorker;
+
+/**
+ * A {@link WorkerFactory} implementation that multiplexes the requests of many sessions onto a bounded number of
+ * threads. A session is only bound to a thread while it has queued requests, so sessions that are idle, which is the
+ * common case for the connections held in driver connection pools, do not hold on to a thread.
+ * <p>
+ * Sessions that have requests queued are put in a ready queue. A bounded number of runners, executing in the
+ * {@link JobScheduler.Groups#sessionWorker session worker} group, take sessions off the ready queue and execute a
+ * batch of their requests. A session that still has requests queued after its batch goes to the back of the ready
+ * queue, so that a busy session cannot starve the others.
+ * <p>
+ * The bounded pool comes with the deadlock risk that {@link ThreadedWorkerFactory} avoids: if all threads are busy
+ * waiting for locks that are held by the open transactions of sessions that are waiting for a thread, no progress can
+ * be made until the lock acquisition times out. The pool should therefore be sized well above the number of
+ * requests that are expected to wait for locks at the same time.
+ */
+public class PooledWorkerFactory implements WorkerFactory
+{
+    private final BoltFactory connector;
+    private final LogService logging;
+    private final Clock clock;
+    private final Executor executor;
+    private final int poolSize;
+    private final int maxQueueSize;
+    private final Queue<PooledBoltWorker> readyWorkers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeRunners = new AtomicInteger();
+
+    public PooledWorkerFactory( BoltFactory connector, JobScheduler scheduler, LogService logging, Clock clock,
+            int poolSize, int maxQueueSize )
+    {
+        this( connector, scheduler.executor( sessionWorker ), logging, clock, poolSize, maxQueueSize );
+    }
+
+    PooledWorkerFactory( BoltFactory connector, Executor executor, LogService logging, Clock clock,
+            int poolSize, int maxQueueSize )
+    {
+        this.connector = connector;
+        this.executor = executor;
+        this.logging = logging;
+        this.clock = clock;
+        this.poolSize = poolSize;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    @Override
+    public BoltWorker newWorker( BoltConnectionDescriptor connectionDescriptor, Runnable onClose )
+    {
+        BoltStateMachine machine = connector.newMachine( connectionDescriptor, onClose, clock );
+        return new PooledBoltWorker( machine, this, logging, maxQueueSize );
+    }
+
+    /**
+     * Called by a worker when it has requests queued, and is not already in the ready queue or being executed.
+     */
+    void ready( PooledBoltWorker worker )
+    {
+        readyWorkers.offer( worker );
+        if ( tryStartRunner() )
+        {
+            executor.execute( this::runWorkers );
+        }
+    }
+
+    private void runWorkers()
+    {
+        do
+        {
+            PooledBoltWorker worker;
+            while ( (worker = readyWorkers.poll()) != null )
+            {
+                worker.executeQueuedJobs();
+            }
+            activeRunners.decrementAndGet();
+            // A worker may have become ready after our last poll, but before we stopped counting as an active runner,
+            // in which case it may have been unable to start a runner of its own.
+        }
+        while ( !readyWorkers.isEmpty() && tryStartRunner() );
+    }
+
+    private boolean tryStartRunner()
+    {
+        int runners;
+        do
+        {
+            runners = activeRunners.get();
+            if ( runners >= poolSize )
+            {
+                return false;
+            }
+        }
+        while ( !activeRunners.compareAndSet( runners, runners + 1 ) );
+        return true;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v1.runtime.concurrent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.neo4j.bolt.v1.runtime.BoltConnectionDescriptor;
+import org.neo4j.bolt.v1.runtime.BoltFactory;
+import org.neo4j.bolt.v1.runtime.BoltStateMachine;
+import org.neo4j.bolt.v1.runtime.BoltWorker;
+import org.neo4j.kernel.impl.logging.NullLogService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PooledWorkerFactoryTest
+{
+    private final BoltConnectionDescriptor descriptor = mock( BoltConnectionDescriptor.class );
+    private final BoltFactory boltFactory = mock( BoltFactory.class );
+    private final ManualExecutor executor = new ManualExecutor();
+    private BoltStateMachine machine;
+
+    @Before
+    public void setup()
+    {
+        when( boltFactory.newMachine( any(), any(), any() ) ).thenAnswer( invocation ->
+        {
+            machine = mock( BoltStateMachine.class );
+            when( machine.key() ).thenReturn( "test-session" );
+            return machine;
+        } );
+    }
+
+    @Test
+    public void shouldExecuteQueuedJobsOnPoolThread() throws Throwable
+    {
+        // Given
+        PooledWorkerFactory factory = newFactory( 4, 10 );
+        BoltWorker worker = factory.newWorker( descriptor );
+
+        // When
+        worker.enqueue( s -> s.run( "RETURN 1", null, null ) );
+        worker.enqueue( s -> s.run( "RETURN 2", null, null ) );
+
+        // Then
+        assertEquals( 1, executor.tasks.size() );
+        verify( machine, never() ).run( "RETURN 1", null, null );
+        executor.runAll();
+        verify( machine ).run( "RETURN 1", null, null );
+        verify( machine ).run( "RETURN 2", null, null );
+    }
+
+    @Test
+    public void shouldNotUseMoreThreadsThanThePoolSize() throws Throwable
+    {
+        // Given
+        PooledWorkerFactory factory = newFactory( 1, 10 );
+        BoltWorker first = factory.newWorker( descriptor );
+        BoltWorker second = factory.newWorker( descriptor );
+
+        // When
+        first.enqueue( s -> s.run( "RETURN 1", null, null ) );
+        second.enqueue( s -> s.run( "RETURN 2", null, null ) );
+
+        // Then
+        assertEquals( 1, executor.tasks.size() );
+        executor.runAll();
+        assertEquals( 0, executor.tasks.size() );
+    }
+
+    @Test
+    public void shouldStartNewRunnerWhenJobsArriveAfterPoolWentIdle() throws Throwable
+    {
+        // Given
+        PooledWorkerFactory factory = newFactory( 1, 10 );
+        BoltWorker worker = factory.newWorker( descriptor );
+        worker.enqueue( s -> s.run( "RETURN 1", null, null ) );
+        executor.runAll();
+
+        // When
+        worker.enqueue( s -> s.run( "RETURN 2", null, null ) );
+
+        // Then
+        assertEquals( 1, executor.tasks.size() );
+        executor.runAll();
+        verify( machine ).run( "RETURN 2", null, null );
+    }
+
+    @Test
+    public void shouldTakeTurnsBetweenBusySessions() throws Throwable
+    {
+        // Given a queue of two jobs per turn
+        PooledWorkerFactory factory = newFactory( 1, 2 );
+        StringBuilder order = new StringBuilder();
+        BoltWorker first = factory.newWorker( descriptor );
+        BoltWorker second = factory.newWorker( descriptor );
+
+        // When
+        first.enqueue( s -> order.append( 'a' ) );
+        first.enqueue( s -> first.enqueue( s2 -> order.append( 'c' ) ) );
+        second.enqueue( s -> order.append( 'b' ) );
+        executor.runAll();
+
+        // Then
+        assertEquals( "abc", order.toString() );
+    }
+
+    @Test
+    public void errorThrownDuringExecutionShouldCloseSession() throws Throwable
+    {
+        // Given
+        PooledWorkerFactory factory = newFactory( 1, 10 );
+        BoltWorker worker = factory.newWorker( descriptor );
+
+        // When
+        worker.enqueue( s ->
+        {
+            throw new RuntimeException( "It didn't work out." );
+        } );
+        worker.enqueue( s -> fail( "Should not be executed" ) );
+        executor.runAll();
+
+        // Then
+        verify( machine ).close();
+    }
+
+    @Test
+    public void haltShouldTerminateAndThenCloseStateMachineOnPoolThread() throws Throwable
+    {
+        // Given
+        PooledWorkerFactory factory = newFactory( 1, 10 );
+        BoltWorker worker = factory.newWorker( descriptor );
+
+        // When
+        worker.halt();
+
+        // Then
+        verify( machine ).terminate();
+        verify( machine, never() ).close();
+        executor.runAll();
+        verify( machine ).close();
+        worker.enqueue( s -> fail( "Should not be executed" ) );
+        executor.runAll();
+    }
+
+    private PooledWorkerFactory newFactory( int poolSize, int maxQueueSize )
+    {
+        return new PooledWorkerFactory( boltFactory, executor, NullLogService.getInstance(), Clock.systemUTC(),
+                poolSize, maxQueueSize );
+    }
+
+    private static class ManualExecutor implements Executor
+    {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute( Runnable command )
+        {
+            tasks.add( command );
+        }
+
+        void runAll()
+        {
+            Runnable task;
+            while ( (task = tasks.poll()) != null )
+            {
+                task.run();
+            }
+        }
+    }
+}
@@ -147,6 +147,9 @@ public interface Status
         TransactionTimedOut( ClientError,
                 "The transaction has not completed within the specified timeout. You may want to retry with a longer " +
                 "timeout." ),
+        TransactionMemoryLimitExceeded( ClientError,
+                "The transaction state has grown beyond the configured memory limit of a single transaction. You may " +
+                "want to split the work into smaller transactions, or raise the limit." ),
         InvalidBookmark( ClientError,
                 "Supplied bookmark cannot be interpreted. You should only supply a bookmark previously that was " +
                 "previously generated by Neo4j. Maybe you have generated your own bookmark, " +
@@ -188,6 +191,10 @@ public interface Status
                 "Unable to acquire lock within configured timeout." ),
         Terminated( TransientError,
                 "Explicitly terminated by the user." ),
+        GlobalMemoryLimitExceeded( TransientError,
+                "The transaction state of all running transactions has grown beyond the configured global memory " +
+                "limit. Retrying this transaction once other transactions have completed will most likely be " +
+                "successful." ),
         Interrupted( TransientError,
                 "Interrupted while waiting." );
 
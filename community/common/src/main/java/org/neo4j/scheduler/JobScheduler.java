@@ -164,11 +164,46 @@ public interface JobScheduler extends Lifecycle
          */
         public static Group recoveryCleanup = new Group( "RecoveryCleanup" );
 
+        /**
+         * Reading ahead in the transaction log, and applying record updates in parallel, during recovery.
+         */
+        public static Group recovery = new Group( "Recovery" );
+
+        /**
+         * Writing the store records of large transactions in parallel, when the transactions are applied.
+         */
+        public static Group transactionApply = new Group( "TransactionApply" );
+
+        /**
+         * Appending and applying batches of committing transactions, when transaction commits are pipelined.
+         */
+        public static Group transactionCommit = new Group( "TransactionCommit" );
+
         /**
          * Kernel transaction timeout monitor.
          */
         public static Group transactionTimeoutMonitor = new Group( "TransactionTimeoutMonitor" );
 
+        /**
+         * Background page cache I/O, such as profiling and warming up the page cache.
+         */
+        public static Group pageCacheIOHelper = new Group( "PageCacheIOHelper" );
+
+        /**
+         * Workers scanning partitions of the store in parallel, on behalf of a read-only Cypher query.
+         */
+        public static Group cypherWorker = new Group( "CypherWorker" );
+
+        /**
+         * Profiling and warming up the Cypher query plan cache.
+         */
+        public static Group cypherPlanCacheWarmup = new Group( "CypherPlanCacheWarmup" );
+
+        /**
+         * Replanning queries with stale plans in the background.
+         */
+        public static Group cypherReplanning = new Group( "CypherReplanning" );
+
         private Groups()
         {
         }
@@ -27,6 +27,7 @@ case object CypherRuntime extends CypherOptionCompanion[CypherRuntime] {
   case object interpreted extends CypherRuntime("interpreted")
   case object registerInterpreted extends CypherRuntime("enterprise-interpreted")
   case object compiled extends CypherRuntime("compiled")
+  case object morsel extends CypherRuntime("morsel")
 
-  val all: Set[CypherRuntime] = Set(interpreted, compiled, registerInterpreted)
+  val all: Set[CypherRuntime] = Set(interpreted, compiled, registerInterpreted, morsel)
 }
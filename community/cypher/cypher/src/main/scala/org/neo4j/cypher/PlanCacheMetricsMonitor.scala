@@ -25,9 +25,28 @@ import org.neo4j.cypher.internal.StringCacheMonitor
 
 class PlanCacheMetricsMonitor extends StringCacheMonitor {
   private val counter = new AtomicLong()
+  private val inFlight = new AtomicLong()
+  private val planningTime = new AtomicLong()
+
   override def cacheDiscard(ignored1: String, ignored2: String): Unit = {
     counter.incrementAndGet()
   }
 
+  override def queryPlanned(ignored: String, planningTimeMillis: Long): Unit = {
+    planningTime.addAndGet(planningTimeMillis)
+  }
+
+  override def backgroundReplanStarted(ignored: String): Unit = {
+    inFlight.incrementAndGet()
+  }
+
+  override def backgroundReplanCompleted(ignored: String): Unit = {
+    inFlight.decrementAndGet()
+  }
+
   def numberOfReplans: Long = counter.get()
+
+  def numberOfReplansInFlight: Long = inFlight.get()
+
+  def planningTimeMillis: Long = planningTime.get()
 }
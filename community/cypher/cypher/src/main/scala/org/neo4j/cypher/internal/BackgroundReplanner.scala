@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.{ConcurrentHashMap, ConcurrentLinkedQueue}
+
+import org.neo4j.cypher.internal.compatibility.v3_3.StaleValueAction
+import org.neo4j.logging.Log
+import org.neo4j.scheduler.JobScheduler
+import org.neo4j.scheduler.JobScheduler.Groups.cypherReplanning
+
+/**
+  * Plans queries with stale plans again, one at a time on a single background thread. In the meantime, executing
+  * queries keep using the stale plans, and each stale plan is replaced in the plan cache once its new plan is done.
+  *
+  * @param replan plans the query with the given plan cache key, on the background thread
+  */
+class BackgroundReplanner(scheduler: JobScheduler, replan: String => Unit, monitor: StringCacheMonitor, log: Log) {
+
+  private val pending = new ConcurrentLinkedQueue[String]()
+  private val inFlight = ConcurrentHashMap.newKeySet[String]()
+  private val running = new AtomicBoolean()
+  private val onReplanningThread = new ThreadLocal[java.lang.Boolean] {
+    override def initialValue(): java.lang.Boolean = false
+  }
+
+  /*
+  The background thread replaces the stale plan that it was asked to replan. Everyone else keeps using the stale plan,
+  after making sure that it is being replanned.
+   */
+  def whenStale(key: String): StaleValueAction =
+    if (onReplanningThread.get) {
+      StaleValueAction.Replace
+    } else {
+      if (inFlight.add(key)) {
+        monitor.backgroundReplanStarted(key)
+        pending.add(key)
+        scheduleIfIdle()
+      }
+      StaleValueAction.KeepUsing
+    }
+
+  def replansInFlight: Int = inFlight.size()
+
+  private def scheduleIfIdle(): Unit =
+    if (!pending.isEmpty && running.compareAndSet(false, true))
+      scheduler.schedule(cypherReplanning, new Runnable {
+        override def run(): Unit = replanPending()
+      })
+
+  private def replanPending(): Unit = {
+    onReplanningThread.set(true)
+    try {
+      var key = pending.poll()
+      while (key != null) {
+        try {
+          replan(key)
+        } catch {
+          case e: Exception =>
+            log.debug(s"Failed to replan stale query in the background: $key", e)
+        } finally {
+          inFlight.remove(key)
+          monitor.backgroundReplanCompleted(key)
+        }
+        key = pending.poll()
+      }
+    } finally {
+      onReplanningThread.set(false)
+      running.set(false)
+    }
+    // Keys may have been added after the last poll, but before we stopped running
+    scheduleIfIdle()
+  }
+}
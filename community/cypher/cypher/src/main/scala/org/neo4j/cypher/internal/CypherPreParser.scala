@@ -56,6 +56,7 @@ case object CypherPreParser extends Parser with Base {
     option("runtime", "interpreted") ~ push(InterpretedRuntimeOption)
       | option("runtime", "compiled") ~ push(CompiledRuntimeOption)
       | option("runtime", "enterprise-interpreted") ~ push(RegisterInterpretedRuntimeOption)
+      | option("runtime", "morsel") ~ push(MorselRuntimeOption)
   )
 
   def StrategyOption: Rule1[UpdateStrategyOption] = rule("strategy option")(
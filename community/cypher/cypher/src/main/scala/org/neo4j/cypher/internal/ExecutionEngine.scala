@@ -19,7 +19,8 @@
  */
 package org.neo4j.cypher.internal
 
-import java.util.{Map => JavaMap}
+import java.io.File
+import java.util.{Collections, Map => JavaMap}
 
 import org.neo4j.cypher._
 import org.neo4j.cypher.internal.compatibility.v3_3._
@@ -31,16 +32,25 @@ import org.neo4j.cypher.internal.tracing.{CompilationTracer, TimingCompilationTr
 import org.neo4j.graphdb.Result
 import org.neo4j.graphdb.config.Setting
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.io.fs.FileSystemAbstraction
+import org.neo4j.kernel.AvailabilityGuard
 import org.neo4j.kernel.api.query.SchemaIndexUsage
-import org.neo4j.kernel.api.security.AccessMode
-import org.neo4j.kernel.api.{KernelAPI, ReadOperations}
+import org.neo4j.kernel.api.security.{AccessMode, SecurityContext}
+import org.neo4j.kernel.api.{KernelAPI, KernelTransaction, ReadOperations}
 import org.neo4j.kernel.configuration.Config
+import org.neo4j.kernel.impl.coreapi.PropertyContainerLocker
 import org.neo4j.kernel.impl.locking.ResourceTypes
-import org.neo4j.kernel.impl.query.{QueryExecutionMonitor, TransactionalContext}
+import org.neo4j.kernel.impl.query.clientconnection.ClientConnectionInfo
+import org.neo4j.kernel.impl.query.{Neo4jTransactionalContextFactory, QueryExecutionMonitor, TransactionalContext}
 import org.neo4j.kernel.monitoring.{Monitors => KernelMonitors}
-import org.neo4j.kernel.{GraphDatabaseQueryService, api}
+import org.neo4j.kernel.{GraphDatabaseQueryService, NeoStoreDataSource, api}
 import org.neo4j.logging.{LogProvider, NullLogProvider}
-trait StringCacheMonitor extends CypherCacheMonitor[String, api.Statement]
+import org.neo4j.scheduler.JobScheduler
+trait StringCacheMonitor extends CypherCacheMonitor[String, api.Statement] {
+  def queryPlanned(key: String, planningTimeMillis: Long) {}
+  def backgroundReplanStarted(key: String) {}
+  def backgroundReplanCompleted(key: String) {}
+}
 
 /**
   * This class construct and initialize both the cypher compiler and the cypher runtime, which is a very expensive
@@ -80,6 +90,23 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
   private val javaValues = new RuntimeJavaValueConverter(isGraphKernelResultValue)
   private val scalaValues = new RuntimeScalaValueConverter(isGraphKernelResultValue)
 
+  // The plan cache is recreated whenever the schema state is flushed, this is the one that was created last
+  @volatile private var planCache: QueryCache[String, (ExecutionPlan, Map[String, Any])] = _
+
+  private lazy val backgroundContextFactory = Neo4jTransactionalContextFactory.create(queryService, new PropertyContainerLocker)
+
+  private val backgroundReplanner: Option[BackgroundReplanner] =
+    if (optGraphSetting[java.lang.Boolean](queryService, GraphDatabaseSettings.cypher_replan_in_background,
+      GraphDatabaseSettings.cypher_replan_in_background.getDefaultValue.toBoolean))
+      Some(new BackgroundReplanner(resolver.resolveDependency(classOf[JobScheduler]), planInBackground,
+        cacheMonitor, logProvider.getLog(classOf[BackgroundReplanner])))
+    else
+      None
+
+  if (optGraphSetting[java.lang.Boolean](queryService, GraphDatabaseSettings.query_cache_warmup_enabled,
+    GraphDatabaseSettings.query_cache_warmup_enabled.getDefaultValue.toBoolean))
+    createQueryCacheWarmer().start()
+
   def profile(query: String, scalaParams: Map[String, Any], context: TransactionalContext): Result = {
     // we got deep scala parameters => convert to deep java parameters
     val javaParams = javaValues.asDeepJavaMap(scalaParams).asInstanceOf[JavaMap[String, AnyRef]]
@@ -156,18 +183,25 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
           val cache = getOrCreateFromSchemaState(tc.readOperations, {
             cacheMonitor.cacheFlushDetected(tc.statement)
             val lruCache = new LFUCache[String, (ExecutionPlan, Map[String, Any])](getPlanCacheSize)
-            new QueryCache(cacheAccessor, lruCache)
+            planCache = new QueryCache(cacheAccessor, lruCache)
+            planCache
           })
 
           def isStale(plan: ExecutionPlan, ignored: Map[String, Any]) = plan.isStale(lastCommittedTxId, tc)
 
           def producePlan() = {
+            val start = System.currentTimeMillis()
             val parsedQuery = parsePreParsedQuery(preParsedQuery, phaseTracer)
-            parsedQuery.plan(tc, phaseTracer)
+            val plan = parsedQuery.plan(tc, phaseTracer)
+            cacheMonitor.queryPlanned(cacheKey, System.currentTimeMillis() - start)
+            plan
           }
 
+          def whenStale(key: String) = backgroundReplanner.map(_.whenStale(key)).getOrElse(StaleValueAction.Discard)
+
           val stateBefore = schemaState(tc)
-          var (plan: (ExecutionPlan, Map[String, Any]), touched: Boolean) = cache.getOrElseUpdate(cacheKey, queryText, (isStale _).tupled, producePlan())
+          var (plan: (ExecutionPlan, Map[String, Any]), touched: Boolean) =
+            cache.getOrElseUpdate(cacheKey, queryText, (isStale _).tupled, producePlan(), whenStale)
           if (!touched) {
             val labelIds: Seq[Long] = extractPlanLabels(plan, preParsedQuery.version, tc)
             if (labelIds.nonEmpty) {
@@ -247,6 +281,34 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     operations.schemaStateGetOrCreate(this, javaCreator)
   }
 
+  /*
+  Plans the query with the given plan cache key, outside of any executing query. Explaining a query plans it, and
+  caches the plan under the same key as when executing it.
+   */
+  private def planInBackground(cacheKey: String): Unit = {
+    val query = s"EXPLAIN $cacheKey"
+    val params = Collections.emptyMap[String, AnyRef]()
+    val tx = queryService.beginTransaction(KernelTransaction.Type.`implicit`, SecurityContext.AUTH_DISABLED)
+    val context = backgroundContextFactory.newContext(ClientConnectionInfo.EMBEDDED_CONNECTION, tx, query, params)
+    execute(query, params, context).close()
+  }
+
+  private def createQueryCacheWarmer(): QueryCacheWarmer = {
+    val storeDir = resolver.resolveDependency(classOf[NeoStoreDataSource]).getStoreDir
+
+    def hottestKeys(): Seq[String] = Option(planCache).map(_.hottestKeys).getOrElse(Seq.empty)
+
+    new QueryCacheWarmer(
+      resolver.resolveDependency(classOf[FileSystemAbstraction]),
+      new File(new File(storeDir, ExecutionEngine.PROFILE_DIRECTORY), ExecutionEngine.QUERY_CACHE_PROFILE),
+      resolver.resolveDependency(classOf[JobScheduler]),
+      resolver.resolveDependency(classOf[AvailabilityGuard]),
+      resolver.resolveDependency(classOf[Config]).get(GraphDatabaseSettings.query_cache_warmup_profiling_interval),
+      hottestKeys _,
+      planInBackground,
+      logProvider.getLog(classOf[QueryCacheWarmer]))
+  }
+
   def prettify(query: String): String = Prettifier(query)
 
   def isPeriodicCommit(query: String) = parseQuery(query).isPeriodicCommit
@@ -310,4 +372,6 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
 
 object ExecutionEngine {
   val PLAN_BUILDING_TRIES: Int = 20
+  val PROFILE_DIRECTORY: String = "cypher"
+  val QUERY_CACHE_PROFILE: String = "query_cache"
 }
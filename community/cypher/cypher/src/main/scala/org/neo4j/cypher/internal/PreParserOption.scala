@@ -36,6 +36,7 @@ case object DPPlannerOption extends PlannerPreParserOption("dp")
 case object InterpretedRuntimeOption extends RuntimePreParserOption("interpreted")
 case object RegisterInterpretedRuntimeOption extends RuntimePreParserOption("enterprise-interpreted")
 case object CompiledRuntimeOption extends RuntimePreParserOption("compiled")
+case object MorselRuntimeOption extends RuntimePreParserOption("morsel")
 case object EagerOption extends UpdateStrategyOption("eager")
 case class DebugOption(key: String) extends PreParserOption
 
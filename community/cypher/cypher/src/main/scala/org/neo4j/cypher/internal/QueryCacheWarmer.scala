@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io._
+import java.nio.charset.StandardCharsets
+import java.nio.file.StandardCopyOption
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+import org.neo4j.io.fs.FileSystemAbstraction
+import org.neo4j.kernel.AvailabilityGuard
+import org.neo4j.kernel.AvailabilityGuard.AvailabilityListener
+import org.neo4j.logging.Log
+import org.neo4j.scheduler.JobScheduler
+import org.neo4j.scheduler.JobScheduler.Groups.cypherPlanCacheWarmup
+
+import scala.util.control.NonFatal
+
+/**
+  * Keeps a profile of the most frequently used keys of the query plan cache in a file, and plans those queries again
+  * in the background after a restart, once the database has become available.
+  *
+  * The keys of the plan cache are the query strings prefixed with their Cypher options, so planning them again is
+  * only a matter of explaining them. The new plans are made against the statistics of the restarted database, which
+  * is why the profile holds no statistics of its own. Plans that turn out to be stale are replaced as usual.
+  *
+  * The profile is a binary file holding the number of keys, followed by each key as its length and its UTF-8 bytes.
+  * Nothing in it is encrypted, so queries with string literals are left out of it, since those literals may hold
+  * passwords or other secrets. Only queries that pass their strings as parameters are warmed up.
+  *
+  * The warmer stops listening to the availability guard once the guard has been shut down.
+  */
+class QueryCacheWarmer(fs: FileSystemAbstraction,
+                       profileFile: File,
+                       scheduler: JobScheduler,
+                       availabilityGuard: AvailabilityGuard,
+                       profilingInterval: Duration,
+                       hottestKeys: () => Seq[String],
+                       plan: String => Unit,
+                       log: Log) extends AvailabilityListener {
+
+  @volatile private var warmedUp = false
+  @volatile private var profileJob: JobScheduler.JobHandle = _
+
+  def start(): Unit = {
+    availabilityGuard.addListener(this)
+    if (availabilityGuard.isAvailable)
+      available()
+  }
+
+  override def available(): Unit = synchronized {
+    if (profileJob == null) {
+      val millis = profilingInterval.toMillis
+      profileJob = scheduler.scheduleRecurring(cypherPlanCacheWarmup, new Runnable {
+        override def run(): Unit = {
+          // Anything escaping this job would cancel it, and with it all later profiles
+          try {
+            if (!warmedUp) {
+              warmedUp = true
+              warmup()
+            }
+            else
+              profile()
+          } catch {
+            case NonFatal(e) =>
+              log.warn("Could not warm up or profile the query plan cache", e)
+          }
+        }
+      }, 0, millis, TimeUnit.MILLISECONDS)
+    }
+  }
+
+  override def unavailable(): Unit = synchronized {
+    if (profileJob != null) {
+      profileJob.cancel(false)
+      profileJob = null
+      // Only take a last profile once the old profile has been used, or it would be overwritten by an empty one
+      if (warmedUp)
+        profile()
+    }
+    if (availabilityGuard.isShutdown)
+      stop()
+  }
+
+  def stop(): Unit = synchronized {
+    availabilityGuard.removeListener(this)
+    if (profileJob != null) {
+      profileJob.cancel(false)
+      profileJob = null
+    }
+  }
+
+  def warmup(): Int = {
+    val keys = try {
+      readProfile()
+    } catch {
+      case NonFatal(e) =>
+        log.warn(s"Could not read the query plan cache profile $profileFile, so the query plan cache will not be warmed up", e)
+        Seq.empty
+    }
+    if (keys.nonEmpty) {
+      log.info(s"Warming up the query plan cache with ${keys.size} queries")
+      val start = System.currentTimeMillis()
+      var planned = 0
+      keys.foreach { key =>
+        if (!availabilityGuard.isShutdown) {
+          try {
+            plan(key)
+            planned += 1
+          } catch {
+            case e: Exception =>
+              log.debug(s"Could not plan query from the query plan cache profile: $key", e)
+          }
+        }
+      }
+      log.info(s"Warmed up the query plan cache with $planned of ${keys.size} queries in " +
+        s"${System.currentTimeMillis() - start} ms")
+      planned
+    } else 0
+  }
+
+  def profile(): Unit = {
+    try {
+      writeProfile(hottestKeys().filterNot(QueryCacheWarmer.hasStringLiteral))
+    } catch {
+      case NonFatal(e) =>
+        log.debug(s"Could not write the query plan cache profile $profileFile", e)
+    }
+  }
+
+  private[internal] def writeProfile(keys: Seq[String]): Unit = {
+    fs.mkdirs(profileFile.getParentFile)
+    val tmpFile = new File(profileFile.getParentFile, profileFile.getName + ".tmp")
+    val out = new DataOutputStream(new BufferedOutputStream(fs.openAsOutputStream(tmpFile, false)))
+    try {
+      out.writeInt(keys.size)
+      keys.foreach { key =>
+        val bytes = key.getBytes(StandardCharsets.UTF_8)
+        out.writeInt(bytes.length)
+        out.write(bytes)
+      }
+    } finally {
+      out.close()
+    }
+    fs.renameFile(tmpFile, profileFile, StandardCopyOption.REPLACE_EXISTING)
+  }
+
+  private[internal] def readProfile(): Seq[String] = {
+    if (!fs.fileExists(profileFile))
+      return Seq.empty
+
+    // Sizes are checked against what is left of the file, so that a damaged profile is not allocated for
+    var remaining = fs.getFileSize(profileFile)
+    def claim(size: Long, what: String): Int = {
+      if (size < 0 || size > remaining)
+        throw new IOException(s"Damaged query plan cache profile $profileFile: $what of $size bytes with only " +
+          s"$remaining bytes left")
+      remaining -= size
+      size.toInt
+    }
+
+    val in = new DataInputStream(new BufferedInputStream(fs.openAsInputStream(profileFile)))
+    try {
+      claim(Integer.BYTES, "key count")
+      val count = in.readInt()
+      if (count < 0 || count.toLong * Integer.BYTES > remaining)
+        throw new IOException(s"Damaged query plan cache profile $profileFile: $count keys in $remaining bytes")
+      (0 until count).map { _ =>
+        claim(Integer.BYTES, "key length")
+        val bytes = new Array[Byte](claim(in.readInt(), "key"))
+        in.readFully(bytes)
+        new String(bytes, StandardCharsets.UTF_8)
+      }
+    } finally {
+      in.close()
+    }
+  }
+}
+
+object QueryCacheWarmer {
+  // Quotes can also be part of comments or escaped identifiers, in which case a query is left out needlessly
+  private[internal] def hasStringLiteral(key: String): Boolean = key.exists(c => c == '\'' || c == '"')
+}
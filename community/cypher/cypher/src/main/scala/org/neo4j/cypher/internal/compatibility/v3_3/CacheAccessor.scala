@@ -22,10 +22,31 @@ package org.neo4j.cypher.internal.compatibility.v3_3
 trait CacheAccessor[K <: AnyRef, T <: AnyRef] {
   def getOrElseUpdate(cache: LFUCache[K, T])(key: K, f: => T): T
   def remove(cache: LFUCache[K, T])(key: K, userKey: String)
+  def replace(cache: LFUCache[K, T])(key: K, userKey: String, value: T)
+}
+
+/*
+What to do with a cached value that has turned out to be stale
+ */
+sealed trait StaleValueAction
+
+object StaleValueAction {
+  // Remove the stale value, and produce a new one like for any other cache miss
+  case object Discard extends StaleValueAction
+
+  // Keep using the stale value, because a new one is being produced elsewhere
+  case object KeepUsing extends StaleValueAction
+
+  // Produce a new value, and only then replace the stale value with it, so others can keep using the stale value
+  // in the meantime
+  case object Replace extends StaleValueAction
 }
 
 class QueryCache[K <: AnyRef, T <: AnyRef](cacheAccessor: CacheAccessor[K, T], cache: LFUCache[K, T]) {
-  def getOrElseUpdate(key: K, userKey: String, isStale: T => Boolean, produce: => T): (T, Boolean) = {
+  def hottestKeys: Seq[K] = cache.hottestKeys
+
+  def getOrElseUpdate(key: K, userKey: String, isStale: T => Boolean, produce: => T,
+                      whenStale: K => StaleValueAction = (_: K) => StaleValueAction.Discard): (T, Boolean) = {
     if (cache.size == 0)
       (produce, false)
     else {
@@ -37,8 +58,17 @@ class QueryCache[K <: AnyRef, T <: AnyRef](cacheAccessor: CacheAccessor[K, T], c
         })
       }.flatMap { value =>
         if (!planned && isStale(value)) {
-          cacheAccessor.remove(cache)(key, userKey)
-          None
+          whenStale(key) match {
+            case StaleValueAction.Discard =>
+              cacheAccessor.remove(cache)(key, userKey)
+              None
+            case StaleValueAction.KeepUsing =>
+              Some((value, false))
+            case StaleValueAction.Replace =>
+              val newValue = produce
+              cacheAccessor.replace(cache)(key, userKey, newValue)
+              Some((newValue, true))
+          }
         }
         else {
           Some((value, planned))
@@ -69,4 +99,9 @@ class MonitoringCacheAccessor[K <: AnyRef, T <: AnyRef](monitor: CypherCacheHitM
     cache.remove(key)
     monitor.cacheDiscard(key, userKey)
   }
+
+  def replace(cache: LFUCache[K, T])(key: K, userKey: String, value: T): Unit = {
+    cache.put(key, value)
+    monitor.cacheDiscard(key, userKey)
+  }
 }
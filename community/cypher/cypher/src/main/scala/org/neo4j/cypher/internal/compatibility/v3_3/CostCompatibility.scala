@@ -64,6 +64,7 @@ case class CostCompatibility[CONTEXT <: CommunityRuntimeContext,
     case CypherRuntime.interpreted => Some(InterpretedRuntimeName)
     case CypherRuntime.registerInterpreted => Some(EnterpriseInterpretedRuntimeName)
     case CypherRuntime.compiled => Some(CompiledRuntimeName)
+    case CypherRuntime.morsel => Some(MorselRuntimeName)
   }
 
   protected override val compiler: CypherCompiler[CONTEXT] = {
@@ -113,6 +113,9 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
   override def getNodesByLabelPrimitive(id: Int): PrimitiveLongIterator =
     translateException(inner.getNodesByLabelPrimitive(id))
 
+  override def parallelNodeScan[T](labelId: Option[Int], work: (QueryContext, PrimitiveLongIterator) => T): Seq[T] =
+    translateException(inner.parallelNodeScan(labelId, work))
+
   override def nodeGetDegree(node: Long, dir: SemanticDirection): Int =
     translateException(inner.nodeGetDegree(node, dir))
 
@@ -23,6 +23,8 @@ import java.util.function.Function
 
 import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
 
+import scala.collection.JavaConverters._
+
 class LFUCache[K <: AnyRef, V <: AnyRef](val size: Int) extends ((K, => V) => V) {
 
   val inner: Cache[K, V] = Caffeine.newBuilder().maximumSize(size).build[K, V]()
@@ -46,4 +48,13 @@ class LFUCache[K <: AnyRef, V <: AnyRef](val size: Int) extends ((K, => V) => V)
   def containsKey(key: K) = inner.asMap().containsKey(key)
 
   def apply(key: K, value: => V): V = getOrElseUpdate(key, value)
+
+  /*
+  The keys of the cache, most frequently used first
+   */
+  def hottestKeys: Seq[K] = {
+    val eviction = inner.policy().eviction()
+    if (eviction.isPresent) eviction.get().hottest(size).keySet().asScala.toIndexedSeq
+    else inner.asMap().keySet().asScala.toIndexedSeq
+  }
 }
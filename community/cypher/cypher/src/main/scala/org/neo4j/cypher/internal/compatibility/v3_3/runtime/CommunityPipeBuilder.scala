@@ -204,11 +204,25 @@ case class CommunityPipeBuilder(monitors: Monitors, recurse: LogicalPlan => Pipe
         }
 
       case Aggregation(_, groupingExpressions, aggregatingExpressions) =>
-        EagerAggregationPipe(
-          source,
-          groupingExpressions.keySet,
-          Eagerly.immutableMapValues[String, frontEndAst.Expression, AggregationExpression](aggregatingExpressions, buildExpression(_).asInstanceOf[AggregationExpression])
-        )(id = id)
+        val aggregations = Eagerly.immutableMapValues[String, frontEndAst.Expression, AggregationExpression](aggregatingExpressions, buildExpression(_).asInstanceOf[AggregationExpression])
+        val canScanInParallel =
+          readOnly && groupingExpressions.isEmpty && aggregations.values.forall(ParallelNodeScanAggregation.canCombine) &&
+            plan.leaves.forall(_.argumentIds.isEmpty)
+        val parallelScan = source match {
+          case _ if !canScanInParallel => None
+          case AllNodesScanPipe(ident) => Some((ident, None, None))
+          case NodeByLabelScanPipe(ident, label) => Some((ident, Some(label), None))
+          case FilterPipe(AllNodesScanPipe(ident), predicate) => Some((ident, None, Some(predicate)))
+          case FilterPipe(NodeByLabelScanPipe(ident, label), predicate) => Some((ident, Some(label), Some(predicate)))
+          case _ => None
+        }
+
+        parallelScan match {
+          case Some((ident, label, predicate)) =>
+            NodeScanAggregationPipe(source, ident, label, predicate, aggregations)(id = id)
+          case None =>
+            EagerAggregationPipe(source, groupingExpressions.keySet, aggregations)(id = id)
+        }
 
       case FindShortestPaths(_, shortestPathPattern, predicates, withFallBack, disallowSameNode) =>
         val legacyShortestPath = shortestPathPattern.expr.asLegacyPatterns(shortestPathPattern.name.map(_.name), expressionConverters).head
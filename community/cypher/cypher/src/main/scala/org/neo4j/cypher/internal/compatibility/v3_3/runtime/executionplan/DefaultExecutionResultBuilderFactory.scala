@@ -68,8 +68,12 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo,
     def build(queryId: AnyRef, planType: ExecutionMode, params: Map[String, AnyValue],
               notificationLogger: InternalNotificationLogger, runtimeName: RuntimeName): InternalExecutionResult = {
       taskCloser.addTask(queryContext.transactionalContext.close)
+      val memoryTracker = new QueryMemoryTracker(queryContext.transactionalContext.queryMemoryBudget,
+        queryContext.transactionalContext.querySpillDirectory)
+      taskCloser.addTask(_ => memoryTracker.close())
       val state = new QueryState(queryContext, externalResource, params, pipeDecorator, queryId = queryId,
-                                 triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty)
+                                 triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty,
+                                 memoryTracker = memoryTracker)
       try {
         try {
           createResults(state, planType, notificationLogger, runtimeName)
@@ -27,6 +27,7 @@ import org.neo4j.values.AnyValue
 import org.neo4j.values.virtual.{ListValue, VirtualValues}
 
 import scala.collection.mutable.{Map => MutableMap}
+import scala.util.hashing.MurmurHash3
 
 // Eager aggregation means that this pipe will eagerly load the whole resulting sub graphs before starting
 // to emit aggregated results.
@@ -88,26 +89,86 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Set[String], aggre
       ExecutionContext(newMap)
     }
 
-    input.foreach(ctx => {
-      val groupValues = keyNamesSize match {
-        case 1 => ctx(keyNames.head)
-        case 2 => VirtualValues.list(ctx(keyNames.head), ctx(keyNames.last))
-        case 3 =>  VirtualValues.list(ctx(keyNames.head), ctx(keyNames.tail.head), ctx(keyNames.last))
-        case _ => VirtualValues.list(keyNames.map(k => ctx(k)):_*)
-      }
-      val functions = result.getOrElseUpdate(groupValues, {
-        val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
-        aggregateFunctions
+    def groupValues(ctx: ExecutionContext): AnyValue = keyNamesSize match {
+      case 1 => ctx(keyNames.head)
+      case 2 => VirtualValues.list(ctx(keyNames.head), ctx(keyNames.last))
+      case 3 =>  VirtualValues.list(ctx(keyNames.head), ctx(keyNames.tail.head), ctx(keyNames.last))
+      case _ => VirtualValues.list(keyNames.map(k => ctx(k)):_*)
+    }
+
+    def newAggregationFunctions(): Seq[AggregationFunction] =
+      aggregations.map(_._2.createAggregationFunction).toIndexedSeq
+
+    // Aggregates within the memory budget of the query. Once the groups in memory go beyond the budget, rows that
+    // belong to groups that are not in memory are written to spill files, partitioned by their grouping key. Each
+    // partition is then aggregated on its own, after the groups in memory have been returned.
+    def aggregateWithinBudget(input: Iterator[ExecutionContext], depth: Int,
+                              tracker: OperatorMemoryTracker): Iterator[ExecutionContext] = {
+      val groups = MutableMap[AnyValue, Seq[AggregationFunction]]()
+      var groupsSize = 0L
+      var partitions: Array[SpillFile] = null
+
+      input.foreach(ctx => {
+        val key = groupValues(ctx)
+        val functions = groups.get(key) match {
+          case Some(existing) => existing
+          case None if partitions != null =>
+            partitions(partitionOf(key, depth)).write(ctx)
+            null
+          case None =>
+            val created = newAggregationFunctions()
+            groups.put(key, created)
+            val size = SpillFile.estimatedHeapUsage(key) + GROUP_OVERHEAD * (created.size + 1)
+            groupsSize += size
+            tracker.allocate(size)
+            if (tracker.isExceeded && keyNamesSize > 0 && depth < MAX_SPILL_DEPTH) {
+              partitions = Array.fill(SPILL_PARTITIONS)(tracker.newSpillFile())
+            }
+            created
+        }
+        if (functions != null) {
+          functions.foreach(func => func(ctx)(state))
+        }
       })
-      functions.foreach(func => func(ctx)(state))
-    })
 
-    if (result.isEmpty && keyNames.isEmpty) {
-      createEmptyResult(state.params)
-    } else {
-      result.map {
+      val inMemory = tracker.releaseWhenExhausted(groups.iterator.map {
         case (key, aggregator) => createResults(key, aggregator)
-      }.toIterator
+      }, groupsSize)
+      if (partitions == null) {
+        inMemory
+      } else {
+        inMemory ++ partitions.iterator.flatMap(partition =>
+          aggregateWithinBudget(partition.rows(state), depth + 1, tracker))
+      }
+    }
+
+    if (state.memoryTracker.isLimited) {
+      val tracker = state.memoryTracker.newOperatorTracker()
+      val results = tracker.closeWhenExhausted(aggregateWithinBudget(input, 0, tracker))
+      if (!results.hasNext && keyNames.isEmpty) createEmptyResult(state.params) else results
+    } else {
+      input.foreach(ctx => {
+        val functions = result.getOrElseUpdate(groupValues(ctx), newAggregationFunctions())
+        functions.foreach(func => func(ctx)(state))
+      })
+
+      if (result.isEmpty && keyNames.isEmpty) {
+        createEmptyResult(state.params)
+      } else {
+        result.map {
+          case (key, aggregator) => createResults(key, aggregator)
+        }.toIterator
+      }
     }
   }
+
+  private val SPILL_PARTITIONS = 16
+  // Partitions that still do not fit after this many levels of partitioning are aggregated in memory anyway
+  private val MAX_SPILL_DEPTH = 3
+  // Rough estimate of the heap used by a group and by each of its aggregation functions
+  private val GROUP_OVERHEAD = 64
+
+  // A different hash for every level of partitioning, so that a partition that is spilled again is split up further
+  private def partitionOf(key: AnyValue, depth: Int): Int =
+    (MurmurHash3.finalizeHash(MurmurHash3.mix(depth, key.hashCode()), 1) & Int.MaxValue) % SPILL_PARTITIONS
 }
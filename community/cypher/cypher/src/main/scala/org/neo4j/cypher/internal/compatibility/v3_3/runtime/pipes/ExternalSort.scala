@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
+
+import java.util.{Comparator, PriorityQueue}
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts rows within the memory budget of the query. Rows are buffered until the budget is exceeded, at which point
+  * the buffer is sorted and written to a spill file as a sorted run, as long as it holds at least a minimum number of
+  * rows, so that a sort never writes runs of a few rows when other operators of the query take up the budget. At the
+  * end the sorted runs are merged into fewer and longer runs, a bounded number of runs at a time, until they can be
+  * merged with the rows that are still in memory into one sorted stream, that only holds on to one row per run.
+  *
+  * Like the in-memory sort, the sort is stable: rows that compare equal are returned in the order they came in.
+  */
+object ExternalSort {
+
+  val MIN_RUN_SIZE = 1024
+  val MAX_MERGE_FAN_IN = 64
+
+  def apply(input: Iterator[ExecutionContext], ordering: Ordering[ExecutionContext], state: QueryState,
+            minRunSize: Int = MIN_RUN_SIZE, maxMergeFanIn: Int = MAX_MERGE_FAN_IN): Iterator[ExecutionContext] = {
+    val tracker = state.memoryTracker.newOperatorTracker()
+    var runs = ArrayBuffer[SpillFile]()
+    var buffer = ArrayBuffer[ExecutionContext]()
+    var bufferSize = 0L
+
+    input.foreach { row =>
+      buffer += row
+      val size = SpillFile.estimatedHeapUsage(row)
+      bufferSize += size
+      tracker.allocate(size)
+      if (tracker.isExceeded && buffer.size >= minRunSize) {
+        val run = tracker.newSpillFile()
+        sort(buffer, ordering).foreach(run.write)
+        runs += run
+        buffer = ArrayBuffer[ExecutionContext]()
+        tracker.release(bufferSize)
+        bufferSize = 0
+      }
+    }
+
+    // Merge passes, each of which merges the runs a bounded number at a time, into runs that are kept in order
+    while (runs.size >= maxMergeFanIn) {
+      runs = runs.grouped(maxMergeFanIn).map { group =>
+        if (group.size == 1) {
+          group.head
+        } else {
+          val run = tracker.newSpillFile()
+          merge(group.map(_.rows(state)), ordering).foreach(run.write)
+          run
+        }
+      }.to[ArrayBuffer]
+    }
+
+    val inMemory = sort(buffer, ordering).iterator
+    tracker.closeWhenExhausted(if (runs.isEmpty) inMemory else merge(runs.map(_.rows(state)) :+ inMemory, ordering))
+  }
+  private def sort(buffer: ArrayBuffer[ExecutionContext], ordering: Ordering[ExecutionContext]) = {
+    val array = buffer.toArray
+    java.util.Arrays.sort(array, ordering)
+    array
+  }
+
+  /**
+    * Merges sorted runs, given in the order their rows came in.
+    */
+  private def merge(runs: Seq[Iterator[ExecutionContext]], ordering: Ordering[ExecutionContext]) =
+    new Iterator[ExecutionContext] {
+      private val heads = new PriorityQueue[Head](runs.size, new Comparator[Head] {
+        override def compare(a: Head, b: Head): Int = {
+          val cmp = ordering.compare(a.row, b.row)
+          if (cmp != 0) cmp else Integer.compare(a.run, b.run)
+        }
+      })
+      runs.zipWithIndex.foreach {
+        case (rows, run) => if (rows.hasNext) heads.add(new Head(rows.next(), rows, run))
+      }
+
+      override def hasNext: Boolean = !heads.isEmpty
+
+      override def next(): ExecutionContext = {
+        if (heads.isEmpty) Iterator.empty.next()
+        val head = heads.poll()
+        val row = head.row
+        if (head.rows.hasNext) {
+          head.row = head.rows.next()
+          heads.add(head)
+        }
+        row
+      }
+    }
+
+  private class Head(var row: ExecutionContext, val rows: Iterator[ExecutionContext], val run: Int)
+}
@@ -40,11 +40,19 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
+    if (state.memoryTracker.isLimited)
+      return joinWithinBudget(input, rhsIterator, state)
+
     val table = buildProbeTable(input)
 
     if (table.isEmpty)
       return Iterator.empty
 
+    probe(table, rhsIterator)
+  }
+
+  private def probe(table: mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]],
+                    rhsIterator: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
     val result = for {context: ExecutionContext <- rhsIterator
                       joinKey <- computeKey(context)}
     yield {
@@ -67,6 +75,59 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     table
   }
 
+  /*
+   * Joins within the memory budget of the query. The probe table is built as usual until it goes beyond the budget.
+   * From then on it is a grace hash join: the rows of both sides are written to spill files, partitioned by their
+   * join key, and each pair of partitions is joined on its own with a probe table of just that partition.
+   */
+  private def joinWithinBudget(input: Iterator[ExecutionContext], rhsIterator: Iterator[ExecutionContext],
+                               state: QueryState): Iterator[ExecutionContext] = {
+    val tracker = state.memoryTracker.newOperatorTracker()
+    val table = new mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]]
+    var tableSize = 0L
+
+    while (input.hasNext && !tracker.isExceeded) {
+      val context = input.next()
+      computeKey(context).foreach { joinKey =>
+        table.getOrElseUpdate(joinKey, mutable.MutableList.empty) += context
+        val size = SpillFile.estimatedHeapUsage(context)
+        tableSize += size
+        tracker.allocate(size)
+      }
+    }
+
+    if (!input.hasNext)
+      return tracker.closeWhenExhausted(probe(table, rhsIterator))
+
+    val lhsPartitions = Array.fill(SPILL_PARTITIONS)(tracker.newSpillFile())
+    val rhsPartitions = Array.fill(SPILL_PARTITIONS)(tracker.newSpillFile())
+    table.foreach {
+      case (joinKey, contexts) => contexts.foreach(lhsPartitions(partitionOf(joinKey)).write)
+    }
+    table.clear()
+    tracker.release(tableSize)
+    for {context <- input
+         joinKey <- computeKey(context)} {
+      lhsPartitions(partitionOf(joinKey)).write(context)
+    }
+    for {context <- rhsIterator
+         joinKey <- computeKey(context)} {
+      rhsPartitions(partitionOf(joinKey)).write(context)
+    }
+
+    tracker.closeWhenExhausted(lhsPartitions.iterator.zip(rhsPartitions.iterator).flatMap {
+      case (lhs, rhs) =>
+        val partitionTable = buildProbeTable(lhs.rows(state))
+        val partitionSize = partitionTable.valuesIterator.flatten.map(SpillFile.estimatedHeapUsage).sum
+        tracker.allocate(partitionSize)
+        tracker.releaseWhenExhausted(probe(partitionTable, rhs.rows(state)), partitionSize)
+    })
+  }
+
+  private val SPILL_PARTITIONS = 16
+
+  private def partitionOf(joinKey: IndexedSeq[Long]): Int = (joinKey.hashCode() & Int.MaxValue) % SPILL_PARTITIONS
+
   private val cachedVariables = nodeVariables.toIndexedSeq
 
   private def computeKey(context: ExecutionContext): Option[IndexedSeq[Long]] = {
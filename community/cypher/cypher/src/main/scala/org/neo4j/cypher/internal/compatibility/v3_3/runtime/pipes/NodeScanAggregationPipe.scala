@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.AggregationExpression
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates.Predicate
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.values.{AnyValue, AnyValues}
+
+/**
+  * Aggregation without grouping directly on top of an all nodes scan or label scan, for read-only queries. The scan is
+  * aggregated in parallel partitions, unless the query is profiled or the pipe is on the right hand side of an Apply,
+  * in which case the source pipe is aggregated as is.
+  */
+case class NodeScanAggregationPipe(source: Pipe, ident: String, label: Option[LazyLabel], predicate: Option[Predicate],
+                                   aggregations: Map[String, AggregationExpression])
+                                  (val id: Id = new Id) extends PipeWithSource(source) {
+
+  aggregations.values.foreach(_.registerOwningPipe(this))
+  predicate.foreach(_.registerOwningPipe(this))
+
+  private val aggregationNames = aggregations.keys.toIndexedSeq
+  private val aggregationExpressions = aggregationNames.map(aggregations)
+
+  override def createResults(state: QueryState): Iterator[ExecutionContext] =
+    if (ParallelNodeScanAggregation.canRunInParallel(state)) {
+      val values = ParallelNodeScanAggregation.aggregate(state, label, predicate, aggregationExpressions) {
+        (nodeId, partitionState) =>
+          val node = AnyValues.asNodeValue(partitionState.query.nodeOps.getById(nodeId))
+          partitionState.createOrGetInitialContext().newWith1(ident, node)
+      }
+      Iterator.single(newResult(values))
+    } else {
+      super.createResults(state)
+    }
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
+    // The source pipe already applies the predicate
+    Iterator.single(newResult(ParallelNodeScanAggregation.aggregateRows(input, None, aggregationExpressions)(state)))
+
+  private def newResult(values: Seq[AnyValue]): ExecutionContext = {
+    val result = ExecutionContext.empty
+    aggregationNames.zip(values).foreach(result += _)
+    result
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates.Predicate
+import org.neo4j.cypher.internal.spi.v3_3.QueryContext
+import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.{ListValue, VirtualValues}
+
+/**
+  * Aggregates, without grouping, over the nodes of an all nodes scan or a label scan that are matched by an optional
+  * predicate. The scan is partitioned by the query context, and every partition is aggregated on its own, possibly in
+  * parallel with the other partitions. The partial results of the partitions are then combined into the final result.
+  *
+  * Only aggregations whose partial results can be combined are supported, see [[ParallelNodeScanAggregation.canCombine]].
+  * The partitions are only aggregated in parallel when [[ParallelNodeScanAggregation.canRunInParallel]].
+  */
+object ParallelNodeScanAggregation {
+
+  private val partialKey = "  partial"
+
+  def canCombine(aggregation: AggregationExpression): Boolean = aggregation match {
+    case _: CountStar | _: Count | _: Sum | _: Min | _: Max | _: Collect => true
+    case _ => false
+  }
+
+  /**
+    * The partitions of a scan are not run in parallel when the query is profiled, since the profiling decorators are
+    * not thread safe, nor on the right hand side of an Apply, since the workers do not see the argument row.
+    */
+  def canRunInParallel(state: QueryState): Boolean =
+    state.decorator == NullPipeDecorator && state.initialContext.isEmpty
+
+  /**
+    * @param label the label to scan for, or None to scan all nodes.
+    * @param newRow creates the row for a scanned node, in the state of the partition that scanned it.
+    * @return the aggregated values, in the order of the given aggregations.
+    */
+  def aggregate(state: QueryState, label: Option[LazyLabel], predicate: Option[Predicate],
+                aggregations: Seq[AggregationExpression])
+               (newRow: (Long, QueryState) => ExecutionContext): Seq[AnyValue] = {
+    def aggregatePartition(query: QueryContext, nodes: PrimitiveLongIterator): Seq[AnyValue] =
+      state.inWorkerState(query) { partitionState =>
+        val rows = new Iterator[ExecutionContext] {
+          override def hasNext: Boolean = nodes.hasNext
+          override def next(): ExecutionContext = newRow(nodes.next(), partitionState)
+        }
+        aggregateRows(rows, predicate, aggregations)(partitionState)
+      }
+
+    val partials = label match {
+      case None =>
+        state.query.parallelNodeScan(None, aggregatePartition)
+      case Some(lazyLabel) => lazyLabel.getOptId(state.query) match {
+        case Some(labelId) => state.query.parallelNodeScan(Some(labelId.id), aggregatePartition)
+        case None => Seq(aggregateRows(Iterator.empty, predicate, aggregations)(state))
+      }
+    }
+
+    aggregations.indices.map(i => combine(aggregations(i), partials.map(_ (i)))(state))
+  }
+
+  /**
+    * Aggregates the given rows sequentially, the way a single partition is aggregated.
+    */
+  def aggregateRows(rows: Iterator[ExecutionContext], predicate: Option[Predicate],
+                    aggregations: Seq[AggregationExpression])(implicit state: QueryState): Seq[AnyValue] = {
+    val functions = aggregations.map(_.createAggregationFunction)
+    rows.foreach { row =>
+      if (predicate.forall(_.isTrue(row))) {
+        functions.foreach(_.apply(row))
+      }
+    }
+    functions.map(_.result)
+  }
+
+  /**
+    * Combines the partial results of an aggregation into its final result.
+    */
+  def combine(aggregation: AggregationExpression, partials: Seq[AnyValue])
+             (implicit state: QueryState): AnyValue = aggregation match {
+    case _: Collect =>
+      VirtualValues.concat(partials.map(_.asInstanceOf[ListValue]): _*)
+
+    case _ =>
+      val combiner = (aggregation match {
+        case _: CountStar | _: Count | _: Sum => Sum(Variable(partialKey))
+        case _: Min => Min(Variable(partialKey))
+        case _: Max => Max(Variable(partialKey))
+      }).createAggregationFunction
+      partials.foreach(partial => combiner(ExecutionContext.empty.newWith1(partialKey, partial)))
+      combiner.result
+  }
+}
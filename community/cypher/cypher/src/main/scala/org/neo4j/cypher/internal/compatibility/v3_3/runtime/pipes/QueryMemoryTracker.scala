@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
+
+import java.io.File
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.collection.mutable
+
+/**
+  * Keeps track of the estimated heap used by the rows that the eager operators of a query hold on to, so that they
+  * can spill rows to temporary files in the spill directory once the memory budget of the query is exceeded. A budget
+  * of zero means that there is no limit, and that the operators never spill.
+  *
+  * Every operator keeps track of its own rows and spill files through an [[OperatorMemoryTracker]], that gives them
+  * back when the operator is done. Spill files that are still around when the query is closed are deleted then.
+  *
+  * The operators of the workers of a parallel query share the tracker of their query, so it is thread safe, unlike
+  * the trackers of the operators.
+  */
+class QueryMemoryTracker(val budget: Long, spillDirectory: File) {
+  private val allocated = new AtomicLong()
+  private val spillFiles = mutable.Set[SpillFile]()
+  private var spillFilesCreated = 0
+
+  def isLimited: Boolean = budget > 0
+
+  def isExceeded: Boolean = isLimited && allocated.get() > budget
+
+  def estimatedHeapUsage: Long = allocated.get()
+
+  def spillFileCount: Int = synchronized(spillFilesCreated)
+
+  def newOperatorTracker(): OperatorMemoryTracker = new OperatorMemoryTracker(this)
+
+  private[pipes] def allocate(bytes: Long): Unit = allocated.addAndGet(bytes)
+
+  private[pipes] def release(bytes: Long): Unit = allocated.addAndGet(-bytes)
+
+  private[pipes] def newSpillFile(): SpillFile = synchronized {
+    val file = SpillFile.create(spillDirectory, this)
+    spillFiles += file
+    spillFilesCreated += 1
+    file
+  }
+
+  private[pipes] def deleted(file: SpillFile): Unit = synchronized(spillFiles -= file)
+
+  def close(): Unit = synchronized(spillFiles.toList).foreach(_.delete())
+}
+
+object QueryMemoryTracker {
+  def unlimited = new QueryMemoryTracker(0, null)
+}
+
+/**
+  * Keeps track of the estimated heap used by the rows of one eager operator, and of the spill files it has created, as
+  * part of the memory budget of its query. When the operator is closed, its rows are no longer counted against the
+  * budget of the query, and its spill files are deleted.
+  */
+class OperatorMemoryTracker(query: QueryMemoryTracker) {
+  private var allocated = 0L
+  private val spillFiles = mutable.ArrayBuffer[SpillFile]()
+  private var closed = false
+
+  def allocate(bytes: Long): Unit = {
+    allocated += bytes
+    query.allocate(bytes)
+  }
+
+  def release(bytes: Long): Unit = {
+    allocated -= bytes
+    query.release(bytes)
+  }
+
+  /**
+    * Whether the query is over its budget. The rows of all operators of the query are counted, not only the rows of
+    * this operator.
+    */
+  def isExceeded: Boolean = query.isExceeded
+
+  def estimatedHeapUsage: Long = allocated
+
+  def newSpillFile(): SpillFile = {
+    val file = query.newSpillFile()
+    spillFiles += file
+    file
+  }
+
+  /**
+    * Releases the given number of bytes once the iterator, which holds on to the rows they were allocated for, has
+    * been exhausted.
+    */
+  def releaseWhenExhausted[T](iterator: Iterator[T], bytes: Long): Iterator[T] = whenExhausted(iterator)(release(bytes))
+
+  /**
+    * Closes this tracker once the iterator, which produces the results of the operator, has been exhausted.
+    */
+  def closeWhenExhausted[T](iterator: Iterator[T]): Iterator[T] = whenExhausted(iterator)(close())
+
+  def close(): Unit = if (!closed) {
+    closed = true
+    release(allocated)
+    spillFiles.foreach(_.delete())
+    spillFiles.clear()
+  }
+
+  private def whenExhausted[T](iterator: Iterator[T])(done: => Unit): Iterator[T] = new Iterator[T] {
+    private var exhausted = false
+
+    override def hasNext: Boolean = {
+      val hasNext = iterator.hasNext
+      if (!hasNext && !exhausted) {
+        exhausted = true
+        done
+      }
+      hasNext
+    }
+
+    override def next(): T = iterator.next()
+  }
+}
@@ -21,13 +21,13 @@ package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
 
 import java.util.UUID
 
-import org.neo4j.collection.primitive.PrimitiveLongSet
+import org.neo4j.collection.primitive.{PrimitiveLongIterator, PrimitiveLongSet}
 import org.neo4j.cypher.internal.QueryStatistics
-import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, TaskCloser}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.PathValueBuilder
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates.{InCheckContainer, SingleThreadedLRUCache}
 import org.neo4j.cypher.internal.frontend.v3_3.ParameterNotFoundException
-import org.neo4j.cypher.internal.spi.v3_3.QueryContext
+import org.neo4j.cypher.internal.spi.v3_3.{CSVResources, QueryContext}
 import org.neo4j.values.AnyValue
 
 import scala.collection.mutable
@@ -42,7 +42,9 @@ class QueryState(val query: QueryContext,
                  val triadicState: mutable.Map[String, PrimitiveLongSet] = mutable.Map.empty,
                  val repeatableReads: mutable.Map[Pipe, Seq[ExecutionContext]] = mutable.Map.empty,
                  val cachedIn: SingleThreadedLRUCache[Any, InCheckContainer] =
-                   new SingleThreadedLRUCache(maxSize = 16)) {
+                   new SingleThreadedLRUCache(maxSize = 16),
+                 val memoryTracker: QueryMemoryTracker = QueryMemoryTracker.unlimited,
+                 val morsel: Option[PrimitiveLongIterator] = None) {
   private var _pathValueBuilder: PathValueBuilder = _
 
   def createOrGetInitialContext(): ExecutionContext = initialContext.getOrElse(ExecutionContext.empty)
@@ -62,10 +64,10 @@ class QueryState(val query: QueryContext,
   def getStatistics: QueryStatistics = query.getOptStatistics.getOrElse(QueryState.defaultStatistics)
 
   def withDecorator(decorator: PipeDecorator) =
-    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState, repeatableReads, cachedIn)
+    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState, repeatableReads, cachedIn, memoryTracker, morsel)
 
   def withInitialContext(initialContext: ExecutionContext) =
-    new QueryState(query, resources, params, decorator, timeReader, Some(initialContext), queryId, triadicState, repeatableReads, cachedIn)
+    new QueryState(query, resources, params, decorator, timeReader, Some(initialContext), queryId, triadicState, repeatableReads, cachedIn, memoryTracker, morsel)
 
   /**
     * When running on the RHS of an Apply, this method will fill an execution context with argument data
@@ -74,7 +76,28 @@ class QueryState(val query: QueryContext,
   def copyArgumentStateTo(ctx: ExecutionContext): Unit = initialContext.foreach(initData => ctx.copyFrom(initData))
 
   def withQueryContext(query: QueryContext) =
-    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState, repeatableReads, cachedIn)
+    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState, repeatableReads, cachedIn, memoryTracker, morsel)
+
+  /**
+    * Executes part of this query in parallel with other workers, in a state of its own that uses the given query
+    * context, and that scans the given morsel of nodes instead of scanning by itself, if one is given. The worker
+    * shares the memory budget of the query, but has external resources and caches of its own, since those are not
+    * thread safe. The external resources of the worker are closed once it is done.
+    */
+  def inWorkerState[T](query: QueryContext, morsel: Option[PrimitiveLongIterator] = None)(work: QueryState => T): T = {
+    val closer = new TaskCloser
+    val workerState = new QueryState(query, new CSVResources(closer), params, decorator, timeReader, initialContext,
+      queryId, triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty,
+      cachedIn = new SingleThreadedLRUCache(maxSize = 16), memoryTracker = memoryTracker, morsel = morsel)
+    var success = false
+    try {
+      val result = work(workerState)
+      success = true
+      result
+    } finally {
+      closer.close(success)
+    }
+  }
 }
 
 object QueryState {
@@ -27,9 +27,13 @@ case class SortPipe(source: Pipe, orderBy: Seq[SortDescription])
                    (val id: Id = new Id)
   extends PipeWithSource(source) {
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val array = input.toArray
-    java.util.Arrays.sort(array, new InnerOrdering(orderBy)(state))
-    array.toIterator
+    if (state.memoryTracker.isLimited) {
+      ExternalSort(input, new InnerOrdering(orderBy)(state), state)
+    } else {
+      val array = input.toArray
+      java.util.Arrays.sort(array, new InnerOrdering(orderBy)(state))
+      array.toIterator
+    }
   }
 }
 
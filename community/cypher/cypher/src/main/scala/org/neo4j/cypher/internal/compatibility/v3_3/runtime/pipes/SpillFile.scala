@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
+
+import java.io._
+import java.nio.charset.StandardCharsets.UTF_8
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.frontend.v3_3.InternalException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual.EdgeValue.RelationshipProxyWrappingEdgeValue
+import org.neo4j.values.virtual.NodeValue.NodeProxyWrappingNodeValue
+import org.neo4j.values.virtual._
+
+import scala.collection.JavaConverters._
+
+/**
+  * A temporary file of rows that an eager operator could not keep in memory. Rows are appended with [[write]], and
+  * read back in the same order with [[rows]], after which the file is deleted. Files that are not read to the end are
+  * deleted when their operator, or at the latest their query, is closed.
+  *
+  * Nodes and relationships that are backed by the database are written as references, and looked up again when they
+  * are read back, so they take little space on disk and read their labels, types and properties lazily as before.
+  */
+class SpillFile private(file: File, tracker: QueryMemoryTracker) {
+  private var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), SpillFile.BUFFER_SIZE))
+  private var in: DataInputStream = _
+  private var _rowCount = 0L
+
+  def rowCount: Long = _rowCount
+
+  def write(row: ExecutionContext): Unit = {
+    out.writeInt(row.size)
+    row.foreach {
+      case (key, value) =>
+        writeString(key)
+        writeValue(value)
+    }
+    _rowCount += 1
+  }
+
+  /**
+    * Finishes writing to this file, and returns an iterator over the rows written to it. The file is deleted once all
+    * rows have been read.
+    */
+  def rows(state: QueryState): Iterator[ExecutionContext] = {
+    out.close()
+    out = null
+    in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), SpillFile.BUFFER_SIZE))
+    new Iterator[ExecutionContext] {
+      private var remaining = _rowCount
+
+      override def hasNext: Boolean = {
+        if (remaining == 0) {
+          delete()
+        }
+        remaining > 0
+      }
+
+      override def next(): ExecutionContext = {
+        if (!hasNext) Iterator.empty.next()
+        remaining -= 1
+        val size = in.readInt()
+        val map = MutableMaps.create(size)
+        for (_ <- 0 until size) {
+          map.put(readString(in), readValue(in, state))
+        }
+        ExecutionContext(map)
+      }
+    }
+  }
+
+  def delete(): Unit = {
+    if (out != null) {
+      out.close()
+      out = null
+    }
+    if (in != null) {
+      in.close()
+      in = null
+    }
+    file.delete()
+    tracker.deleted(this)
+  }
+
+  private def writeString(value: String): Unit = {
+    val bytes = value.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+
+  import SpillFile._
+
+  private def writeValue(value: AnyValue): Unit = value match {
+    case Values.NO_VALUE =>
+      out.writeByte(NO_VALUE)
+    case node: NodeProxyWrappingNodeValue =>
+      out.writeByte(NODE_REFERENCE)
+      out.writeLong(node.id())
+    case node: NodeValue =>
+      out.writeByte(NODE)
+      out.writeLong(node.id())
+      writeValue(node.labels())
+      writeValue(node.properties())
+    case node: NodeReference =>
+      out.writeByte(VIRTUAL_NODE_REFERENCE)
+      out.writeLong(node.id())
+    case relationship: RelationshipProxyWrappingEdgeValue =>
+      out.writeByte(RELATIONSHIP_REFERENCE)
+      out.writeLong(relationship.id())
+    case relationship: EdgeValue =>
+      out.writeByte(RELATIONSHIP)
+      out.writeLong(relationship.id())
+      writeValue(relationship.startNode())
+      writeValue(relationship.endNode())
+      writeValue(relationship.`type`())
+      writeValue(relationship.properties())
+    case relationship: EdgeReference =>
+      out.writeByte(VIRTUAL_RELATIONSHIP_REFERENCE)
+      out.writeLong(relationship.id())
+    case path: PathValue =>
+      out.writeByte(PATH)
+      writeValue(path.asList())
+    case point: PointValue =>
+      out.writeByte(POINT)
+      out.writeInt(point.getCoordinateReferenceSystem.code)
+      point.coordinates().foreach(out.writeDouble)
+    case list: ListValue =>
+      out.writeByte(LIST)
+      out.writeInt(list.size())
+      for (i <- 0 until list.size()) writeValue(list.value(i))
+    case map: MapValue =>
+      out.writeByte(MAP)
+      out.writeInt(map.size())
+      map.entrySet().asScala.foreach { entry =>
+        writeString(entry.getKey)
+        writeValue(entry.getValue)
+      }
+    case storable: Value => writeObject(storable.asObject())
+    case _ => throw new InternalException(s"Unable to spill value of type ${value.getClass.getSimpleName} to disk")
+  }
+
+  private def writeObject(value: AnyRef): Unit = value match {
+    case b: java.lang.Boolean => out.writeByte(BOOLEAN); out.writeBoolean(b)
+    case b: java.lang.Byte => out.writeByte(BYTE); out.writeByte(b.intValue())
+    case s: java.lang.Short => out.writeByte(SHORT); out.writeShort(s.intValue())
+    case i: java.lang.Integer => out.writeByte(INT); out.writeInt(i)
+    case l: java.lang.Long => out.writeByte(LONG); out.writeLong(l)
+    case f: java.lang.Float => out.writeByte(FLOAT); out.writeFloat(f)
+    case d: java.lang.Double => out.writeByte(DOUBLE); out.writeDouble(d)
+    case c: java.lang.Character => out.writeByte(CHAR); out.writeChar(c.charValue())
+    case s: String => out.writeByte(STRING); writeString(s)
+    case a: Array[Boolean] => out.writeByte(BOOLEAN_ARRAY); out.writeInt(a.length); a.foreach(out.writeBoolean)
+    case a: Array[Byte] => out.writeByte(BYTE_ARRAY); out.writeInt(a.length); out.write(a)
+    case a: Array[Short] => out.writeByte(SHORT_ARRAY); out.writeInt(a.length); a.foreach(s => out.writeShort(s))
+    case a: Array[Int] => out.writeByte(INT_ARRAY); out.writeInt(a.length); a.foreach(out.writeInt)
+    case a: Array[Long] => out.writeByte(LONG_ARRAY); out.writeInt(a.length); a.foreach(out.writeLong)
+    case a: Array[Float] => out.writeByte(FLOAT_ARRAY); out.writeInt(a.length); a.foreach(out.writeFloat)
+    case a: Array[Double] => out.writeByte(DOUBLE_ARRAY); out.writeInt(a.length); a.foreach(out.writeDouble)
+    case a: Array[Char] => out.writeByte(CHAR_ARRAY); out.writeInt(a.length); a.foreach(c => out.writeChar(c))
+    case a: Array[String] => out.writeByte(STRING_ARRAY); out.writeInt(a.length); a.foreach(writeString)
+    case _ => throw new InternalException(s"Unable to spill value of type ${value.getClass.getSimpleName} to disk")
+  }
+
+  private def readValue(in: DataInputStream, state: QueryState): AnyValue = in.readByte() match {
+    case NO_VALUE => Values.NO_VALUE
+    case NODE_REFERENCE => VirtualValues.fromNodeProxy(state.query.nodeOps.getById(in.readLong()))
+    case NODE =>
+      val id = in.readLong()
+      val labels = readValue(in, state).asInstanceOf[TextArray]
+      VirtualValues.nodeValue(id, labels, readValue(in, state).asInstanceOf[MapValue])
+    case VIRTUAL_NODE_REFERENCE => VirtualValues.node(in.readLong())
+    case RELATIONSHIP_REFERENCE =>
+      VirtualValues.fromRelationshipProxy(state.query.relationshipOps.getById(in.readLong()))
+    case RELATIONSHIP =>
+      val id = in.readLong()
+      val start = readValue(in, state).asInstanceOf[NodeValue]
+      val end = readValue(in, state).asInstanceOf[NodeValue]
+      val relationshipType = readValue(in, state).asInstanceOf[TextValue]
+      VirtualValues.edgeValue(id, start, end, relationshipType, readValue(in, state).asInstanceOf[MapValue])
+    case VIRTUAL_RELATIONSHIP_REFERENCE => VirtualValues.edge(in.readLong())
+    case PATH =>
+      val elements = readValue(in, state).asInstanceOf[ListValue]
+      val nodes = (0 until elements.size() by 2).map(elements.value(_).asInstanceOf[NodeValue])
+      val relationships = (1 until elements.size() by 2).map(elements.value(_).asInstanceOf[EdgeValue])
+      VirtualValues.path(nodes.toArray, relationships.toArray)
+    case POINT =>
+      val crs = in.readInt()
+      val x = in.readDouble()
+      val y = in.readDouble()
+      if (crs == CoordinateReferenceSystem.WGS84.code) VirtualValues.pointGeographic(x, y)
+      else VirtualValues.pointCartesian(x, y)
+    case LIST =>
+      val values = new Array[AnyValue](in.readInt())
+      for (i <- values.indices) values(i) = readValue(in, state)
+      VirtualValues.list(values: _*)
+    case MAP =>
+      val size = in.readInt()
+      val map = new java.util.HashMap[String, AnyValue](size * 2)
+      for (_ <- 0 until size) map.put(readString(in), readValue(in, state))
+      VirtualValues.map(map)
+    case BOOLEAN => Values.booleanValue(in.readBoolean())
+    case BYTE => Values.byteValue(in.readByte())
+    case SHORT => Values.shortValue(in.readShort())
+    case INT => Values.intValue(in.readInt())
+    case LONG => Values.longValue(in.readLong())
+    case FLOAT => Values.floatValue(in.readFloat())
+    case DOUBLE => Values.doubleValue(in.readDouble())
+    case CHAR => Values.charValue(in.readChar())
+    case STRING => Values.stringValue(readString(in))
+    case BOOLEAN_ARRAY => Values.booleanArray(Array.fill(in.readInt())(in.readBoolean()))
+    case BYTE_ARRAY =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      Values.byteArray(bytes)
+    case SHORT_ARRAY => Values.shortArray(Array.fill(in.readInt())(in.readShort()))
+    case INT_ARRAY => Values.intArray(Array.fill(in.readInt())(in.readInt()))
+    case LONG_ARRAY => Values.longArray(Array.fill(in.readInt())(in.readLong()))
+    case FLOAT_ARRAY => Values.floatArray(Array.fill(in.readInt())(in.readFloat()))
+    case DOUBLE_ARRAY => Values.doubleArray(Array.fill(in.readInt())(in.readDouble()))
+    case CHAR_ARRAY => Values.charArray(Array.fill(in.readInt())(in.readChar()))
+    case STRING_ARRAY => Values.stringArray(Array.fill(in.readInt())(readString(in)): _*)
+    case tag => throw new InternalException(s"Unknown value type $tag in spill file $file")
+  }
+}
+
+object SpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+
+  private val NO_VALUE: Byte = 0
+  private val NODE_REFERENCE: Byte = 1
+  private val NODE: Byte = 2
+  private val VIRTUAL_NODE_REFERENCE: Byte = 3
+  private val RELATIONSHIP_REFERENCE: Byte = 4
+  private val RELATIONSHIP: Byte = 5
+  private val VIRTUAL_RELATIONSHIP_REFERENCE: Byte = 6
+  private val PATH: Byte = 7
+  private val POINT: Byte = 8
+  private val LIST: Byte = 9
+  private val MAP: Byte = 10
+  private val BOOLEAN: Byte = 11
+  private val BYTE: Byte = 12
+  private val SHORT: Byte = 13
+  private val INT: Byte = 14
+  private val LONG: Byte = 15
+  private val FLOAT: Byte = 16
+  private val DOUBLE: Byte = 17
+  private val CHAR: Byte = 18
+  private val STRING: Byte = 19
+  private val BOOLEAN_ARRAY: Byte = 20
+  private val BYTE_ARRAY: Byte = 21
+  private val SHORT_ARRAY: Byte = 22
+  private val INT_ARRAY: Byte = 23
+  private val LONG_ARRAY: Byte = 24
+  private val FLOAT_ARRAY: Byte = 25
+  private val DOUBLE_ARRAY: Byte = 26
+  private val CHAR_ARRAY: Byte = 27
+  private val STRING_ARRAY: Byte = 28
+
+  // Rough per object overheads, used to estimate the heap used by rows
+  private val ROW_OVERHEAD = 64
+  private val ENTRY_OVERHEAD = 48
+  private val VALUE_OVERHEAD = 24
+
+  private[pipes] def create(directory: File, tracker: QueryMemoryTracker): SpillFile = {
+    if (!directory.isDirectory && !directory.mkdirs() && !directory.isDirectory) {
+      throw new IOException(s"Unable to create the spill directory $directory")
+    }
+    new SpillFile(File.createTempFile("cypher-spill-", ".tmp", directory), tracker)
+  }
+
+  /**
+    * @return a rough estimate of the heap used by the row, in bytes.
+    */
+  def estimatedHeapUsage(row: ExecutionContext): Long = {
+    var size: Long = ROW_OVERHEAD
+    row.foreach {
+      case (key, value) => size += ENTRY_OVERHEAD + 2 * key.length + estimatedHeapUsage(value)
+    }
+    size
+  }
+
+  private[pipes] def estimatedHeapUsage(value: AnyValue): Long = value match {
+    case text: TextValue => VALUE_OVERHEAD + 2 * text.length()
+    case array: ArrayValue => VALUE_OVERHEAD + 8 * array.length()
+    case list: ListValue =>
+      var size: Long = VALUE_OVERHEAD
+      for (i <- 0 until list.size()) size += 8 + estimatedHeapUsage(list.value(i))
+      size
+    case map: MapValue =>
+      var size: Long = VALUE_OVERHEAD
+      map.entrySet().asScala.foreach(entry =>
+        size += ENTRY_OVERHEAD + 2 * entry.getKey.length + estimatedHeapUsage(entry.getValue))
+      size
+    case path: PathValue => VALUE_OVERHEAD + 2 * VALUE_OVERHEAD * (path.size() + 1)
+    case _ => VALUE_OVERHEAD
+  }
+}
@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.spi.v3_3
 
+import java.io.File
 import java.net.URL
 
 import org.neo4j.collection.primitive.PrimitiveLongIterator
@@ -129,6 +130,9 @@ class DelegatingQueryContext(val inner: QueryContext) extends QueryContext {
 
   override def getNodesByLabelPrimitive(id: Int): PrimitiveLongIterator = manyDbHits(inner.getNodesByLabelPrimitive(id))
 
+  override def parallelNodeScan[T](labelId: Option[Int], work: (QueryContext, PrimitiveLongIterator) => T): Seq[T] =
+    inner.parallelNodeScan(labelId, work)
+
   override def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V =
     singleDbHit(inner.getOrCreateFromSchemaState(key, creator))
 
@@ -295,4 +299,8 @@ class DelegatingQueryTransactionalContext(val inner: QueryTransactionalContext)
   override def kernelStatisticProvider: KernelStatisticProvider = inner.kernelStatisticProvider
 
   override def databaseInfo: DatabaseInfo = inner.databaseInfo
+
+  override def queryMemoryBudget: Long = inner.queryMemoryBudget
+
+  override def querySpillDirectory: File = inner.querySpillDirectory
 }
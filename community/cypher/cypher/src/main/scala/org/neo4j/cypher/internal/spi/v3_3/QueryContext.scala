@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.spi.v3_3
 
+import java.io.File
 import java.net.URL
 
 import org.neo4j.collection.primitive.PrimitiveLongIterator
@@ -118,6 +119,13 @@ trait QueryContext extends TokenContext {
 
   def getNodesByLabelPrimitive(id: Int): PrimitiveLongIterator
 
+  /*
+   * Scans all nodes, or all nodes with the given label, by splitting the scan into disjoint partitions of node ids.
+   * The work is invoked once per partition, possibly in parallel and with a separate query context for each
+   * partition, and the results are returned in partition order. Only to be used by read-only queries.
+   */
+  def parallelNodeScan[T](labelId: Option[Int], work: (QueryContext, PrimitiveLongIterator) => T): Seq[T]
+
   def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V
 
   /* return true if the constraint was created, false if preexisting, throws if failed */
@@ -255,5 +263,16 @@ trait QueryTransactionalContext {
   def kernelStatisticProvider: KernelStatisticProvider
 
   def databaseInfo: DatabaseInfo
+
+  /**
+    * The amount of memory, in bytes, that the eager operators of a query may use before they spill to disk, or zero
+    * if there is no limit.
+    */
+  def queryMemoryBudget: Long
+
+  /**
+    * The directory that the eager operators of a query write their spill files to.
+    */
+  def querySpillDirectory: File
 }
 
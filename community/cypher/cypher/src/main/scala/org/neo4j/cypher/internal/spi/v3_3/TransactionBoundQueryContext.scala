@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.spi.v3_3
 
 import java.net.URL
+import java.util.concurrent.{Callable, ExecutionException, FutureTask}
 import java.util.function.Predicate
 
 import org.neo4j.collection.RawIterator
@@ -37,7 +38,7 @@ import org.neo4j.cypher.internal.compiler.v3_3.{IndexDescriptor, _}
 import org.neo4j.cypher.internal.frontend.v3_3._
 import org.neo4j.cypher.internal.javacompat.ValueToObjectSerializer
 import org.neo4j.cypher.internal.spi.BeansAPIRelationshipIterator
-import org.neo4j.cypher.internal.spi.v3_3.TransactionBoundQueryContext.IndexSearchMonitor
+import org.neo4j.cypher.internal.spi.v3_3.TransactionBoundQueryContext.{IndexSearchMonitor, parallelScanMinPartitionSize, parallelScanWorkers}
 import org.neo4j.cypher.javacompat.internal.GraphDatabaseCypherService
 import org.neo4j.cypher.{InternalException, internal}
 import org.neo4j.graphalgo.impl.path.ShortestPath
@@ -55,10 +56,15 @@ import org.neo4j.kernel.api.proc.CallableUserAggregationFunction.Aggregator
 import org.neo4j.kernel.api.proc.{QualifiedName => KernelQualifiedName}
 import org.neo4j.kernel.api.schema.constaints.ConstraintDescriptorFactory
 import org.neo4j.kernel.api.schema.{IndexQuery, SchemaDescriptorFactory}
+import org.neo4j.kernel.guard.Guard
 import org.neo4j.kernel.impl.api.RelationshipVisitor
 import org.neo4j.kernel.impl.api.store.RelationshipIterator
-import org.neo4j.kernel.impl.core.{NodeManager, RelationshipProxy}
+import org.neo4j.kernel.impl.core.{NodeManager, RelationshipProxy, ThreadToStatementContextBridge}
+import org.neo4j.kernel.impl.coreapi.PropertyContainerLocker
 import org.neo4j.kernel.impl.locking.ResourceTypes
+import org.neo4j.kernel.impl.query.Neo4jTransactionalContext
+import org.neo4j.scheduler.JobScheduler
+import org.neo4j.unsafe.impl.internal.dragons.FeatureToggles
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.{Value, Values}
 import org.neo4j.values.virtual.EdgeValue
@@ -67,6 +73,7 @@ import org.neo4j.values.virtual.NodeValue.NodeProxyWrappingNodeValue
 
 import scala.collection.Iterator
 import scala.collection.JavaConverters._
+import scala.util.Try
 
 final class TransactionBoundQueryContext(val transactionalContext: TransactionalContextWrapper)(implicit indexSearchMonitor: IndexSearchMonitor)
   extends TransactionBoundTokenContext(transactionalContext.statement) with QueryContext with IndexDescriptorCompatibility {
@@ -316,6 +323,84 @@ final class TransactionBoundQueryContext(val transactionalContext: Transactional
   override def getNodesByLabelPrimitive(id: Int): PrimitiveLongIterator =
     transactionalContext.statement.readOperations().nodesGetForLabel(id)
 
+  override def parallelNodeScan[T](labelId: Option[Int], work: (QueryContext, PrimitiveLongIterator) => T): Seq[T] = {
+    val readOps = transactionalContext.statement.readOperations()
+    // Workers run in transactions of their own, which would not see the changes of this transaction
+    val desiredPartitions =
+      if (transactionalContext.stateView.hasTxStateWithChanges) 1
+      else math.min(parallelScanWorkers.toLong, readOps.nodesGetCount() / parallelScanMinPartitionSize).toInt
+
+    if (desiredPartitions <= 1) {
+      Seq(work(this, labelId.map(readOps.nodesGetForLabel).getOrElse(readOps.nodesGetAll())))
+    } else {
+      def nodesInPartition(ops: ReadOperations, fromId: Long, toId: Long) = labelId match {
+        case Some(label) => ops.nodesGetForLabel(label, fromId, toId)
+        case None => ops.nodesGetAll(fromId, toId)
+      }
+
+      val resolver = transactionalContext.graph.getDependencyResolver
+      val transaction = resolver.resolveDependency(classOf[ThreadToStatementContextBridge])
+        .getKernelTransactionBoundToThisThread(true)
+      val boundaries = readOps.nodesGetScanPartitions(desiredPartitions)
+      val executor = resolver.resolveDependency(classOf[JobScheduler]).executor(JobScheduler.Groups.cypherWorker)
+      val tasks = (1 until boundaries.length - 1).map { partition =>
+        val task = new FutureTask[T](new Callable[T] {
+          override def call(): T = inNewTransaction { context =>
+            val nodes = nodesInPartition(context.transactionalContext.readOperations, boundaries(partition),
+              boundaries(partition + 1))
+            work(context, new TerminationCheckingIterator(nodes, transaction))
+          }
+        })
+        executor.execute(task)
+        task
+      }
+
+      // The first partition is scanned by the calling thread, and we wait for all workers even if one of them fails
+      val first = Try(work(this, nodesInPartition(readOps, boundaries(0), boundaries(1))))
+      val rest = tasks.map(task => Try(try task.get() catch {
+        case e: ExecutionException => throw e.getCause
+      }))
+      (first +: rest).map(_.get)
+    }
+  }
+
+  /*
+  The transactions of the workers are not terminated along with the transaction of the query, which is also what
+  times out, so the workers check whether the transaction of the query has been terminated before every node.
+   */
+  private class TerminationCheckingIterator(inner: PrimitiveLongIterator, transaction: KernelTransaction)
+    extends PrimitiveLongIterator {
+
+    override def hasNext: Boolean = {
+      val reason = transaction.getReasonIfTerminated
+      if (reason.isPresent) throw new TransactionTerminatedException(reason.get)
+      inner.hasNext
+    }
+
+    override def next(): Long = inner.next()
+  }
+
+  private def inNewTransaction[T](work: TransactionBoundQueryContext => T): T = {
+    val graph = transactionalContext.graph
+    val resolver = graph.getDependencyResolver
+    val txBridge = resolver.resolveDependency(classOf[ThreadToStatementContextBridge])
+    val tx = graph.beginTransaction(KernelTransaction.Type.`implicit`, transactionalContext.securityContext)
+    try {
+      val statement = txBridge.get()
+      val result = try {
+        val context = new Neo4jTransactionalContext(graph, txBridge, resolver.resolveDependency(classOf[Guard]),
+          txBridge, new PropertyContainerLocker, tx, statement, transactionalContext.tc.executingQuery())
+        work(new TransactionBoundQueryContext(TransactionalContextWrapper(context)))
+      } finally {
+        statement.close()
+      }
+      tx.success()
+      result
+    } finally {
+      tx.close()
+    }
+  }
+
   override def nodeGetDegree(node: Long, dir: SemanticDirection): Int =
     transactionalContext.statement.readOperations().nodeGetDegree(node, toGraphDb(dir))
 
@@ -801,6 +886,14 @@ final class TransactionBoundQueryContext(val transactionalContext: Transactional
 }
 
 object TransactionBoundQueryContext {
+  private val parallelScanWorkers =
+    FeatureToggles.getInteger(classOf[TransactionBoundQueryContext], "parallel_scan_workers",
+      Runtime.getRuntime.availableProcessors())
+
+  // Stores with fewer nodes per worker than this are not worth the overhead of starting transactions for the workers
+  private val parallelScanMinPartitionSize =
+    FeatureToggles.getLong(classOf[TransactionBoundQueryContext], "parallel_scan_min_partition_size", 100000L)
+
   trait IndexSearchMonitor {
     def indexSeek(index: IndexDescriptor, values: Seq[Any]): Unit
 
@@ -19,16 +19,20 @@
  */
 package org.neo4j.cypher.internal.spi.v3_3
 
+import java.io.File
+
 import org.neo4j.cypher.internal.ExecutionPlan
 import org.neo4j.cypher.internal.compatibility.v3_3.ProfileKernelStatisticProvider
 import org.neo4j.cypher.internal.compiler.v3_3.spi.KernelStatisticProvider
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
 import org.neo4j.graphdb.{Lock, PropertyContainer}
-import org.neo4j.kernel.GraphDatabaseQueryService
+import org.neo4j.kernel.{GraphDatabaseQueryService, NeoStoreDataSource}
 import org.neo4j.kernel.api.KernelTransaction.Revertable
 import org.neo4j.kernel.api.dbms.DbmsOperations
 import org.neo4j.kernel.api.security.SecurityContext
 import org.neo4j.kernel.api.txstate.TxStateHolder
 import org.neo4j.kernel.api.{ReadOperations, Statement}
+import org.neo4j.kernel.configuration.Config
 import org.neo4j.kernel.impl.factory.DatabaseInfo
 import org.neo4j.kernel.impl.query.TransactionalContext
 
@@ -72,4 +76,16 @@ case class TransactionalContextWrapper(tc: TransactionalContext) extends QueryTr
   def kernelStatisticProvider: KernelStatisticProvider = new ProfileKernelStatisticProvider(tc.kernelStatisticProvider())
 
   override def databaseInfo: DatabaseInfo = tc.graph().getDependencyResolver.resolveDependency(classOf[DatabaseInfo])
+
+  override def queryMemoryBudget: Long =
+    tc.graph().getDependencyResolver.resolveDependency(classOf[Config]).get(GraphDatabaseSettings.cypher_query_memory_budget)
+
+  override def querySpillDirectory: File = {
+    val resolver = tc.graph().getDependencyResolver
+    Option(resolver.resolveDependency(classOf[Config]).get(GraphDatabaseSettings.cypher_query_spill_directory))
+      .getOrElse {
+        val storeDir = resolver.resolveDependency(classOf[NeoStoreDataSource]).getStoreDir
+        new File(new File(storeDir, "cypher"), "spill")
+      }
+  }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.graphdb.config.Setting
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+
+import scala.collection.Map
+
+class QueryMemoryBudgetAcceptanceTest extends ExecutionEngineFunSuite {
+
+  override def databaseConfig(): Map[Setting[_], String] = Map(GraphDatabaseSettings.cypher_query_memory_budget -> "16k")
+
+  override protected def initTest(): Unit = {
+    super.initTest()
+    execute("UNWIND range(1, 2000) AS i CREATE (:A {id: i, group: i % 100})-[:R]->(:B {id: i})")
+  }
+
+  test("should sort beyond the memory budget") {
+    val result = execute("MATCH (a:A) RETURN a.id AS id ORDER BY a.id DESC").toList
+
+    result should equal((2000 to 1 by -1).map(i => Map("id" -> i)).toList)
+  }
+
+  test("should aggregate beyond the memory budget") {
+    val result = execute("MATCH (a:A) RETURN a.group AS group, count(*) AS count, sum(a.id) AS sum").toList
+
+    result should contain theSameElementsAs (0 until 100).map { i =>
+      Map("group" -> i, "count" -> 20, "sum" -> (0 until 20).map(_ * 100 + (if (i == 0) 100 else i)).sum)
+    }
+  }
+
+  test("should hash join beyond the memory budget") {
+    val result = execute(
+      """MATCH (a:A)-->(b:B)
+        |USING JOIN ON b
+        |WHERE b.id = a.id
+        |RETURN count(*) AS count""".stripMargin)
+
+    result.executionPlanDescription().toString should include("NodeHashJoin")
+    result.toList should equal(List(Map("count" -> 2000)))
+  }
+}
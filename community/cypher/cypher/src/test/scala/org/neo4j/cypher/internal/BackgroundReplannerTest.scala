@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import org.mockito.Matchers.any
+import org.mockito.Mockito.{times, verify, verifyZeroInteractions}
+import org.neo4j.cypher.internal.compatibility.v3_3.{LFUCache, MonitoringCacheAccessor, QueryCache}
+import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
+import org.neo4j.logging.NullLog
+import org.neo4j.scheduler.JobScheduler
+
+import scala.collection.mutable
+
+class BackgroundReplannerTest extends CypherFunSuite {
+
+  private val key = "CYPHER 3.3 MATCH (n) RETURN n"
+
+  private var scheduler: JobScheduler = _
+  private var monitor: StringCacheMonitor = _
+  private var cache: QueryCache[String, String] = _
+  private var replanner: BackgroundReplanner = _
+  private var stale: Set[String] = _
+  private var planCount: Int = _
+
+  override protected def initTest(): Unit = {
+    super.initTest()
+    scheduler = mock[JobScheduler]
+    monitor = mock[StringCacheMonitor]
+    cache = new QueryCache(new MonitoringCacheAccessor[String, String](monitor), new LFUCache[String, String](10))
+    replanner = new BackgroundReplanner(scheduler, k => lookup(k), monitor, NullLog.getInstance())
+    stale = Set.empty
+    planCount = 0
+  }
+
+  private def lookup(k: String): (String, Boolean) =
+    cache.getOrElseUpdate(k, k, stale.contains, produce(), replanner.whenStale)
+
+  private def produce(): String = {
+    planCount += 1
+    s"plan $planCount"
+  }
+
+  private def runScheduledJob(): Unit = {
+    val job = argCaptor[Runnable]
+    verify(scheduler, times(1)).schedule(any(), job.capture())
+    job.getValue.run()
+  }
+
+  test("should keep using the stale plan until it has been replanned in the background") {
+    lookup(key) should equal(("plan 1", true))
+    stale = Set("plan 1")
+
+    lookup(key) should equal(("plan 1", false))
+    lookup(key) should equal(("plan 1", false))
+    replanner.replansInFlight should equal(1)
+
+    runScheduledJob()
+
+    replanner.replansInFlight should equal(0)
+    lookup(key) should equal(("plan 2", false))
+    verify(monitor).backgroundReplanStarted(key)
+    verify(monitor).backgroundReplanCompleted(key)
+    verify(monitor).cacheDiscard(key, key)
+  }
+
+  test("should only replan once while the replan is in flight") {
+    lookup(key)
+    stale = Set("plan 1")
+
+    (1 to 10).foreach(_ => lookup(key))
+
+    runScheduledJob()
+    planCount should equal(2)
+  }
+
+  test("should replan each stale query on the same background job") {
+    val keys = Seq("CYPHER 3.3 RETURN 1", "CYPHER 3.3 RETURN 2", "CYPHER 3.3 RETURN 3")
+    keys.foreach(lookup)
+    stale = Set("plan 1", "plan 2", "plan 3")
+
+    keys.foreach(lookup)
+    replanner.replansInFlight should equal(3)
+
+    runScheduledJob()
+
+    replanner.replansInFlight should equal(0)
+    keys.map(k => lookup(k)._1) should equal(Seq("plan 4", "plan 5", "plan 6"))
+  }
+
+  test("should not schedule anything while plans are fresh") {
+    lookup(key)
+    lookup(key) should equal(("plan 1", false))
+
+    verifyZeroInteractions(scheduler)
+  }
+
+  test("should keep the stale plan when replanning fails") {
+    val failures = mutable.ArrayBuffer[String]()
+    replanner = new BackgroundReplanner(scheduler, k => {
+      failures += k
+      throw new RuntimeException("planning failed")
+    }, monitor, NullLog.getInstance())
+    lookup(key)
+    stale = Set("plan 1")
+
+    lookup(key) should equal(("plan 1", false))
+    runScheduledJob()
+
+    failures should equal(Seq(key))
+    replanner.replansInFlight should equal(0)
+    cache.getOrElseUpdate(key, key, _ => false, produce()) should equal(("plan 1", false))
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io.{DataOutputStream, File, IOException}
+import java.time.{Clock, Duration}
+import java.util.concurrent.TimeUnit
+
+import org.mockito.Matchers._
+import org.mockito.Mockito._
+import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction
+import org.neo4j.kernel.AvailabilityGuard
+import org.neo4j.logging.NullLog
+import org.neo4j.scheduler.JobScheduler
+
+import scala.collection.mutable
+
+class QueryCacheWarmerTest extends CypherFunSuite {
+
+  private val profileFile = new File(new File("store", "cypher"), "query_cache")
+  private var fs: EphemeralFileSystemAbstraction = _
+
+  override protected def initTest(): Unit = {
+    super.initTest()
+    fs = new EphemeralFileSystemAbstraction
+  }
+
+  override protected def stopTest(): Unit = {
+    fs.close()
+    super.stopTest()
+  }
+
+  private def warmer(keys: Seq[String], plan: String => Unit = _ => (), scheduler: JobScheduler = mock[JobScheduler],
+                     availabilityGuard: AvailabilityGuard = newAvailabilityGuard()) =
+    new QueryCacheWarmer(fs, profileFile, scheduler, availabilityGuard, Duration.ofMinutes(1), () => keys, plan,
+      NullLog.getInstance())
+
+  private def newAvailabilityGuard() = new AvailabilityGuard(Clock.systemUTC(), NullLog.getInstance())
+
+  private def writeDamagedProfile(ints: Int*): Unit = {
+    fs.mkdirs(profileFile.getParentFile)
+    val out = new DataOutputStream(fs.openAsOutputStream(profileFile, false))
+    try ints.foreach(out.writeInt) finally out.close()
+  }
+
+  test("should write and read back the profile") {
+    val keys = Seq("CYPHER 3.3 MATCH (n) RETURN n", "CYPHER 3.3 runtime=compiled MATCH (n:Ä) RETURN n.name",
+      "CYPHER 3.3 RETURN " + "1 + " * 25000 + "1")
+
+    warmer(keys).profile()
+
+    warmer(Seq.empty).readProfile() should equal(keys)
+  }
+
+  test("should leave queries with string literals out of the profile") {
+    val keys = Seq("CYPHER 3.3 MATCH (n {name: $name}) RETURN n", "CYPHER 3.3 MATCH (n {name: 'Ada'}) RETURN n",
+      "CYPHER 3.3 CALL dbms.security.changePassword(\"secret\")", "CYPHER 3.3 MATCH (n) RETURN n")
+
+    warmer(keys).profile()
+
+    warmer(Seq.empty).readProfile() should equal(Seq(keys.head, keys.last))
+  }
+
+  test("should plan the profiled queries in order") {
+    val keys = Seq("CYPHER 3.3 MATCH (a) RETURN a", "CYPHER 3.3 MATCH (b) RETURN b")
+    warmer(keys).profile()
+
+    val planned = mutable.ArrayBuffer[String]()
+    warmer(Seq.empty, planned += _).warmup() should equal(2)
+
+    planned should equal(keys)
+  }
+
+  test("should not plan anything without a profile") {
+    val planned = mutable.ArrayBuffer[String]()
+
+    warmer(Seq.empty, planned += _).warmup() should equal(0)
+
+    planned shouldBe empty
+  }
+
+  test("should not warm up from a damaged profile") {
+    val planned = mutable.ArrayBuffer[String]()
+
+    for (damaged <- Seq(Seq(-1), Seq(Int.MaxValue), Seq(1, Int.MaxValue), Seq(1, -1), Seq(2, 0))) {
+      writeDamagedProfile(damaged: _*)
+
+      an[IOException] should be thrownBy warmer(Seq.empty).readProfile()
+      warmer(Seq.empty, planned += _).warmup() should equal(0)
+    }
+    planned shouldBe empty
+  }
+
+  test("should stop listening to the availability guard when stopped or shut down") {
+    val scheduler = mock[JobScheduler]
+    val handle = mock[JobScheduler.JobHandle]
+    when(scheduler.scheduleRecurring(any(), any(), anyLong(), anyLong(), any[TimeUnit]())).thenReturn(handle)
+    val availabilityGuard = newAvailabilityGuard()
+    val requirement = AvailabilityGuard.availabilityRequirement("test")
+
+    val stopped = warmer(Seq.empty, scheduler = scheduler, availabilityGuard = availabilityGuard)
+    stopped.start()
+    stopped.stop()
+    verify(handle).cancel(false)
+    availabilityGuard.require(requirement)
+    availabilityGuard.fulfill(requirement)
+    verify(scheduler, times(1)).scheduleRecurring(any(), any(), anyLong(), anyLong(), any[TimeUnit]())
+
+    val shutDown = warmer(Seq.empty, scheduler = scheduler, availabilityGuard = availabilityGuard)
+    shutDown.start()
+    availabilityGuard.shutdown()
+    verify(handle, times(2)).cancel(false)
+  }
+
+  test("should keep planning when a query fails to plan") {
+    val keys = Seq("CYPHER 3.3 MATCH (a) RETURN a", "CYPHER 3.3 NOT CYPHER", "CYPHER 3.3 MATCH (b) RETURN b")
+    warmer(keys).profile()
+
+    val planned = mutable.ArrayBuffer[String]()
+    val plan: String => Unit = key => if (key.contains("NOT")) throw new RuntimeException("syntax error") else planned += key
+
+    warmer(Seq.empty, plan).warmup() should equal(2)
+    planned should equal(Seq(keys.head, keys.last))
+  }
+}
@@ -143,6 +143,26 @@ class EagerAggregationPipeTest extends CypherFunSuite {
     getResults(aggregationPipe) should equal(List(Map("count(name)" -> longValue(3))))
   }
 
+  test("should aggregate beyond the memory budget by spilling rows of other groups to disk") {
+    val source = new FakePipe((1 to 2000).map(i => Map[String, Any]("name" -> s"name ${i % 500}", "age" -> i)).toList,
+      createSymbolTableFor("name"))
+
+    val grouping = createReturnItemsFor("name")
+    val aggregation = Map("count(*)" -> CountStar(), "sum(age)" -> Sum(Variable("age")))
+    val aggregationPipe = EagerAggregationPipe(source, grouping, aggregation)()
+    val state = QueryStateHelper.emptyWithMemoryBudget(8 * 1024)
+
+    val result = aggregationPipe.createResults(state).map(_.toMap).toList
+
+    result should contain theSameElementsAs (0 until 500).map { i =>
+      val ages = (1 to 2000).filter(_ % 500 == i)
+      Map[String, AnyValue]("name" -> stringValue(s"name $i"), "count(*)" -> longValue(4), "sum(age)" -> longValue(ages.sum))
+    }
+    state.memoryTracker.spillFileCount should be > 0
+    state.memoryTracker.estimatedHeapUsage should equal(0)
+    state.memoryTracker.close()
+  }
+
   private def createSymbolTableFor(name: String): (String, CypherType) = name -> CTNode
 
   private def getResults(p: Pipe) = p.createResults(QueryStateHelper.empty).map(_.toMap).toList
@@ -30,8 +30,8 @@ import org.neo4j.cypher.internal.frontend.v3_3.symbols._
 import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
 import org.neo4j.graphdb.Node
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.Values.{NO_VALUE, intValue}
-import org.neo4j.values.virtual.VirtualValues.fromNodeProxy
+import org.neo4j.values.storable.Values.{NO_VALUE, intValue, stringArray}
+import org.neo4j.values.virtual.VirtualValues.{EMPTY_MAP, fromNodeProxy, nodeValue}
 
 class NodeHashJoinPipeTest extends CypherFunSuite {
 
@@ -243,6 +243,35 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     lhsIterator.fetched should equal(0)
   }
 
+  test("should join beyond the memory budget by partitioning both sides to disk") {
+    // given
+    val nodes = (0 until 1000).map(i => nodeValue(i, stringArray("Label"), EMPTY_MAP))
+    val queryState = QueryStateHelper.emptyWithMemoryBudget(8 * 1024)
+
+    val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
+    when(left.createResults(queryState)).thenAnswer(new Answer[Iterator[ExecutionContext]]() {
+      override def answer(invocationOnMock: InvocationOnMock): Iterator[ExecutionContext] =
+        nodes.iterator.map(node => row("b" -> node, "l" -> intValue(node.id().toInt)))
+    })
+
+    val right = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
+    when(right.createResults(queryState)).thenAnswer(new Answer[Iterator[ExecutionContext]]() {
+      override def answer(invocationOnMock: InvocationOnMock): Iterator[ExecutionContext] =
+        nodes.iterator.filter(_.id() % 2 == 0).map(node => row("b" -> node, "r" -> intValue(node.id().toInt))) ++
+          Iterator(row("b" -> NO_VALUE, "r" -> intValue(-1)))
+    })
+
+    // when
+    val result = NodeHashJoinPipe(Set("b"), left, right)().createResults(queryState).toList
+
+    // then
+    result.map(ctx => (ctx("b"), ctx("l"), ctx("r"))) should contain theSameElementsAs
+      nodes.filter(_.id() % 2 == 0).map(node => (node, intValue(node.id().toInt), intValue(node.id().toInt)))
+    queryState.memoryTracker.spillFileCount should be > 0
+    queryState.memoryTracker.estimatedHeapUsage should equal(0)
+    queryState.memoryTracker.close()
+  }
+
   private def row(values: (String, AnyValue)*) = ExecutionContext.from(values: _*)
 
   private def newMockedNode(id: Int) = {
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
+
+import org.mockito.Matchers.anyLong
+import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.collection.primitive.{PrimitiveLongCollections, PrimitiveLongIterator}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates.GreaterThan
+import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.spi.v3_3.{Operations, QueryContext, QueryContextAdaptation}
+import org.neo4j.graphdb.Node
+import org.neo4j.values.storable.Values.longValue
+import org.neo4j.values.virtual.VirtualValues.list
+
+class NodeScanAggregationPipeTest extends CypherFunSuite {
+
+  private val aggregations: Map[String, AggregationExpression] = Map(
+    "count" -> CountStar(),
+    "sum" -> Sum(IdFunction(Variable("n"))),
+    "min" -> Min(IdFunction(Variable("n"))),
+    "max" -> Max(IdFunction(Variable("n"))),
+    "collect" -> Collect(IdFunction(Variable("n")))
+  )
+
+  test("should combine the aggregations of all partitions") {
+    // given
+    val state = QueryStateHelper.emptyWith(query = new PartitionedQueryContext(Seq(Seq(1, 2, 3), Seq.empty, Seq(4, 5))))
+
+    // when
+    val result = NodeScanAggregationPipe(SingleRowPipe()(), "n", None, None, aggregations)().createResults(state).toList
+
+    // then
+    result should have size 1
+    result.head("count") should equal(longValue(5))
+    result.head("sum") should equal(longValue(15))
+    result.head("min") should equal(longValue(1))
+    result.head("max") should equal(longValue(5))
+    result.head("collect") should equal(list((1 to 5).map(i => longValue(i)): _*))
+  }
+
+  test("should only aggregate nodes matching the predicate") {
+    // given
+    val state = QueryStateHelper.emptyWith(query = new PartitionedQueryContext(Seq(Seq(1, 2, 3), Seq(4, 5))))
+    val predicate = GreaterThan(IdFunction(Variable("n")), Literal(2))
+
+    // when
+    val result = NodeScanAggregationPipe(SingleRowPipe()(), "n", None, Some(predicate), aggregations)()
+      .createResults(state).toList
+
+    // then
+    result.head("count") should equal(longValue(3))
+    result.head("sum") should equal(longValue(12))
+    result.head("collect") should equal(list(longValue(3), longValue(4), longValue(5)))
+  }
+
+  test("should aggregate nothing when the label does not exist") {
+    // given
+    val state = QueryStateHelper.emptyWith(query = new PartitionedQueryContext(Seq(Seq(1, 2, 3))))
+
+    // when
+    val result = NodeScanAggregationPipe(SingleRowPipe()(), "n", Some(LazyLabel("Missing")), None, aggregations)()
+      .createResults(state).toList
+
+    // then
+    result.head("count") should equal(longValue(0))
+    result.head("collect") should equal(list())
+  }
+
+  test("should aggregate the source pipe on the right hand side of an apply") {
+    // given
+    val argument = ExecutionContext.empty.newWith1("a", longValue(42))
+    val state = QueryStateHelper.emptyWith(query = new PartitionedQueryContext(Seq(Seq(1, 2, 3), Seq(4, 5))),
+      initialContext = Some(argument))
+    val source = new FakePipe(Iterator(Map("n" -> 1), Map("n" -> 2)))
+
+    // when
+    val result = NodeScanAggregationPipe(source, "n", None, None, Map("count" -> CountStar()))()
+      .createResults(state).toList
+
+    // then
+    result.head("count") should equal(longValue(2))
+  }
+
+  private class PartitionedQueryContext(partitions: Seq[Seq[Long]]) extends QueryContext with QueryContextAdaptation {
+    override val nodeOps: Operations[Node] = {
+      val ops = mock[Operations[Node]]
+      when(ops.getById(anyLong())).thenAnswer(new Answer[Node] {
+        override def answer(invocation: InvocationOnMock): Node = {
+          val node = mock[Node]
+          when(node.getId).thenReturn(invocation.getArgumentAt(0, classOf[java.lang.Long]).longValue())
+          node
+        }
+      })
+      ops
+    }
+
+    override def getOptLabelId(labelName: String): Option[Int] = None
+
+    override def parallelNodeScan[T](labelId: Option[Int], work: (QueryContext, PrimitiveLongIterator) => T): Seq[T] =
+      partitions.map(nodes => work(this, PrimitiveLongCollections.iterator(nodes: _*)))
+  }
+}
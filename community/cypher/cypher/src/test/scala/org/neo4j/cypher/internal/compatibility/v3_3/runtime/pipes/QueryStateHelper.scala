@@ -19,6 +19,9 @@
  */
 package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
 
+import java.io.File
+import java.nio.file.Files
+
 import org.mockito.invocation.InvocationOnMock
 import org.mockito.stubbing.Answer
 import org.mockito.{Matchers, Mockito}
@@ -35,12 +38,18 @@ object QueryStateHelper {
 
   def emptyWith(query: QueryContext = null, resources: ExternalCSVResource = null,
                 params: Map[String, AnyValue] = Map.empty, decorator: PipeDecorator = NullPipeDecorator,
-                initialContext: Option[ExecutionContext] = None) =
+                initialContext: Option[ExecutionContext] = None,
+                memoryTracker: QueryMemoryTracker = QueryMemoryTracker.unlimited) =
     new QueryState(query = query, resources = resources, params = params, decorator = decorator,
-      initialContext = initialContext, triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty)
+      initialContext = initialContext, triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty,
+      memoryTracker = memoryTracker)
 
   def emptyWithValueSerialization: QueryState = emptyWith(query = context)
 
+  def emptyWithMemoryBudget(budget: Long,
+                            spillDirectory: File = Files.createTempDirectory("cypher-spill").toFile): QueryState =
+    emptyWith(query = context, memoryTracker = new QueryMemoryTracker(budget, spillDirectory))
+
   private val context = Mockito.mock(classOf[QueryContext])
   Mockito.when(context.asObject(Matchers.any())).thenAnswer(new Answer[Any] {
     override def answer(invocationOnMock: InvocationOnMock): AnyRef = toObject(invocationOnMock.getArgumentAt(0, classOf[AnyValue]))
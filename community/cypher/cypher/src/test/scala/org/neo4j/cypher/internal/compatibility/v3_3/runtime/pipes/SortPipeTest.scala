@@ -19,15 +19,19 @@
  */
 package org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes
 
+import java.nio.file.Files
+
 import org.junit.Assert._
 import org.neo4j.cypher.ValueComparisonHelper._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
 import org.neo4j.cypher.internal.frontend.v3_3.symbols._
 import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
-import org.neo4j.values.storable.Values
-import org.neo4j.values.storable.Values.intValue
+import org.neo4j.values.storable.{IntValue, Values}
+import org.neo4j.values.storable.Values.{intValue, stringValue}
 import org.scalatest.mock.MockitoSugar
 
 import scala.collection.mutable.{Map => MutableMap}
+import scala.util.Random
 
 class SortPipeTest extends CypherFunSuite with MockitoSugar {
 
@@ -92,4 +96,38 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       Map("y" -> intValue(2)),
       Map("y" -> Values.NO_VALUE)))
   }
+
+  test("sorts rows beyond the memory budget by spilling sorted runs to disk") {
+    val list: Seq[MutableMap[String, Any]] = Random.shuffle((1 to 5000).toList).map(i => MutableMap[String, Any]("x" -> i, "y" -> s"row $i"))
+    val source = new FakePipe(list, "x" -> CTNumber, "y" -> CTString)
+    val sortPipe = new SortPipe(source, List(Descending("x")))()
+    val spillDirectory = Files.createTempDirectory("cypher-spill").toFile
+    val state = QueryStateHelper.emptyWithMemoryBudget(10 * 1024, spillDirectory)
+
+    val result = sortPipe.createResults(state).toList
+
+    result.map(ctx => (ctx("x"), ctx("y"))) should equal((5000 to 1 by -1).map(i => (intValue(i), stringValue(s"row $i"))))
+    state.memoryTracker.spillFileCount should be > 0
+    state.memoryTracker.estimatedHeapUsage should equal(0)
+    spillDirectory.list() shouldBe empty
+    state.memoryTracker.close()
+  }
+
+  test("merges more sorted runs than the merge fan-in in several passes, keeping rows that compare equal in order") {
+    val rows = Random.shuffle((1 to 1000).toList).zipWithIndex.map {
+      case (i, position) => ExecutionContext.from("x" -> intValue(i % 10), "position" -> intValue(position))
+    }
+    val spillDirectory = Files.createTempDirectory("cypher-spill").toFile
+    val state = QueryStateHelper.emptyWithMemoryBudget(1024, spillDirectory)
+
+    val result = ExternalSort(rows.iterator, new InnerOrdering(List(Ascending("x")))(state), state,
+      minRunSize = 10, maxMergeFanIn = 4).toList
+
+    result.map(ctx => (ctx("x"), ctx("position"))) should equal(
+      rows.sortBy(_ ("x").asInstanceOf[IntValue].value()).map(ctx => (ctx("x"), ctx("position"))))
+    state.memoryTracker.spillFileCount should be > 100
+    state.memoryTracker.estimatedHeapUsage should equal(0)
+    spillDirectory.list() shouldBe empty
+    state.memoryTracker.close()
+  }
 }
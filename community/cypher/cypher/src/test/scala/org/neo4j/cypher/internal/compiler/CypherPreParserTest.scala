@@ -42,6 +42,7 @@ class CypherPreParserTest extends CypherFunSuite with TableDrivenPropertyChecks
 
     ("CYPHER runtime=interpreted RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(InterpretedRuntimeOption))), (1, 28, 27))),
     ("CYPHER runtime=compiled RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(CompiledRuntimeOption))), (1, 25, 24))),
+    ("CYPHER runtime=morsel RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(MorselRuntimeOption))), (1, 23, 22))),
 
     ("CYPHER 2.3 planner=cost runtime=interpreted RETURN", PreParsedStatement("RETURN", Seq(
       ConfigurationOptions(Some(VersionOption("2.3")), Seq(CostPlannerOption, InterpretedRuntimeOption))), (1, 45, 44))),
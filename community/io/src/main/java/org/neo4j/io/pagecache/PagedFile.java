@@ -63,13 +63,18 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * Page faults will opportunistically load a run of the following pages as well, with a single vectored read.
+     * Cursors that are found to be scanning sequentially may also read ahead without this hint.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
-     * Do not load in the page if it is not loaded already. Only useful with
-     * exclusive locking when you want to overwrite the whole page anyway.
+     * Do not load in the page if it is not loaded already. The cursor will still move to the page, but if the page
+     * is not in memory, then the cursor will not be bound to it, and {@link PageCursor#getCurrentPageId()} will
+     * return {@link PageCursor#UNBOUND_PAGE_ID}. This is useful for finding out which pages are in memory, without
+     * disturbing the contents of the cache.
      */
-    int PF_NO_FAULT = 1 << 4; // TBD
+    int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
      */
@@ -139,6 +144,11 @@ public interface PagedFile extends AutoCloseable
      */
     int pageSize();
 
+    /**
+     * Get the file that this paged file is backed by.
+     */
+    File file();
+
     /**
      * Size of file, in bytes.
      */
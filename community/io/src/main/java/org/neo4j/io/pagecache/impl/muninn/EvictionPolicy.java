@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The eviction policy decides which pages the background eviction thread of the {@link MuninnPageCache} will evict,
+ * when it needs to make room for new pages.
+ * <p>
+ * Both policies are based on the CLOCK sweep over the usage counters of the pages, where every page access increments
+ * the usage counter of the page, and the sweep decrements it, and evicts the pages whose counters reach zero.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The plain CLOCK sweep. Every page the sweep passes is aged, so a large scan will eventually push the entire
+     * working set out of the cache.
+     */
+    CLOCK,
+
+    /**
+     * A scan resistant variant of the CLOCK sweep, in the spirit of 2Q. Pages that have only been accessed once since
+     * they were faulted in, are considered to be on probation, while pages that have been accessed more than that are
+     * considered hot. As long as the sweep keeps finding enough probationary pages to evict, the hot pages are not
+     * aged, which protects the working set from being evicted by large sequential scans. The hot pages are still aged
+     * periodically, and whenever the probationary pages run short, so the cache can adapt to a new working set.
+     */
+    SCAN_RESISTANT
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -37,10 +38,12 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsMappedException;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
+import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -117,6 +120,18 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // With the scan resistant eviction policy, the hot pages are still aged on every n'th lap of the eviction sweep,
+    // so that pages that are no longer part of the working set will eventually be evicted.
+    private static final int hotPageAgingLapInterval = getInteger(
+            MuninnPageCache.class, "hotPageAgingLapInterval", 8 );
+
+    // The background flusher sweeps through all of the pages at most once per this many milliseconds.
+    private static final int backgroundFlushLapIntervalMillis = getInteger(
+            MuninnPageCache.class, "backgroundFlushLapIntervalMillis", 1000 );
+
+    // The background flusher spreads its writes out over quantums of this many milliseconds.
+    private static final int BACKGROUND_FLUSH_QUANTUM_MILLIS = 100;
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -150,6 +165,8 @@ public class MuninnPageCache implements PageCache
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
     private final int keepFree;
+    private final EvictionPolicy evictionPolicy;
+    private final int backgroundFlushRate;
     private final PageCacheTracer pageCacheTracer;
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     final PageList pages;
@@ -180,6 +197,12 @@ public class MuninnPageCache implements PageCache
     // threads scheduling meta-data in the OS kernel.
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
+    // Where the eviction sweep will continue from. The background flusher starts its sweeps here, so the pages that
+    // are about to be evicted are the first to be cleaned.
+    private volatile int evictorClockArm;
+
+    // The thread that trickles dirty pages to the storage device, if background flushing is enabled.
+    private volatile Thread flushThread;
 
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
@@ -190,6 +213,11 @@ public class MuninnPageCache implements PageCache
     // 'true' (the default) if we should print any exceptions we get when unmapping a file.
     private boolean printExceptionsOnClose;
 
+    // Eviction sweep state for the scan resistant eviction policy. Only accessed by the eviction thread.
+    private int hotPagesSkipped;
+    private int sweepLaps;
+    private boolean agingLap;
+
     /**
      * Create page cache
      * @param swapperFactory page cache swapper factory
@@ -205,6 +233,52 @@ public class MuninnPageCache implements PageCache
             int cachePageSize,
             PageCacheTracer pageCacheTracer,
             PageCursorTracerSupplier pageCursorTracerSupplier )
+    {
+        this( swapperFactory, maxPages, cachePageSize, pageCacheTracer, pageCursorTracerSupplier,
+                EvictionPolicy.CLOCK );
+    }
+
+    /**
+     * Create page cache
+     * @param swapperFactory page cache swapper factory
+     * @param maxPages maximum number of pages
+     * @param cachePageSize page cache size
+     * @param pageCacheTracer global page cache tracer
+     * @param pageCursorTracerSupplier supplier of thread local (transaction local) page cursor tracer that will provide
+     * thread local page cache statistics
+     * @param evictionPolicy the policy the background eviction thread uses for choosing which pages to evict
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            int maxPages,
+            int cachePageSize,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, maxPages, cachePageSize, pageCacheTracer, pageCursorTracerSupplier, evictionPolicy, 0 );
+    }
+
+    /**
+     * Create page cache
+     * @param swapperFactory page cache swapper factory
+     * @param maxPages maximum number of pages
+     * @param cachePageSize page cache size
+     * @param pageCacheTracer global page cache tracer
+     * @param pageCursorTracerSupplier supplier of thread local (transaction local) page cursor tracer that will provide
+     * thread local page cache statistics
+     * @param evictionPolicy the policy the background eviction thread uses for choosing which pages to evict
+     * @param backgroundFlushRate the maximum number of dirty pages per second that the background flusher writes to
+     * the storage device, or zero to disable background flushing
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            int maxPages,
+            int cachePageSize,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            EvictionPolicy evictionPolicy,
+            int backgroundFlushRate )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -214,6 +288,8 @@ public class MuninnPageCache implements PageCache
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
         this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
+        this.evictionPolicy = evictionPolicy;
+        this.backgroundFlushRate = Math.max( 0, backgroundFlushRate );
         this.pageCacheTracer = pageCacheTracer;
         this.pageCursorTracerSupplier = pageCursorTracerSupplier;
         this.printExceptionsOnClose = true;
@@ -365,6 +441,26 @@ public class MuninnPageCache implements PageCache
         return Optional.empty();
     }
 
+    @Override
+    public synchronized List<PagedFile> listExistingMappings() throws IOException
+    {
+        assertNotClosed();
+        ensureThreadsInitialised();
+
+        List<PagedFile> list = new ArrayList<>();
+        FileMapping current = mappedFiles;
+
+        while ( current != null )
+        {
+            MuninnPagedFile pagedFile = current.pagedFile;
+            pagedFile.incrementRefCount();
+            list.add( pagedFile );
+            current = current.next;
+        }
+
+        return list;
+    }
+
     private MuninnPagedFile tryGetMappingOrNull( File file ) throws IOException
     {
         FileMapping current = mappedFiles;
@@ -405,6 +501,10 @@ public class MuninnPageCache implements PageCache
         try
         {
             backgroundThreadExecutor.execute( new EvictionTask( this ) );
+            if ( backgroundFlushRate > 0 )
+            {
+                backgroundThreadExecutor.execute( new BackgroundFlushTask( this ) );
+            }
         }
         catch ( Exception e )
         {
@@ -554,6 +654,8 @@ public class MuninnPageCache implements PageCache
 
         interrupt( evictionThread );
         evictionThread = null;
+        interrupt( flushThread );
+        flushThread = null;
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -681,11 +783,51 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Grab a page from the freelist, but never wait for eviction or do any eviction of our own.
+     * This is used for opportunistic read-ahead, where it is better to read fewer pages than to stall the page fault.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage()
+    {
+        for (;;)
+        {
+            Object current = getFreelistHead();
+            if ( current instanceof AtomicInteger )
+            {
+                int pageCount = pages.getPageCount();
+                AtomicInteger counter = (AtomicInteger) current;
+                int pageId = counter.get();
+                if ( pageId >= pageCount )
+                {
+                    return 0;
+                }
+                if ( counter.compareAndSet( pageId, pageId + 1 ) )
+                {
+                    return pages.deref( pageId );
+                }
+            }
+            else if ( current instanceof FreePage && current != shutdownSignal )
+            {
+                FreePage freePage = (FreePage) current;
+                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                {
+                    return freePage.pageRef;
+                }
+            }
+            else
+            {
+                unparkEvictor();
+                return 0;
+            }
+        }
+    }
+
     private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
     {
         int iterations = 0;
         int pageCount = pages.getPageCount();
         int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
+        int pagesVisited = 0;
         boolean evicted = false;
         long pageRef;
         do
@@ -707,7 +849,16 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            // We respect the hot page protection of the eviction policy for one full lap over the cache, counted
+            // from wherever the clock arm started, but after that, we need to make progress, so we age all the pages
+            // we pass.
+            boolean firstLap = pagesVisited < pageCount;
+            boolean skipHotPage = firstLap && evictionPolicy == EvictionPolicy.SCAN_RESISTANT && pages.isHot( pageRef );
+            if ( firstLap )
+            {
+                pagesVisited++;
+            }
+            if ( !skipHotPage && pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -784,6 +935,7 @@ public class MuninnPageCache implements PageCache
             {
                 clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
             }
+            evictorClockArm = clockArm;
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
@@ -837,6 +989,7 @@ public class MuninnPageCache implements PageCache
             if ( clockArm == pages.getPageCount() )
             {
                 clockArm = 0;
+                completeSweepLap();
             }
 
             if ( closed )
@@ -846,7 +999,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && ageForEviction( pageRef, evictionRunEvent ) )
             {
                 try
                 {
@@ -854,6 +1007,7 @@ public class MuninnPageCache implements PageCache
                     {
                         clearEvictorException();
                         pageCountToEvict--;
+                        hotPagesSkipped = 0;
                         addFreePageToFreelist( pageRef );
                     }
                 }
@@ -878,6 +1032,31 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
+    /**
+     * Age the given page, as decided by the eviction policy.
+     * @return {@code true} if the page is now a candidate for eviction.
+     */
+    private boolean ageForEviction( long pageRef, EvictionRunEvent evictionRunEvent )
+    {
+        // The scan resistant policy leaves the hot pages alone, for as long as the sweep keeps finding cold pages to
+        // evict. Only if we have skipped a full lap worth of hot pages since our last eviction, do we start aging
+        // them like the CLOCK policy would.
+        if ( evictionPolicy == EvictionPolicy.SCAN_RESISTANT && !agingLap &&
+             hotPagesSkipped < pages.getPageCount() && pages.isHot( pageRef ) )
+        {
+            hotPagesSkipped++;
+            evictionRunEvent.hotPageProtected();
+            return false;
+        }
+        return pages.decrementUsage( pageRef );
+    }
+
+    private void completeSweepLap()
+    {
+        sweepLaps++;
+        agingLap = sweepLaps % hotPageAgingLapInterval == 0;
+    }
+
     private void addFreePageToFreelist( long pageRef )
     {
         Object current;
@@ -894,6 +1073,118 @@ public class MuninnPageCache implements PageCache
         while ( !compareAndSetFreelistHead( current, freePage ) );
     }
 
+    /**
+     * Trickle dirty pages to the storage device, so that check points only have to flush what has been dirtied
+     * recently, and so that the eviction thread rarely has to write out a page before it can reuse it.
+     * <p>
+     * The pages are swept in laps, starting where the eviction sweep will continue from. Cold pages, which the
+     * eviction sweep is about to evict, are flushed right away. Other dirty pages are only flushed once they have
+     * been dirty for a full lap, so pages that were dirtied long ago are written before those that were just
+     * dirtied, and repeated writes to hot pages are combined. The pages are flushed under the flush lock, so writers
+     * are never blocked, and the rate of writes is limited to the configured background flush rate.
+     * <p>
+     * Any IO errors are ignored, since the page is then still dirty, and will be flushed by either eviction or the
+     * next check point, where the error will be reported.
+     */
+    void continuouslyFlushPages()
+    {
+        flushThread = Thread.currentThread();
+        int pageCount = pages.getPageCount();
+        long lapIntervalNanos = TimeUnit.MILLISECONDS.toNanos( backgroundFlushLapIntervalMillis );
+        long quantumNanos = TimeUnit.MILLISECONDS.toNanos( BACKGROUND_FLUSH_QUANTUM_MILLIS );
+        int flushesPerQuantum = (int) Math.max( 1, backgroundFlushRate * quantumNanos / TimeUnit.SECONDS.toNanos( 1 ) );
+        long quantumStart = System.nanoTime();
+        int flushesInQuantum = 0;
+
+        while ( !closed )
+        {
+            long lapStart = System.nanoTime();
+            int clockArm = evictorClockArm;
+            try ( MajorFlushEvent flushEvent = pageCacheTracer.beginCacheFlush() )
+            {
+                FlushEventOpportunity flushOpportunity = flushEvent.flushEventOpportunity();
+                for ( int i = 0; i < pageCount && !closed; i++ )
+                {
+                    long pageRef = pages.deref( (clockArm + i) % pageCount );
+                    if ( backgroundFlush( pageRef, flushOpportunity ) && ++flushesInQuantum >= flushesPerQuantum )
+                    {
+                        long now = System.nanoTime();
+                        long quantumLeft = quantumStart + quantumNanos - now;
+                        if ( quantumLeft > 0 )
+                        {
+                            LockSupport.parkNanos( this, quantumLeft );
+                            now = System.nanoTime();
+                        }
+                        quantumStart = now;
+                        flushesInQuantum = 0;
+                    }
+                }
+            }
+
+            long lapLeft = lapStart + lapIntervalNanos - System.nanoTime();
+            if ( lapLeft > 0 && !closed )
+            {
+                LockSupport.parkNanos( this, lapLeft );
+            }
+        }
+
+        // We are interrupted when the page cache is closed. Clear it, since this thread goes back into the pool.
+        Thread.interrupted();
+    }
+
+    private boolean backgroundFlush( long pageRef, FlushEventOpportunity flushOpportunity )
+    {
+        if ( !pages.isModified( pageRef ) )
+        {
+            return false;
+        }
+        if ( !pages.markSeenDirty( pageRef ) && !pages.isCold( pageRef ) )
+        {
+            // The page is hot, and was dirtied since our last lap. We'll come back for it on our next lap.
+            return false;
+        }
+
+        long flushStamp = pages.tryFlushLock( pageRef );
+        if ( flushStamp == 0 )
+        {
+            return false;
+        }
+        boolean success = false;
+        try
+        {
+            // The flush lock keeps eviction away, so the binding of the page is stable while we hold it.
+            int swapperId = pages.getSwapperId( pageRef );
+            SwapperSet.SwapperMapping swapperMapping =
+                    swapperId == 0 ? null : pages.getSwappers().getAllocation( swapperId );
+            if ( swapperMapping != null && pages.isModified( pageRef ) )
+            {
+                long filePageId = pages.getFilePageId( pageRef );
+                PageSwapper swapper = swapperMapping.swapper;
+                FlushEvent flush = flushOpportunity.beginFlush( filePageId, pages.toId( pageRef ), swapper );
+                try
+                {
+                    long bytesWritten = swapper.write( filePageId, pages.getAddress( pageRef ) );
+                    flush.addBytesWritten( bytesWritten );
+                    flush.addPagesFlushed( 1 );
+                    flush.done();
+                    // Still under the flush lock, so the page cannot have been evicted and bound to another file
+                    // page in the meantime.
+                    pages.clearDirtyMark( pageRef );
+                    success = true;
+                }
+                catch ( IOException e )
+                {
+                    flush.done( e );
+                }
+            }
+        }
+        finally
+        {
+            pages.unlockFlush( pageRef, flushStamp, success );
+        }
+        return success;
+    }
+
     void clearEvictorException()
     {
         if ( evictorException != null )
@@ -32,9 +32,12 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.flag;
+import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.getInteger;
 
 abstract class MuninnPageCursor extends PageCursor
 {
@@ -43,6 +46,12 @@ abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    // The maximum number of pages, including the faulting page itself, that a page fault can read in one go.
+    private static final int readAheadPages = getInteger( MuninnPageCursor.class, "readAheadPages", 8 );
+    // The number of adjacent pages a cursor must pin in ascending order, before we consider it to be scanning.
+    private static final int sequentialPinsBeforeReadAhead =
+            getInteger( MuninnPageCursor.class, "sequentialPinsBeforeReadAhead", 4 );
+
     // Size of the respective primitive types in bytes.
     private static final int SIZE_OF_BYTE = Byte.BYTES;
     private static final int SIZE_OF_SHORT = Short.BYTES;
@@ -59,6 +68,8 @@ abstract class MuninnPageCursor extends PageCursor
     protected long pageId;
     protected int pf_flags;
     protected boolean eagerFlush;
+    protected boolean noFault;
+    protected boolean readAhead;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
@@ -72,6 +83,14 @@ abstract class MuninnPageCursor extends PageCursor
     // CursorExceptionWithPreciseStackTrace with the message and stack trace pointing more or less directly at the
     // offending code.
     private Object cursorException;
+    private long lastPinnedPageId;
+    private int sequentialPins;
+    // Scratch space for faulting in runs of pages with one vectored read. Allocated on the first read-ahead.
+    private long[] readAheadPageRefs;
+    private long[] readAheadBufferAddresses;
+    private LatchMap.Latch[] readAheadLatches;
+    private int[][] readAheadChunks;
+    private long[] readAheadChunkOffsets;
 
     MuninnPageCursor( long victimPage, PageCursorTracer tracer )
     {
@@ -93,6 +112,10 @@ abstract class MuninnPageCursor extends PageCursor
         this.pageId = pageId;
         this.pf_flags = pf_flags;
         this.eagerFlush = (pf_flags & PF_EAGER_FLUSH) == PF_EAGER_FLUSH;
+        this.noFault = (pf_flags & PF_NO_FAULT) == PF_NO_FAULT;
+        this.readAhead = (pf_flags & PF_READ_AHEAD) == PF_READ_AHEAD;
+        this.lastPinnedPageId = UNBOUND_PAGE_ID;
+        this.sequentialPins = 0;
     }
 
     @Override
@@ -218,6 +241,15 @@ abstract class MuninnPageCursor extends PageCursor
     protected void pin( long filePageId, boolean writeLock ) throws IOException
     {
         pinEvent = tracer.beginPin( writeLock, filePageId, swapper );
+        if ( filePageId == lastPinnedPageId + 1 )
+        {
+            sequentialPins++;
+        }
+        else if ( filePageId != lastPinnedPageId )
+        {
+            sequentialPins = 0;
+        }
+        lastPinnedPageId = filePageId;
         int chunkId = MuninnPagedFile.computeChunkId( filePageId );
         // The chunkOffset is the addressing offset into the chunk array object for the relevant array slot. Using
         // this, we can access the array slot with Unsafe.
@@ -274,6 +306,14 @@ abstract class MuninnPageCursor extends PageCursor
 
     private boolean uncommonPin( long filePageId, long chunkOffset, int[] chunk ) throws IOException
     {
+        if ( noFault )
+        {
+            // The page is not in memory, and we have been asked not to fault it in. The cursor stays unbound, and
+            // since the currentPageId was set prior to the pin, that is the only page state we need to clear.
+            currentPageId = UNBOUND_PAGE_ID;
+            pinEvent.done();
+            return true;
+        }
         // Looks like there's no mapping, so we'd like to do a page fault.
         LatchMap.Latch latch = pagedFile.pageFaultLatches.takeOrAwaitLatch( filePageId );
         if ( latch != null )
@@ -311,6 +351,7 @@ abstract class MuninnPageCursor extends PageCursor
         // we must make sure to release that write lock as well.
         PageFaultEvent faultEvent = pinEvent.beginPageFault();
         long pageRef;
+        int readAheadCount = 0;
         try
         {
             // The grabFreePage method might throw.
@@ -334,14 +375,28 @@ abstract class MuninnPageCursor extends PageCursor
             // here, so the unmapping would have already happened. We do this
             // check before page.fault(), because that would otherwise reopen
             // the file channel.
-            assertPagedFileStillMappedAndGetIdOfLastPage();
+            long lastPageId = assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
-            pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            if ( shouldReadAhead() )
+            {
+                readAheadCount = takeReadAheadPages( filePageId, lastPageId );
+            }
+            if ( readAheadCount == 0 )
+            {
+                pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            }
+            else
+            {
+                readAheadPageRefs[0] = pageRef;
+                pagedFile.fault( readAheadPageRefs, readAheadBufferAddresses, readAheadCount + 1, swapper,
+                        pagedFile.swapperId, filePageId, faultEvent );
+            }
         }
         catch ( Throwable throwable )
         {
             // Make sure to unlock the page, so the eviction thread can pick up our trash.
             pagedFile.unlockExclusive( pageRef );
+            abortReadAhead( readAheadCount );
             // Make sure to unstuck the page fault latch.
             abortPageFault( throwable, chunk, chunkOffset, latch, faultEvent );
             throw throwable;
@@ -353,10 +408,108 @@ abstract class MuninnPageCursor extends PageCursor
         // need for the page cursor.
         convertPageFaultLock( pageRef );
         latch.release();
+        publishReadAhead( readAheadCount );
         faultEvent.done();
         return pageRef;
     }
 
+    private boolean shouldReadAhead()
+    {
+        return readAheadPages > 1 && (readAhead || sequentialPins >= sequentialPinsBeforeReadAhead);
+    }
+
+    /**
+     * Opportunistically grab free pages for the file pages that immediately follow the given file page, so they can
+     * be faulted in together with it. We never wait for anything here: the run of pages stop at the first page that
+     * is already mapped, is being faulted by someone else, or for which there is no free page readily available.
+     * The pages are put in the read-ahead arrays starting from index 1, and the latches for their translation table
+     * entries are held until the read-ahead pages are either published or aborted.
+     * @return the number of additional pages that were grabbed for reading ahead.
+     */
+    private int takeReadAheadPages( long filePageId, long lastPageId )
+    {
+        int maxPages = (int) Math.min( readAheadPages, lastPageId - filePageId + 1 );
+        if ( maxPages <= 1 )
+        {
+            return 0;
+        }
+        if ( readAheadPageRefs == null )
+        {
+            readAheadPageRefs = new long[readAheadPages];
+            readAheadBufferAddresses = new long[readAheadPages];
+            readAheadLatches = new LatchMap.Latch[readAheadPages];
+            readAheadChunks = new int[readAheadPages][];
+            readAheadChunkOffsets = new long[readAheadPages];
+        }
+
+        int[][] tt = pagedFile.translationTable;
+        int count = 0;
+        for ( int i = 1; i < maxPages; i++ )
+        {
+            long nextFilePageId = filePageId + i;
+            int chunkId = MuninnPagedFile.computeChunkId( nextFilePageId );
+            if ( tt.length <= chunkId )
+            {
+                break;
+            }
+            int[] chunk = tt[chunkId];
+            long chunkOffset = MuninnPagedFile.computeChunkOffset( nextFilePageId );
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                break;
+            }
+            LatchMap.Latch latch = pagedFile.pageFaultLatches.tryTakeLatch( nextFilePageId );
+            if ( latch == null )
+            {
+                break;
+            }
+            long pageRef;
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE ||
+                 (pageRef = pagedFile.tryGrabFreeAndExclusivelyLockedPage()) == 0 )
+            {
+                latch.release();
+                break;
+            }
+            readAheadPageRefs[i] = pageRef;
+            readAheadLatches[i] = latch;
+            readAheadChunks[i] = chunk;
+            readAheadChunkOffsets[i] = chunkOffset;
+            count++;
+            pagedFile.initBuffer( pageRef );
+        }
+        return count;
+    }
+
+    private void publishReadAhead( int readAheadCount )
+    {
+        for ( int i = 1; i <= readAheadCount; i++ )
+        {
+            long pageRef = readAheadPageRefs[i];
+            UnsafeUtil.putIntVolatile( readAheadChunks[i], readAheadChunkOffsets[i], pagedFile.toId( pageRef ) );
+            pagedFile.unlockExclusive( pageRef );
+            readAheadLatches[i].release();
+            clearReadAheadSlot( i );
+        }
+    }
+
+    private void abortReadAhead( int readAheadCount )
+    {
+        for ( int i = 1; i <= readAheadCount; i++ )
+        {
+            // The pages may have been partially bound, but the eviction thread will pick them up once unlocked.
+            UnsafeUtil.putIntVolatile( readAheadChunks[i], readAheadChunkOffsets[i], UNMAPPED_TTE );
+            pagedFile.unlockExclusive( readAheadPageRefs[i] );
+            readAheadLatches[i].release();
+            clearReadAheadSlot( i );
+        }
+    }
+
+    private void clearReadAheadSlot( int index )
+    {
+        readAheadLatches[index] = null;
+        readAheadChunks[index] = null;
+    }
+
     private void abortPageFault( Throwable throwable, int[] chunk, long chunkOffset,
                                  LatchMap.Latch latch,
                                  PageFaultEvent faultEvent ) throws IOException
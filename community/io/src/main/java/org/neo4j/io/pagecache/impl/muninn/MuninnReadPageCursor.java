@@ -56,9 +56,9 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         {
             return false;
         }
-        pin( nextPageId, false );
         currentPageId = nextPageId;
         nextPageId++;
+        pin( currentPageId, false );
         return true;
     }
 
@@ -78,7 +78,11 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper )
     {
         reset( pageRef );
-        pagedFile.incrementUsage( pageRef );
+        if ( !noFault )
+        {
+            // Cursors that only look at which pages are in memory must not make the pages look more used than they are
+            pagedFile.incrementUsage( pageRef );
+        }
     }
 
     @Override
@@ -93,9 +93,9 @@ final class MuninnWritePageCursor extends MuninnPageCursor
                 pagedFile.increaseLastPageIdTo( nextPageId );
             }
         }
-        pin( nextPageId, true );
         currentPageId = nextPageId;
         nextPageId++;
+        pin( currentPageId, true );
         return true;
     }
 
@@ -123,7 +123,10 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         // after the reset() call, which means that if we throw, the cursor will
         // be closed and the page lock will be released.
         assertPagedFileStillMappedAndGetIdOfLastPage();
-        pagedFile.incrementUsage( pageRef );
+        if ( !noFault )
+        {
+            pagedFile.incrementUsage( pageRef );
+        }
     }
 
     @Override
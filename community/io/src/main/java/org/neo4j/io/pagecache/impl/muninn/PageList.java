@@ -44,7 +44,8 @@ import static java.lang.String.format;
  *     <tr><td>8</td><td>File page id.</td></tr>
  *     <tr><td>4</td><td>Page swapper id.</td></tr>
  *     <tr><td>1</td><td>Usage stamp. Optimistically incremented; truncated to a max of 4.</td></tr>
- *     <tr><td>3</td><td>Padding.</td></tr>
+ *     <tr><td>1</td><td>Dirty mark. Set when the background flusher has seen the page dirty.</td></tr>
+ *     <tr><td>2</td><td>Padding.</td></tr>
  * </table>
  */
 class PageList
@@ -55,6 +56,7 @@ class PageList
     private static final int OFFSET_FILE_PAGE_ID = 16; // 8 bytes
     private static final int OFFSET_SWAPPER_ID = 24; // 4 bytes
     private static final int OFFSET_USAGE_COUNTER = 28; // 1 byte
+    private static final int OFFSET_DIRTY_MARK = 29; // 1 byte
     // todo it's possible to reduce the overhead of the individual page to just 24 bytes,
     // todo because the file page id can be represented with 5 bytes (enough to address 8-4 PBs),
     // todo and then the usage counter can use the high bits of that word, and the swapper id
@@ -183,6 +185,11 @@ class PageList
         return pageRef + OFFSET_USAGE_COUNTER;
     }
 
+    private long offDirtyMark( long pageRef )
+    {
+        return pageRef + OFFSET_DIRTY_MARK;
+    }
+
     private long offFilePageId( long pageRef )
     {
         return pageRef + OFFSET_FILE_PAGE_ID;
@@ -301,6 +308,14 @@ class PageList
         }
     }
 
+    /**
+     * A page is hot if it has been used more than once since it was faulted in, or since it was last aged.
+     **/
+    public boolean isHot( long pageRef )
+    {
+        return getUsageCounter( pageRef ) > 1;
+    }
+
     /**
      * Decrement the usage stamp. Returns true if it reaches 0.
      **/
@@ -316,6 +331,36 @@ class PageList
         return usage == 0;
     }
 
+    /**
+     * A page is cold if it has not been used since it was last aged, which makes it a candidate for eviction the next
+     * time the eviction sweep comes by.
+     **/
+    public boolean isCold( long pageRef )
+    {
+        return getUsageCounter( pageRef ) == 0;
+    }
+
+    /**
+     * Mark the page as seen dirty by the background flusher. Only called from the background flusher thread.
+     * @return {@code true} if the page was already marked, which means that it has been dirty since an earlier sweep
+     * of the background flusher.
+     **/
+    public boolean markSeenDirty( long pageRef )
+    {
+        long address = offDirtyMark( pageRef );
+        if ( UnsafeUtil.getByte( address ) != 0 )
+        {
+            return true;
+        }
+        UnsafeUtil.putByte( address, (byte) 1 );
+        return false;
+    }
+
+    public void clearDirtyMark( long pageRef )
+    {
+        UnsafeUtil.putByte( offDirtyMark( pageRef ), (byte) 0 );
+    }
+
     public long getFilePageId( long pageRef )
     {
         return UnsafeUtil.getLong( offFilePageId( pageRef ) );
@@ -374,6 +419,47 @@ class PageList
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault in a run of adjacent file pages with a single vectored read. The first page in the given array is bound
+     * to {@code startFilePageId}, the second to {@code startFilePageId + 1}, and so on. All the pages must be
+     * exclusively locked and unbound.
+     */
+    public void fault( long[] pageRefs, long[] bufferAddresses, int length, PageSwapper swapper, int swapperId,
+                       long startFilePageId, PageFaultEvent event ) throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 ||
+                 currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException(
+                        pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+        }
+        // Same as for single page faults, we assign the filePageIds before we swap the pages in, so that the pages
+        // will be considered loaded for the purpose of eviction, even if the swapping fails.
+        for ( int i = 0; i < length; i++ )
+        {
+            setFilePageId( pageRefs[i], startFilePageId + i ); // Page now considered isLoaded()
+            bufferAddresses[i] = getAddress( pageRefs[i] );
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, cachePageSize, 0, length );
+        event.addBytesRead( bytesRead );
+        event.setCachePageId( toId( pageRefs[0] ) );
+        for ( int i = 0; i < length; i++ )
+        {
+            setSwapperId( pageRefs[i], swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        }
+    }
+
     private static IllegalArgumentException swapperCannotBeNull()
     {
         return new IllegalArgumentException( "swapper cannot be null" );
@@ -460,6 +546,7 @@ class PageList
     {
         setFilePageId( pageRef, PageCursor.UNBOUND_PAGE_ID );
         setSwapperId( pageRef, 0 );
+        clearDirtyMark( pageRef );
     }
 
     public String toString( long pageRef )
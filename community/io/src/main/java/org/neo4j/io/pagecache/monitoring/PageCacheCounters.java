@@ -30,6 +30,11 @@ public interface PageCacheCounters
      */
     long faults();
 
+    /**
+     * @return The sum total of time spent waiting for page faults to complete thus far, in nanoseconds.
+     */
+    long faultNanos();
+
     /**
      * @return The number of page evictions observed thus far.
      */
@@ -80,6 +85,11 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of times the eviction policy has protected a hot page from being aged thus far.
+     */
+    long hotPagesProtected();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
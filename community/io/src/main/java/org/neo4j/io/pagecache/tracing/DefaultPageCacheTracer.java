@@ -32,6 +32,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 public class DefaultPageCacheTracer implements PageCacheTracer
 {
     protected final LongAdder faults = new LongAdder();
+    protected final LongAdder faultNanos = new LongAdder();
     protected final LongAdder evictions = new LongAdder();
     protected final LongAdder pins = new LongAdder();
     protected final LongAdder unpins = new LongAdder();
@@ -42,6 +43,7 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder hotPagesProtected = new LongAdder();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -115,6 +117,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
             return evictionEvent;
         }
 
+        @Override
+        public void hotPageProtected()
+        {
+            hotPagesProtected.increment();
+        }
+
         @Override
         public void close()
         {
@@ -171,6 +179,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return faults.sum();
     }
 
+    @Override
+    public long faultNanos()
+    {
+        return faultNanos.sum();
+    }
+
     @Override
     public long evictions()
     {
@@ -231,6 +245,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long hotPagesProtected()
+    {
+        return hotPagesProtected.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -261,6 +281,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.faults.add( faults );
     }
 
+    @Override
+    public void faultNanos( long faultNanos )
+    {
+        this.faultNanos.add( faultNanos );
+    }
+
     @Override
     public void bytesRead( long bytesRead )
     {
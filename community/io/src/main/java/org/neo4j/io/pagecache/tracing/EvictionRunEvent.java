@@ -26,6 +26,11 @@ package org.neo4j.io.pagecache.tracing;
  */
 public interface EvictionRunEvent extends AutoCloseablePageCacheTracerEvent, EvictionEventOpportunity
 {
+    /**
+     * The eviction policy decided to not age a hot page, that would otherwise have moved closer to being evicted.
+     */
+    void hotPageProtected();
+
     /**
      * An EvictionRunEvent that does nothing other than return the EvictionEvent.NULL.
      */
@@ -37,6 +42,11 @@ public interface EvictionRunEvent extends AutoCloseablePageCacheTracerEvent, Evi
             return EvictionEvent.NULL;
         }
 
+        @Override
+        public void hotPageProtected()
+        {
+        }
+
         @Override
         public void close()
         {
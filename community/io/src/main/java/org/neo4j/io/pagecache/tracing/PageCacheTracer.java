@@ -70,6 +70,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long faultNanos()
+        {
+            return 0;
+        }
+
         @Override
         public long evictions()
         {
@@ -130,6 +136,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long hotPagesProtected()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -156,6 +168,11 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void faultNanos( long faultNanos )
+        {
+        }
+
         @Override
         public void bytesRead( long bytesRead )
         {
@@ -241,6 +258,12 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void faults( long faults );
 
+    /**
+     * Report time spent waiting for page faults to complete
+     * @param faultNanos nanoseconds spent in page faults
+     */
+    void faultNanos( long faultNanos );
+
     /**
      * Report number of bytes read
      * @param bytesRead number of read bytes
@@ -36,6 +36,8 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private long unpins;
     private long hits;
     private long faults;
+    private long faultNanos;
+    private long faultStartNanos;
     private long bytesRead;
     private long bytesWritten;
     private long evictions;
@@ -69,6 +71,10 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         {
             pageCacheTracer.faults( faults );
         }
+        if ( faultNanos > 0 )
+        {
+            pageCacheTracer.faultNanos( faultNanos );
+        }
         if ( bytesRead > 0 )
         {
             pageCacheTracer.bytesRead( bytesRead );
@@ -98,6 +104,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         unpins = 0;
         hits = 0;
         faults = 0;
+        faultNanos = 0;
         bytesRead = 0;
         bytesWritten = 0;
         evictions = 0;
@@ -221,6 +228,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public void done()
         {
             faults++;
+            faultNanos += System.nanoTime() - faultStartNanos;
         }
 
         @Override
@@ -289,6 +297,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public PageFaultEvent beginPageFault()
         {
             eventHits = 0;
+            faultStartNanos = System.nanoTime();
             return pageFaultEvent;
         }
 
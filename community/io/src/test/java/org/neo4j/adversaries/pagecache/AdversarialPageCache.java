@@ -26,6 +26,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -81,6 +83,19 @@ public class AdversarialPageCache implements PageCache
         return optional;
     }
 
+    @Override
+    public List<PagedFile> listExistingMappings() throws IOException
+    {
+        adversary.injectFailure( IOException.class, SecurityException.class );
+        List<PagedFile> list = delegate.listExistingMappings();
+        List<PagedFile> adversarialList = new ArrayList<>( list.size() );
+        for ( PagedFile pagedFile : list )
+        {
+            adversarialList.add( new AdversarialPagedFile( pagedFile, adversary ) );
+        }
+        return adversarialList;
+    }
+
     @Override
     public void flushAndForce() throws IOException
     {
@@ -76,6 +76,7 @@ import static java.lang.Long.toHexString;
 import static java.lang.System.currentTimeMillis;
 import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
 import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
@@ -94,6 +95,7 @@ import static org.junit.Assume.assumeTrue;
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.test.ThreadTestUtils.fork;
@@ -1161,6 +1163,145 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
         assertFalse( dont_exist.isPresent() );
     }
 
+    @Test
+    public void mustListExistingMappings() throws Exception
+    {
+        configureStandardPageCache();
+        File f1 = file( "a" );
+        File f2 = file( "b" );
+        try ( PagedFile pf1 = pageCache.map( f1, filePageSize, StandardOpenOption.CREATE );
+              PagedFile pf2 = pageCache.map( f2, filePageSize, StandardOpenOption.CREATE ) )
+        {
+            List<PagedFile> existingMappings = pageCache.listExistingMappings();
+            assertThat( existingMappings.size(), is( 2 ) );
+            assertThat( existingMappings, containsInAnyOrder( pf1, pf2 ) );
+            for ( PagedFile existingMapping : existingMappings )
+            {
+                existingMapping.close();
+            }
+        }
+        assertTrue( pageCache.listExistingMappings().isEmpty() );
+    }
+
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void noFaultReadCursorMustNotFaultPagesIn() throws Exception
+    {
+        generateFileWithRecords( file( "a" ), recordsPerFilePage * 3, recordSize );
+        configureStandardPageCache();
+
+        try ( PagedFile pf = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            try ( PageCursor faulting = pf.io( 1, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( faulting.next() );
+            }
+
+            try ( PageCursor noFault = pf.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+                assertThat( noFault.getCurrentPageSize(), is( PageCursor.UNBOUND_PAGE_SIZE ) );
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( 1L ) );
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+                assertFalse( noFault.next() );
+            }
+
+            try ( PageCursor noFault = pf.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                // Nothing should have been faulted in by the previous no-fault cursor.
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+            }
+        }
+    }
+
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void readAheadCursorMustFaultInFollowingPages() throws Exception
+    {
+        generateFileWithRecords( file( "a" ), recordsPerFilePage * 3, recordSize );
+        configureStandardPageCache();
+
+        try ( PagedFile pf = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            try ( PageCursor noFault = pf.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                for ( long pageId = 0; pageId < 3; pageId++ )
+                {
+                    assertTrue( noFault.next() );
+                    assertThat( noFault.getCurrentPageId(), is( pageId ) );
+                    verifyRecordsMatchExpected( noFault );
+                }
+                assertFalse( noFault.next() );
+            }
+        }
+    }
+
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void readAheadMustStopAtPagesThatAreAlreadyInMemory() throws Exception
+    {
+        generateFileWithRecords( file( "a" ), recordsPerFilePage * 4, recordSize );
+        configureStandardPageCache();
+
+        try ( PagedFile pf = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pf.io( 2, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            try ( PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            try ( PageCursor noFault = pf.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( 0L ) );
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( 1L ) );
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( 2L ) );
+                assertTrue( noFault.next() );
+                assertThat( noFault.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+            }
+        }
+    }
+
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void readAheadScanOfFileLargerThanPageCacheMustReadCorrectData() throws Exception
+    {
+        int pageCount = maxPages * 10;
+        generateFileWithRecords( file( "a" ), recordsPerFilePage * pageCount, recordSize );
+        configureStandardPageCache();
+
+        try ( PagedFile pf = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            int readAheadReadFlags = PF_SHARED_READ_LOCK | PF_READ_AHEAD;
+            int readAheadWriteFlags = PF_SHARED_WRITE_LOCK | PF_NO_GROW | PF_READ_AHEAD;
+            for ( int flags : new int[]{readAheadReadFlags, readAheadWriteFlags} )
+            {
+                try ( PageCursor cursor = pf.io( 0, flags ) )
+                {
+                    long pages = 0;
+                    while ( cursor.next() )
+                    {
+                        assertThat( cursor.getCurrentPageId(), is( pages ) );
+                        verifyRecordsMatchExpected( cursor );
+                        pages++;
+                    }
+                    assertThat( pages, is( (long) pageCount ) );
+                }
+            }
+        }
+    }
+
     private void verifyOnReadCursor(
             ThrowingConsumer<PageCursorAction,IOException> testTemplate ) throws IOException
     {
@@ -2179,10 +2320,12 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
 
         // We might be unlucky and fault in the second next call, on the page
         // we brought up in the first next call. That's why we assert that we
-        // have observed *at least* the countedPages number of faults.
+        // have observed *at least* the countedPages number of bytes read.
+        // The number of faults can be lower, because the sequential scan
+        // might read ahead and fault in several pages with a single fault.
         long faults = tracer.faults();
         long bytesRead = tracer.bytesRead();
-        assertThat( "wrong count of faults", faults, greaterThanOrEqualTo( countedFaults ) );
+        assertThat( "wrong count of faults", faults, greaterThan( 0L ) );
         assertThat( "wrong number of bytes read",
                 bytesRead, greaterThanOrEqualTo( countedFaults * filePageSize ) );
         // Every page we move forward can put the freelist behind so the cache
@@ -28,14 +28,18 @@ import java.nio.ByteBuffer;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 
+import org.neo4j.graphdb.config.Configuration;
 import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
 import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.tracing.ConfigurablePageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
@@ -45,6 +49,7 @@ import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -52,6 +57,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
@@ -342,6 +348,147 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void scanResistantEvictionPolicyMustProtectHotPagesFromLargeScans() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        assertThat( countHotPagesSurvivingScan( EvictionPolicy.SCAN_RESISTANT, tracer ), is( 4 ) );
+        assertThat( tracer.hotPagesProtected(), greaterThan( 0L ) );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void clockEvictionPolicyMustNotProtectHotPagesFromLargeScans() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        assertThat( countHotPagesSurvivingScan( EvictionPolicy.CLOCK, tracer ), is( 0 ) );
+        assertThat( tracer.hotPagesProtected(), is( 0L ) );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void backgroundFlushingMustWriteDirtyPagesWithoutExplicitFlush() throws Exception
+    {
+        int maxPages = 40;
+        int pageSize = 16;
+        int dirtyPages = 20;
+        File file = file( "a" );
+        writeZeroedPages( file, dirtyPages, pageSize );
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.open( fs, Configuration.EMPTY );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, maxPages, pageSize, tracer,
+                DefaultPageCursorTracerSupplier.NULL, EvictionPolicy.CLOCK, 10_000 );
+              PagedFile pagedFile = pageCache.map( file, pageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int pageId = 0; pageId < dirtyPages; pageId++ )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    cursor.putLong( x );
+                    cursor.putLong( y );
+                }
+            }
+
+            while ( tracer.flushes() < dirtyPages )
+            {
+                Thread.sleep( 10 );
+            }
+
+            try ( StoreChannel channel = fs.open( file, "r" ) )
+            {
+                ByteBuffer buffer = ByteBuffer.allocate( dirtyPages * pageSize );
+                channel.read( buffer );
+                buffer.flip();
+                for ( int pageId = 0; pageId < dirtyPages; pageId++ )
+                {
+                    assertThat( buffer.getLong(), is( x ) );
+                    assertThat( buffer.getLong(), is( y ) );
+                }
+            }
+
+            // With everything already written out, an explicit flush has nothing left to do.
+            pagedFile.flushAndForce();
+            assertThat( tracer.flushes(), is( (long) dirtyPages ) );
+        }
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void pinningPagesWithoutFaultingMustNotMakeThemHot() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        assertThat( countPagesSurvivingScan( EvictionPolicy.SCAN_RESISTANT, tracer, PF_NO_FAULT ), is( 0 ) );
+    }
+
+    private int countHotPagesSurvivingScan( EvictionPolicy evictionPolicy, PageCacheTracer tracer ) throws IOException
+    {
+        return countPagesSurvivingScan( evictionPolicy, tracer, 0 );
+    }
+
+    /**
+     * Pins a few pages once, then three more times with the given additional flags, and then scans through a file
+     * much larger than the cache.
+     */
+    private int countPagesSurvivingScan( EvictionPolicy evictionPolicy, PageCacheTracer tracer, int repinFlags )
+            throws IOException
+    {
+        int maxPages = 40;
+        int pageSize = 8;
+        int hotPages = 4;
+        writeZeroedPages( file( "hot" ), hotPages, pageSize );
+        writeZeroedPages( file( "scan" ), maxPages * 10, pageSize );
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.open( fs, Configuration.EMPTY );
+
+        try ( MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, maxPages, pageSize, tracer,
+                DefaultPageCursorTracerSupplier.NULL, evictionPolicy );
+              PagedFile hot = pageCache.map( file( "hot" ), pageSize );
+              PagedFile scan = pageCache.map( file( "scan" ), pageSize ) )
+        {
+            for ( int i = 0; i < 4; i++ )
+            {
+                // Pin every hot page multiple times, to max out their usage counters.
+                try ( PageCursor cursor = hot.io( 0, PF_SHARED_READ_LOCK | (i == 0 ? 0 : repinFlags) ) )
+                {
+                    for ( int pageId = 0; pageId < hotPages; pageId++ )
+                    {
+                        assertTrue( cursor.next( pageId ) );
+                    }
+                }
+            }
+
+            try ( PageCursor cursor = scan.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                //noinspection StatementWithEmptyBody
+                while ( cursor.next() )
+                {
+                    // Every scanned page is only used once.
+                }
+            }
+
+            int survivors = 0;
+            try ( PageCursor cursor = hot.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                while ( cursor.next() )
+                {
+                    if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                    {
+                        survivors++;
+                    }
+                }
+            }
+            return survivors;
+        }
+    }
+
+    private void writeZeroedPages( File file, int pageCount, int pageSize ) throws IOException
+    {
+        try ( StoreChannel channel = fs.create( file ) )
+        {
+            channel.writeAll( ByteBuffer.allocate( pageCount * pageSize ) );
+        }
+    }
+
     private void writeInitialDataTo( File file ) throws IOException
     {
         try ( StoreChannel channel = fs.create( file ) )
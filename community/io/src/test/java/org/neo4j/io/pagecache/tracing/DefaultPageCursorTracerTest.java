@@ -23,13 +23,16 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 
 public class DefaultPageCursorTracerTest
 {
@@ -200,6 +203,27 @@ public class DefaultPageCursorTracerTest
         assertEquals( 450, cacheTracer.bytesRead() );
     }
 
+    @Test
+    public void reportTimeSpentInPageFaultsToPageCacheTracer() throws Exception
+    {
+        PinEvent pinEvent = pageCursorTracer.beginPin( true, 0, swapper );
+        PageFaultEvent pageFaultEvent = pinEvent.beginPageFault();
+        Thread.sleep( 1 );
+        pageFaultEvent.done();
+        pinEvent.done();
+        pageCursorTracer.reportEvents();
+
+        assertThat( cacheTracer.faultNanos(), greaterThanOrEqualTo( TimeUnit.MILLISECONDS.toNanos( 1 ) ) );
+
+        pinAndHit();
+        pageCursorTracer.reportEvents();
+        long faultNanos = cacheTracer.faultNanos();
+        pinAndHit();
+        pageCursorTracer.reportEvents();
+
+        assertEquals( faultNanos, cacheTracer.faultNanos() );
+    }
+
     @Test
     public void shouldCalculateHitRatio() throws Exception
     {
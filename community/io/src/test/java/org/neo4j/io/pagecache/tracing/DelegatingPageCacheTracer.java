@@ -109,6 +109,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long hotPagesProtected()
+    {
+        return delegate.hotPagesProtected();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -139,6 +145,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.faults( faults );
     }
 
+    @Override
+    public void faultNanos( long faultNanos )
+    {
+        delegate.faultNanos( faultNanos );
+    }
+
     @Override
     public void bytesRead( long bytesRead )
     {
@@ -187,6 +199,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.faults();
     }
 
+    @Override
+    public long faultNanos()
+    {
+        return delegate.faultNanos();
+    }
+
     @Override
     public long evictions()
     {
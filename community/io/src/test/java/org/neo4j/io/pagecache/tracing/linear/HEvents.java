@@ -128,6 +128,11 @@ class HEvents
             return tracer.add( new EvictionHEvent( tracer ) );
         }
 
+        @Override
+        public void hotPageProtected()
+        {
+        }
+
         @Override
         void printBody( PrintStream out, String exceptionLinePrefix )
         {
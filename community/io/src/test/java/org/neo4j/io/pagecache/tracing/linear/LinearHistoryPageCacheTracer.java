@@ -114,6 +114,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long faultNanos()
+    {
+        return 0;
+    }
+
     @Override
     public long bytesRead()
     {
@@ -144,6 +150,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long hotPagesProtected()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -170,6 +182,11 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void faultNanos( long faultNanos )
+    {
+    }
+
     @Override
     public void bytesRead( long bytesRead )
     {
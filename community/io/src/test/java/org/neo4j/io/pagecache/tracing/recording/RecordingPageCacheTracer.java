@@ -64,6 +64,11 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
                 return new RecordingEvictionEvent();
             }
 
+            @Override
+            public void hotPageProtected()
+            {
+            }
+
             @Override
             public void close()
             {
@@ -119,6 +124,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long faultNanos()
+    {
+        return 0;
+    }
+
     @Override
     public long bytesRead()
     {
@@ -149,6 +160,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long hotPagesProtected()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -177,6 +194,11 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         this.faults.getAndAdd( faults );
     }
 
+    @Override
+    public void faultNanos( long faultNanos )
+    {
+    }
+
     @Override
     public void bytesRead( long bytesRead )
     {
@@ -33,6 +33,7 @@ import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.AdvertisedSocketAddress;
 import org.neo4j.helpers.ListenSocketAddress;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.kernel.configuration.BoltConnectorValidator;
 import org.neo4j.kernel.configuration.ConfigurationMigrator;
 import org.neo4j.kernel.configuration.GraphDatabaseConfigurationMigrator;
@@ -186,7 +187,7 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Internal
     public static final Setting<String> cypher_runtime = setting(
             "unsupported.cypher.runtime",
-            options( "INTERPRETED", "COMPILED", "ENTERPRISE-INTERPRETED" ,  DEFAULT ), DEFAULT );
+            options( "INTERPRETED", "COMPILED", "ENTERPRISE-INTERPRETED", "MORSEL",  DEFAULT ), DEFAULT );
 
     @Description( "Enable tracing of compilation in cypher." )
     @Internal
@@ -196,6 +197,20 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static Setting<Integer> query_cache_size =
             buildSetting( "dbms.query_cache_size", INTEGER, "1000" ).constraint( min( 0 ) ).build();
 
+    @Description( "Keep a profile of the most frequently used queries of the query plan cache, and plan those " +
+                  "queries again in the background after a restart, once the database has become available. This " +
+                  "avoids planning all of them at once when they are first executed after the restart. The profile " +
+                  "is stored unencrypted in the cypher/query_cache file of the database directory, and holds the " +
+                  "text of the queries, but not their parameters. Queries with string literals are left out of the " +
+                  "profile, since those may hold secrets." )
+    public static final Setting<Boolean> query_cache_warmup_enabled =
+            setting( "dbms.query_cache.warmup.enable", BOOLEAN, FALSE );
+
+    @Description( "The interval at which a new profile of the query plan cache is written, when the query plan cache " +
+                  "warmup is enabled." )
+    public static final Setting<Duration> query_cache_warmup_profiling_interval =
+            setting( "dbms.query_cache.warmup.profile.interval", DURATION, "1m" );
+
     @Description( "The threshold when a plan is considered stale. If any of the underlying" +
                   " statistics used to create the plan has changed more than this value, " +
                   "the plan is considered stale and will be replanned. " +
@@ -203,6 +218,12 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static Setting<Double> query_statistics_divergence_threshold = buildSetting(
             "cypher.statistics_divergence_threshold", DOUBLE, "0.75" ).constraint( range( 0.0, 1.0 ) ).build();
 
+    @Description( "Replan queries with stale plans in the background, one query at a time. Until the new plan is " +
+                  "ready, the query keeps being executed with its stale plan, instead of waiting for the new plan. " +
+                  "This avoids latency spikes when many frequently executed queries become stale at the same time." )
+    public static final Setting<Boolean> cypher_replan_in_background =
+            setting( "cypher.replan_in_background", BOOLEAN, FALSE );
+
     @Description( "The threshold when a warning is generated if a label scan is done after a load csv " +
                   "where the label has no index" )
     @Internal
@@ -226,6 +247,20 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Description( "The minimum lifetime of a query plan before a query is considered for replanning" )
     public static Setting<Duration> cypher_min_replan_interval = setting( "cypher.min_replan_interval", DURATION, "10s" );
 
+    @Description( "The maximum amount of memory that the sort, eager aggregation and node hash join operators of a " +
+                  "single Cypher query may use for the rows they hold on to. Once the estimated size of those rows " +
+                  "goes beyond this limit, the operators spill rows to temporary files and continue from there, " +
+                  "trading speed for predictable memory use. Zero means unlimited." )
+    public static final Setting<Long> cypher_query_memory_budget =
+            buildSetting( "cypher.query_memory_budget", BYTES, "0" ).constraint( min( 0L ) ).build();
+
+    @Description( "The directory that Cypher queries write their spill files to, when they go beyond " +
+                  "`cypher.query_memory_budget`. By default the spill files are written to the `cypher/spill` " +
+                  "directory of the database. Spill files are deleted when the operator that wrote them is done, " +
+                  "or at the latest when the query is closed." )
+    public static final Setting<File> cypher_query_spill_directory =
+            pathSetting( "cypher.query_spill_directory", NO_DEFAULT );
+
     @Description( "Determines if Cypher will allow using file URLs when loading data using `LOAD CSV`. Setting this "
                   + "value to `false` will cause Neo4j to fail `LOAD CSV` clauses that load data from the file system." )
     public static Setting<Boolean> allow_file_urls = setting( "dbms.security.allow_csv_import_from_file_urls", BOOLEAN, TRUE );
@@ -266,6 +301,19 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Duration> transaction_timeout = setting( "dbms.transaction.timeout", DURATION, String
             .valueOf( UNSPECIFIED_TIMEOUT ) );
 
+    @Description( "The maximum amount of memory that the transaction state of a single transaction may use. A " +
+                  "transaction that grows beyond this limit is terminated, instead of putting the whole database at " +
+                  "risk of running out of memory. The memory use is estimated from the changes made in the " +
+                  "transaction. Zero means unlimited." )
+    public static final Setting<Long> transaction_state_max_size =
+            buildSetting( "dbms.memory.transaction.max_size", BYTES, "0" ).constraint( min( 0L ) ).build();
+
+    @Description( "The maximum amount of memory that the transaction state of all running transactions may use " +
+                  "combined. The transaction that pushes the memory use beyond this limit is terminated. Zero means " +
+                  "unlimited." )
+    public static final Setting<Long> transaction_state_global_max_size =
+            buildSetting( "dbms.memory.transaction.global_max_size", BYTES, "0" ).constraint( min( 0L ) ).build();
+
     @Description( "The maximum time interval within which lock should be acquired." )
     public static final Setting<Duration> lock_acquisition_timeout = setting( "dbms.lock.acquisition.timeout", DURATION,
             String.valueOf( UNSPECIFIED_TIMEOUT ) );
@@ -346,6 +394,15 @@ public class GraphDatabaseSettings implements LoadableConfig
                   "Set this to -1 to disable the IOPS limit." )
     public static final Setting<Integer> check_point_iops_limit = setting( "dbms.checkpoint.iops.limit", INTEGER, "300" );
 
+    @Description( "Target for the average latency of page faults and transaction log forces while check pointing. " +
+                  "When set, the check pointer adjusts its IOPS limit on its own: it backs off when the latencies " +
+                  "observed while flushing exceed the target, and speeds up again while they stay well below it. " +
+                  "The `dbms.checkpoint.iops.limit` setting is then only used as the initial limit. " +
+                  "This is only supported in Neo4j Enterprise Edition." )
+    @Internal
+    public static final Setting<Duration> check_point_iops_latency_target =
+            setting( "unsupported.dbms.checkpoint.iops.latency_target", DURATION, NO_DEFAULT );
+
     // Auto Indexing
     @Description( "Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties listed in the dbms.auto_index.nodes.keys setting." )
@@ -428,12 +485,72 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> logical_log_rotation_threshold =
             buildSetting( "dbms.tx_log.rotation.size", BYTES, "250M" ).constraint( min( ByteUnit.mebiBytes( 1 ) ) ).build();
 
+    @Description( "Preallocate new logical log files to the size at which they are rotated, and recycle a pruned log " +
+            "file as the next new log file, instead of deleting it. Appending to a preallocated log file does not " +
+            "change its size, so forcing the log does not also have to force the file metadata. " +
+            "See `dbms.tx_log.rotation.size`." )
+    public static final Setting<Boolean> preallocate_logical_logs =
+            setting( "dbms.tx_log.preallocate", BOOLEAN, FALSE );
+
     @Description( "Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities." )
     @Internal
     public static final Setting<Boolean> rebuild_idgenerators_fast =
             setting( "unsupported.dbms.id_generator_fast_rebuild_enabled", BOOLEAN, TRUE );
 
+    @Description( "Recover the database in parallel after an unclean shutdown. The transaction log is read and decoded " +
+            "ahead of the recovery on a separate thread, and the relationship and relationship group record updates " +
+            "of the recovered transactions are applied concurrently with the rest of the recovery." )
+    @Internal
+    public static final Setting<Boolean> parallel_recovery =
+            setting( "unsupported.dbms.recovery.parallel_enabled", BOOLEAN, FALSE );
+
+    @Description( "Write the relationship and relationship group records of large transactions on a number of " +
+            "threads when they are applied to the store, for instance when a cluster member applies a transaction " +
+            "pulled from the leader. The records are partitioned by the store page they are on, while node, " +
+            "property, schema, token and other commands are still applied in transaction order." )
+    @Internal
+    public static final Setting<Boolean> parallel_transaction_apply =
+            setting( "unsupported.dbms.tx_apply.parallel_enabled", BOOLEAN, FALSE );
+
+    @Description( "The number of relationship and relationship group records a transaction updates on the applying " +
+            "thread, before the rest of them are written in parallel. " +
+            "See `unsupported.dbms.tx_apply.parallel_enabled`." )
+    @Internal
+    public static final Setting<Integer> parallel_transaction_apply_threshold =
+            buildSetting( "unsupported.dbms.tx_apply.parallel_threshold", INTEGER, "50000" )
+                    .constraint( min( 1 ) ).build();
+
+    @Description( "Commit transactions through a pipeline of two threads, instead of on the committing threads " +
+            "themselves. One thread appends and forces the transactions of all waiting committers to the log as " +
+            "one batch, while the other thread applies the previous batch to the store. This gives a higher " +
+            "commit throughput with many small concurrent write transactions." )
+    @Internal
+    public static final Setting<Boolean> pipelined_commit =
+            setting( "unsupported.dbms.tx_log.pipelined_commit_enabled", BOOLEAN, FALSE );
+
+    @Description( "Memory map the rotated transaction log files when reading them, instead of reading them through " +
+            "the file channel. Rotated log files are never written to again, so readers such as catchup, backup " +
+            "and recovery can read them straight out of the OS page cache without any read system calls." )
+    @Internal
+    public static final Setting<Boolean> tx_log_memory_mapped_reads =
+            setting( "unsupported.dbms.tx_log.memory_mapped_reads_enabled", BOOLEAN, FALSE );
+
+    @Description( "Compress the transaction log files that are no longer needed for recovery, once they have been " +
+            "check pointed past. The logs are compressed in blocks, and are read transparently by all log readers, " +
+            "but cannot be read by earlier versions of Neo4j. The log file that is being appended to is always kept " +
+            "uncompressed." )
+    @Internal
+    public static final Setting<Boolean> tx_log_compression =
+            setting( "unsupported.dbms.tx_log.compression_enabled", BOOLEAN, FALSE );
+
+    @Description( "Keep an index of the transaction start positions next to every rotated transaction log file, " +
+            "so that transactions in old logs can be found without scanning the logs, when catching up or " +
+            "backing up from them. The index of a log file is built the first time a transaction is looked up in it." )
+    @Internal
+    public static final Setting<Boolean> tx_log_transaction_index =
+            setting( "unsupported.dbms.tx_log.transaction_index_enabled", BOOLEAN, TRUE );
+
     // Store memory settings
     @Description( "Target size for pages of mapped memory. If set to 0, then a reasonable default is chosen, " +
                  "depending on the storage device used." )
@@ -458,6 +575,22 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.memory.pagecache.swapper", STRING, null );
 
+    @Description( "The eviction policy the page cache uses to decide which pages to evict, when it needs to make " +
+                  "room for new pages. The `CLOCK` policy treats all pages alike, which means that large scans, such " +
+                  "as analytical queries or backups, can push the working set out of the page cache. The " +
+                  "`SCAN_RESISTANT` policy protects the pages that are used repeatedly, from being evicted by pages " +
+                  "that are only used once." )
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy =
+            setting( "dbms.memory.pagecache.eviction_policy", options( EvictionPolicy.class, true ), "CLOCK" );
+
+    @Description( "The maximum number of dirty pages per second that the page cache writes to the storage device in " +
+                  "the background. Trickling dirty pages out continuously means that check points only have to " +
+                  "flush the pages that were dirtied recently, and that evicting a page rarely requires writing it " +
+                  "out first. Background flushing is disabled when this is 0, which is the default." )
+    public static final Setting<Integer> pagecache_background_flush_rate =
+            buildSetting( "dbms.memory.pagecache.background_flush_rate", INTEGER, "0" )
+                    .constraint( min( 0 ) ).build();
+
     /**
      * Block size properties values depends from selected record format.
      * We can't figured out record format until it will be selected by corresponding edition.
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.time.Clock;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
@@ -68,6 +69,7 @@ import org.neo4j.kernel.impl.api.StatementOperationContainer;
 import org.neo4j.kernel.impl.api.StatementOperationParts;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionHooks;
+import org.neo4j.kernel.impl.api.TransactionMemoryPool;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.SchemaIndexProviderMap;
 import org.neo4j.kernel.impl.api.operations.QueryRegistrationOperations;
@@ -102,6 +104,8 @@ import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.LogFileInformation;
+import org.neo4j.kernel.impl.transaction.log.LogFileCompressor;
+import org.neo4j.kernel.impl.transaction.log.LogFilePreallocator;
 import org.neo4j.kernel.impl.transaction.log.LogHeaderCache;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
@@ -115,6 +119,7 @@ import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChanne
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogIndex;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
@@ -611,11 +616,18 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
         LogHeaderCache logHeaderCache = new LogHeaderCache( 1000 );
         final PhysicalLogFiles logFiles = new PhysicalLogFiles( storeDir, PhysicalLogFile.DEFAULT_NAME,
                 fileSystemAbstraction );
+        // Preallocating log files is of no use to an in-memory file system, where it would only waste memory
+        boolean preallocateLogs = config.get( GraphDatabaseSettings.preallocate_logical_logs ) &&
+                !config.get( GraphDatabaseFacadeFactory.Configuration.ephemeral );
+        final LogFilePreallocator logFilePreallocator = preallocateLogs ? new LogFilePreallocator(
+                fileSystemAbstraction, logFiles, config.get( GraphDatabaseSettings.logical_log_rotation_threshold ) )
+                                                                        : null;
 
         final PhysicalLogFile logFile = life.add( new PhysicalLogFile( fileSystemAbstraction, logFiles,
                 config.get( GraphDatabaseSettings.logical_log_rotation_threshold ),
                 transactionIdStore::getLastCommittedTransactionId, logVersionRepository, physicalLogMonitor,
-                logHeaderCache ) );
+                logHeaderCache, config.get( GraphDatabaseSettings.tx_log_memory_mapped_reads ),
+                logFilePreallocator ) );
 
         final PhysicalLogFileInformation.LogVersionToTimestamp logInformation = version ->
         {
@@ -643,9 +655,12 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
         }
         String pruningConf = config.get( GraphDatabaseSettings.keep_logical_logs );
 
-        LogPruneStrategy logPruneStrategy = fromConfigValue( fs, logFileInformation, logFiles, pruningConf );
+        LogPruneStrategy logPruneStrategy = fromConfigValue( fs, logFileInformation, logFiles, pruningConf,
+                logFilePreallocator );
 
-        final LogPruning logPruning = new LogPruningImpl( logPruneStrategy, logProvider );
+        final LogFileCompressor logFileCompressor = config.get( GraphDatabaseSettings.tx_log_compression ) ?
+                new LogFileCompressor( fileSystemAbstraction, logFiles ) : null;
+        final LogPruning logPruning = new LogPruningImpl( logPruneStrategy, logFileCompressor, logProvider );
 
         final LogRotation logRotation =
                 new LogRotationImpl( monitors.newMonitor( LogRotation.Monitor.class ), logFile, databaseHealth );
@@ -653,8 +668,10 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
         final TransactionAppender appender = life.add( new BatchingTransactionAppender(
                 logFile, logRotation, transactionMetadataCache, transactionIdStore, legacyIndexTransactionOrdering,
                 databaseHealth ) );
-        final LogicalTransactionStore logicalTransactionStore =
-                new PhysicalLogicalTransactionStore( logFile, transactionMetadataCache, logEntryReader );
+        final TransactionLogIndex transactionLogIndex = config.get( GraphDatabaseSettings.tx_log_transaction_index ) ?
+                new TransactionLogIndex( fileSystemAbstraction, logFiles, logEntryReader ) : null;
+        final LogicalTransactionStore logicalTransactionStore = new PhysicalLogicalTransactionStore( logFile,
+                transactionMetadataCache, logEntryReader, transactionLogIndex );
 
         int txThreshold = config.get( GraphDatabaseSettings.check_point_interval_tx );
         final CountCommittedTransactionThreshold countCommittedTransactionThreshold =
@@ -695,9 +712,12 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
     {
         final LatestCheckPointFinder checkPointFinder =
                 new LatestCheckPointFinder( logFiles, fileSystemAbstraction, logEntryReader );
+        ThreadFactory readAheadThreadFactory = config.get( GraphDatabaseSettings.parallel_recovery )
+                                               ? scheduler.threadFactory( JobScheduler.Groups.recovery ) : null;
         Recovery.SPI spi = new DefaultRecoverySPI(
                 storageEngine, logFiles, fileSystemAbstraction, logVersionRepository,
-                checkPointFinder, transactionIdStore, logicalTransactionStore, positionMonitor );
+                checkPointFinder, transactionIdStore, logicalTransactionStore, positionMonitor,
+                readAheadThreadFactory );
         Recovery recovery = new Recovery( spi, recoveryMonitor );
         monitors.addMonitorListener( new Recovery.Monitor()
         {
@@ -723,6 +743,10 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
     {
         TransactionCommitProcess transactionCommitProcess = commitProcessFactory.create( appender, storageEngine,
                 config );
+        if ( transactionCommitProcess instanceof Lifecycle )
+        {
+            life.add( (Lifecycle) transactionCommitProcess );
+        }
 
         /*
          * This is used by legacy indexes and constraint indexes whenever a transaction is to be spawned
@@ -744,7 +768,8 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
         KernelTransactions kernelTransactions = life.add( new KernelTransactions( statementLocksFactory,
                 constraintIndexCreator, statementOperationContainer, schemaWriteGuard, transactionHeaderInformationFactory,
                 transactionCommitProcess, indexConfigStore, legacyIndexProviderLookup, hooks, transactionMonitor,
-                availabilityGuard, tracers, storageEngine, procedures, transactionIdStore, clock, accessCapability ) );
+                availabilityGuard, tracers, storageEngine, procedures, transactionIdStore, clock, accessCapability,
+                TransactionMemoryPool.fromConfig( config ) ) );
 
         buildTransactionMonitor( kernelTransactions, clock, config );
 
@@ -109,4 +109,9 @@ public interface KernelTransactionHandle
      * @return the lock requests granted for this transaction.
      */
     Stream<? extends ActiveLock> activeLocks();
+
+    /**
+     * @return a rough estimate, in bytes, of the heap retained by the transaction state of the underlying transaction.
+     */
+    long estimatedHeapUsage();
 }
@@ -117,6 +117,14 @@ public interface ReadOperations
      */
     PrimitiveLongIterator nodesGetForLabel( int labelId );
 
+    /**
+     * @param labelId the label id of the label that returned nodes are guaranteed to have
+     * @param fromId the lowest node id to return, inclusive
+     * @param toId the highest node id to return, exclusive
+     * @return ids of all nodes that have the given label, in the range {@code [fromId, toId)}
+     */
+    PrimitiveLongIterator nodesGetForLabel( int labelId, long fromId, long toId );
+
     /**
      * Queries the given index with the given index query.
      *
@@ -133,6 +141,22 @@ public interface ReadOperations
      */
     PrimitiveLongIterator nodesGetAll();
 
+    /**
+     * @param fromId the lowest node id to return, inclusive
+     * @param toId the highest node id to return, exclusive
+     * @return an iterator over all nodes in the database, in the range {@code [fromId, toId)}.
+     */
+    PrimitiveLongIterator nodesGetAll( long fromId, long toId );
+
+    /**
+     * Splits the node id space into disjoint ranges, that can be scanned by separate workers using
+     * {@link #nodesGetAll(long, long)} or {@link #nodesGetForLabel(int, long, long)}.
+     *
+     * @param desiredPartitions the number of ranges to split into, fewer are returned for small databases
+     * @return the range boundaries, where range {@code i} is {@code [boundaries[i], boundaries[i + 1])}.
+     */
+    long[] nodesGetScanPartitions( int desiredPartitions );
+
     /**
      * @return an iterator over all relationships in the database.
      */
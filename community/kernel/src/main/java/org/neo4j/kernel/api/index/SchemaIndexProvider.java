@@ -21,6 +21,8 @@ package org.neo4j.kernel.api.index;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.helpers.collection.Iterators;
@@ -177,6 +179,18 @@ public abstract class SchemaIndexProvider extends LifecycleAdapter implements Co
         return providerDescriptor;
     }
 
+    /**
+     * Indexes that were created by an earlier version of this provider are opened by this provider. If the on-disk
+     * layout of such an index differs from the current one, {@link #getInitialState(long, IndexDescriptor)} must
+     * report it as {@link InternalIndexState#POPULATING}, so that it is rebuilt.
+     *
+     * @return the descriptors of the earlier versions of this provider.
+     */
+    public List<Descriptor> getPreviousProviderDescriptors()
+    {
+        return Collections.emptyList();
+    }
+
     @Override
     public int compareTo( SchemaIndexProvider o )
     {
@@ -75,6 +75,14 @@ public interface TransactionState extends ReadableTransactionState
 
     void relationshipTypeDoCreateForName( String relationshipTypeName, int id );
 
+    // ACCOUNTING
+
+    /**
+     * @return a rough estimate, in bytes, of the heap retained by this transaction state. The estimate is based on
+     * the number and kind of changes recorded, and decreases again when changes are undone.
+     */
+    long estimatedHeapUsage();
+
     // SCHEMA RELATED
 
     void indexRuleDoAdd( IndexDescriptor descriptor );
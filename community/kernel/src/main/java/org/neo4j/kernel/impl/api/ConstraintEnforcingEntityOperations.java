@@ -356,6 +356,12 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations, Sc
         return entityReadOperations.nodesGetForLabel( state, labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForLabel( KernelStatement state, int labelId, long fromId, long toId )
+    {
+        return entityReadOperations.nodesGetForLabel( state, labelId, fromId, toId );
+    }
+
     @Override
     public PrimitiveLongIterator indexQuery( KernelStatement statement, IndexDescriptor index,
             IndexQuery[] predicates )
@@ -458,6 +464,18 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations, Sc
         return entityReadOperations.nodesGetAll( state );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetAll( KernelStatement state, long fromId, long toId )
+    {
+        return entityReadOperations.nodesGetAll( state, fromId, toId );
+    }
+
+    @Override
+    public long[] nodesGetScanPartitions( KernelStatement state, int desiredPartitions )
+    {
+        return entityReadOperations.nodesGetScanPartitions( state, desiredPartitions );
+    }
+
     @Override
     public PrimitiveLongIterator relationshipsGetAll( KernelStatement state )
     {
@@ -35,7 +35,7 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.Clocks;
 import org.neo4j.time.SystemNanoClock;
 
-public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor
+public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor, LogForceMonitor
 {
     public interface Monitor
     {
@@ -48,6 +48,8 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
 
     private final AtomicLong counter = new AtomicLong();
     private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
+    private final AtomicLong logForceCounter = new AtomicLong();
+    private final AtomicLong logForceAccumulatedTotalTimeNanos = new AtomicLong();
 
     private long startTimeNanos;
 
@@ -88,7 +90,10 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         @Override
         public LogForceEvent beginLogForce()
         {
-            return LogForceEvent.NULL;
+            // Forces are batched, and the append event is shared between committing threads, so the start time
+            // is captured per force rather than in a field.
+            long forceStartTimeNanos = clock.nanos();
+            return () -> logForceCompleted( clock.nanos() - forceStartTimeNanos );
         }
     };
 
@@ -177,6 +182,24 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         return TimeUnit.NANOSECONDS.toMillis( accumulatedTotalTimeNanos.get() );
     }
 
+    @Override
+    public long numberOfLogForceEvents()
+    {
+        return logForceCounter.get();
+    }
+
+    @Override
+    public long logForceAccumulatedTotalTimeNanos()
+    {
+        return logForceAccumulatedTotalTimeNanos.get();
+    }
+
+    private void logForceCompleted( long forceTimeNanos )
+    {
+        logForceCounter.incrementAndGet();
+        logForceAccumulatedTotalTimeNanos.addAndGet( forceTimeNanos );
+    }
+
     private void updateCountersAndNotifyListeners()
     {
         counter.incrementAndGet();
@@ -172,6 +172,13 @@ public class GuardingStatementOperations implements
         return entityReadDelegate.nodesGetForLabel( statement, labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForLabel( KernelStatement statement, int labelId, long fromId, long toId )
+    {
+        guard.check( statement );
+        return entityReadDelegate.nodesGetForLabel( statement, labelId, fromId, toId );
+    }
+
     @Override
     public PrimitiveLongIterator indexQuery( KernelStatement statement, IndexDescriptor index,
             IndexQuery[] predicates )
@@ -225,6 +232,20 @@ public class GuardingStatementOperations implements
         return entityReadDelegate.nodesGetAll( statement );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetAll( KernelStatement statement, long fromId, long toId )
+    {
+        guard.check( statement );
+        return entityReadDelegate.nodesGetAll( statement, fromId, toId );
+    }
+
+    @Override
+    public long[] nodesGetScanPartitions( KernelStatement statement, int desiredPartitions )
+    {
+        guard.check( statement );
+        return entityReadDelegate.nodesGetScanPartitions( statement, desiredPartitions );
+    }
+
     @Override
     public PrimitiveLongIterator relationshipsGetAll( KernelStatement statement )
     {
@@ -52,6 +52,7 @@ import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.kernel.api.txstate.TxStateHolder;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.state.TxState;
+import org.neo4j.kernel.impl.api.state.TxStateMemoryTracker;
 import org.neo4j.kernel.impl.factory.AccessCapability;
 import org.neo4j.kernel.impl.locking.ActiveLock;
 import org.neo4j.kernel.impl.locking.LockTracer;
@@ -107,6 +108,21 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final PageCursorTracerSupplier cursorTracerSupplier;
     private final StoreReadLayer storeLayer;
     private final Clock clock;
+    private final TransactionMemoryPool memoryPool;
+    private final TxStateMemoryTracker memoryTracker = new TxStateMemoryTracker()
+    {
+        @Override
+        public void allocated( long bytes )
+        {
+            txStateAllocated( bytes );
+        }
+
+        @Override
+        public void released( long bytes )
+        {
+            txStateReleased( bytes );
+        }
+    };
 
     // State that needs to be reset between uses. Most of these should be cleared or released in #release(),
     // whereas others, such as timestamp or txId when transaction starts, even locks, needs to be set in #initialize().
@@ -136,6 +152,12 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private long commitTime;
     private volatile int reuseCount;
     private volatile Map<String,Object> userMetaData;
+    /**
+     * The estimated heap usage of the transaction state, as reserved from the {@link #memoryPool}. Only ever written
+     * by the thread executing this transaction, but volatile so that {@link #estimatedHeapUsage()} can be called by
+     * other threads.
+     */
+    private volatile long memoryReserved;
 
     /**
      * Lock prevents transaction {@link #markForTermination(Status)}  transaction termination} from interfering with
@@ -161,7 +183,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                                             LockTracer lockTracer,
                                             PageCursorTracerSupplier cursorTracerSupplier,
                                             StorageEngine storageEngine,
-                                            AccessCapability accessCapability )
+                                            AccessCapability accessCapability,
+                                            TransactionMemoryPool memoryPool )
     {
         this.operationContainer = operationContainer;
         this.schemaWriteGuard = schemaWriteGuard;
@@ -177,6 +200,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.clock = clock;
         this.transactionTracer = transactionTracer;
         this.cursorTracerSupplier = cursorTracerSupplier;
+        this.memoryPool = memoryPool;
         this.storageStatement = storeLayer.newStatement();
         this.currentStatement =
                 new KernelStatement( this, this, storageStatement, procedures, accessCapability, lockTracer );
@@ -376,11 +400,31 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         if ( txState == null )
         {
             transactionMonitor.upgradeToWriteTransaction();
-            txState = new TxState();
+            txState = new TxState( memoryTracker );
         }
         return txState;
     }
 
+    /**
+     * Reserves the memory that the transaction state has grown by, and terminates this transaction if it has grown
+     * beyond the memory limits. The memory is given back to the pool when the transaction is released.
+     */
+    private void txStateAllocated( long bytes )
+    {
+        memoryReserved += bytes;
+        Status limitExceeded = memoryPool.reserve( bytes, memoryReserved );
+        if ( limitExceeded != null && terminationReason == null )
+        {
+            markForTermination( limitExceeded );
+        }
+    }
+
+    private void txStateReleased( long bytes )
+    {
+        memoryReserved -= bytes;
+        memoryPool.release( bytes );
+    }
+
     @Override
     public LegacyIndexTransactionState legacyIndexTxState()
     {
@@ -709,6 +753,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             transactionEvent = null;
             legacyIndexTransactionState = null;
             txState = null;
+            memoryPool.release( memoryReserved );
+            memoryReserved = 0;
             hooksState = null;
             currentTransactionOperations = null;
             closeListeners.clear();
@@ -814,6 +860,18 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         return locks == null ? Stream.empty() : locks.activeLocks();
     }
 
+    /**
+     * This method will be invoked by concurrent threads for inspecting the memory used by this transaction, which
+     * is why it reads the volatile {@link #memoryReserved} rather than asking the transaction state itself.
+     *
+     * @return a rough estimate, in bytes, of the heap retained by the transaction state of this transaction, or
+     * {@code 0} if no transaction state has been created.
+     */
+    public long estimatedHeapUsage()
+    {
+        return memoryReserved;
+    }
+
     /**
      * It is not allowed for the same transaction to perform database writes as well as schema writes.
      * This enum tracks the current write transactionStatus of the transaction, allowing it to transition from
@@ -126,6 +126,12 @@ class KernelTransactionImplementationHandle implements KernelTransactionHandle
         return tx.activeLocks();
     }
 
+    @Override
+    public long estimatedHeapUsage()
+    {
+        return tx.estimatedHeapUsage();
+    }
+
     @Override
     public boolean equals( Object o )
     {
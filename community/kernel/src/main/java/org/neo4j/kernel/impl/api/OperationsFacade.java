@@ -208,6 +208,20 @@ public class OperationsFacade
         return dataRead().nodesGetAll( statement );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetAll( long fromId, long toId )
+    {
+        statement.assertOpen();
+        return dataRead().nodesGetAll( statement, fromId, toId );
+    }
+
+    @Override
+    public long[] nodesGetScanPartitions( int desiredPartitions )
+    {
+        statement.assertOpen();
+        return dataRead().nodesGetScanPartitions( statement, desiredPartitions );
+    }
+
     @Override
     public PrimitiveLongIterator relationshipsGetAll()
     {
@@ -226,6 +240,17 @@ public class OperationsFacade
         return dataRead().nodesGetForLabel( statement, labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForLabel( int labelId, long fromId, long toId )
+    {
+        statement.assertOpen();
+        if ( labelId == StatementConstants.NO_SUCH_LABEL )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+        return dataRead().nodesGetForLabel( statement, labelId, fromId, toId );
+    }
+
     @Override
     public PrimitiveLongIterator indexQuery( IndexDescriptor index, IndexQuery... predicates )
             throws IndexNotFoundKernelException, IndexNotApplicableKernelException
@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionLogError;
+
+/**
+ * A {@link TransactionCommitProcess} where committing threads don't append, force and apply their own transactions,
+ * but hand them over to a pipeline of two jobs, in the {@link JobScheduler.Groups#transactionCommit} group, and wait
+ * for them to be committed.
+ * <p>
+ * The appender job takes all transactions that are waiting to be committed, links them into one batch, and
+ * appends and forces the whole batch to the log in one go. The batch is then handed over to the applier job, that
+ * applies the batch to the store and closes its transactions, while the appender job goes on to append the next
+ * batch. This way many small concurrent transactions share both the log force and the store application, and the
+ * appending of one batch overlaps with the application of the previous one.
+ * <p>
+ * The log append and store apply events of every transaction in a batch are traced, and span the append and
+ * application of the whole batch. The log is forced once for the whole batch, so forces and rotations are only traced
+ * by the log append event of the first transaction of the batch.
+ * <p>
+ * Before this process has been started, or after it has been stopped, transactions are committed on the committing
+ * thread, like in {@link TransactionRepresentationCommitProcess}.
+ */
+public class PipelinedTransactionCommitProcess extends LifecycleAdapter implements TransactionCommitProcess
+{
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final int QUEUED_BATCHES = 16;
+    private static final long POLL_TIMEOUT_MILLIS = 10;
+
+    private final TransactionAppender appender;
+    private final StorageEngine storageEngine;
+    private final JobScheduler scheduler;
+    private final TransactionCommitProcess inlineCommitProcess;
+    private final BlockingQueue<CommitRequest> requests;
+    private final BlockingQueue<List<CommitRequest>> appendedBatches;
+    // Committers hold the read lock while handing over their transactions, so that stopping can be sure that no
+    // more requests will be handed over, once it has taken the write lock.
+    private final ReadWriteLock handOverLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private JobScheduler.JobHandle appenderJob;
+    private JobScheduler.JobHandle applierJob;
+
+    public PipelinedTransactionCommitProcess( TransactionAppender appender, StorageEngine storageEngine,
+            JobScheduler scheduler )
+    {
+        this.appender = appender;
+        this.storageEngine = storageEngine;
+        this.scheduler = scheduler;
+        this.inlineCommitProcess = new TransactionRepresentationCommitProcess( appender, storageEngine );
+        this.requests = new ArrayBlockingQueue<>( MAX_BATCH_SIZE );
+        this.appendedBatches = new ArrayBlockingQueue<>( QUEUED_BATCHES );
+    }
+
+    @Override
+    public void start() throws Throwable
+    {
+        running = true;
+        appenderJob = scheduler.schedule( JobScheduler.Groups.transactionCommit, this::appendBatches );
+        applierJob = scheduler.schedule( JobScheduler.Groups.transactionCommit, this::applyBatches );
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        handOverLock.writeLock().lock();
+        try
+        {
+            running = false;
+        }
+        finally
+        {
+            handOverLock.writeLock().unlock();
+        }
+        // Both jobs finish the transactions that have been handed over to them before they exit.
+        if ( appenderJob != null )
+        {
+            appenderJob.waitTermination();
+            applierJob.waitTermination();
+            appenderJob = null;
+            applierJob = null;
+        }
+    }
+
+    @Override
+    public long commit( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+            throws TransactionFailureException
+    {
+        CommitRequest request = new CommitRequest( batch, commitEvent, mode );
+        handOverLock.readLock().lock();
+        try
+        {
+            if ( !running )
+            {
+                return inlineCommitProcess.commit( batch, commitEvent, mode );
+            }
+            handOver( request );
+        }
+        finally
+        {
+            handOverLock.readLock().unlock();
+        }
+        return request.awaitCommitted();
+    }
+
+    private void handOver( CommitRequest request )
+    {
+        boolean interrupted = false;
+        while ( true )
+        {
+            try
+            {
+                requests.put( request );
+                break;
+            }
+            catch ( InterruptedException e )
+            {
+                // The transaction must be committed, so we keep trying and restore the interrupt afterwards.
+                interrupted = true;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void appendBatches()
+    {
+        List<CommitRequest> drained = new ArrayList<>( MAX_BATCH_SIZE );
+        try
+        {
+            while ( running || !requests.isEmpty() )
+            {
+                CommitRequest first = requests.poll( POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+                if ( first == null )
+                {
+                    continue;
+                }
+                drained.add( first );
+                requests.drainTo( drained, MAX_BATCH_SIZE - 1 );
+
+                // Transactions applied in different modes can not be applied together, so we split the requests
+                // into consecutive runs of the same mode, which is most often just one run.
+                int start = 0;
+                for ( int i = 1; i <= drained.size(); i++ )
+                {
+                    if ( i == drained.size() || drained.get( i ).mode != drained.get( start ).mode )
+                    {
+                        append( new ArrayList<>( drained.subList( start, i ) ) );
+                        start = i;
+                    }
+                }
+                drained.clear();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            putAppendedBatch( new ArrayList<>() );
+        }
+    }
+
+    private void append( List<CommitRequest> batch ) throws InterruptedException
+    {
+        CommitRequest first = batch.get( 0 );
+        link( batch );
+        try ( LogAppendEvent logAppendEvent = new BatchLogAppendEvent( batch ) )
+        {
+            appender.append( first.transactions, logAppendEvent );
+        }
+        catch ( Throwable cause )
+        {
+            unlink( batch );
+            for ( CommitRequest request : batch )
+            {
+                request.failed( new TransactionFailureException( TransactionLogError, cause,
+                        "Could not append transaction representation to log" ) );
+            }
+            return;
+        }
+        putAppendedBatch( batch );
+    }
+
+    private void putAppendedBatch( List<CommitRequest> batch )
+    {
+        boolean interrupted = false;
+        while ( true )
+        {
+            try
+            {
+                appendedBatches.put( batch );
+                break;
+            }
+            catch ( InterruptedException e )
+            {
+                // The applier must get this batch, or the committers would never be woken up.
+                interrupted = true;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void applyBatches()
+    {
+        try
+        {
+            List<CommitRequest> batch;
+            // The appender job hands over an empty batch when it exits.
+            while ( !(batch = appendedBatches.take()).isEmpty() )
+            {
+                apply( batch );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void apply( List<CommitRequest> batch )
+    {
+        CommitRequest first = batch.get( 0 );
+        List<StoreApplyEvent> storeApplyEvents = new ArrayList<>( batch.size() );
+        Throwable failure = null;
+        try
+        {
+            for ( CommitRequest request : batch )
+            {
+                storeApplyEvents.add( request.commitEvent.beginStoreApply() );
+            }
+            storageEngine.apply( first.transactions, first.mode );
+        }
+        catch ( Throwable cause )
+        {
+            failure = cause;
+        }
+        finally
+        {
+            unlink( batch );
+        }
+
+        // Every request of the batch must be completed, whatever fails from here on, or its committer would wait
+        // for it forever, so failures are recorded per request.
+        for ( int i = 0; i < batch.size(); i++ )
+        {
+            CommitRequest request = batch.get( i );
+            TransactionFailureException requestFailure = null;
+            if ( failure != null )
+            {
+                requestFailure = new TransactionFailureException( TransactionCommitFailed, failure,
+                        "Could not apply the transaction to the store after written to log" );
+            }
+            try
+            {
+                close( request.transactions );
+            }
+            catch ( Throwable cause )
+            {
+                requestFailure = closeFailed( requestFailure, cause );
+            }
+            try
+            {
+                if ( i < storeApplyEvents.size() )
+                {
+                    storeApplyEvents.get( i ).close();
+                }
+            }
+            catch ( Throwable cause )
+            {
+                requestFailure = closeFailed( requestFailure, cause );
+            }
+
+            if ( requestFailure == null )
+            {
+                request.committed();
+            }
+            else
+            {
+                request.failed( requestFailure );
+            }
+        }
+    }
+
+    private static TransactionFailureException closeFailed( TransactionFailureException failure, Throwable cause )
+    {
+        if ( failure == null )
+        {
+            return new TransactionFailureException( TransactionCommitFailed, cause,
+                    "Could not close the transaction after it was applied to the store" );
+        }
+        failure.addSuppressed( cause );
+        return failure;
+    }
+
+    private static void link( List<CommitRequest> batch )
+    {
+        for ( int i = 1; i < batch.size(); i++ )
+        {
+            batch.get( i - 1 ).last.next( batch.get( i ).transactions );
+        }
+    }
+
+    private static void unlink( List<CommitRequest> batch )
+    {
+        for ( CommitRequest request : batch )
+        {
+            request.last.next( null );
+        }
+    }
+
+    private static void close( TransactionToApply batch )
+    {
+        while ( batch != null )
+        {
+            if ( batch.commitment().markedAsCommitted() )
+            {
+                batch.commitment().publishAsClosed();
+            }
+            batch.close();
+            batch = batch.next();
+        }
+    }
+
+    /**
+     * The log append events of all requests of a batch, that are appended together.
+     */
+    private static class BatchLogAppendEvent implements LogAppendEvent
+    {
+        private final List<LogAppendEvent> events;
+
+        BatchLogAppendEvent( List<CommitRequest> batch )
+        {
+            events = new ArrayList<>( batch.size() );
+            for ( CommitRequest request : batch )
+            {
+                events.add( request.commitEvent.beginLogAppend() );
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            events.forEach( LogAppendEvent::close );
+        }
+
+        @Override
+        public void setLogRotated( boolean logRotated )
+        {
+            for ( LogAppendEvent event : events )
+            {
+                event.setLogRotated( logRotated );
+            }
+        }
+
+        @Override
+        public LogRotateEvent beginLogRotate()
+        {
+            return events.get( 0 ).beginLogRotate();
+        }
+
+        @Override
+        public SerializeTransactionEvent beginSerializeTransaction()
+        {
+            return events.get( 0 ).beginSerializeTransaction();
+        }
+
+        @Override
+        public LogForceWaitEvent beginLogForceWait()
+        {
+            return events.get( 0 ).beginLogForceWait();
+        }
+
+        @Override
+        public LogForceEvent beginLogForce()
+        {
+            return events.get( 0 ).beginLogForce();
+        }
+    }
+
+    private static class CommitRequest
+    {
+        private final TransactionToApply transactions;
+        private final TransactionToApply last;
+        private final CommitEvent commitEvent;
+        private final TransactionApplicationMode mode;
+        private final Thread committer = Thread.currentThread();
+        private volatile boolean done;
+        private volatile TransactionFailureException failure;
+
+        CommitRequest( TransactionToApply transactions, CommitEvent commitEvent, TransactionApplicationMode mode )
+        {
+            this.transactions = transactions;
+            this.commitEvent = commitEvent;
+            this.mode = mode;
+            TransactionToApply last = transactions;
+            while ( last.next() != null )
+            {
+                last = last.next();
+            }
+            this.last = last;
+        }
+
+        void committed()
+        {
+            done = true;
+            LockSupport.unpark( committer );
+        }
+
+        void failed( TransactionFailureException failure )
+        {
+            this.failure = failure;
+            committed();
+        }
+
+        long awaitCommitted() throws TransactionFailureException
+        {
+            boolean interrupted = false;
+            while ( !done )
+            {
+                LockSupport.park( this );
+                // The transaction is committed regardless, so we clear the interrupt while waiting for it.
+                interrupted |= Thread.interrupted();
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return last.transactionId();
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.neo4j.collection.primitive.PrimitiveIntCollection;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveIntSet;
 import org.neo4j.collection.primitive.PrimitiveIntStack;
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.collection.primitive.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.Cursor;
@@ -490,6 +491,21 @@ public class StateHandlingStatementOperations implements
         return state.hasTxStateWithChanges() ? state.txState().augmentNodesGetAll( iterator ) : iterator;
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetAll( KernelStatement state, long fromId, long toId )
+    {
+        PrimitiveLongIterator iterator = storeLayer.nodesGetAll( fromId, toId );
+        return state.hasTxStateWithChanges()
+               ? inRange( state.txState().augmentNodesGetAll( iterator ), fromId, toId )
+               : iterator;
+    }
+
+    @Override
+    public long[] nodesGetScanPartitions( KernelStatement state, int desiredPartitions )
+    {
+        return storeLayer.nodesGetScanPartitions( desiredPartitions );
+    }
+
     @Override
     public RelationshipIterator relationshipsGetAll( KernelStatement state )
     {
@@ -551,6 +567,26 @@ public class StateHandlingStatementOperations implements
         return storeLayer.nodesGetForLabel( state.getStoreStatement(), labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForLabel( KernelStatement state, int labelId, long fromId, long toId )
+    {
+        PrimitiveLongIterator iterator =
+                storeLayer.nodesGetForLabel( state.getStoreStatement(), labelId, fromId, toId );
+        if ( state.hasTxStateWithChanges() )
+        {
+            PrimitiveLongIterator wLabelChanges =
+                    inRange( state.txState().nodesWithLabelChanged( labelId ).augment( iterator ), fromId, toId );
+            return state.txState().addedAndRemovedNodes().augmentWithRemovals( wLabelChanges );
+        }
+        return iterator;
+    }
+
+    private static PrimitiveLongIterator inRange( PrimitiveLongIterator nodeIds, long fromId, long toId )
+    {
+        // Nodes added in the transaction state are not partitioned, so only keep the ones in the requested range.
+        return PrimitiveLongCollections.filter( nodeIds, nodeId -> nodeId >= fromId && nodeId < toId );
+    }
+
     @Override
     public long nodesGetCount( KernelStatement state )
     {
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.configuration.Config;
+
+/**
+ * Keeps track of the memory used by the transaction state of all running transactions, and decides when a
+ * transaction has grown beyond either the {@link GraphDatabaseSettings#transaction_state_max_size per-transaction}
+ * or the {@link GraphDatabaseSettings#transaction_state_global_max_size global} memory limit.
+ * <p>
+ * A limit of zero means that there is no limit.
+ */
+public class TransactionMemoryPool
+{
+    private final long transactionLimit;
+    private final long globalLimit;
+    private final AtomicLong reserved = new AtomicLong();
+
+    public TransactionMemoryPool( long transactionLimit, long globalLimit )
+    {
+        this.transactionLimit = transactionLimit;
+        this.globalLimit = globalLimit;
+    }
+
+    public static TransactionMemoryPool fromConfig( Config config )
+    {
+        return new TransactionMemoryPool( config.get( GraphDatabaseSettings.transaction_state_max_size ),
+                config.get( GraphDatabaseSettings.transaction_state_global_max_size ) );
+    }
+
+    public static TransactionMemoryPool unlimited()
+    {
+        return new TransactionMemoryPool( 0, 0 );
+    }
+
+    /**
+     * Reserve memory on behalf of a transaction. The memory is always reserved, also when a limit is exceeded, so
+     * that the same amount can later be {@link #release(long) released} when the transaction closes.
+     *
+     * @param bytes the number of bytes the transaction has grown by.
+     * @param transactionTotal the total number of bytes the transaction has reserved, including {@code bytes}.
+     * @return the status that the transaction should be terminated with, or {@code null} if the transaction is
+     * still within the limits.
+     */
+    Status reserve( long bytes, long transactionTotal )
+    {
+        long globalTotal = reserved.addAndGet( bytes );
+        if ( transactionLimit > 0 && transactionTotal > transactionLimit )
+        {
+            return Status.Transaction.TransactionMemoryLimitExceeded;
+        }
+        if ( globalLimit > 0 && globalTotal > globalLimit )
+        {
+            return Status.Transaction.GlobalMemoryLimitExceeded;
+        }
+        return null;
+    }
+
+    /**
+     * Give back memory reserved by a transaction.
+     *
+     * @param bytes the number of bytes to release.
+     */
+    void release( long bytes )
+    {
+        reserved.addAndGet( -bytes );
+    }
+
+    /**
+     * @return the number of bytes currently reserved by all running transactions combined.
+     */
+    public long reserved()
+    {
+        return reserved.get();
+    }
+}
@@ -287,7 +287,7 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
             try
             {
                 delegate.run();
-                log.info( "Completed node store scan. " +
+                log.info( "Completed node store scan " + delegate + ". " +
                           "Flushing all pending updates." + EOL + BatchingMultipleIndexPopulator.this );
                 flushAll();
             }
@@ -330,5 +330,17 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
         {
             delegate.configure( populations );
         }
+
+        @Override
+        public void configureParallelism( int workers, long maxNodesPerSecond )
+        {
+            delegate.configureParallelism( workers, maxNodesPerSecond );
+        }
+
+        @Override
+        public void runExclusively( Runnable task )
+        {
+            delegate.runExclusively( task );
+        }
     }
 }
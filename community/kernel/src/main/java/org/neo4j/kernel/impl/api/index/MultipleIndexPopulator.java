@@ -72,6 +72,10 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * of concurrent threads.</li>
  * </ul>
  *
+ * The store scan is allowed to process partitions of the store using {@link #SCAN_WORKERS_NAME multiple workers},
+ * each feeding its own batches to the populators, and to be throttled to {@link #SCAN_MAX_NODES_PER_SECOND_NAME a
+ * maximum number of nodes per second}. Queued updates are then applied while all workers are paused.
+ *
  * Usage of this class should be something like:
  * <ol>
  * <li>Instantiation.</li>
@@ -87,9 +91,16 @@ public class MultipleIndexPopulator implements IndexPopulator
 {
     public static final String QUEUE_THRESHOLD_NAME = "queue_threshold";
     static final String BATCH_SIZE_NAME = "batch_size";
+    static final String SCAN_WORKERS_NAME = "scan_workers";
+    static final String SCAN_MAX_NODES_PER_SECOND_NAME = "scan_max_nodes_per_second";
 
     private final int QUEUE_THRESHOLD = FeatureToggles.getInteger( getClass(), QUEUE_THRESHOLD_NAME, 20_000 );
     private final int BATCH_SIZE = FeatureToggles.getInteger( BatchingMultipleIndexPopulator.class, BATCH_SIZE_NAME, 10_000 );
+    // Leave half of the cores to online traffic by default
+    private final int SCAN_WORKERS = FeatureToggles.getInteger( MultipleIndexPopulator.class, SCAN_WORKERS_NAME,
+            Math.max( 1, Runtime.getRuntime().availableProcessors() / 2 ) );
+    private final long SCAN_MAX_NODES_PER_SECOND = FeatureToggles.getLong( MultipleIndexPopulator.class,
+            SCAN_MAX_NODES_PER_SECOND_NAME, 0 );
 
     // Concurrency queue since multiple concurrent threads may enqueue updates into it. It is important for this queue
     // to have fast #size() method since it might be drained in batches
@@ -170,6 +181,7 @@ public class MultipleIndexPopulator implements IndexPopulator
 
         storeScan = storeView.visitNodes( labelIds, propertyKeyIdFilter, new NodePopulationVisitor(), null, false );
         storeScan.configure( populations );
+        storeScan.configureParallelism( SCAN_WORKERS, SCAN_MAX_NODES_PER_SECOND );
         return storeScan;
     }
 
@@ -335,7 +347,7 @@ public class MultipleIndexPopulator implements IndexPopulator
     {
         if ( isQueueThresholdReached() )
         {
-            populateFromQueue( currentlyIndexedNodeId );
+            storeScan.runExclusively( () -> populateFromQueue( currentlyIndexedNodeId ) );
         }
     }
 
@@ -494,10 +506,20 @@ public class MultipleIndexPopulator implements IndexPopulator
         private void onUpdate( IndexEntryUpdate update )
                 throws IndexEntryConflictException, IOException
         {
-            populator.includeSample( update );
-            if ( batch( update ) )
+            // Updates may come from multiple scan workers. Samplers are not thread-safe, populators accept
+            // concurrent batches.
+            Collection<IndexEntryUpdate<?>> fullBatch = null;
+            synchronized ( this )
             {
-                populator.add( takeCurrentBatch() );
+                populator.includeSample( update );
+                if ( batch( update ) )
+                {
+                    fullBatch = takeCurrentBatch();
+                }
+            }
+            if ( fullBatch != null )
+            {
+                populator.add( fullBatch );
             }
         }
 
@@ -522,13 +544,13 @@ public class MultipleIndexPopulator implements IndexPopulator
             return descriptor.schema();
         }
 
-        public boolean batch( IndexEntryUpdate<?> update )
+        public synchronized boolean batch( IndexEntryUpdate<?> update )
         {
             batchedUpdates.add( update );
             return batchedUpdates.size() >= BATCH_SIZE;
         }
 
-        Collection<IndexEntryUpdate<?>> takeCurrentBatch()
+        synchronized Collection<IndexEntryUpdate<?>> takeCurrentBatch()
         {
             if ( batchedUpdates.isEmpty() )
             {
@@ -36,4 +36,28 @@ public interface StoreScan<FAILURE extends Exception>
     PopulationProgress getProgress();
 
     void configure( Collection<MultipleIndexPopulator.IndexPopulation> populations );
+
+    /**
+     * Lets this scan process the store using the given number of concurrent workers, each one scanning its own
+     * partition of the node ids, and limits the rate at which nodes are scanned so that online traffic is not starved.
+     * Must be called before {@link #run()}. Scans that can only be run by a single thread ignore this.
+     *
+     * @param workers number of threads that may process nodes concurrently.
+     * @param maxNodesPerSecond maximum number of nodes to scan per second, or {@code 0} for no limit.
+     */
+    default void configureParallelism( int workers, long maxNodesPerSecond )
+    {
+    }
+
+    /**
+     * Runs the given task at a point where no node is being processed by this scan. If this scan is not currently
+     * running with multiple workers the task is run right away by the calling thread, otherwise it is run by one
+     * of the workers, at the latest before {@link #run()} returns.
+     *
+     * @param task the task to run.
+     */
+    default void runExclusively( Runnable task )
+    {
+        task.run();
+    }
 }
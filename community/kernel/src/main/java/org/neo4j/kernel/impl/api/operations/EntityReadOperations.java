@@ -47,6 +47,14 @@ public interface EntityReadOperations
      */
     PrimitiveLongIterator nodesGetForLabel( KernelStatement state, int labelId );
 
+    /**
+     * @param labelId the label id of the label that returned nodes are guaranteed to have
+     * @param fromId the lowest node id to return, inclusive
+     * @param toId the highest node id to return, exclusive
+     * @return ids of all nodes that have the given label, in the range {@code [fromId, toId)}
+     */
+    PrimitiveLongIterator nodesGetForLabel( KernelStatement state, int labelId, long fromId, long toId );
+
     /**
      * Queries the given index with the given index query.
      *
@@ -82,6 +90,10 @@ public interface EntityReadOperations
 
     PrimitiveLongIterator nodesGetAll( KernelStatement state );
 
+    PrimitiveLongIterator nodesGetAll( KernelStatement state, long fromId, long toId );
+
+    long[] nodesGetScanPartitions( KernelStatement state, int desiredPartitions );
+
     PrimitiveLongIterator relationshipsGetAll( KernelStatement state );
 
     <EXCEPTION extends Exception> void relationshipVisit( KernelStatement statement, long relId,
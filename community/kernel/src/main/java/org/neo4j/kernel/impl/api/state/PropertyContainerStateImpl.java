@@ -78,6 +78,20 @@ public class PropertyContainerStateImpl implements PropertyContainerState
         }
     }
 
+    /**
+     * @return the number of added, changed and removed properties recorded in this state. Replacing the value of a
+     * property that has already been recorded does not change this number.
+     */
+    int propertyChangeCount()
+    {
+        return size( addedProperties ) + size( changedProperties ) + size( removedProperties );
+    }
+
+    private static int size( VersionedHashMap<Integer,Value> propertyMap )
+    {
+        return propertyMap == null ? 0 : propertyMap.size();
+    }
+
     public void changeProperty( int propertyKeyId, Value value )
     {
         if ( addedProperties != null )
@@ -30,6 +30,7 @@ import java.util.function.Consumer;
 import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveIntSet;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
 import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.cursor.Cursor;
 import org.neo4j.helpers.collection.Iterables;
@@ -87,47 +88,55 @@ import static org.neo4j.helpers.collection.Iterables.map;
  */
 public final class TxState implements TransactionState, RelationshipVisitor.Home
 {
-    private Map<Integer/*Label ID*/, LabelState.Mutable> labelStatesMap;
+    // Rough heap cost of a created entity state, including its slot in the primitive state map.
+    private static final long ENTITY_STATE_HEAP_ESTIMATE = 128;
+    // Rough heap cost of a single recorded change, typically a boxed id in a diff set. Only charged for entries that
+    // are new to the diff sets, and given back when the entries are removed again.
+    private static final long CHANGE_HEAP_ESTIMATE = 48;
+    // Rough additional heap cost of a property change, for the property and its value.
+    private static final long PROPERTY_CHANGE_HEAP_ESTIMATE = 64;
+
+    private PrimitiveLongObjectMap<LabelState.Mutable> labelStatesMap;
     private static final LabelState.Defaults LABEL_STATE = new LabelState.Defaults()
     {
         @Override
-        Map<Integer, LabelState.Mutable> getMap( TxState state )
+        PrimitiveLongObjectMap<LabelState.Mutable> getMap( TxState state )
         {
             return state.labelStatesMap;
         }
 
         @Override
-        void setMap( TxState state, Map<Integer, LabelState.Mutable> map )
+        void setMap( TxState state, PrimitiveLongObjectMap<LabelState.Mutable> map )
         {
             state.labelStatesMap = map;
         }
     };
-    private Map<Long/*Node ID*/, NodeStateImpl> nodeStatesMap;
+    private PrimitiveLongObjectMap<NodeStateImpl> nodeStatesMap;
     private static final NodeStateImpl.Defaults NODE_STATE = new NodeStateImpl.Defaults()
     {
         @Override
-        Map<Long, NodeStateImpl> getMap( TxState state )
+        PrimitiveLongObjectMap<NodeStateImpl> getMap( TxState state )
         {
             return state.nodeStatesMap;
         }
 
         @Override
-        void setMap( TxState state, Map<Long, NodeStateImpl> map )
+        void setMap( TxState state, PrimitiveLongObjectMap<NodeStateImpl> map )
         {
             state.nodeStatesMap = map;
         }
     };
-    private Map<Long/*Relationship ID*/, RelationshipStateImpl> relationshipStatesMap;
+    private PrimitiveLongObjectMap<RelationshipStateImpl> relationshipStatesMap;
     private static final RelationshipStateImpl.Defaults RELATIONSHIP_STATE = new RelationshipStateImpl.Defaults()
     {
         @Override
-        Map<Long, RelationshipStateImpl> getMap( TxState state )
+        PrimitiveLongObjectMap<RelationshipStateImpl> getMap( TxState state )
         {
             return state.relationshipStatesMap;
         }
 
         @Override
-        void setMap( TxState state, Map<Long, RelationshipStateImpl> map )
+        void setMap( TxState state, PrimitiveLongObjectMap<RelationshipStateImpl> map )
         {
             state.relationshipStatesMap = map;
         }
@@ -170,8 +179,19 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     private boolean hasChanges;
     private boolean hasDataChanges;
 
+    // A rough, deliberately cheap, estimate of the heap retained by this transaction state. Changes are counted per
+    // recorded entry, so that making and undoing the same change again and again does not make the estimate grow.
+    private long estimatedHeapUsage;
+    private final TxStateMemoryTracker memoryTracker;
+
     public TxState()
     {
+        this( TxStateMemoryTracker.NONE );
+    }
+
+    public TxState( TxStateMemoryTracker memoryTracker )
+    {
+        this.memoryTracker = memoryTracker;
         singleNodeCursor = new InstanceCache<TxSingleNodeCursor>()
         {
             @Override
@@ -472,37 +492,114 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
         hasChanges = true;
     }
 
+    /**
+     * Accounts for a change in the number of entries recorded in the diff sets and maps of this transaction state.
+     */
+    private void entriesChanged( int entriesBefore, int entriesAfter )
+    {
+        int delta = entriesAfter - entriesBefore;
+        if ( delta > 0 )
+        {
+            allocated( delta * CHANGE_HEAP_ESTIMATE );
+        }
+        else if ( delta < 0 )
+        {
+            released( -delta * CHANGE_HEAP_ESTIMATE );
+        }
+    }
+
+    private static int entries( ReadableDiffSets<?> diffSets )
+    {
+        return diffSets.getAdded().size() + diffSets.getRemoved().size();
+    }
+
     private void dataChanged()
     {
         changed();
         hasDataChanges = true;
     }
 
+    private void propertyDataChanged( int propertyChangesBefore, PropertyContainerStateImpl state )
+    {
+        hasChanges = true;
+        hasDataChanges = true;
+        int delta = state.propertyChangeCount() - propertyChangesBefore;
+        if ( delta > 0 )
+        {
+            allocated( delta * PROPERTY_CHANGE_HEAP_ESTIMATE );
+        }
+        else if ( delta < 0 )
+        {
+            released( -delta * PROPERTY_CHANGE_HEAP_ESTIMATE );
+        }
+    }
+
+    private void entityStateRemoved( PropertyContainerStateImpl state )
+    {
+        released( ENTITY_STATE_HEAP_ESTIMATE + state.propertyChangeCount() * PROPERTY_CHANGE_HEAP_ESTIMATE );
+    }
+
+    /**
+     * Called by {@link StateDefaults} when a node, relationship or label state has been created for this transaction.
+     */
+    void entityStateCreated()
+    {
+        allocated( ENTITY_STATE_HEAP_ESTIMATE );
+    }
+
+    private void allocated( long bytes )
+    {
+        estimatedHeapUsage += bytes;
+        memoryTracker.allocated( bytes );
+    }
+
+    private void released( long bytes )
+    {
+        estimatedHeapUsage -= bytes;
+        memoryTracker.released( bytes );
+    }
+
+    @Override
+    public long estimatedHeapUsage()
+    {
+        return estimatedHeapUsage;
+    }
+
     @Override
     public void nodeDoCreate( long id )
     {
+        int entries = entries( nodes() );
         nodes().add( id );
+        entriesChanged( entries, entries( nodes() ) );
         dataChanged();
     }
 
     @Override
     public void nodeDoDelete( long nodeId )
     {
+        int entries = entries( nodes() );
         if ( nodes().remove( nodeId ) )
         {
             recordNodeDeleted( nodeId );
         }
+        entriesChanged( entries, entries( nodes() ) );
 
         if ( nodeStatesMap != null )
         {
             NodeStateImpl nodeState = nodeStatesMap.remove( nodeId );
             if ( nodeState != null )
             {
+                entityStateRemoved( nodeState );
                 ReadableDiffSets<Integer> diff = nodeState.labelDiffSets();
+                int labelEntries = entries( diff );
                 for ( Integer label : diff.getAdded() )
                 {
-                    getOrCreateLabelStateNodeDiffSets( label ).remove( nodeId );
+                    DiffSets<Long> labelNodes = getOrCreateLabelStateNodeDiffSets( label );
+                    labelEntries += entries( labelNodes );
+                    labelNodes.remove( nodeId );
+                    labelEntries -= entries( labelNodes );
                 }
+                entriesChanged( labelEntries, 0 );
                 nodeState.clearIndexDiffs( nodeId );
                 nodeState.clear();
             }
@@ -513,7 +610,9 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void relationshipDoCreate( long id, int relationshipTypeId, long startNodeId, long endNodeId )
     {
+        int entries = entries( relationships() );
         relationships().add( id );
+        entriesChanged( entries, entries( relationships() ) );
 
         if ( startNodeId == endNodeId )
         {
@@ -545,10 +644,12 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void relationshipDoDelete( long id, int type, long startNodeId, long endNodeId )
     {
+        int entries = entries( relationships() );
         if ( relationships().remove( id ) )
         {
             recordRelationshipDeleted( id );
         }
+        entriesChanged( entries, entries( relationships() ) );
 
         if ( startNodeId == endNodeId )
         {
@@ -565,6 +666,7 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
             RelationshipStateImpl removed = relationshipStatesMap.remove( id );
             if ( removed != null )
             {
+                entityStateRemoved( removed );
                 removed.clear();
             }
         }
@@ -588,83 +690,104 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     public void nodeDoAddProperty( long nodeId, int newPropertyKeyId, Value value )
     {
         NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
+        int propertyChanges = nodeState.propertyChangeCount();
         nodeState.addProperty( newPropertyKeyId, value );
         nodePropertyChanges().addProperty( nodeId, newPropertyKeyId, value );
-        dataChanged();
+        propertyDataChanged( propertyChanges, nodeState );
     }
 
     @Override
     public void nodeDoChangeProperty( long nodeId, int propertyKeyId, Value replacedValue, Value newValue )
     {
-        getOrCreateNodeState( nodeId ).changeProperty( propertyKeyId, newValue );
+        NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
+        int propertyChanges = nodeState.propertyChangeCount();
+        nodeState.changeProperty( propertyKeyId, newValue );
         nodePropertyChanges().changeProperty( nodeId, propertyKeyId, replacedValue, newValue );
-        dataChanged();
+        propertyDataChanged( propertyChanges, nodeState );
     }
 
     @Override
     public void relationshipDoReplaceProperty( long relationshipId, int propertyKeyId, Value replacedValue,
             Value newValue )
     {
+        RelationshipStateImpl relationshipState = getOrCreateRelationshipState( relationshipId );
+        int propertyChanges = relationshipState.propertyChangeCount();
         if ( replacedValue != Values.NO_VALUE )
         {
-            getOrCreateRelationshipState( relationshipId ).changeProperty( propertyKeyId, newValue );
+            relationshipState.changeProperty( propertyKeyId, newValue );
         }
         else
         {
-            getOrCreateRelationshipState( relationshipId ).addProperty( propertyKeyId, newValue );
+            relationshipState.addProperty( propertyKeyId, newValue );
         }
-        dataChanged();
+        propertyDataChanged( propertyChanges, relationshipState );
     }
 
     @Override
     public void graphDoReplaceProperty( int propertyKeyId, Value replacedValue, Value newValue )
     {
+        GraphState state = getOrCreateGraphState();
+        int propertyChanges = state.propertyChangeCount();
         if ( replacedValue != Values.NO_VALUE )
         {
-            getOrCreateGraphState().changeProperty( propertyKeyId, newValue );
+            state.changeProperty( propertyKeyId, newValue );
         }
         else
         {
-            getOrCreateGraphState().addProperty( propertyKeyId, newValue );
+            state.addProperty( propertyKeyId, newValue );
         }
-        dataChanged();
+        propertyDataChanged( propertyChanges, state );
     }
 
     @Override
     public void nodeDoRemoveProperty( long nodeId, int propertyKeyId, Value removedValue )
     {
-        getOrCreateNodeState( nodeId ).removeProperty( propertyKeyId, removedValue );
+        NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
+        int propertyChanges = nodeState.propertyChangeCount();
+        nodeState.removeProperty( propertyKeyId, removedValue );
         nodePropertyChanges().removeProperty( nodeId, propertyKeyId, removedValue );
-        dataChanged();
+        propertyDataChanged( propertyChanges, nodeState );
     }
 
     @Override
     public void relationshipDoRemoveProperty( long relationshipId, int propertyKeyId, Value removedValue )
     {
-        getOrCreateRelationshipState( relationshipId ).removeProperty( propertyKeyId, removedValue );
-        dataChanged();
+        RelationshipStateImpl relationshipState = getOrCreateRelationshipState( relationshipId );
+        int propertyChanges = relationshipState.propertyChangeCount();
+        relationshipState.removeProperty( propertyKeyId, removedValue );
+        propertyDataChanged( propertyChanges, relationshipState );
     }
 
     @Override
     public void graphDoRemoveProperty( int propertyKeyId, Value removedValue )
     {
-        getOrCreateGraphState().removeProperty( propertyKeyId, removedValue );
-        dataChanged();
+        GraphState state = getOrCreateGraphState();
+        int propertyChanges = state.propertyChangeCount();
+        state.removeProperty( propertyKeyId, removedValue );
+        propertyDataChanged( propertyChanges, state );
     }
 
     @Override
     public void nodeDoAddLabel( int labelId, long nodeId )
     {
-        getOrCreateLabelStateNodeDiffSets( labelId ).add( nodeId );
-        getOrCreateNodeStateLabelDiffSets( nodeId ).add( labelId );
+        DiffSets<Long> labelNodes = getOrCreateLabelStateNodeDiffSets( labelId );
+        DiffSets<Integer> nodeLabels = getOrCreateNodeStateLabelDiffSets( nodeId );
+        int entries = entries( labelNodes ) + entries( nodeLabels );
+        labelNodes.add( nodeId );
+        nodeLabels.add( labelId );
+        entriesChanged( entries, entries( labelNodes ) + entries( nodeLabels ) );
         dataChanged();
     }
 
     @Override
     public void nodeDoRemoveLabel( int labelId, long nodeId )
     {
-        getOrCreateLabelStateNodeDiffSets( labelId ).remove( nodeId );
-        getOrCreateNodeStateLabelDiffSets( nodeId ).remove( labelId );
+        DiffSets<Long> labelNodes = getOrCreateLabelStateNodeDiffSets( labelId );
+        DiffSets<Integer> nodeLabels = getOrCreateNodeStateLabelDiffSets( nodeId );
+        int entries = entries( labelNodes ) + entries( nodeLabels );
+        labelNodes.remove( nodeId );
+        nodeLabels.remove( labelId );
+        entriesChanged( entries, entries( labelNodes ) + entries( nodeLabels ) );
         dataChanged();
     }
 
@@ -675,8 +798,7 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
         {
             createdLabelTokens = new HashMap<>();
         }
-        createdLabelTokens.put( id, labelName );
-        changed();
+        tokenCreated( createdLabelTokens.put( id, labelName ) );
     }
 
     @Override
@@ -686,8 +808,7 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
         {
             createdPropertyKeyTokens = new HashMap<>();
         }
-        createdPropertyKeyTokens.put( id, propertyKeyName );
-        changed();
+        tokenCreated( createdPropertyKeyTokens.put( id, propertyKeyName ) );
     }
 
     @Override
@@ -697,7 +818,15 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
         {
             createdRelationshipTypeTokens = new HashMap<>();
         }
-        createdRelationshipTypeTokens.put( id, labelName );
+        tokenCreated( createdRelationshipTypeTokens.put( id, labelName ) );
+    }
+
+    private void tokenCreated( String previousName )
+    {
+        if ( previousName == null )
+        {
+            allocated( CHANGE_HEAP_ESTIMATE );
+        }
         changed();
     }
 
@@ -792,24 +921,33 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     public void indexRuleDoAdd( IndexDescriptor descriptor )
     {
         DiffSets<IndexDescriptor> diff = indexChangesDiffSets();
+        int entries = entries( diff );
         if ( !diff.unRemove( descriptor ) )
         {
             diff.add( descriptor );
         }
+        entriesChanged( entries, entries( diff ) );
         changed();
     }
 
     @Override
     public void indexDoDrop( IndexDescriptor descriptor )
     {
-        indexChangesDiffSets().remove( descriptor );
+        DiffSets<IndexDescriptor> diff = indexChangesDiffSets();
+        int entries = entries( diff );
+        diff.remove( descriptor );
+        entriesChanged( entries, entries( diff ) );
         changed();
     }
 
     @Override
     public boolean indexDoUnRemove( IndexDescriptor descriptor )
     {
-        return indexChangesDiffSets().unRemove( descriptor );
+        DiffSets<IndexDescriptor> diff = indexChangesDiffSets();
+        int entries = entries( diff );
+        boolean unRemoved = diff.unRemove( descriptor );
+        entriesChanged( entries, entries( diff ) );
+        return unRemoved;
     }
 
     @Override
@@ -909,15 +1047,24 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void constraintDoAdd( IndexBackedConstraintDescriptor constraint, long indexId )
     {
-        constraintsChangesDiffSets().add( constraint );
-        createdConstraintIndexesByConstraint().put( constraint, indexId );
+        DiffSets<ConstraintDescriptor> diff = constraintsChangesDiffSets();
+        int entries = entries( diff );
+        diff.add( constraint );
+        entriesChanged( entries, entries( diff ) );
+        if ( createdConstraintIndexesByConstraint().put( constraint, indexId ) == null )
+        {
+            allocated( CHANGE_HEAP_ESTIMATE );
+        }
         changed();
     }
 
     @Override
     public void constraintDoAdd( ConstraintDescriptor constraint )
     {
-        constraintsChangesDiffSets().add( constraint );
+        DiffSets<ConstraintDescriptor> diff = constraintsChangesDiffSets();
+        int entries = entries( diff );
+        diff.add( constraint );
+        entriesChanged( entries, entries( diff ) );
         changed();
     }
 
@@ -957,7 +1104,10 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void constraintDoDrop( ConstraintDescriptor constraint )
     {
-        constraintsChangesDiffSets().remove( constraint );
+        DiffSets<ConstraintDescriptor> diff = constraintsChangesDiffSets();
+        int entries = entries( diff );
+        diff.remove( constraint );
+        entriesChanged( entries, entries( diff ) );
         if ( constraint.enforcesUniqueness() )
         {
             indexDoDrop( getIndexForIndexBackedConstraint( (IndexBackedConstraintDescriptor) constraint ) );
@@ -968,7 +1118,11 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public boolean constraintDoUnRemove( ConstraintDescriptor constraint )
     {
-        return constraintsChangesDiffSets().unRemove( constraint );
+        DiffSets<ConstraintDescriptor> diff = constraintsChangesDiffSets();
+        int entries = entries( diff );
+        boolean unRemoved = diff.unRemove( constraint );
+        entriesChanged( entries, entries( diff ) );
+        return unRemoved;
     }
 
     @Override
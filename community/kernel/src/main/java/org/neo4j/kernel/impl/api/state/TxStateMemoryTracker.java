@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+/**
+ * Is told about the memory that a {@link TxState} grows and shrinks by, as changes are recorded in it. This is what
+ * allows the transaction state to be held against a memory limit.
+ * <p>
+ * The amounts are the same estimates that make up {@link TxState#estimatedHeapUsage()}.
+ */
+public interface TxStateMemoryTracker
+{
+    TxStateMemoryTracker NONE = new TxStateMemoryTracker()
+    {
+        @Override
+        public void allocated( long bytes )
+        {
+        }
+
+        @Override
+        public void released( long bytes )
+        {
+        }
+    };
+
+    /**
+     * @param bytes the estimated number of bytes the transaction state has grown by.
+     */
+    void allocated( long bytes );
+
+    /**
+     * @param bytes the estimated number of bytes the transaction state has shrunk by, for instance because a
+     * recorded change was replaced or undone.
+     */
+    void released( long bytes );
+}
@@ -23,17 +23,28 @@ import org.neo4j.kernel.impl.store.NodeStore;
 
 public class AllNodeIterator extends HighIdAwareIterator<NodeStore>
 {
+    private final long toId;
     private long currentId;
 
     AllNodeIterator( NodeStore nodeStore )
+    {
+        this( nodeStore, 0, Long.MAX_VALUE );
+    }
+
+    /**
+     * Iterates over the nodes in use with ids in the range {@code [fromId, toId)}.
+     */
+    AllNodeIterator( NodeStore nodeStore, long fromId, long toId )
     {
         super( nodeStore );
+        this.currentId = fromId;
+        this.toId = toId;
     }
 
     @Override
     protected boolean doFetchNext( long highId )
     {
-        while ( currentId <= highId )
+        while ( currentId <= highId && currentId < toId )
         {
             try
             {
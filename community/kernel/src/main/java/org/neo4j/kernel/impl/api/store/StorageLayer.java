@@ -95,6 +95,9 @@ import static org.neo4j.register.Registers.newDoubleLongRegister;
  */
 public class StorageLayer implements StoreReadLayer
 {
+    // Scan partitions are aligned to the id ranges of the label scan store, so that no range is read by two partitions.
+    private static final int SCAN_PARTITION_ALIGNMENT = Long.SIZE;
+
     // These token holders should perhaps move to the cache layer.. not really any reason to have them here?
     private final PropertyKeyTokenHolder propertyKeyTokenHolder;
     private final LabelTokenHolder labelTokenHolder;
@@ -180,6 +183,12 @@ public class StorageLayer implements StoreReadLayer
         return statement.getLabelScanReader().nodesWithLabel( labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForLabel( StorageStatement statement, int labelId, long fromId, long toId )
+    {
+        return statement.getLabelScanReader().nodesWithLabel( labelId, fromId, toId );
+    }
+
     @Override
     public IndexDescriptor indexGetForSchema( LabelSchemaDescriptor descriptor )
     {
@@ -395,6 +404,31 @@ public class StorageLayer implements StoreReadLayer
         return new AllNodeIterator( nodeStore );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetAll( long fromId, long toId )
+    {
+        return new AllNodeIterator( nodeStore, fromId, toId );
+    }
+
+    @Override
+    public long[] nodesGetScanPartitions( int desiredPartitions )
+    {
+        long highId = nodeStore.getHighId();
+        int partitions = Math.max( 1, desiredPartitions );
+        long partitionSize = Math.max( 1, (highId + partitions - 1) / partitions );
+        partitionSize = (partitionSize + SCAN_PARTITION_ALIGNMENT - 1) / SCAN_PARTITION_ALIGNMENT *
+                        SCAN_PARTITION_ALIGNMENT;
+        partitions = (int) Math.max( 1, (highId + partitionSize - 1) / partitionSize );
+
+        long[] boundaries = new long[partitions + 1];
+        for ( int i = 0; i < partitions; i++ )
+        {
+            boundaries[i] = i * partitionSize;
+        }
+        boundaries[partitions] = Long.MAX_VALUE;
+        return boundaries;
+    }
+
     @Override
     public RelationshipIterator relationshipsGetAll()
     {
@@ -26,6 +26,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.graphdb.index.Index;
@@ -93,6 +94,25 @@ class NativeLabelScanReader implements LabelScanReader
         return new LabelScanValueIterator( cursor, openCursors );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesWithLabel( int labelId, long fromId, long toId )
+    {
+        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor;
+        try
+        {
+            cursor = seekerForLabel( labelId, fromId, toId );
+            openCursors.add( cursor );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+
+        // The seek covers whole id ranges, so ids outside of the requested range may be found at the edges.
+        return PrimitiveLongCollections.filter( new LabelScanValueIterator( cursor, openCursors ),
+                nodeId -> nodeId >= fromId && nodeId < toId );
+    }
+
     @Override
     public PrimitiveLongIterator nodesWithAnyOfLabels( int... labelIds )
     {
@@ -133,6 +153,15 @@ class NativeLabelScanReader implements LabelScanReader
         return index.seek( from, to );
     }
 
+    private RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> seekerForLabel( int labelId, long fromId,
+            long toId ) throws IOException
+    {
+        LabelScanKey from = new LabelScanKey( labelId, fromId / LabelScanValue.RANGE_SIZE );
+        LabelScanKey to = new LabelScanKey( labelId,
+                toId == Long.MAX_VALUE ? Long.MAX_VALUE : (toId - 1) / LabelScanValue.RANGE_SIZE + 1 );
+        return index.seek( from, to );
+    }
+
     private void ensureOpenCursorsClosed() throws IOException
     {
         for ( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor : openCursors )
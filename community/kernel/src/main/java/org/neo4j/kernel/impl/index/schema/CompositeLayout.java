@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * {@link Layout} for composite keys of numbers and strings, see {@link SchemaCompositeKey}. The number of slots,
+ * i.e. the number of properties in the index, decides the size of the keys and is part of the identifier
+ * of the layout.
+ */
+abstract class CompositeLayout extends Layout.Adapter<SchemaCompositeKey,NativeSchemaValue>
+{
+    final int numberOfSlots;
+
+    CompositeLayout( int numberOfSlots )
+    {
+        this.numberOfSlots = numberOfSlots;
+    }
+
+    static long identifier( String name, int numberOfSlots )
+    {
+        return Layout.namedIdentifier( name, SchemaCompositeKey.size( numberOfSlots ) );
+    }
+
+    /**
+     * @return whether or not {@code layoutIdentifier} is the identifier of a layout with the given name,
+     * regardless of its number of slots.
+     */
+    static boolean hasName( long layoutIdentifier, String name )
+    {
+        return (layoutIdentifier >>> Integer.SIZE) == (identifier( name, 0 ) >>> Integer.SIZE);
+    }
+
+    @Override
+    public SchemaCompositeKey newKey()
+    {
+        return new SchemaCompositeKey( numberOfSlots );
+    }
+
+    @Override
+    public SchemaCompositeKey copyKey( SchemaCompositeKey key, SchemaCompositeKey into )
+    {
+        for ( int slot = 0; slot < numberOfSlots; slot++ )
+        {
+            into.types[slot] = key.types[slot];
+            into.rawValueBits[slot] = key.rawValueBits[slot];
+            System.arraycopy( key.stringBytes[slot], 0, into.stringBytes[slot], 0, key.stringLengths[slot] );
+            into.stringLengths[slot] = key.stringLengths[slot];
+        }
+        into.entityId = key.entityId;
+        into.entityIdIsSpecialTieBreaker = key.entityIdIsSpecialTieBreaker;
+        return into;
+    }
+
+    @Override
+    public NativeSchemaValue newValue()
+    {
+        return NativeSchemaValue.INSTANCE;
+    }
+
+    @Override
+    public int keySize()
+    {
+        return SchemaCompositeKey.size( numberOfSlots );
+    }
+
+    @Override
+    public int valueSize()
+    {
+        return NativeSchemaValue.SIZE;
+    }
+
+    @Override
+    public void writeKey( PageCursor cursor, SchemaCompositeKey key )
+    {
+        for ( int slot = 0; slot < numberOfSlots; slot++ )
+        {
+            int slotEnd = cursor.getOffset() + SchemaCompositeKey.SLOT_SIZE;
+            byte type = key.types[slot];
+            cursor.putByte( type );
+            if ( type == SchemaCompositeKey.TYPE_TEXT )
+            {
+                cursor.putShort( (short) key.stringLengths[slot] );
+                cursor.putBytes( key.stringBytes[slot], 0, key.stringLengths[slot] );
+            }
+            else
+            {
+                cursor.putLong( key.rawValueBits[slot] );
+            }
+            // Skip over the unused part of the slot, keeping all slots at fixed offsets within the key
+            cursor.setOffset( slotEnd );
+        }
+        cursor.putLong( key.entityId );
+    }
+
+    @Override
+    public void writeValue( PageCursor cursor, NativeSchemaValue value )
+    {
+    }
+
+    @Override
+    public void readKey( PageCursor cursor, SchemaCompositeKey into )
+    {
+        for ( int slot = 0; slot < numberOfSlots; slot++ )
+        {
+            int slotEnd = cursor.getOffset() + SchemaCompositeKey.SLOT_SIZE;
+            byte type = cursor.getByte();
+            into.types[slot] = type;
+            if ( type == SchemaCompositeKey.TYPE_TEXT )
+            {
+                int length = cursor.getShort();
+                if ( length < 0 || length > SchemaCompositeKey.MAX_STRING_BYTES )
+                {
+                    // This is an inconsistent read, which will be retried. Read something sane meanwhile.
+                    length = 0;
+                }
+                cursor.getBytes( into.stringBytes[slot], 0, length );
+                into.stringLengths[slot] = length;
+            }
+            else
+            {
+                if ( type < RawBits.BYTE || type > RawBits.DOUBLE )
+                {
+                    // This is an inconsistent read, which will be retried. Read something sane meanwhile.
+                    into.types[slot] = RawBits.LONG;
+                }
+                into.rawValueBits[slot] = cursor.getLong();
+            }
+            cursor.setOffset( slotEnd );
+        }
+        into.entityId = cursor.getLong();
+    }
+
+    @Override
+    public void readValue( PageCursor cursor, NativeSchemaValue into )
+    {
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.kernel.api.schema.IndexQuery;
+import org.neo4j.kernel.api.schema.IndexQuery.ExactPredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.IndexQueryType;
+import org.neo4j.kernel.api.schema.IndexQuery.NumberRangePredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.StringPrefixPredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.StringRangePredicate;
+import org.neo4j.string.UTF8;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueGroup;
+import org.neo4j.values.storable.Values;
+
+/**
+ * {@link NativeSchemaIndexReader} for composite indexes. Besides exact matches on all properties, it supports
+ * seeks on a prefix of the properties: exact matches on the leading properties, followed by a range, prefix or
+ * exists predicate on the next property and exists predicates on the remaining properties.
+ */
+class NativeSchemaCompositeIndexReader<KEY extends SchemaCompositeKey, VALUE extends NativeSchemaValue>
+        extends NativeSchemaIndexReader<KEY,VALUE>
+{
+    private final int numberOfSlots;
+
+    NativeSchemaCompositeIndexReader( GBPTree<KEY,VALUE> tree, Layout<KEY,VALUE> layout )
+    {
+        super( tree, layout );
+        this.numberOfSlots = treeKeyFrom.numberOfSlots();
+    }
+
+    @Override
+    void validateQuery( IndexQuery[] predicates )
+    {
+        if ( predicates.length == 1 && predicates[0].type() == IndexQueryType.exists )
+        {
+            // A single exists predicate is a scan of the whole index
+            return;
+        }
+        if ( predicates.length != numberOfSlots )
+        {
+            throw new UnsupportedOperationException( "Composite index of " + numberOfSlots +
+                    " properties can't be queried with " + predicates.length + " predicates" );
+        }
+    }
+
+    @Override
+    boolean initializeRangeForQuery( IndexQuery[] predicates )
+    {
+        int slot = 0;
+        while ( predicates[slot].type() == IndexQueryType.exact )
+        {
+            Value value = ((ExactPredicate) predicates[slot]).value();
+            treeKeyFrom.from( slot, value );
+            treeKeyTo.from( slot, value );
+            slot++;
+        }
+
+        IndexQuery rangePredicate = predicates[slot];
+        for ( int i = slot + 1; i < predicates.length; i++ )
+        {
+            if ( predicates[i].type() != IndexQueryType.exists )
+            {
+                throw new IllegalArgumentException( "IndexQuery of type " + predicates[i].type() +
+                        " after " + rangePredicate.type() + " is not supported, only exists is." );
+            }
+        }
+
+        switch ( rangePredicate.type() )
+        {
+        case exists:
+            treeKeyFrom.initAsLowest( slot );
+            treeKeyTo.initAsHighest( slot );
+            return false;
+        case rangeNumeric:
+            initForNumberRange( slot, (NumberRangePredicate) rangePredicate );
+            return false;
+        case rangeString:
+            initForStringRange( slot, (StringRangePredicate) rangePredicate );
+            return false;
+        case stringPrefix:
+            initForPrefix( slot, ((StringPrefixPredicate) rangePredicate).prefix() );
+            return false;
+        default:
+            throw new IllegalArgumentException(
+                    "IndexQuery of type " + rangePredicate.type() + " is not supported in composite index." );
+        }
+    }
+
+    private void initForNumberRange( int slot, NumberRangePredicate rangePredicate )
+    {
+        Value from = rangePredicate.fromAsValue();
+        Value to = rangePredicate.toAsValue();
+        boolean fromUnbounded = from.valueGroup() == ValueGroup.NO_VALUE;
+        boolean toUnbounded = to.valueGroup() == ValueGroup.NO_VALUE;
+        treeKeyFrom.from( slot, fromUnbounded ? Values.doubleValue( Double.NEGATIVE_INFINITY ) : from );
+        treeKeyTo.from( slot, toUnbounded ? Values.doubleValue( Double.POSITIVE_INFINITY ) : to );
+        initRemainingSlots( slot, fromUnbounded || rangePredicate.fromInclusive(),
+                toUnbounded || rangePredicate.toInclusive() );
+    }
+
+    private void initForStringRange( int slot, StringRangePredicate rangePredicate )
+    {
+        boolean fromInclusive = true;
+        boolean toInclusive = true;
+        String from = rangePredicate.from();
+        if ( from == null )
+        {
+            treeKeyFrom.initStringFromBytes( slot, new byte[0], 0 );
+        }
+        else
+        {
+            byte[] encoded = UTF8.encode( from );
+            // A stored string equal to a truncated bound is smaller than the bound itself, i.e. excluded
+            boolean truncated = treeKeyFrom.initStringFromBytes( slot, encoded, encoded.length );
+            fromInclusive = rangePredicate.fromInclusive() && !truncated;
+        }
+
+        String to = rangePredicate.to();
+        if ( to == null )
+        {
+            treeKeyTo.initAsHighestString( slot );
+        }
+        else
+        {
+            byte[] encoded = UTF8.encode( to );
+            // A stored string equal to a truncated bound is smaller than the bound itself, i.e. included
+            boolean truncated = treeKeyTo.initStringFromBytes( slot, encoded, encoded.length );
+            toInclusive = rangePredicate.toInclusive() || truncated;
+        }
+        initRemainingSlots( slot, fromInclusive, toInclusive );
+    }
+
+    private void initForPrefix( int slot, String prefix )
+    {
+        byte[] encoded = UTF8.encode( prefix );
+        if ( encoded.length > SchemaCompositeKey.MAX_STRING_BYTES )
+        {
+            // No string stored in this index can start with such a long prefix, make the range empty
+            treeKeyFrom.initAsHighest( slot );
+            treeKeyTo.initAsLowest( slot );
+            return;
+        }
+
+        treeKeyFrom.initStringFromBytes( slot, encoded, encoded.length );
+        if ( encoded.length == 0 )
+        {
+            treeKeyTo.initAsHighestString( slot );
+        }
+        else
+        {
+            // All strings starting with the prefix are smaller than the prefix with its last byte incremented.
+            // The last byte can't overflow since 0xFF never occurs in UTF-8 encoded data.
+            encoded[encoded.length - 1]++;
+            treeKeyTo.initStringFromBytes( slot, encoded, encoded.length );
+        }
+        initRemainingSlots( slot, true, false );
+    }
+
+    /**
+     * Fills the slots after {@code slot} and the entity ids of the bounds, so that keys having the same value
+     * as a bound in {@code slot} are included or excluded as requested.
+     */
+    private void initRemainingSlots( int slot, boolean fromInclusive, boolean toInclusive )
+    {
+        if ( fromInclusive )
+        {
+            treeKeyFrom.initAsLowest( slot + 1 );
+        }
+        else
+        {
+            treeKeyFrom.initAsHighest( slot + 1 );
+        }
+        if ( toInclusive )
+        {
+            treeKeyTo.initAsHighest( slot + 1 );
+        }
+        else
+        {
+            treeKeyTo.initAsLowest( slot + 1 );
+        }
+    }
+}
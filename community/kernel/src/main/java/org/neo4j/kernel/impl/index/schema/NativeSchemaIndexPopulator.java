@@ -48,11 +48,11 @@ import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
 /**
  * {@link IndexPopulator} backed by a {@link GBPTree}.
  *
- * @param <KEY> type of {@link SchemaNumberKey}.
- * @param <VALUE> type of {@link SchemaNumberValue}.
+ * @param <KEY> type of {@link NativeSchemaKey}.
+ * @param <VALUE> type of {@link NativeSchemaValue}.
  */
-public abstract class NativeSchemaNumberIndexPopulator<KEY extends SchemaNumberKey, VALUE extends SchemaNumberValue>
-        extends NativeSchemaNumberIndex<KEY,VALUE> implements IndexPopulator
+public abstract class NativeSchemaIndexPopulator<KEY extends NativeSchemaKey, VALUE extends NativeSchemaValue>
+        extends NativeSchemaIndex<KEY,VALUE> implements IndexPopulator
 {
     static final byte BYTE_FAILED = 0;
     static final byte BYTE_ONLINE = 1;
@@ -61,20 +61,20 @@ public abstract class NativeSchemaNumberIndexPopulator<KEY extends SchemaNumberK
     private final KEY treeKey;
     private final VALUE treeValue;
     private final ConflictDetectingValueMerger<KEY,VALUE> conflictDetectingValueMerger;
-    private final NativeSchemaNumberIndexUpdater<KEY,VALUE> singleUpdater;
+    private final NativeSchemaIndexUpdater<KEY,VALUE> singleUpdater;
     private WorkSync<IndexUpdateApply,IndexUpdateWork> workSync;
 
     private Writer<KEY,VALUE> singleTreeWriter;
     private byte[] failureBytes;
     private boolean dropped;
 
-    NativeSchemaNumberIndexPopulator( PageCache pageCache, File storeFile, Layout<KEY,VALUE> layout )
+    NativeSchemaIndexPopulator( PageCache pageCache, File storeFile, Layout<KEY,VALUE> layout )
     {
         super( pageCache, storeFile, layout );
         this.treeKey = layout.newKey();
         this.treeValue = layout.newValue();
         this.conflictDetectingValueMerger = new ConflictDetectingValueMerger<>();
-        singleUpdater = new NativeSchemaNumberIndexUpdater<>( layout.newKey(), layout.newValue() );
+        singleUpdater = new NativeSchemaIndexUpdater<>( layout.newKey(), layout.newValue() );
     }
 
     @Override
@@ -187,7 +187,8 @@ public abstract class NativeSchemaNumberIndexPopulator<KEY extends SchemaNumberK
         }
     }
 
-    private void applyWithWorkSync( Collection<? extends IndexEntryUpdate<?>> updates ) throws IOException
+    private void applyWithWorkSync( Collection<? extends IndexEntryUpdate<?>> updates )
+            throws IOException, IndexEntryConflictException
     {
         try
         {
@@ -195,6 +196,10 @@ public abstract class NativeSchemaNumberIndexPopulator<KEY extends SchemaNumberK
         }
         catch ( ExecutionException e )
         {
+            if ( e.getCause() instanceof IndexEntryConflictException )
+            {
+                throw (IndexEntryConflictException) e.getCause();
+            }
             throw Exceptions.launderedException( IOException.class, e );
         }
     }
@@ -248,7 +253,7 @@ public abstract class NativeSchemaNumberIndexPopulator<KEY extends SchemaNumberK
         singleTreeWriter = closeIfPresent( singleTreeWriter );
     }
 
-    private static class IndexUpdateApply<KEY extends SchemaNumberKey, VALUE extends SchemaNumberValue>
+    private static class IndexUpdateApply<KEY extends NativeSchemaKey, VALUE extends NativeSchemaValue>
     {
         private final KEY treeKey;
         private final VALUE treeValue;
@@ -266,7 +271,7 @@ public abstract class NativeSchemaNumberIndexPopulator<KEY extends SchemaNumberK
 
         public void process( IndexEntryUpdate indexEntryUpdate ) throws Exception
         {
-            NativeSchemaNumberIndexUpdater.processUpdate( treeKey, treeValue, indexEntryUpdate, writer, conflictDetectingValueMerger );
+            NativeSchemaIndexUpdater.processUpdate( treeKey, treeValue, indexEntryUpdate, writer, conflictDetectingValueMerger );
         }
     }
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueWriter;
+
+/**
+ * Key in a native schema index {@link GBPTree}. Includes value and entity id (to be able to handle non-unique values).
+ * How the value is represented is up to the concrete key, which receives the value through the {@link ValueWriter}
+ * methods it cares about.
+ */
+abstract class NativeSchemaKey extends ValueWriter.Adapter<RuntimeException>
+{
+    long entityId;
+
+    /**
+     * Marks that comparisons with this key requires also comparing entityId, this allows functionality
+     * of inclusive/exclusive bounds of range queries.
+     * This is because {@link GBPTree} only support from inclusive and to exclusive.
+     * <p>
+     * Note that {@code entityIdIsSpecialTieBreaker} is only an in memory state.
+     */
+    boolean entityIdIsSpecialTieBreaker;
+
+    void from( long entityId, Value... values )
+    {
+        assertCorrectType( assertValidSingleValue( values ) ).writeTo( this );
+        this.entityId = entityId;
+        entityIdIsSpecialTieBreaker = false;
+    }
+
+    private static Value assertValidSingleValue( Value... values )
+    {
+        // TODO: support multiple values, right?
+        if ( values.length > 1 )
+        {
+            throw new IllegalArgumentException( "Tried to create composite key with non-composite schema key layout" );
+        }
+        if ( values.length < 1 )
+        {
+            throw new IllegalArgumentException( "Tried to create key without value" );
+        }
+        return values[0];
+    }
+
+    /**
+     * @param value the value to create this key from.
+     * @return the given value, if it is of a type supported by this key.
+     * @throws IllegalArgumentException if the value is of a type not supported by this key.
+     */
+    abstract Value assertCorrectType( Value value );
+
+    /**
+     * @return the value of this key, as a {@link Value}.
+     */
+    abstract Value asValue();
+
+    String propertiesAsString()
+    {
+        return asValue().toString();
+    }
+
+    abstract void initAsLowest();
+
+    abstract void initAsHighest();
+}
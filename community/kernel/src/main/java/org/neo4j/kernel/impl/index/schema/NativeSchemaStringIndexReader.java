@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.kernel.api.schema.IndexQuery;
+import org.neo4j.kernel.api.schema.IndexQuery.StringPrefixPredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.StringRangePredicate;
+import org.neo4j.string.UTF8;
+
+class NativeSchemaStringIndexReader<KEY extends SchemaStringKey, VALUE extends NativeSchemaValue>
+        extends NativeSchemaIndexReader<KEY,VALUE>
+{
+    NativeSchemaStringIndexReader( GBPTree<KEY,VALUE> tree, Layout<KEY,VALUE> layout )
+    {
+        super( tree, layout );
+    }
+
+    @Override
+    boolean initializeRangeForQuery( IndexQuery[] predicates )
+    {
+        IndexQuery predicate = predicates[0];
+        switch ( predicate.type() )
+        {
+        case rangeString:
+            StringRangePredicate rangePredicate = (StringRangePredicate) predicate;
+            initFromForRange( rangePredicate );
+            initToForRange( rangePredicate );
+            return false;
+        case stringPrefix:
+            initForPrefix( ((StringPrefixPredicate) predicate).prefix() );
+            return false;
+        case stringSuffix:
+        case stringContains:
+            // These can't be expressed as a range in the tree, scan all strings and filter them
+            treeKeyFrom.initAsLowest();
+            treeKeyTo.initAsHighest();
+            return true;
+        default:
+            throw new IllegalArgumentException( "IndexQuery of type " + predicate.type() + " is not supported." );
+        }
+    }
+
+    private void initFromForRange( StringRangePredicate rangePredicate )
+    {
+        String from = rangePredicate.from();
+        if ( from == null )
+        {
+            treeKeyFrom.initAsLowest();
+        }
+        else
+        {
+            byte[] encoded = UTF8.encode( from );
+            // A stored string equal to a truncated bound is smaller than the bound itself, i.e. excluded
+            boolean truncated = treeKeyFrom.initFromBytes( encoded, encoded.length );
+            treeKeyFrom.entityId = rangePredicate.fromInclusive() && !truncated ? Long.MIN_VALUE : Long.MAX_VALUE;
+            treeKeyFrom.entityIdIsSpecialTieBreaker = true;
+        }
+    }
+
+    private void initToForRange( StringRangePredicate rangePredicate )
+    {
+        String to = rangePredicate.to();
+        if ( to == null )
+        {
+            treeKeyTo.initAsHighest();
+        }
+        else
+        {
+            byte[] encoded = UTF8.encode( to );
+            // A stored string equal to a truncated bound is smaller than the bound itself, i.e. included
+            boolean truncated = treeKeyTo.initFromBytes( encoded, encoded.length );
+            treeKeyTo.entityId = rangePredicate.toInclusive() || truncated ? Long.MAX_VALUE : Long.MIN_VALUE;
+            treeKeyTo.entityIdIsSpecialTieBreaker = true;
+        }
+    }
+
+    private void initForPrefix( String prefix )
+    {
+        byte[] encoded = UTF8.encode( prefix );
+        if ( encoded.length == 0 )
+        {
+            treeKeyFrom.initAsLowest();
+            treeKeyTo.initAsHighest();
+            return;
+        }
+        if ( encoded.length > SchemaStringKey.MAX_BYTES )
+        {
+            // No string stored in this index can start with such a long prefix, make the range empty
+            treeKeyFrom.initAsHighest();
+            treeKeyTo.initAsLowest();
+            return;
+        }
+
+        treeKeyFrom.initFromBytes( encoded, encoded.length );
+        treeKeyFrom.entityId = Long.MIN_VALUE;
+        treeKeyFrom.entityIdIsSpecialTieBreaker = true;
+
+        // All strings starting with the prefix are smaller than the prefix with its last byte incremented.
+        // The last byte can't overflow since 0xFF never occurs in UTF-8 encoded data.
+        encoded[encoded.length - 1]++;
+        treeKeyTo.initFromBytes( encoded, encoded.length );
+        treeKeyTo.entityId = Long.MIN_VALUE;
+        treeKeyTo.entityIdIsSpecialTieBreaker = true;
+    }
+}
@@ -23,22 +23,32 @@ import org.neo4j.kernel.impl.index.schema.fusion.FusionSchemaIndexProvider;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueGroup;
 
+/**
+ * Selects the native number index for numbers and the native string index for strings short enough to fit in it.
+ * Composite values made up of numbers and short strings are handled by the native composite index.
+ * Everything else is handled by lucene.
+ */
 public class NativeSelector implements FusionSchemaIndexProvider.Selector
 {
     @Override
-    public <T> T select( T nativeInstance, T luceneInstance, Value... values )
+    public <T> T select( T numberInstance, T stringInstance, T compositeInstance, T luceneInstance, Value... values )
     {
         if ( values.length > 1 )
         {
-            // Multiple values must be handled by lucene
-            return luceneInstance;
+            // Multiple values can be handled by the native composite index if all of them fit
+            return SchemaCompositeKey.fits( values ) ? compositeInstance : luceneInstance;
         }
 
         Value singleValue = values[0];
         if ( singleValue.valueGroup() == ValueGroup.NUMBER )
         {
             // It's a number, the native can handle this
-            return nativeInstance;
+            return numberInstance;
+        }
+        if ( singleValue.valueGroup() == ValueGroup.TEXT && SchemaStringKey.fits( singleValue ) )
+        {
+            // It's a string which isn't too long, the native can handle this
+            return stringInstance;
         }
         return luceneInstance;
     }
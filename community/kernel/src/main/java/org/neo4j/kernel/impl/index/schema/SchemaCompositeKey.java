@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.util.StringJoiner;
+
+import org.neo4j.string.UTF8;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static java.lang.String.format;
+
+/**
+ * Includes values and entity id (to be able to handle non-unique values).
+ * The key has one fixed size slot per property of the index, where each slot holds either a {@link Number},
+ * represented the same way as in {@link SchemaNumberKey}, or a {@link String}, represented by its UTF-8 encoded
+ * bytes like in {@link SchemaStringKey}. Different properties may have values of different types, and the same
+ * property may have values of different types for different entities.
+ *
+ * Keys compare slot by slot, making the leading slots the most significant. Within a slot all numbers are
+ * ordered before all strings. This allows range seeks over the leading slots of the key, given that the
+ * remaining slots are filled with {@link #initAsLowest(int) lowest} or {@link #initAsHighest(int) highest} markers.
+ *
+ * Values which can't be represented in a slot, see {@link #fits(Value...)}, cannot be stored in this key.
+ */
+class SchemaCompositeKey extends NativeSchemaKey
+{
+    static final int MAX_SLOTS = 16;
+    static final int MAX_STRING_BYTES = 30;
+    static final int SLOT_SIZE =
+            Byte.BYTES + /* type of value */
+            Math.max(
+                    Long.BYTES, /* raw value bits of number */
+                    Short.BYTES + MAX_STRING_BYTES ); /* length and bytes of string */
+
+    // Types of values in a slot. Numbers use the types of RawBits, the lowest and highest markers are
+    // only used for in memory bounds of seeks, never for stored keys.
+    static final byte TYPE_LOWEST = -1;
+    static final byte TYPE_TEXT = 6;
+    static final byte TYPE_HIGHEST = 7;
+
+    // A byte which never occurs in UTF-8 encoded data, making a string consisting of only this byte
+    // higher than all actual strings.
+    private static final byte HIGHEST_STRING_BYTE = (byte) 0xFF;
+
+    final byte[] types;
+    final long[] rawValueBits;
+    final byte[][] stringBytes;
+    final int[] stringLengths;
+    private int currentSlot;
+
+    SchemaCompositeKey( int numberOfSlots )
+    {
+        types = new byte[numberOfSlots];
+        rawValueBits = new long[numberOfSlots];
+        stringBytes = new byte[numberOfSlots][MAX_STRING_BYTES];
+        stringLengths = new int[numberOfSlots];
+    }
+
+    /**
+     * @param numberOfSlots number of properties in the index.
+     * @return size of a key with the given number of slots, including the entity id.
+     */
+    static int size( int numberOfSlots )
+    {
+        return numberOfSlots * SLOT_SIZE + Long.BYTES;
+    }
+
+    /**
+     * @param values values to check.
+     * @return whether or not {@code values} can all be stored in a {@link SchemaCompositeKey}.
+     */
+    static boolean fits( Value... values )
+    {
+        if ( values.length > MAX_SLOTS )
+        {
+            return false;
+        }
+        for ( Value value : values )
+        {
+            if ( !Values.isNumberValue( value ) && !fitsAsString( value ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean fitsAsString( Value value )
+    {
+        if ( !Values.isTextValue( value ) )
+        {
+            return false;
+        }
+        String string = ((TextValue) value).stringValue();
+        // Each char is at most 3 bytes when encoded, most strings can be accepted without encoding them.
+        return string.length() * 3 <= MAX_STRING_BYTES || UTF8.encode( string ).length <= MAX_STRING_BYTES;
+    }
+
+    int numberOfSlots()
+    {
+        return types.length;
+    }
+
+    @Override
+    void from( long entityId, Value... values )
+    {
+        if ( values.length != types.length )
+        {
+            throw new IllegalArgumentException( format(
+                    "Tried to create key with %d values for composite key layout of %d properties",
+                    values.length, types.length ) );
+        }
+        for ( int slot = 0; slot < values.length; slot++ )
+        {
+            from( slot, values[slot] );
+        }
+        this.entityId = entityId;
+        entityIdIsSpecialTieBreaker = false;
+    }
+
+    void from( int slot, Value value )
+    {
+        currentSlot = slot;
+        assertCorrectType( value ).writeTo( this );
+    }
+
+    @Override
+    Value assertCorrectType( Value value )
+    {
+        if ( !Values.isNumberValue( value ) && !Values.isTextValue( value ) )
+        {
+            throw new IllegalArgumentException(
+                    "Key layout does only support numbers and strings, tried to create key from " + value );
+        }
+        return value;
+    }
+
+    @Override
+    Value asValue()
+    {
+        throw new UnsupportedOperationException( "Composite key has one value per property, use asValues" );
+    }
+
+    Value[] asValues()
+    {
+        Value[] values = new Value[types.length];
+        for ( int slot = 0; slot < values.length; slot++ )
+        {
+            values[slot] = asValue( slot );
+        }
+        return values;
+    }
+
+    Value asValue( int slot )
+    {
+        switch ( types[slot] )
+        {
+        case TYPE_TEXT:
+            return Values.stringValue( UTF8.decode( stringBytes[slot], 0, stringLengths[slot] ) );
+        case TYPE_LOWEST:
+        case TYPE_HIGHEST:
+            return Values.NO_VALUE;
+        default:
+            return RawBits.asNumberValue( rawValueBits[slot], types[slot] );
+        }
+    }
+
+    @Override
+    String propertiesAsString()
+    {
+        StringJoiner joiner = new StringJoiner( "," );
+        for ( Value value : asValues() )
+        {
+            joiner.add( value.toString() );
+        }
+        return joiner.toString();
+    }
+
+    @Override
+    void initAsLowest()
+    {
+        initAsLowest( 0 );
+    }
+
+    @Override
+    void initAsHighest()
+    {
+        initAsHighest( 0 );
+    }
+
+    /**
+     * Makes this key lower than all stored keys which have the same values in the slots before {@code fromSlot}.
+     */
+    void initAsLowest( int fromSlot )
+    {
+        for ( int slot = fromSlot; slot < types.length; slot++ )
+        {
+            types[slot] = TYPE_LOWEST;
+        }
+        entityId = Long.MIN_VALUE;
+        entityIdIsSpecialTieBreaker = true;
+    }
+
+    /**
+     * Makes this key higher than all stored keys which have the same values in the slots before {@code fromSlot}.
+     */
+    void initAsHighest( int fromSlot )
+    {
+        for ( int slot = fromSlot; slot < types.length; slot++ )
+        {
+            types[slot] = TYPE_HIGHEST;
+        }
+        entityId = Long.MAX_VALUE;
+        entityIdIsSpecialTieBreaker = true;
+    }
+
+    /**
+     * Sets the given slot to a string higher than all strings, but lower than {@link #TYPE_HIGHEST}.
+     */
+    void initAsHighestString( int slot )
+    {
+        types[slot] = TYPE_TEXT;
+        stringBytes[slot][0] = HIGHEST_STRING_BYTE;
+        stringLengths[slot] = 1;
+    }
+
+    /**
+     * Initializes the string of a slot from already encoded bytes, which are truncated at {@link #MAX_STRING_BYTES}.
+     *
+     * @param slot the slot to initialize.
+     * @param encoded UTF-8 encoded bytes.
+     * @param length number of bytes in {@code encoded} to use.
+     * @return whether or not the bytes had to be truncated to fit.
+     */
+    boolean initStringFromBytes( int slot, byte[] encoded, int length )
+    {
+        types[slot] = TYPE_TEXT;
+        stringLengths[slot] = Math.min( length, MAX_STRING_BYTES );
+        System.arraycopy( encoded, 0, stringBytes[slot], 0, stringLengths[slot] );
+        return stringLengths[slot] < length;
+    }
+
+    /**
+     * Compares the values of this key to those of another key, slot by slot.
+     * This method is expected to be called in scenarios where inconsistent reads may happen (and later retried).
+     *
+     * @param other the {@link SchemaCompositeKey} to compare to.
+     * @return comparison against the {@code other} {@link SchemaCompositeKey}.
+     */
+    int compareValueTo( SchemaCompositeKey other )
+    {
+        for ( int slot = 0; slot < types.length; slot++ )
+        {
+            int comparison = compareSlot( slot, other );
+            if ( comparison != 0 )
+            {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private int compareSlot( int slot, SchemaCompositeKey other )
+    {
+        byte type = types[slot];
+        byte otherType = other.types[slot];
+        int comparison = Integer.compare( typeOrder( type ), typeOrder( otherType ) );
+        if ( comparison != 0 || type == TYPE_LOWEST || type == TYPE_HIGHEST )
+        {
+            return comparison;
+        }
+        if ( type == TYPE_TEXT )
+        {
+            return compareStrings( stringBytes[slot], stringLengths[slot],
+                    other.stringBytes[slot], other.stringLengths[slot] );
+        }
+        return RawBits.compare( rawValueBits[slot], type, other.rawValueBits[slot], otherType );
+    }
+
+    private static int typeOrder( byte type )
+    {
+        switch ( type )
+        {
+        case TYPE_LOWEST:
+            return 0;
+        case TYPE_TEXT:
+            return 2;
+        case TYPE_HIGHEST:
+            return 3;
+        default:
+            return 1;
+        }
+    }
+
+    private static int compareStrings( byte[] bytes, int length, byte[] otherBytes, int otherLength )
+    {
+        int commonLength = Math.min( length, otherLength );
+        for ( int i = 0; i < commonLength; i++ )
+        {
+            int comparison = Integer.compare( bytes[i] & 0xFF, otherBytes[i] & 0xFF );
+            if ( comparison != 0 )
+            {
+                return comparison;
+            }
+        }
+        return Integer.compare( length, otherLength );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "values=%s,entityId=%d", propertiesAsString(), entityId );
+    }
+
+    @Override
+    public void writeInteger( byte value )
+    {
+        writeNumber( RawBits.BYTE, value );
+    }
+
+    @Override
+    public void writeInteger( short value )
+    {
+        writeNumber( RawBits.SHORT, value );
+    }
+
+    @Override
+    public void writeInteger( int value )
+    {
+        writeNumber( RawBits.INT, value );
+    }
+
+    @Override
+    public void writeInteger( long value )
+    {
+        writeNumber( RawBits.LONG, value );
+    }
+
+    @Override
+    public void writeFloatingPoint( float value )
+    {
+        writeNumber( RawBits.FLOAT, Float.floatToIntBits( value ) );
+    }
+
+    @Override
+    public void writeFloatingPoint( double value )
+    {
+        writeNumber( RawBits.DOUBLE, Double.doubleToLongBits( value ) );
+    }
+
+    private void writeNumber( byte type, long bits )
+    {
+        types[currentSlot] = type;
+        rawValueBits[currentSlot] = bits;
+    }
+
+    @Override
+    public void writeString( String value )
+    {
+        byte[] encoded = UTF8.encode( value );
+        if ( encoded.length > MAX_STRING_BYTES )
+        {
+            throw new IllegalArgumentException( format(
+                    "Tried to create key from string of %d bytes, but max is %d bytes",
+                    encoded.length, MAX_STRING_BYTES ) );
+        }
+        initStringFromBytes( currentSlot, encoded, encoded.length );
+    }
+
+    @Override
+    public void writeString( char value )
+    {
+        writeString( String.valueOf( value ) );
+    }
+}
@@ -19,10 +19,7 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
-import org.neo4j.index.internal.gbptree.GBPTree;
-import org.neo4j.values.storable.NumberValue;
 import org.neo4j.values.storable.Value;
-import org.neo4j.values.storable.ValueWriter;
 import org.neo4j.values.storable.Values;
 
 import static java.lang.String.format;
@@ -35,7 +32,7 @@ import static java.lang.String.format;
  * Distinction between double and float exists because coersions between each other and long may differ.
  * TODO this should be figured out and potentially reduced to long, double types only.
  */
-class SchemaNumberKey extends ValueWriter.Adapter<RuntimeException>
+class SchemaNumberKey extends NativeSchemaKey
 {
     static final int SIZE =
             Byte.BYTES + /* type of value */
@@ -46,48 +43,25 @@ class SchemaNumberKey extends ValueWriter.Adapter<RuntimeException>
 
     byte type;
     long rawValueBits;
-    long entityId;
 
-    /**
-     * Marks that comparisons with this key requires also comparing entityId, this allows functionality
-     * of inclusive/exclusive bounds of range queries.
-     * This is because {@link GBPTree} only support from inclusive and to exclusive.
-     * <p>
-     * Note that {@code entityIdIsSpecialTieBreaker} is only an in memory state.
-     */
-    boolean entityIdIsSpecialTieBreaker;
-
-    void from( long entityId, Value... values )
-    {
-        extractRawBitsAndType( assertValidSingleNumber( values ) );
-        this.entityId = entityId;
-        entityIdIsSpecialTieBreaker = false;
-    }
-
-    private static NumberValue assertValidSingleNumber( Value... values )
+    @Override
+    Value assertCorrectType( Value value )
     {
-        // TODO: support multiple values, right?
-        if ( values.length > 1 )
-        {
-            throw new IllegalArgumentException( "Tried to create composite key with non-composite schema key layout" );
-        }
-        if ( values.length < 1 )
-        {
-            throw new IllegalArgumentException( "Tried to create key without value" );
-        }
-        if ( !Values.isNumberValue( values[0] ) )
+        if ( !Values.isNumberValue( value ) )
         {
             throw new IllegalArgumentException(
-                    "Key layout does only support numbers, tried to create key from " + values[0] );
+                    "Key layout does only support numbers, tried to create key from " + value );
         }
-        return (NumberValue) values[0];
+        return value;
     }
 
-    String propertiesAsString()
+    @Override
+    Value asValue()
     {
-        return RawBits.asNumberValue( rawValueBits, type ).toString();
+        return RawBits.asNumberValue( rawValueBits, type );
     }
 
+    @Override
     void initAsLowest()
     {
         writeFloatingPoint( Double.NEGATIVE_INFINITY );
@@ -95,6 +69,7 @@ class SchemaNumberKey extends ValueWriter.Adapter<RuntimeException>
         entityIdIsSpecialTieBreaker = true;
     }
 
+    @Override
     void initAsHighest()
     {
         writeFloatingPoint( Double.POSITIVE_INFINITY );
@@ -114,16 +89,6 @@ class SchemaNumberKey extends ValueWriter.Adapter<RuntimeException>
         return RawBits.compare( rawValueBits, type, other.rawValueBits, other.type );
     }
 
-    /**
-     * Extracts raw bits and type from a {@link NumberValue} and store as state of this {@link SchemaNumberKey} instance.
-     *
-     * @param value actual {@link NumberValue} value.
-     */
-    private void extractRawBitsAndType( NumberValue value )
-    {
-        value.writeTo( this );
-    }
-
     @Override
     public String toString()
     {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.string.UTF8;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static java.lang.String.format;
+
+/**
+ * Includes value and entity id (to be able to handle non-unique values).
+ * A value is a {@link String} represented by its UTF-8 encoded bytes, which are stored length-prefixed in a fixed
+ * size slot of the tree. Strings with an encoded length above {@link #MAX_BYTES} cannot be stored in this key,
+ * see {@link #fits(Value)}.
+ *
+ * Keys compare their bytes as unsigned bytes, which is the code point order of the strings.
+ */
+class SchemaStringKey extends NativeSchemaKey
+{
+    static final int MAX_BYTES = 118;
+    static final int SIZE =
+            Short.BYTES + /* length of string bytes */
+            MAX_BYTES +   /* string bytes */
+            Long.BYTES;   /* entityId */
+
+    // A byte which never occurs in UTF-8 encoded data, making a key consisting of only this byte higher than all
+    // keys of actual strings.
+    private static final byte HIGHEST_BYTE = (byte) 0xFF;
+
+    final byte[] bytes = new byte[MAX_BYTES];
+    int bytesLength;
+
+    /**
+     * @param value value to check.
+     * @return whether or not {@code value} is a string short enough to be stored in a {@link SchemaStringKey}.
+     */
+    static boolean fits( Value value )
+    {
+        if ( !Values.isTextValue( value ) )
+        {
+            return false;
+        }
+        String string = ((TextValue) value).stringValue();
+        // Each char is at most 3 bytes when encoded, most strings can be accepted without encoding them.
+        return string.length() * 3 <= MAX_BYTES || UTF8.encode( string ).length <= MAX_BYTES;
+    }
+
+    @Override
+    Value assertCorrectType( Value value )
+    {
+        if ( !Values.isTextValue( value ) )
+        {
+            throw new IllegalArgumentException(
+                    "Key layout does only support strings, tried to create key from " + value );
+        }
+        return value;
+    }
+
+    @Override
+    Value asValue()
+    {
+        return Values.stringValue( UTF8.decode( bytes, 0, bytesLength ) );
+    }
+
+    @Override
+    void initAsLowest()
+    {
+        bytesLength = 0;
+        entityId = Long.MIN_VALUE;
+        entityIdIsSpecialTieBreaker = true;
+    }
+
+    @Override
+    void initAsHighest()
+    {
+        bytes[0] = HIGHEST_BYTE;
+        bytesLength = 1;
+        entityId = Long.MAX_VALUE;
+        entityIdIsSpecialTieBreaker = true;
+    }
+
+    /**
+     * Compares the value of this key to that of another key.
+     * This method is expected to be called in scenarios where inconsistent reads may happen (and later retried).
+     *
+     * @param other the {@link SchemaStringKey} to compare to.
+     * @return comparison against the {@code other} {@link SchemaStringKey}.
+     */
+    int compareValueTo( SchemaStringKey other )
+    {
+        int length = Math.min( bytesLength, other.bytesLength );
+        for ( int i = 0; i < length; i++ )
+        {
+            int compare = Integer.compare( bytes[i] & 0xFF, other.bytes[i] & 0xFF );
+            if ( compare != 0 )
+            {
+                return compare;
+            }
+        }
+        return Integer.compare( bytesLength, other.bytesLength );
+    }
+
+    /**
+     * Initializes the value of this key from already encoded bytes, which are truncated at {@link #MAX_BYTES}.
+     *
+     * @param encoded UTF-8 encoded bytes.
+     * @param length number of bytes in {@code encoded} to use.
+     * @return whether or not the bytes had to be truncated to fit.
+     */
+    boolean initFromBytes( byte[] encoded, int length )
+    {
+        bytesLength = Math.min( length, MAX_BYTES );
+        System.arraycopy( encoded, 0, bytes, 0, bytesLength );
+        return bytesLength < length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "value=%s,entityId=%d", asValue(), entityId );
+    }
+
+    @Override
+    public void writeString( String value )
+    {
+        byte[] encoded = UTF8.encode( value );
+        if ( encoded.length > MAX_BYTES )
+        {
+            throw new IllegalArgumentException( format(
+                    "Tried to create key from string of %d bytes, but max is %d bytes", encoded.length, MAX_BYTES ) );
+        }
+        System.arraycopy( encoded, 0, bytes, 0, encoded.length );
+        bytesLength = encoded.length;
+    }
+
+    @Override
+    public void writeString( char value )
+    {
+        writeString( String.valueOf( value ) );
+    }
+}
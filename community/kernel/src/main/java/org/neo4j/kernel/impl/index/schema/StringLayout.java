@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * {@link Layout} for strings, storing the UTF-8 encoded bytes of the string length-prefixed in a fixed size key.
+ */
+abstract class StringLayout extends Layout.Adapter<SchemaStringKey,NativeSchemaValue>
+{
+    @Override
+    public SchemaStringKey newKey()
+    {
+        return new SchemaStringKey();
+    }
+
+    @Override
+    public SchemaStringKey copyKey( SchemaStringKey key, SchemaStringKey into )
+    {
+        System.arraycopy( key.bytes, 0, into.bytes, 0, key.bytesLength );
+        into.bytesLength = key.bytesLength;
+        into.entityId = key.entityId;
+        into.entityIdIsSpecialTieBreaker = key.entityIdIsSpecialTieBreaker;
+        return into;
+    }
+
+    @Override
+    public NativeSchemaValue newValue()
+    {
+        return NativeSchemaValue.INSTANCE;
+    }
+
+    @Override
+    public int keySize()
+    {
+        return SchemaStringKey.SIZE;
+    }
+
+    @Override
+    public int valueSize()
+    {
+        return NativeSchemaValue.SIZE;
+    }
+
+    @Override
+    public void writeKey( PageCursor cursor, SchemaStringKey key )
+    {
+        cursor.putShort( (short) key.bytesLength );
+        cursor.putBytes( key.bytes, 0, key.bytesLength );
+        // Skip over the unused part of the slot, keeping the entity id at a fixed offset within the key
+        cursor.setOffset( cursor.getOffset() + SchemaStringKey.MAX_BYTES - key.bytesLength );
+        cursor.putLong( key.entityId );
+    }
+
+    @Override
+    public void writeValue( PageCursor cursor, NativeSchemaValue value )
+    {
+    }
+
+    @Override
+    public void readKey( PageCursor cursor, SchemaStringKey into )
+    {
+        int length = cursor.getShort();
+        if ( length < 0 || length > SchemaStringKey.MAX_BYTES )
+        {
+            // This is an inconsistent read, which will be retried. Read something sane meanwhile.
+            length = 0;
+        }
+        cursor.getBytes( into.bytes, 0, length );
+        into.bytesLength = length;
+        cursor.setOffset( cursor.getOffset() + SchemaStringKey.MAX_BYTES - length );
+        into.entityId = cursor.getLong();
+    }
+
+    @Override
+    public void readValue( PageCursor cursor, NativeSchemaValue into )
+    {
+    }
+}
@@ -39,13 +39,18 @@ import static org.neo4j.helpers.collection.Iterators.concatResourceIterators;
 
 class FusionIndexAccessor implements IndexAccessor
 {
-    private final IndexAccessor nativeAccessor;
+    private final IndexAccessor numberAccessor;
+    private final IndexAccessor stringAccessor;
+    private final IndexAccessor compositeAccessor;
     private final IndexAccessor luceneAccessor;
     private final Selector selector;
 
-    FusionIndexAccessor( IndexAccessor nativeAccessor, IndexAccessor luceneAccessor, Selector selector )
+    FusionIndexAccessor( IndexAccessor numberAccessor, IndexAccessor stringAccessor,
+            IndexAccessor compositeAccessor, IndexAccessor luceneAccessor, Selector selector )
     {
-        this.nativeAccessor = nativeAccessor;
+        this.numberAccessor = numberAccessor;
+        this.stringAccessor = stringAccessor;
+        this.compositeAccessor = compositeAccessor;
         this.luceneAccessor = luceneAccessor;
         this.selector = selector;
     }
@@ -55,24 +60,41 @@ class FusionIndexAccessor implements IndexAccessor
     {
         try
         {
-            nativeAccessor.drop();
+            numberAccessor.drop();
         }
         finally
         {
-            luceneAccessor.drop();
+            try
+            {
+                stringAccessor.drop();
+            }
+            finally
+            {
+                try
+                {
+                    compositeAccessor.drop();
+                }
+                finally
+                {
+                    luceneAccessor.drop();
+                }
+            }
         }
     }
 
     @Override
     public IndexUpdater newUpdater( IndexUpdateMode mode )
     {
-        return new FusionIndexUpdater( nativeAccessor.newUpdater( mode ), luceneAccessor.newUpdater( mode ), selector );
+        return new FusionIndexUpdater( numberAccessor.newUpdater( mode ), stringAccessor.newUpdater( mode ),
+                compositeAccessor.newUpdater( mode ), luceneAccessor.newUpdater( mode ), selector );
     }
 
     @Override
     public void force() throws IOException
     {
-        nativeAccessor.force();
+        numberAccessor.force();
+        stringAccessor.force();
+        compositeAccessor.force();
         luceneAccessor.force();
     }
 
@@ -81,34 +103,54 @@ class FusionIndexAccessor implements IndexAccessor
     {
         try
         {
-            nativeAccessor.close();
+            numberAccessor.close();
         }
         finally
         {
-            luceneAccessor.close();
+            try
+            {
+                stringAccessor.close();
+            }
+            finally
+            {
+                try
+                {
+                    compositeAccessor.close();
+                }
+                finally
+                {
+                    luceneAccessor.close();
+                }
+            }
         }
     }
 
     @Override
     public IndexReader newReader()
     {
-        return new FusionIndexReader( nativeAccessor.newReader(), luceneAccessor.newReader(), selector );
+        return new FusionIndexReader( numberAccessor.newReader(), stringAccessor.newReader(),
+                compositeAccessor.newReader(), luceneAccessor.newReader(), selector );
     }
 
     @Override
     public BoundedIterable<Long> newAllEntriesReader()
     {
-        BoundedIterable<Long> nativeAllEntries = nativeAccessor.newAllEntriesReader();
+        BoundedIterable<Long> numberAllEntries = numberAccessor.newAllEntriesReader();
+        BoundedIterable<Long> stringAllEntries = stringAccessor.newAllEntriesReader();
+        BoundedIterable<Long> compositeAllEntries = compositeAccessor.newAllEntriesReader();
         BoundedIterable<Long> luceneAllEntries = luceneAccessor.newAllEntriesReader();
         return new BoundedIterable<Long>()
         {
             @Override
             public long maxCount()
             {
-                long nativeMaxCount = nativeAllEntries.maxCount();
+                long numberMaxCount = numberAllEntries.maxCount();
+                long stringMaxCount = stringAllEntries.maxCount();
+                long compositeMaxCount = compositeAllEntries.maxCount();
                 long luceneMaxCount = luceneAllEntries.maxCount();
-                return nativeMaxCount == UNKNOWN_MAX_COUNT || luceneMaxCount == UNKNOWN_MAX_COUNT ?
-                       UNKNOWN_MAX_COUNT : nativeMaxCount + luceneMaxCount;
+                return numberMaxCount == UNKNOWN_MAX_COUNT || stringMaxCount == UNKNOWN_MAX_COUNT ||
+                       compositeMaxCount == UNKNOWN_MAX_COUNT || luceneMaxCount == UNKNOWN_MAX_COUNT ?
+                       UNKNOWN_MAX_COUNT : numberMaxCount + stringMaxCount + compositeMaxCount + luceneMaxCount;
             }
 
             @Override
@@ -116,18 +158,33 @@ class FusionIndexAccessor implements IndexAccessor
             {
                 try
                 {
-                    nativeAllEntries.close();
+                    numberAllEntries.close();
                 }
                 finally
                 {
-                    luceneAllEntries.close();
+                    try
+                    {
+                        stringAllEntries.close();
+                    }
+                    finally
+                    {
+                        try
+                        {
+                            compositeAllEntries.close();
+                        }
+                        finally
+                        {
+                            luceneAllEntries.close();
+                        }
+                    }
                 }
             }
 
             @Override
             public Iterator<Long> iterator()
             {
-                return Iterables.concat( nativeAllEntries, luceneAllEntries ).iterator();
+                return Iterables.concat( numberAllEntries, stringAllEntries, compositeAllEntries,
+                        luceneAllEntries ).iterator();
             }
         };
     }
@@ -135,15 +192,17 @@ class FusionIndexAccessor implements IndexAccessor
     @Override
     public ResourceIterator<File> snapshotFiles() throws IOException
     {
-        return concatResourceIterators(
-                asList( nativeAccessor.snapshotFiles(), luceneAccessor.snapshotFiles() ).iterator() );
+        return concatResourceIterators( asList( numberAccessor.snapshotFiles(), stringAccessor.snapshotFiles(),
+                compositeAccessor.snapshotFiles(), luceneAccessor.snapshotFiles() ).iterator() );
     }
 
     @Override
     public void verifyDeferredConstraints( PropertyAccessor propertyAccessor )
             throws IndexEntryConflictException, IOException
     {
-        nativeAccessor.verifyDeferredConstraints( propertyAccessor );
+        numberAccessor.verifyDeferredConstraints( propertyAccessor );
+        stringAccessor.verifyDeferredConstraints( propertyAccessor );
+        compositeAccessor.verifyDeferredConstraints( propertyAccessor );
         luceneAccessor.verifyDeferredConstraints( propertyAccessor );
     }
 }
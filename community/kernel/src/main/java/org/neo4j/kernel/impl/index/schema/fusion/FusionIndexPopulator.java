@@ -35,13 +35,18 @@ import static org.neo4j.kernel.impl.index.schema.fusion.FusionSchemaIndexProvide
 
 class FusionIndexPopulator implements IndexPopulator
 {
-    private final IndexPopulator nativePopulator;
+    private final IndexPopulator numberPopulator;
+    private final IndexPopulator stringPopulator;
+    private final IndexPopulator compositePopulator;
     private final IndexPopulator lucenePopulator;
     private final Selector selector;
 
-    FusionIndexPopulator( IndexPopulator nativePopulator, IndexPopulator lucenePopulator, Selector selector )
+    FusionIndexPopulator( IndexPopulator numberPopulator, IndexPopulator stringPopulator,
+            IndexPopulator compositePopulator, IndexPopulator lucenePopulator, Selector selector )
     {
-        this.nativePopulator = nativePopulator;
+        this.numberPopulator = numberPopulator;
+        this.stringPopulator = stringPopulator;
+        this.compositePopulator = compositePopulator;
         this.lucenePopulator = lucenePopulator;
         this.selector = selector;
     }
@@ -49,7 +54,9 @@ class FusionIndexPopulator implements IndexPopulator
     @Override
     public void create() throws IOException
     {
-        nativePopulator.create();
+        numberPopulator.create();
+        stringPopulator.create();
+        compositePopulator.create();
         lucenePopulator.create();
     }
 
@@ -58,32 +65,52 @@ class FusionIndexPopulator implements IndexPopulator
     {
         try
         {
-            nativePopulator.drop();
+            numberPopulator.drop();
         }
         finally
         {
-            lucenePopulator.drop();
+            try
+            {
+                stringPopulator.drop();
+            }
+            finally
+            {
+                try
+                {
+                    compositePopulator.drop();
+                }
+                finally
+                {
+                    lucenePopulator.drop();
+                }
+            }
         }
     }
 
     @Override
     public void add( Collection<? extends IndexEntryUpdate<?>> updates ) throws IndexEntryConflictException, IOException
     {
+        Collection<IndexEntryUpdate<?>> numberBatch = new ArrayList<>();
+        Collection<IndexEntryUpdate<?>> stringBatch = new ArrayList<>();
+        Collection<IndexEntryUpdate<?>> compositeBatch = new ArrayList<>();
         Collection<IndexEntryUpdate<?>> luceneBatch = new ArrayList<>();
-        Collection<IndexEntryUpdate<?>> nativeBatch = new ArrayList<>();
         for ( IndexEntryUpdate<?> update : updates )
         {
-            selector.select( nativeBatch, luceneBatch, update.values() ).add( update );
+            selector.select( numberBatch, stringBatch, compositeBatch, luceneBatch, update.values() ).add( update );
         }
         lucenePopulator.add( luceneBatch );
-        nativePopulator.add( nativeBatch );
+        compositePopulator.add( compositeBatch );
+        stringPopulator.add( stringBatch );
+        numberPopulator.add( numberBatch );
     }
 
     @Override
     public void verifyDeferredConstraints( PropertyAccessor propertyAccessor )
             throws IndexEntryConflictException, IOException
     {
-        nativePopulator.verifyDeferredConstraints( propertyAccessor );
+        numberPopulator.verifyDeferredConstraints( propertyAccessor );
+        stringPopulator.verifyDeferredConstraints( propertyAccessor );
+        compositePopulator.verifyDeferredConstraints( propertyAccessor );
         lucenePopulator.verifyDeferredConstraints( propertyAccessor );
     }
 
@@ -91,7 +118,9 @@ class FusionIndexPopulator implements IndexPopulator
     public IndexUpdater newPopulatingUpdater( PropertyAccessor accessor ) throws IOException
     {
         return new FusionIndexUpdater(
-                nativePopulator.newPopulatingUpdater( accessor ),
+                numberPopulator.newPopulatingUpdater( accessor ),
+                stringPopulator.newPopulatingUpdater( accessor ),
+                compositePopulator.newPopulatingUpdater( accessor ),
                 lucenePopulator.newPopulatingUpdater( accessor ), selector );
     }
 
@@ -100,11 +129,25 @@ class FusionIndexPopulator implements IndexPopulator
     {
         try
         {
-            nativePopulator.close( populationCompletedSuccessfully );
+            numberPopulator.close( populationCompletedSuccessfully );
         }
         finally
         {
-            lucenePopulator.close( populationCompletedSuccessfully );
+            try
+            {
+                stringPopulator.close( populationCompletedSuccessfully );
+            }
+            finally
+            {
+                try
+                {
+                    compositePopulator.close( populationCompletedSuccessfully );
+                }
+                finally
+                {
+                    lucenePopulator.close( populationCompletedSuccessfully );
+                }
+            }
         }
     }
 
@@ -113,30 +156,48 @@ class FusionIndexPopulator implements IndexPopulator
     {
         try
         {
-            nativePopulator.markAsFailed( failure );
+            numberPopulator.markAsFailed( failure );
         }
         finally
         {
-            lucenePopulator.markAsFailed( failure );
+            try
+            {
+                stringPopulator.markAsFailed( failure );
+            }
+            finally
+            {
+                try
+                {
+                    compositePopulator.markAsFailed( failure );
+                }
+                finally
+                {
+                    lucenePopulator.markAsFailed( failure );
+                }
+            }
         }
     }
 
     @Override
     public void includeSample( IndexEntryUpdate update )
     {
-        selector.select( nativePopulator, lucenePopulator, update.values() ).includeSample( update );
+        selector.select( numberPopulator, stringPopulator, compositePopulator, lucenePopulator, update.values() )
+                .includeSample( update );
     }
 
     @Override
     public void configureSampling( boolean onlineSampling )
     {
-        nativePopulator.configureSampling( onlineSampling );
+        numberPopulator.configureSampling( onlineSampling );
+        stringPopulator.configureSampling( onlineSampling );
+        compositePopulator.configureSampling( onlineSampling );
         lucenePopulator.configureSampling( onlineSampling );
     }
 
     @Override
     public IndexSample sampleResult()
     {
-        return combineSamples( nativePopulator.sampleResult(), lucenePopulator.sampleResult() );
+        return combineSamples( numberPopulator.sampleResult(), stringPopulator.sampleResult(),
+                compositePopulator.sampleResult(), lucenePopulator.sampleResult() );
     }
 }
@@ -26,6 +26,10 @@ import org.neo4j.kernel.api.schema.IndexQuery;
 import org.neo4j.kernel.api.schema.IndexQuery.ExactPredicate;
 import org.neo4j.kernel.api.schema.IndexQuery.ExistsPredicate;
 import org.neo4j.kernel.api.schema.IndexQuery.NumberRangePredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.StringContainsPredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.StringPrefixPredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.StringRangePredicate;
+import org.neo4j.kernel.api.schema.IndexQuery.StringSuffixPredicate;
 import org.neo4j.kernel.impl.index.schema.fusion.FusionSchemaIndexProvider.Selector;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
@@ -33,13 +37,18 @@ import org.neo4j.values.storable.Value;
 
 class FusionIndexReader implements IndexReader
 {
-    private final IndexReader nativeReader;
+    private final IndexReader numberReader;
+    private final IndexReader stringReader;
+    private final IndexReader compositeReader;
     private final IndexReader luceneReader;
     private final Selector selector;
 
-    FusionIndexReader( IndexReader nativeReader, IndexReader luceneReader, Selector selector )
+    FusionIndexReader( IndexReader numberReader, IndexReader stringReader, IndexReader compositeReader,
+            IndexReader luceneReader, Selector selector )
     {
-        this.nativeReader = nativeReader;
+        this.numberReader = numberReader;
+        this.stringReader = stringReader;
+        this.compositeReader = compositeReader;
         this.luceneReader = luceneReader;
         this.selector = selector;
     }
@@ -49,24 +58,40 @@ class FusionIndexReader implements IndexReader
     {
         try
         {
-            nativeReader.close();
+            numberReader.close();
         }
         finally
         {
-            luceneReader.close();
+            try
+            {
+                stringReader.close();
+            }
+            finally
+            {
+                try
+                {
+                    compositeReader.close();
+                }
+                finally
+                {
+                    luceneReader.close();
+                }
+            }
         }
     }
 
     @Override
     public long countIndexedNodes( long nodeId, Value... propertyValues )
     {
-        return selector.select( nativeReader, luceneReader, propertyValues ).countIndexedNodes( nodeId, propertyValues );
+        return selector.select( numberReader, stringReader, compositeReader, luceneReader, propertyValues )
+                .countIndexedNodes( nodeId, propertyValues );
     }
 
     @Override
     public IndexSampler createSampler()
     {
-        return new FusionIndexSampler( nativeReader.createSampler(), luceneReader.createSampler() );
+        return new FusionIndexSampler( numberReader.createSampler(), stringReader.createSampler(),
+                compositeReader.createSampler(), luceneReader.createSampler() );
     }
 
     @Override
@@ -74,37 +99,102 @@ class FusionIndexReader implements IndexReader
     {
         if ( predicates.length > 1 )
         {
-            return luceneReader.query( predicates );
+            return queryComposite( predicates );
         }
 
         if ( predicates[0] instanceof ExactPredicate )
         {
             ExactPredicate exactPredicate = (ExactPredicate) predicates[0];
-            return selector.select( nativeReader, luceneReader, exactPredicate.value() ).query( predicates );
+            return selector.select( numberReader, stringReader, compositeReader, luceneReader, exactPredicate.value() )
+                    .query( predicates );
         }
 
         if ( predicates[0] instanceof NumberRangePredicate )
         {
-            return nativeReader.query( predicates[0] );
+            return numberReader.query( predicates[0] );
+        }
+
+        // Strings too long for the native string index are in the lucene index, so both have to be queried
+        if ( predicates[0] instanceof StringRangePredicate || predicates[0] instanceof StringPrefixPredicate ||
+             predicates[0] instanceof StringSuffixPredicate || predicates[0] instanceof StringContainsPredicate )
+        {
+            PrimitiveLongIterator stringResult = stringReader.query( predicates[0] );
+            PrimitiveLongIterator luceneResult = luceneReader.query( predicates[0] );
+            return PrimitiveLongCollections.concat( stringResult, luceneResult );
         }
 
         // todo: There will be no ordering of the node ids here. Is this a problem?
         if ( predicates[0] instanceof ExistsPredicate )
         {
-            PrimitiveLongIterator nativeResult = nativeReader.query( predicates[0] );
+            PrimitiveLongIterator numberResult = numberReader.query( predicates[0] );
+            PrimitiveLongIterator stringResult = stringReader.query( predicates[0] );
+            PrimitiveLongIterator compositeResult = compositeReader.query( predicates[0] );
             PrimitiveLongIterator luceneResult = luceneReader.query( predicates[0] );
-            return PrimitiveLongCollections.concat( nativeResult, luceneResult );
+            return PrimitiveLongCollections.concat( numberResult, stringResult, compositeResult, luceneResult );
+        }
+
+        return luceneReader.query( predicates );
+    }
+
+    private PrimitiveLongIterator queryComposite( IndexQuery[] predicates ) throws IndexNotApplicableKernelException
+    {
+        Value[] exactValues = exactValues( predicates );
+        if ( exactValues != null )
+        {
+            return selector.select( numberReader, stringReader, compositeReader, luceneReader, exactValues )
+                    .query( predicates );
+        }
+
+        if ( allExists( predicates ) )
+        {
+            PrimitiveLongIterator compositeResult = compositeReader.query( predicates );
+            PrimitiveLongIterator luceneResult = luceneReader.query( predicates );
+            return PrimitiveLongCollections.concat( compositeResult, luceneResult );
         }
 
         return luceneReader.query( predicates );
     }
 
+    /**
+     * @return the values of the given predicates if all of them are exact, otherwise {@code null}.
+     */
+    private static Value[] exactValues( IndexQuery[] predicates )
+    {
+        Value[] values = new Value[predicates.length];
+        for ( int i = 0; i < predicates.length; i++ )
+        {
+            if ( !(predicates[i] instanceof ExactPredicate) )
+            {
+                return null;
+            }
+            values[i] = ((ExactPredicate) predicates[i]).value();
+        }
+        return values;
+    }
+
+    private static boolean allExists( IndexQuery[] predicates )
+    {
+        for ( IndexQuery predicate : predicates )
+        {
+            if ( !(predicate instanceof ExistsPredicate) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean hasFullNumberPrecision( IndexQuery... predicates )
     {
         if ( predicates.length > 1 )
         {
-            return false;
+            Value[] exactValues = exactValues( predicates );
+            return exactValues != null && selector.select(
+                    numberReader.hasFullNumberPrecision( predicates ),
+                    stringReader.hasFullNumberPrecision( predicates ),
+                    compositeReader.hasFullNumberPrecision( predicates ),
+                    luceneReader.hasFullNumberPrecision( predicates ), exactValues );
         }
 
         IndexQuery predicate = predicates[0];
@@ -112,12 +202,14 @@ class FusionIndexReader implements IndexReader
         {
             Value value = ((ExactPredicate) predicate).value();
             return selector.select(
-                    nativeReader.hasFullNumberPrecision( predicates ),
+                    numberReader.hasFullNumberPrecision( predicates ),
+                    stringReader.hasFullNumberPrecision( predicates ),
+                    compositeReader.hasFullNumberPrecision( predicates ),
                     luceneReader.hasFullNumberPrecision( predicates ), value );
         }
         if ( predicates[0] instanceof NumberRangePredicate )
         {
-            return nativeReader.hasFullNumberPrecision( predicates );
+            return numberReader.hasFullNumberPrecision( predicates );
         }
         return false;
     }
@@ -23,28 +23,28 @@ import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
 
+import static org.neo4j.kernel.impl.index.schema.fusion.FusionSchemaIndexProvider.combineSamples;
+
 class FusionIndexSampler implements IndexSampler
 {
-    private final IndexSampler nativeSampler;
+    private final IndexSampler numberSampler;
+    private final IndexSampler stringSampler;
+    private final IndexSampler compositeSampler;
     private final IndexSampler luceneSampler;
 
-    FusionIndexSampler( IndexSampler nativeSampler, IndexSampler luceneSampler )
+    FusionIndexSampler( IndexSampler numberSampler, IndexSampler stringSampler, IndexSampler compositeSampler,
+            IndexSampler luceneSampler )
     {
-        this.nativeSampler = nativeSampler;
+        this.numberSampler = numberSampler;
+        this.stringSampler = stringSampler;
+        this.compositeSampler = compositeSampler;
         this.luceneSampler = luceneSampler;
     }
 
     @Override
     public IndexSample sampleIndex() throws IndexNotFoundKernelException
     {
-        return combineSamples( nativeSampler.sampleIndex(), luceneSampler.sampleIndex() );
-    }
-
-    static IndexSample combineSamples( IndexSample first, IndexSample other )
-    {
-        return new IndexSample(
-                first.indexSize() + other.indexSize(),
-                first.uniqueValues() + other.uniqueValues(),
-                first.sampleSize() + other.sampleSize() );
+        return combineSamples( numberSampler.sampleIndex(), stringSampler.sampleIndex(),
+                compositeSampler.sampleIndex(), luceneSampler.sampleIndex() );
     }
 }
@@ -29,13 +29,18 @@ import org.neo4j.kernel.impl.index.schema.fusion.FusionSchemaIndexProvider.Selec
 
 class FusionIndexUpdater implements IndexUpdater
 {
-    private final IndexUpdater nativeUpdater;
+    private final IndexUpdater numberUpdater;
+    private final IndexUpdater stringUpdater;
+    private final IndexUpdater compositeUpdater;
     private final IndexUpdater luceneUpdater;
     private final Selector selector;
 
-    FusionIndexUpdater( IndexUpdater nativeUpdater, IndexUpdater luceneUpdater, Selector selector )
+    FusionIndexUpdater( IndexUpdater numberUpdater, IndexUpdater stringUpdater, IndexUpdater compositeUpdater,
+            IndexUpdater luceneUpdater, Selector selector )
     {
-        this.nativeUpdater = nativeUpdater;
+        this.numberUpdater = numberUpdater;
+        this.stringUpdater = stringUpdater;
+        this.compositeUpdater = compositeUpdater;
         this.luceneUpdater = luceneUpdater;
         this.selector = selector;
     }
@@ -43,7 +48,9 @@ class FusionIndexUpdater implements IndexUpdater
     @Override
     public void remove( PrimitiveLongSet nodeIds ) throws IOException
     {
-        nativeUpdater.remove( nodeIds );
+        numberUpdater.remove( nodeIds );
+        stringUpdater.remove( nodeIds );
+        compositeUpdater.remove( nodeIds );
         luceneUpdater.remove( nodeIds );
     }
 
@@ -53,14 +60,14 @@ class FusionIndexUpdater implements IndexUpdater
         switch ( update.updateMode() )
         {
         case ADDED:
-            selector.select( nativeUpdater, luceneUpdater, update.values() ).process( update );
+            selector.select( numberUpdater, stringUpdater, compositeUpdater, luceneUpdater, update.values() ).process( update );
             break;
         case CHANGED:
             // Hmm, here's a little conundrum. What if we change from a value that goes into native
             // to a value that goes into fallback, or vice versa? We also don't want to blindly pass
-            // all CHANGED updates to both updaters since not all values will work in them.
-            IndexUpdater from = selector.select( nativeUpdater, luceneUpdater, update.beforeValues() );
-            IndexUpdater to = selector.select( nativeUpdater, luceneUpdater, update.values() );
+            // all CHANGED updates to all updaters since not all values will work in them.
+            IndexUpdater from = selector.select( numberUpdater, stringUpdater, compositeUpdater, luceneUpdater, update.beforeValues() );
+            IndexUpdater to = selector.select( numberUpdater, stringUpdater, compositeUpdater, luceneUpdater, update.values() );
             // There are two cases:
             // - both before/after go into the same updater --> pass update into that updater
             if ( from == to )
@@ -77,7 +84,7 @@ class FusionIndexUpdater implements IndexUpdater
             }
             break;
         case REMOVED:
-            selector.select( nativeUpdater, luceneUpdater, update.values() ).process( update );
+            selector.select( numberUpdater, stringUpdater, compositeUpdater, luceneUpdater, update.values() ).process( update );
             break;
         default:
             throw new IllegalArgumentException( "Unknown update mode" );
@@ -89,11 +96,25 @@ class FusionIndexUpdater implements IndexUpdater
     {
         try
         {
-            nativeUpdater.close();
+            numberUpdater.close();
         }
         finally
         {
-            luceneUpdater.close();
+            try
+            {
+                stringUpdater.close();
+            }
+            finally
+            {
+                try
+                {
+                    compositeUpdater.close();
+                }
+                finally
+                {
+                    luceneUpdater.close();
+                }
+            }
         }
     }
 }
@@ -20,6 +20,8 @@
 package org.neo4j.kernel.impl.index.schema.fusion;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
@@ -34,35 +36,56 @@ import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.values.storable.Value;
 
 /**
- * This {@link SchemaIndexProvider index provider} act as one logical index but is backed by two physical
- * indexes, the native index and the lucene index. All index entries that can be handled by the native index will be directed
- * there and the rest will be directed to the lucene index.
+ * This {@link SchemaIndexProvider index provider} act as one logical index but is backed by four physical
+ * indexes, the native number index, the native string index, the native composite index and the lucene index.
+ * All index entries that can be handled by one of the native indexes will be directed there and the rest will be
+ * directed to the lucene index.
  */
 public class FusionSchemaIndexProvider extends SchemaIndexProvider
 {
     public interface Selector
     {
-        <T> T select( T nativeInstance, T luceneInstance, Value... values );
+        <T> T select( T numberInstance, T stringInstance, T compositeInstance, T luceneInstance, Value... values );
     }
 
-    private final SchemaIndexProvider nativeProvider;
+    private final SchemaIndexProvider numberProvider;
+    private final SchemaIndexProvider stringProvider;
+    private final SchemaIndexProvider compositeProvider;
     private final SchemaIndexProvider luceneProvider;
     private final Selector selector;
+    private final List<Descriptor> previousDescriptors;
 
-    public FusionSchemaIndexProvider( SchemaIndexProvider nativeProvider, SchemaIndexProvider luceneProvider, Selector selector,
-            SchemaIndexProvider.Descriptor descriptor, int priority )
+    /**
+     * @param previousDescriptors descriptors of earlier versions of this provider, with a different set of parts. An
+     * index of an earlier version lacks some of the native parts, which makes it {@link InternalIndexState#POPULATING}
+     * here, so that it is rebuilt with all parts.
+     */
+    public FusionSchemaIndexProvider( SchemaIndexProvider numberProvider, SchemaIndexProvider stringProvider,
+            SchemaIndexProvider compositeProvider, SchemaIndexProvider luceneProvider, Selector selector,
+            SchemaIndexProvider.Descriptor descriptor, int priority, Descriptor... previousDescriptors )
     {
         super( descriptor, priority );
-        this.nativeProvider = nativeProvider;
+        this.numberProvider = numberProvider;
+        this.stringProvider = stringProvider;
+        this.compositeProvider = compositeProvider;
         this.luceneProvider = luceneProvider;
         this.selector = selector;
+        this.previousDescriptors = Arrays.asList( previousDescriptors );
+    }
+
+    @Override
+    public List<Descriptor> getPreviousProviderDescriptors()
+    {
+        return previousDescriptors;
     }
 
     @Override
     public IndexPopulator getPopulator( long indexId, IndexDescriptor descriptor, IndexSamplingConfig samplingConfig )
     {
         return new FusionIndexPopulator(
-                nativeProvider.getPopulator( indexId, descriptor, samplingConfig ),
+                numberProvider.getPopulator( indexId, descriptor, samplingConfig ),
+                stringProvider.getPopulator( indexId, descriptor, samplingConfig ),
+                compositeProvider.getPopulator( indexId, descriptor, samplingConfig ),
                 luceneProvider.getPopulator( indexId, descriptor, samplingConfig ), selector );
     }
 
@@ -71,54 +94,61 @@ public class FusionSchemaIndexProvider extends SchemaIndexProvider
             IndexSamplingConfig samplingConfig ) throws IOException
     {
         return new FusionIndexAccessor(
-                nativeProvider.getOnlineAccessor( indexId, descriptor, samplingConfig ),
+                numberProvider.getOnlineAccessor( indexId, descriptor, samplingConfig ),
+                stringProvider.getOnlineAccessor( indexId, descriptor, samplingConfig ),
+                compositeProvider.getOnlineAccessor( indexId, descriptor, samplingConfig ),
                 luceneProvider.getOnlineAccessor( indexId, descriptor, samplingConfig ), selector );
     }
 
     @Override
     public String getPopulationFailure( long indexId ) throws IllegalStateException
     {
-        String nativeFailure = null;
-        try
+        String numberFailure = populationFailure( numberProvider, indexId );
+        String stringFailure = populationFailure( stringProvider, indexId );
+        String compositeFailure = populationFailure( compositeProvider, indexId );
+        String luceneFailure = populationFailure( luceneProvider, indexId );
+
+        if ( numberFailure != null || stringFailure != null || compositeFailure != null || luceneFailure != null )
         {
-            nativeFailure = nativeProvider.getPopulationFailure( indexId );
+            return "number: " + numberFailure + " string: " + stringFailure + " composite: " + compositeFailure +
+                   " lucene: " + luceneFailure;
         }
-        catch ( IllegalStateException e )
-        {   // Just catch
-        }
-        String luceneFailure = null;
+        throw new IllegalStateException( "None of the indexes were in a failed state" );
+    }
+
+    private static String populationFailure( SchemaIndexProvider provider, long indexId )
+    {
         try
         {
-            luceneFailure = luceneProvider.getPopulationFailure( indexId );
+            return provider.getPopulationFailure( indexId );
         }
         catch ( IllegalStateException e )
         {   // Just catch
+            return null;
         }
-
-        if ( nativeFailure != null || luceneFailure != null )
-        {
-            return "native: " + nativeFailure + " lucene: " + luceneFailure;
-        }
-        throw new IllegalStateException( "None of the indexes were in a failed state" );
     }
 
     @Override
     public InternalIndexState getInitialState( long indexId, IndexDescriptor descriptor )
     {
-        InternalIndexState nativeState = nativeProvider.getInitialState( indexId, descriptor );
+        InternalIndexState numberState = numberProvider.getInitialState( indexId, descriptor );
+        InternalIndexState stringState = stringProvider.getInitialState( indexId, descriptor );
+        InternalIndexState compositeState = compositeProvider.getInitialState( indexId, descriptor );
         InternalIndexState luceneState = luceneProvider.getInitialState( indexId, descriptor );
-        if ( nativeState == InternalIndexState.FAILED || luceneState == InternalIndexState.FAILED )
+        if ( numberState == InternalIndexState.FAILED || stringState == InternalIndexState.FAILED ||
+             compositeState == InternalIndexState.FAILED || luceneState == InternalIndexState.FAILED )
         {
             // One of the state is FAILED, the whole state must be considered FAILED
             return InternalIndexState.FAILED;
         }
-        if ( nativeState == InternalIndexState.POPULATING || luceneState == InternalIndexState.POPULATING )
+        if ( numberState == InternalIndexState.POPULATING || stringState == InternalIndexState.POPULATING ||
+             compositeState == InternalIndexState.POPULATING || luceneState == InternalIndexState.POPULATING )
         {
             // No state is FAILED and one of the state is POPULATING, the whole state must be considered POPULATING
             return InternalIndexState.POPULATING;
         }
-        // This means that both states are ONLINE
-        return nativeState;
+        // This means that all states are ONLINE
+        return numberState;
     }
 
     @Override
@@ -128,11 +158,17 @@ public class FusionSchemaIndexProvider extends SchemaIndexProvider
         return StoreMigrationParticipant.NOT_PARTICIPATING;
     }
 
-    static IndexSample combineSamples( IndexSample first, IndexSample other )
+    static IndexSample combineSamples( IndexSample... samples )
     {
-        return new IndexSample(
-                first.indexSize() + other.indexSize(),
-                first.uniqueValues() + other.uniqueValues(),
-                first.sampleSize() + other.sampleSize() );
+        long indexSize = 0;
+        long uniqueValues = 0;
+        long sampleSize = 0;
+        for ( IndexSample sample : samples )
+        {
+            indexSize += sample.indexSize();
+            uniqueValues += sample.uniqueValues();
+            sampleSize += sample.sampleSize();
+        }
+        return new IndexSample( indexSize, uniqueValues, sampleSize );
     }
 }
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import org.neo4j.concurrent.WorkSync;
@@ -89,6 +90,8 @@ import org.neo4j.kernel.impl.transaction.command.IndexBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.IndexUpdatesWork;
 import org.neo4j.kernel.impl.transaction.command.LabelUpdateWork;
 import org.neo4j.kernel.impl.transaction.command.NeoStoreBatchTransactionApplier;
+import org.neo4j.kernel.impl.transaction.command.ParallelNeoStoreBatchTransactionApplier;
+import org.neo4j.kernel.impl.transaction.command.PartitionedNeoStoreBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.state.IntegrityValidator;
 import org.neo4j.kernel.impl.transaction.state.Loaders;
 import org.neo4j.kernel.impl.transaction.state.PropertyCreator;
@@ -150,6 +153,9 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final ConstraintSemantics constraintSemantics;
     private final IdOrderingQueue legacyIndexTransactionOrdering;
     private final LockService lockService;
+    private final Executor parallelRecoveryExecutor;
+    private final Executor parallelApplyExecutor;
+    private final int parallelApplyThreshold;
     private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
     private final CommandReaderFactory commandReaderFactory;
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
@@ -197,6 +203,11 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         this.labelTokenHolder = labelTokens;
         this.schemaState = schemaState;
         this.lockService = lockService;
+        this.parallelRecoveryExecutor = config.get( GraphDatabaseSettings.parallel_recovery )
+                                        ? scheduler.executor( JobScheduler.Groups.recovery ) : null;
+        this.parallelApplyExecutor = config.get( GraphDatabaseSettings.parallel_transaction_apply )
+                                     ? scheduler.executor( JobScheduler.Groups.transactionApply ) : null;
+        this.parallelApplyThreshold = config.get( GraphDatabaseSettings.parallel_transaction_apply_threshold );
         this.databaseHealth = databaseHealth;
         this.legacyIndexProviderLookup = legacyIndexProviderLookup;
         this.indexConfigStore = indexConfigStore;
@@ -356,8 +367,24 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode )
     {
         ArrayList<BatchTransactionApplier> appliers = new ArrayList<>();
+        PartitionedNeoStoreBatchTransactionApplier partitionedApplier = null;
         // Graph store application. The order of the decorated store appliers is irrelevant
-        appliers.add( new NeoStoreBatchTransactionApplier( neoStores, cacheAccess, lockService ) );
+        if ( mode == TransactionApplicationMode.RECOVERY && parallelRecoveryExecutor != null )
+        {
+            appliers.add( new ParallelNeoStoreBatchTransactionApplier( neoStores, cacheAccess, lockService,
+                    parallelRecoveryExecutor ) );
+        }
+        else if ( parallelApplyExecutor != null && (mode == TransactionApplicationMode.INTERNAL ||
+                                                    mode == TransactionApplicationMode.EXTERNAL) )
+        {
+            partitionedApplier = new PartitionedNeoStoreBatchTransactionApplier( neoStores, cacheAccess, lockService,
+                    parallelApplyExecutor, Runtime.getRuntime().availableProcessors(), parallelApplyThreshold );
+            appliers.add( partitionedApplier );
+        }
+        else
+        {
+            appliers.add( new NeoStoreBatchTransactionApplier( neoStores, cacheAccess, lockService ) );
+        }
         if ( mode.needsHighIdTracking() )
         {
             appliers.add( new HighIdBatchTransactionApplier( neoStores ) );
@@ -380,6 +407,13 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
                 new LegacyBatchIndexApplier( indexConfigStore, legacyIndexApplierLookup, legacyIndexTransactionOrdering,
                         mode ) );
 
+        if ( partitionedApplier != null )
+        {
+            // Added last, so that it's closed first, and the records of each transaction have all been written
+            // before the other appliers of the transaction are closed
+            appliers.add( partitionedApplier.completion() );
+        }
+
         // Perform the application
         return new BatchTransactionApplierFacade(
                 appliers.toArray( new BatchTransactionApplier[appliers.size()] ) );
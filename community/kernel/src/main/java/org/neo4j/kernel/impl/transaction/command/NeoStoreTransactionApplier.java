@@ -26,7 +26,9 @@ import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
 import org.neo4j.kernel.impl.locking.LockGroup;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.RecordStore;
 import org.neo4j.kernel.impl.store.SchemaStore;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
 import org.neo4j.kernel.impl.store.record.ConstraintRule;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 
@@ -69,7 +71,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
         lockGroup.add( lockService.acquireNodeLock( command.getKey(), LockService.LockType.WRITE_LOCK ) );
 
         // update store
-        neoStores.getNodeStore().updateRecord( command.getAfter() );
+        update( neoStores.getNodeStore(), command.getAfter() );
         return false;
     }
 
@@ -78,7 +80,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
     {
         lockGroup.add( lockService.acquireRelationshipLock( command.getKey(), LockService.LockType.WRITE_LOCK ) );
 
-        neoStores.getRelationshipStore().updateRecord( command.getAfter() );
+        update( neoStores.getRelationshipStore(), command.getAfter() );
         return false;
     }
 
@@ -97,17 +99,25 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
 
         // track the dynamic value record high ids
         // update store
-        neoStores.getPropertyStore().updateRecord( command.getAfter() );
+        update( neoStores.getPropertyStore(), command.getAfter() );
         return false;
     }
 
     @Override
     public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command ) throws IOException
     {
-        neoStores.getRelationshipGroupStore().updateRecord( command.getAfter() );
+        update( neoStores.getRelationshipGroupStore(), command.getAfter() );
         return false;
     }
 
+    /**
+     * Writes a node, relationship, property or relationship group record to its store.
+     */
+    protected <RECORD extends AbstractBaseRecord> void update( RecordStore<RECORD> store, RECORD record )
+    {
+        store.updateRecord( record );
+    }
+
     @Override
     public boolean visitRelationshipTypeTokenCommand( Command.RelationshipTypeTokenCommand command ) throws IOException
     {
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import org.neo4j.kernel.impl.api.BatchTransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.storageengine.api.CommandsToApply;
+
+/**
+ * A {@link NeoStoreBatchTransactionApplier} that applies the relationship and relationship group records of the
+ * transactions in the batch on separate threads, one per store, while the rest of the commands are applied by the
+ * applying thread, as usual.
+ * <p>
+ * Each store is only ever written by its own thread, and every store thread writes its records in the order of the
+ * transactions in the batch, so the final state of each record is the same as if the batch was applied by a single
+ * thread. The node and property records stay on the applying thread, because the index and label scan store updates
+ * of a transaction read the node records, their dynamic label records and their property chains when the transaction
+ * is applied.
+ * <p>
+ * The records are written without taking any entity locks, and are not guaranteed to be written until the batch has
+ * been closed. This is only sound when there are no concurrent readers of the store, and none of the other appliers
+ * read relationship or relationship group records, which is the case during recovery.
+ */
+public class ParallelNeoStoreBatchTransactionApplier extends BatchTransactionApplier.Adapter
+{
+    private final NeoStores neoStores;
+    private final CacheAccessBackDoor cacheAccess;
+    private final LockService lockService;
+    private final QueuedRecordUpdater relationships;
+    private final QueuedRecordUpdater relationshipGroups;
+
+    public ParallelNeoStoreBatchTransactionApplier( NeoStores neoStores, CacheAccessBackDoor cacheAccess,
+            LockService lockService, Executor executor )
+    {
+        this.neoStores = neoStores;
+        this.cacheAccess = cacheAccess;
+        this.lockService = lockService;
+        this.relationships = new QueuedRecordUpdater( executor );
+        this.relationshipGroups = new QueuedRecordUpdater( executor );
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction )
+    {
+        throw new RuntimeException( "NeoStoreTransactionApplier requires a LockGroup" );
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction, LockGroup lockGroup ) throws IOException
+    {
+        return new NeoStoreTransactionApplier( neoStores, cacheAccess, lockService, transaction.transactionId(),
+                lockGroup )
+        {
+            @Override
+            public boolean visitRelationshipCommand( Command.RelationshipCommand command )
+            {
+                relationships.update( neoStores.getRelationshipStore(), command.getAfter() );
+                return false;
+            }
+
+            @Override
+            public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command )
+            {
+                relationshipGroups.update( neoStores.getRelationshipGroupStore(), command.getAfter() );
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        QueuedRecordUpdater.awaitCompletion( relationships, relationshipGroups );
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import org.neo4j.kernel.impl.api.BatchTransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.CommandsToApply;
+
+/**
+ * A {@link NeoStoreBatchTransactionApplier} that writes the relationship and relationship group records of large
+ * transactions on a number of worker threads.
+ * <p>
+ * The first relationship and relationship group records of every transaction are written by the applying thread, as
+ * usual. Once a transaction turns out to have more than {@code threshold} such records, the rest of them are
+ * partitioned by the store page they are on, and the records of each partition are written by a worker thread of its
+ * own. All other commands are still applied by the applying thread, in the order of the transaction, and the entity
+ * locks are still taken by the applying thread before the records are handed over. The node and property records in
+ * particular stay on the applying thread, because the index and label scan store updates of the transaction read them
+ * while the transaction is being applied.
+ * <p>
+ * A record is never updated by more than one command of a transaction, so the records of a transaction may be written
+ * in any order. All records of a transaction must however have been written before the transaction is closed, since
+ * the entity locks of the transaction are released when it is closed. The appliers of a transaction are closed in
+ * reverse order, which is why the applier returned by {@link #completion()}, that waits for the records to be
+ * written, must be the last applier of the batch.
+ */
+public class PartitionedNeoStoreBatchTransactionApplier extends BatchTransactionApplier.Adapter
+{
+    private final NeoStores neoStores;
+    private final CacheAccessBackDoor cacheAccess;
+    private final LockService lockService;
+    private final Executor executor;
+    private final int partitionCount;
+    private final int threshold;
+    private final TransactionApplier completionApplier = new TransactionApplier.Adapter()
+    {
+        @Override
+        public void close() throws Exception
+        {
+            awaitPartitions();
+        }
+    };
+
+    // The partitions of the transaction currently being applied, or null if it has not grown past the threshold yet
+    private QueuedRecordUpdater[] partitions;
+
+    public PartitionedNeoStoreBatchTransactionApplier( NeoStores neoStores, CacheAccessBackDoor cacheAccess,
+            LockService lockService, Executor executor, int partitionCount, int threshold )
+    {
+        this.neoStores = neoStores;
+        this.cacheAccess = cacheAccess;
+        this.lockService = lockService;
+        this.executor = executor;
+        this.partitionCount = partitionCount;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return the applier that waits for all the records of a transaction to be written, when the transaction is
+     * closed. It must be the last applier of the batch.
+     */
+    public BatchTransactionApplier completion()
+    {
+        return new BatchTransactionApplier.Adapter()
+        {
+            @Override
+            public TransactionApplier startTx( CommandsToApply transaction )
+            {
+                return completionApplier;
+            }
+        };
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction )
+    {
+        throw new RuntimeException( "NeoStoreTransactionApplier requires a LockGroup" );
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction, LockGroup lockGroup ) throws IOException
+    {
+        return new NeoStoreTransactionApplier( neoStores, cacheAccess, lockService, transaction.transactionId(),
+                lockGroup )
+        {
+            private int records;
+
+            @Override
+            protected <RECORD extends AbstractBaseRecord> void update( RecordStore<RECORD> store, RECORD record )
+            {
+                if ( !(record instanceof RelationshipRecord || record instanceof RelationshipGroupRecord) )
+                {
+                    store.updateRecord( record );
+                    return;
+                }
+                if ( records < threshold )
+                {
+                    records++;
+                    store.updateRecord( record );
+                    return;
+                }
+                if ( partitions == null )
+                {
+                    partitions = new QueuedRecordUpdater[partitionCount];
+                    for ( int i = 0; i < partitionCount; i++ )
+                    {
+                        partitions[i] = new QueuedRecordUpdater( executor );
+                    }
+                }
+                long pageId = record.getId() / store.getRecordsPerPage();
+                partitions[(int) (pageId % partitionCount)].update( store, record );
+            }
+        };
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        // Normally the partitions have been awaited when the transaction was closed, but not if the application failed
+        awaitPartitions();
+    }
+
+    private void awaitPartitions()
+    {
+        if ( partitions == null )
+        {
+            return;
+        }
+        QueuedRecordUpdater[] awaited = partitions;
+        partitions = null;
+        QueuedRecordUpdater.awaitCompletion( awaited );
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+
+/**
+ * Writes records to their stores on a thread of its own, in the order they were handed over. The records are handed
+ * over in chunks, and the thread is only started once the first chunk of records is handed over.
+ */
+class QueuedRecordUpdater
+{
+    // The number of records handed over to the thread at a time, and the number of such chunks that may be queued up
+    // for the thread, before the applying thread has to wait for it to catch up.
+    private static final int CHUNK_SIZE = 1_000;
+    private static final int QUEUED_CHUNKS = 64;
+    private static final Chunk DONE = new Chunk( 0 );
+
+    private final Executor executor;
+    private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>( QUEUED_CHUNKS );
+    private Chunk chunk = new Chunk( CHUNK_SIZE );
+    private FutureTask<Void> task;
+    private volatile Throwable failure;
+
+    QueuedRecordUpdater( Executor executor )
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * Waits for all records handed over to the given updaters to be written.
+     *
+     * @throws UnderlyingStorageException if any of the updaters failed to write its records.
+     */
+    static void awaitCompletion( QueuedRecordUpdater... updaters )
+    {
+        Throwable failure = null;
+        for ( QueuedRecordUpdater updater : updaters )
+        {
+            Throwable updaterFailure = updater.awaitCompletion();
+            if ( failure == null )
+            {
+                failure = updaterFailure;
+            }
+            else if ( updaterFailure != null )
+            {
+                failure.addSuppressed( updaterFailure );
+            }
+        }
+        if ( failure != null )
+        {
+            throw new UnderlyingStorageException( failure );
+        }
+    }
+
+    <RECORD extends AbstractBaseRecord> void update( RecordStore<RECORD> store, RECORD record )
+    {
+        if ( chunk.add( store, record ) )
+        {
+            handOver( chunk );
+            chunk = new Chunk( CHUNK_SIZE );
+        }
+    }
+
+    private void handOver( Chunk records )
+    {
+        if ( failure != null )
+        {
+            throw new UnderlyingStorageException( failure );
+        }
+        try
+        {
+            put( records );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    private void put( Chunk records ) throws InterruptedException
+    {
+        if ( task == null )
+        {
+            task = new FutureTask<>( this::writeRecords, null );
+            executor.execute( task );
+        }
+        queue.put( records );
+    }
+
+    private void writeRecords()
+    {
+        try
+        {
+            Chunk records;
+            while ( (records = queue.take()) != DONE )
+            {
+                // Keep taking chunks after a failure, so that the applying thread is never blocked on a full queue
+                if ( failure == null )
+                {
+                    try
+                    {
+                        records.write();
+                    }
+                    catch ( Throwable e )
+                    {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            failure = e;
+        }
+    }
+
+    /**
+     * Hand over the remaining records, and wait for all of them to be written.
+     *
+     * @return the failure that stopped the records from being written, or {@code null} if all were written.
+     */
+    private Throwable awaitCompletion()
+    {
+        try
+        {
+            if ( chunk.size > 0 )
+            {
+                put( chunk );
+                chunk = new Chunk( CHUNK_SIZE );
+            }
+            if ( task == null )
+            {
+                return null;
+            }
+            queue.put( DONE );
+            task.get();
+            task = null;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return e;
+        }
+        catch ( ExecutionException e )
+        {
+            return e.getCause();
+        }
+        return failure;
+    }
+
+    /**
+     * The records to write, and the stores to write them to.
+     */
+    private static class Chunk
+    {
+        private final RecordStore[] stores;
+        private final AbstractBaseRecord[] records;
+        private int size;
+
+        Chunk( int capacity )
+        {
+            stores = new RecordStore[capacity];
+            records = new AbstractBaseRecord[capacity];
+        }
+
+        boolean add( RecordStore store, AbstractBaseRecord record )
+        {
+            stores[size] = store;
+            records[size] = record;
+            return ++size == records.length;
+        }
+
+        @SuppressWarnings( "unchecked" )
+        void write()
+        {
+            for ( int i = 0; i < size; i++ )
+            {
+                stores[i].updateRecord( records[i] );
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.neo4j.io.fs.StoreChannel;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
+/**
+ * A read-only {@link PhysicalLogVersionedStoreChannel} over a log file that has been compressed by the
+ * {@link LogFileCompressor}. The channel presents the uncompressed contents of the log, so that positions within it,
+ * and thereby all {@link LogPosition log positions}, are the same as they were before the file was compressed.
+ * <p>
+ * A compressed log file is laid out like this:
+ * <pre>
+ * [log header, as is]
+ * [compressed block 0] ... [compressed block n-1]
+ * [block index: file offset of each compressed block, 8 bytes each]
+ * [footer: uncompressed size (8), block size (4), block count (4), index offset (8), magic (8)]
+ * </pre>
+ * Every block, except the last one, holds {@code block size} bytes of the log, that follow directly after the header.
+ * The block index makes it possible to go straight to the block of any given position.
+ */
+public class CompressedLogVersionedStoreChannel extends PhysicalLogVersionedStoreChannel
+{
+    static final long MAGIC = 0x4E656F4C6F675A49L;
+    static final int FOOTER_SIZE = 32;
+    static final int INDEX_ENTRY_SIZE = Long.BYTES;
+
+    private final StoreChannel channel;
+    private final long size;
+    private final int blockSize;
+    private final long[] blockOffsets;
+    private final Inflater inflater = new Inflater();
+    private final byte[] compressedBlock;
+    private final byte[] block;
+    private int currentBlock = -1;
+    private int currentBlockLength;
+    private long position;
+
+    CompressedLogVersionedStoreChannel( StoreChannel channel, long version, byte formatVersion ) throws IOException
+    {
+        super( channel, version, formatVersion );
+        this.channel = channel;
+        this.position = channel.position();
+
+        ByteBuffer footer = readFully( channel, channel.size() - FOOTER_SIZE, FOOTER_SIZE );
+        this.size = footer.getLong();
+        this.blockSize = footer.getInt();
+        int blockCount = footer.getInt();
+        long indexOffset = footer.getLong();
+
+        // The offset of the end of the last block is kept last, so that the length of every block can be computed.
+        this.blockOffsets = new long[blockCount + 1];
+        ByteBuffer index = readFully( channel, indexOffset, blockCount * INDEX_ENTRY_SIZE );
+        int maxCompressedBlockLength = 0;
+        for ( int i = 0; i < blockCount; i++ )
+        {
+            blockOffsets[i] = index.getLong();
+        }
+        blockOffsets[blockCount] = indexOffset;
+        for ( int i = 0; i < blockCount; i++ )
+        {
+            maxCompressedBlockLength = Math.max( maxCompressedBlockLength,
+                    toIntExact( blockOffsets[i + 1] - blockOffsets[i] ) );
+        }
+        this.compressedBlock = new byte[maxCompressedBlockLength];
+        this.block = new byte[blockSize];
+    }
+
+    /**
+     * @return {@code true} if the given log file channel is of a compressed log file, otherwise {@code false}.
+     */
+    static boolean isCompressed( StoreChannel channel ) throws IOException
+    {
+        long fileSize = channel.size();
+        if ( fileSize < LOG_HEADER_SIZE + FOOTER_SIZE )
+        {
+            return false;
+        }
+        ByteBuffer footer = readFully( channel, fileSize - FOOTER_SIZE, FOOTER_SIZE );
+        footer.position( Long.BYTES + Integer.BYTES );
+        int blockCount = footer.getInt();
+        long indexOffset = footer.getLong();
+        long magic = footer.getLong();
+        return magic == MAGIC && indexOffset + (long) blockCount * INDEX_ENTRY_SIZE == fileSize - FOOTER_SIZE;
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        if ( position >= size )
+        {
+            return -1;
+        }
+        int count;
+        if ( position < LOG_HEADER_SIZE )
+        {
+            // The header is kept uncompressed
+            ByteBuffer header = dst.duplicate();
+            header.limit( header.position() + (int) min( dst.remaining(), LOG_HEADER_SIZE - position ) );
+            count = channel.read( header, position );
+            dst.position( header.position() );
+        }
+        else
+        {
+            long blockPosition = position - LOG_HEADER_SIZE;
+            loadBlock( toIntExact( blockPosition / blockSize ) );
+            int offsetInBlock = (int) (blockPosition % blockSize);
+            count = min( dst.remaining(), currentBlockLength - offsetInBlock );
+            dst.put( block, offsetInBlock, count );
+        }
+        position += count;
+        return count;
+    }
+
+    private void loadBlock( int blockIndex ) throws IOException
+    {
+        if ( blockIndex == currentBlock )
+        {
+            return;
+        }
+        int compressedLength = toIntExact( blockOffsets[blockIndex + 1] - blockOffsets[blockIndex] );
+        ByteBuffer buffer = ByteBuffer.wrap( compressedBlock, 0, compressedLength );
+        long offset = blockOffsets[blockIndex];
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer, offset + buffer.position() ) == -1 )
+            {
+                throw new IOException( "Unexpected end of compressed log file version " + getVersion() +
+                        " when reading block " + blockIndex );
+            }
+        }
+
+        inflater.reset();
+        inflater.setInput( compressedBlock, 0, compressedLength );
+        int length = 0;
+        try
+        {
+            while ( !inflater.finished() && length < blockSize )
+            {
+                int inflated = inflater.inflate( block, length, blockSize - length );
+                if ( inflated == 0 && inflater.needsInput() )
+                {
+                    throw new IOException( "Truncated block " + blockIndex + " in compressed log file version " +
+                            getVersion() );
+                }
+                length += inflated;
+            }
+        }
+        catch ( DataFormatException e )
+        {
+            throw new IOException( "Corrupt block " + blockIndex + " in compressed log file version " + getVersion(),
+                    e );
+        }
+        currentBlock = blockIndex;
+        currentBlockLength = length;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts, int offset, int length ) throws IOException
+    {
+        long total = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            while ( dsts[i].hasRemaining() )
+            {
+                int read = read( dsts[i] );
+                if ( read == -1 )
+                {
+                    return total == 0 ? -1 : total;
+                }
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts ) throws IOException
+    {
+        return read( dsts, 0, dsts.length );
+    }
+
+    @Override
+    public long position() throws IOException
+    {
+        return position;
+    }
+
+    @Override
+    public StoreChannel position( long newPosition ) throws IOException
+    {
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException
+    {
+        return size;
+    }
+
+    @Override
+    public int write( ByteBuffer src ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Compressed log files are read only" );
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Compressed log files are read only" );
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Compressed log files are read only" );
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Compressed log files are read only" );
+    }
+
+    @Override
+    public StoreChannel truncate( long size ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Compressed log files are read only" );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        inflater.end();
+        super.close();
+    }
+
+    static ByteBuffer readFully( StoreChannel channel, long offset, int length ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( length );
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer, offset + buffer.position() ) == -1 )
+            {
+                throw new IOException( "Unexpected end of file at offset " + (offset + buffer.position()) );
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.Deflater;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static org.neo4j.kernel.impl.transaction.log.CompressedLogVersionedStoreChannel.FOOTER_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.CompressedLogVersionedStoreChannel.INDEX_ENTRY_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.CompressedLogVersionedStoreChannel.MAGIC;
+import static org.neo4j.kernel.impl.transaction.log.CompressedLogVersionedStoreChannel.isCompressed;
+import static org.neo4j.kernel.impl.transaction.log.CompressedLogVersionedStoreChannel.readFully;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
+/**
+ * Compresses rotated log files in place, into the block compressed format that is read by
+ * {@link CompressedLogVersionedStoreChannel}.
+ * <p>
+ * The compressed log is first written to a temporary file, which is then moved over the original log file. Readers
+ * that already have the original file open can keep reading it, and all readers that open the log file after that
+ * will read it through a {@link CompressedLogVersionedStoreChannel}, which is done transparently by
+ * {@link PhysicalLogFile#openForVersion(PhysicalLogFiles, FileSystemAbstraction, long, boolean)}.
+ * <p>
+ * Only log files that no longer need to be recovered from may be compressed, since recovery might have to truncate
+ * the log files it recovers from.
+ */
+public class LogFileCompressor
+{
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+    private static final String COMPRESSING_SUFFIX = ".compressing";
+
+    private final FileSystemAbstraction fileSystem;
+    private final PhysicalLogFiles logFiles;
+    private final int blockSize;
+    private long lowestUncheckedVersion = -1;
+
+    public LogFileCompressor( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles )
+    {
+        this( fileSystem, logFiles, DEFAULT_BLOCK_SIZE );
+    }
+
+    LogFileCompressor( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, int blockSize )
+    {
+        this.fileSystem = fileSystem;
+        this.logFiles = logFiles;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Compress all log files that are not compressed already, with a version lower than the given version.
+     *
+     * @param upToVersion the lowest version of the log files that must be left alone.
+     * @return the number of log files that were compressed.
+     * @throws IOException if a log file could not be compressed.
+     */
+    public synchronized int compressUpTo( long upToVersion ) throws IOException
+    {
+        if ( lowestUncheckedVersion == -1 )
+        {
+            lowestUncheckedVersion = logFiles.getLowestLogVersion();
+        }
+        int compressed = 0;
+        for ( ; lowestUncheckedVersion != -1 && lowestUncheckedVersion < upToVersion; lowestUncheckedVersion++ )
+        {
+            if ( logFiles.versionExists( lowestUncheckedVersion ) && compress( lowestUncheckedVersion ) )
+            {
+                compressed++;
+            }
+        }
+        return compressed;
+    }
+
+    /**
+     * Compress the log file of the given version, if it is not compressed already.
+     *
+     * @param version the version of the log file to compress.
+     * @return {@code true} if the log file was compressed, or {@code false} if it was already compressed, or did not
+     * get any smaller from being compressed.
+     * @throws IOException if the log file could not be compressed.
+     */
+    boolean compress( long version ) throws IOException
+    {
+        File logFile = logFiles.getLogFileForVersion( version );
+        File compressedFile = new File( logFile.getPath() + COMPRESSING_SUFFIX );
+        long compressedSize;
+        long size;
+        try ( StoreChannel source = fileSystem.open( logFile, "r" ) )
+        {
+            size = source.size();
+            if ( size <= LOG_HEADER_SIZE || isCompressed( source ) )
+            {
+                return false;
+            }
+            try ( StoreChannel target = fileSystem.create( compressedFile ) )
+            {
+                compressedSize = compress( source, size, target );
+                target.force( false );
+            }
+        }
+
+        if ( compressedSize >= size )
+        {
+            fileSystem.deleteFile( compressedFile );
+            return false;
+        }
+        fileSystem.renameFile( compressedFile, logFile, StandardCopyOption.REPLACE_EXISTING );
+        return true;
+    }
+
+    private long compress( StoreChannel source, long size, StoreChannel target ) throws IOException
+    {
+        target.writeAll( readFully( source, 0, LOG_HEADER_SIZE ) );
+        long offset = LOG_HEADER_SIZE;
+
+        int blockCount = toIntExact( (size - LOG_HEADER_SIZE + blockSize - 1) / blockSize );
+        ByteBuffer index = ByteBuffer.allocate( blockCount * INDEX_ENTRY_SIZE );
+        byte[] output = new byte[blockSize];
+        Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+        try
+        {
+            for ( int i = 0; i < blockCount; i++ )
+            {
+                long blockStart = LOG_HEADER_SIZE + (long) i * blockSize;
+                ByteBuffer block = readFully( source, blockStart, (int) min( blockSize, size - blockStart ) );
+                index.putLong( offset );
+
+                deflater.reset();
+                deflater.setInput( block.array(), 0, block.limit() );
+                deflater.finish();
+                while ( !deflater.finished() )
+                {
+                    int length = deflater.deflate( output );
+                    target.writeAll( ByteBuffer.wrap( output, 0, length ) );
+                    offset += length;
+                }
+            }
+        }
+        finally
+        {
+            deflater.end();
+        }
+
+        long indexOffset = offset;
+        index.flip();
+        target.writeAll( index );
+        ByteBuffer footer = ByteBuffer.allocate( FOOTER_SIZE );
+        footer.putLong( size ).putInt( blockSize ).putInt( blockCount ).putLong( indexOffset ).putLong( MAGIC );
+        footer.flip();
+        target.writeAll( footer );
+        return indexOffset + index.capacity() + FOOTER_SIZE;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.StandardCopyOption;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+
+import static java.lang.Math.min;
+
+/**
+ * Preallocates new log files to the size at which they will be rotated, so that appending to a log file does not
+ * change its size, and forcing the log does not have to also force the file size.
+ * <p>
+ * Instead of deleting pruned log files, one pruned log file at a time is recycled. It is zeroed out and kept as
+ * the {@link PhysicalLogFiles#getRecycledLogFile() recycled log file}, which then becomes the next log file that
+ * is created. Unlike a newly created file, the recycled file already has all of its blocks allocated and written.
+ * <p>
+ * Since log files are larger than their contents, the end of the contents is marked by the first zero byte where the
+ * next log entry would start, see {@link org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader}.
+ * A log file is truncated to its contents when it is rotated away from, so that readers continue to the next log.
+ */
+public class LogFilePreallocator
+{
+    private static final String RECYCLING_SUFFIX = ".tmp";
+    private static final int ZEROS_BUFFER_SIZE = 1 << 16;
+
+    private final FileSystemAbstraction fileSystem;
+    private final File recycledFile;
+    private final File recyclingFile;
+    private final long fileSize;
+
+    public LogFilePreallocator( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, long fileSize )
+    {
+        this.fileSystem = fileSystem;
+        this.recycledFile = logFiles.getRecycledLogFile();
+        this.recyclingFile = new File( recycledFile.getPath() + RECYCLING_SUFFIX );
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Move the recycled log file, if there is one, into place as the given, new, log file.
+     *
+     * @param logFile the new log file to create.
+     * @return {@code true} if the recycled log file was reused, otherwise {@code false}.
+     */
+    synchronized boolean reuse( File logFile )
+    {
+        if ( !fileSystem.fileExists( recycledFile ) )
+        {
+            return false;
+        }
+        try
+        {
+            fileSystem.renameFile( recycledFile, logFile );
+            return true;
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Extend the given log file channel to the preallocation size, if it is smaller.
+     */
+    void preallocate( StoreChannel channel ) throws IOException
+    {
+        if ( channel.size() < fileSize )
+        {
+            channel.write( ByteBuffer.allocate( 1 ), fileSize - 1 );
+        }
+    }
+
+    /**
+     * Recycle the given pruned log file, instead of deleting it, unless there already is a recycled log file.
+     *
+     * @param logFile the pruned log file.
+     * @return {@code true} if the log file has been taken care of, or {@code false} if the caller should delete it.
+     */
+    public synchronized boolean recycle( File logFile )
+    {
+        if ( fileSystem.fileExists( recycledFile ) )
+        {
+            return false;
+        }
+        try
+        {
+            fileSystem.renameFile( logFile, recyclingFile, StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+
+        try
+        {
+            // Zero out all of the file before it becomes available for reuse, so that no stale log entries are
+            // ever mistaken for the contents of the log file it is reused as.
+            try ( StoreChannel channel = fileSystem.open( recyclingFile, "rw" ) )
+            {
+                if ( channel.size() > fileSize )
+                {
+                    channel.truncate( fileSize );
+                }
+                ByteBuffer zeros = ByteBuffer.allocate( ZEROS_BUFFER_SIZE );
+                for ( long position = 0; position < fileSize; position += zeros.limit() )
+                {
+                    zeros.clear();
+                    zeros.limit( (int) min( ZEROS_BUFFER_SIZE, fileSize - position ) );
+                    channel.writeAll( zeros, position );
+                }
+                channel.force( false );
+            }
+            fileSystem.renameFile( recyclingFile, recycledFile );
+        }
+        catch ( IOException e )
+        {
+            fileSystem.deleteFile( recyclingFile );
+        }
+        return true;
+    }
+}
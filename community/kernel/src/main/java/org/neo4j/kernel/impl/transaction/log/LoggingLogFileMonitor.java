@@ -63,6 +63,13 @@ public class LoggingLogFileMonitor implements
         }
     }
 
+    @Override
+    public void recoveryProgress( long numberOfRecoveredTransactions, long transactionsPerSecond )
+    {
+        log.info( format( "Recovery progress. %d transactions recovered, last:%d, %d transactions per second",
+                numberOfRecoveredTransactions, lastTransactionRecovered, transactionsPerSecond ) );
+    }
+
     @Override
     public void startedRotating( long currentVersion )
     {
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannel;
+import org.neo4j.io.fs.StoreFileChannelUnwrapper;
+
+import static java.lang.Math.min;
+import static org.apache.commons.lang3.SystemUtils.IS_OS_WINDOWS;
+
+/**
+ * A read-only {@link PhysicalLogVersionedStoreChannel} for a rotated log file, that reads the log contents out of
+ * a memory mapping of the whole file, instead of issuing a read system call for every buffer that is filled.
+ * <p>
+ * Only log files that have been rotated away from may be mapped, since the mapping is taken of the size the file
+ * has when it is opened, and the contents of rotated log files never change.
+ * <p>
+ * The mapping is unmapped when the channel is closed, rather than when it is garbage collected, so that log files
+ * that are pruned, recycled or replaced by their compressed version give back their disk space right away, and are
+ * never read through a stale mapping. Reading and closing are synchronized, so that the mapping cannot be unmapped
+ * while it is being read from. Files are not mapped at all if the JVM does not allow unmapping them.
+ */
+public class MappedLogVersionedStoreChannel extends PhysicalLogVersionedStoreChannel
+{
+    private static final Unmapper UNMAPPER = findUnmapper();
+
+    private ByteBuffer mapping;
+
+    private MappedLogVersionedStoreChannel( StoreChannel delegateChannel, ByteBuffer mapping, long version,
+            byte formatVersion ) throws IOException
+    {
+        super( delegateChannel, version, formatVersion );
+        this.mapping = mapping;
+        this.mapping.position( Math.toIntExact( delegateChannel.position() ) );
+    }
+
+    /**
+     * Map the given log file channel, if possible.
+     *
+     * @return a channel reading from a mapping of the given store channel, or {@code null} if the channel cannot be
+     * mapped, in which case the caller should fall back to reading through the store channel itself.
+     */
+    static MappedLogVersionedStoreChannel tryMap( StoreChannel channel, long version, byte formatVersion )
+            throws IOException
+    {
+        // Files cannot be deleted on Windows while they are mapped, and we cannot control when the mapping is
+        // released, so mapping them there would get in the way of log pruning.
+        if ( IS_OS_WINDOWS || UNMAPPER == null || channel.getClass() != StoreFileChannel.class ||
+             channel.size() > Integer.MAX_VALUE )
+        {
+            return null;
+        }
+        ByteBuffer mapping;
+        try
+        {
+            FileChannel fileChannel = StoreFileChannelUnwrapper.unwrap( channel );
+            mapping = fileChannel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+        }
+        catch ( UnsupportedOperationException | IOException e )
+        {
+            // Not all file systems support mapping, and the mapping may fail if we run out of address space.
+            // Either way the log file can still be read through the channel.
+            return null;
+        }
+        return new MappedLogVersionedStoreChannel( channel, mapping, version, formatVersion );
+    }
+
+    @Override
+    public synchronized int read( ByteBuffer dst ) throws IOException
+    {
+        ByteBuffer mapping = mapping();
+        int remaining = mapping.remaining();
+        if ( remaining == 0 )
+        {
+            return -1;
+        }
+        int count = min( remaining, dst.remaining() );
+        ByteBuffer source = mapping.duplicate();
+        source.limit( source.position() + count );
+        dst.put( source );
+        mapping.position( source.position() );
+        return count;
+    }
+
+    @Override
+    public synchronized long read( ByteBuffer[] dsts, int offset, int length ) throws IOException
+    {
+        long total = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            int read = read( dsts[i] );
+            if ( read == -1 )
+            {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts ) throws IOException
+    {
+        return read( dsts, 0, dsts.length );
+    }
+
+    @Override
+    public synchronized long position() throws IOException
+    {
+        return mapping().position();
+    }
+
+    @Override
+    public synchronized StoreChannel position( long newPosition ) throws IOException
+    {
+        ByteBuffer mapping = mapping();
+        mapping.position( (int) min( newPosition, mapping.limit() ) );
+        super.position( newPosition );
+        return this;
+    }
+
+    @Override
+    public int write( ByteBuffer src ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Rotated log files are read only" );
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Rotated log files are read only" );
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Rotated log files are read only" );
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Rotated log files are read only" );
+    }
+
+    @Override
+    public StoreChannel truncate( long size ) throws IOException
+    {
+        throw new UnsupportedOperationException( "Rotated log files are read only" );
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if ( mapping != null )
+        {
+            ByteBuffer unmapped = mapping;
+            mapping = null;
+            UNMAPPER.unmap( unmapped );
+        }
+        super.close();
+    }
+
+    private ByteBuffer mapping() throws ClosedChannelException
+    {
+        ByteBuffer mapping = this.mapping;
+        if ( mapping == null )
+        {
+            throw new ClosedChannelException();
+        }
+        return mapping;
+    }
+
+    private interface Unmapper
+    {
+        void unmap( ByteBuffer mapping ) throws IOException;
+    }
+
+    /**
+     * @return a way to unmap mappings explicitly, through {@code sun.misc.Unsafe#invokeCleaner} on Java 9 and later,
+     * or the cleaner of the mapping on Java 8, or {@code null} if neither is accessible.
+     */
+    private static Unmapper findUnmapper()
+    {
+        try
+        {
+            Class<?> unsafeClass = Class.forName( "sun.misc.Unsafe" );
+            Method invokeCleaner = unsafeClass.getMethod( "invokeCleaner", ByteBuffer.class );
+            Field theUnsafe = unsafeClass.getDeclaredField( "theUnsafe" );
+            theUnsafe.setAccessible( true );
+            Object unsafe = theUnsafe.get( null );
+            return mapping -> invoke( invokeCleaner, unsafe, mapping );
+        }
+        catch ( Exception | LinkageError e )
+        {
+            // Not Java 9 or later, try the Java 8 way
+        }
+        try
+        {
+            Method cleaner = Class.forName( "sun.nio.ch.DirectBuffer" ).getMethod( "cleaner" );
+            Method clean = Class.forName( "sun.misc.Cleaner" ).getMethod( "clean" );
+            return mapping -> invoke( clean, invoke( cleaner, mapping ) );
+        }
+        catch ( Exception | LinkageError e )
+        {
+            return null;
+        }
+    }
+
+    private static Object invoke( Method method, Object target, Object... arguments ) throws IOException
+    {
+        try
+        {
+            return method.invoke( target, arguments );
+        }
+        catch ( ReflectiveOperationException e )
+        {
+            throw new IOException( "Unable to unmap a log file", e );
+        }
+    }
+}
@@ -28,7 +28,9 @@ import java.util.function.Supplier;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
@@ -70,6 +72,8 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     private PositionAwarePhysicalFlushableChannel writer;
     private final LogVersionRepository logVersionRepository;
     private final LogVersionBridge readerLogVersionBridge;
+    private final boolean memoryMapRotatedLogs;
+    private final LogFilePreallocator preallocator;
 
     private volatile PhysicalLogVersionedStoreChannel channel;
 
@@ -77,6 +81,27 @@ public class PhysicalLogFile implements LogFile, Lifecycle
                             Supplier<Long> lastCommittedId, LogVersionRepository logVersionRepository,
                             Monitor monitor, LogHeaderCache logHeaderCache
     )
+    {
+        this( fileSystem, logFiles, rotateAtSize, lastCommittedId, logVersionRepository, monitor, logHeaderCache,
+                false );
+    }
+
+    public PhysicalLogFile( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, long rotateAtSize,
+                            Supplier<Long> lastCommittedId, LogVersionRepository logVersionRepository,
+                            Monitor monitor, LogHeaderCache logHeaderCache, boolean memoryMapRotatedLogs )
+    {
+        this( fileSystem, logFiles, rotateAtSize, lastCommittedId, logVersionRepository, monitor, logHeaderCache,
+                memoryMapRotatedLogs, null );
+    }
+
+    /**
+     * @param preallocator if not {@code null}, log files are preallocated to their rotation size,
+     * see {@link LogFilePreallocator}.
+     */
+    public PhysicalLogFile( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, long rotateAtSize,
+                            Supplier<Long> lastCommittedId, LogVersionRepository logVersionRepository,
+                            Monitor monitor, LogHeaderCache logHeaderCache, boolean memoryMapRotatedLogs,
+                            LogFilePreallocator preallocator )
     {
         this.fileSystem = fileSystem;
         this.rotateAtSize = rotateAtSize;
@@ -85,7 +110,9 @@ public class PhysicalLogFile implements LogFile, Lifecycle
         this.monitor = monitor;
         this.logHeaderCache = logHeaderCache;
         this.logFiles = logFiles;
-        this.readerLogVersionBridge = new ReaderLogVersionBridge( fileSystem, logFiles );
+        this.memoryMapRotatedLogs = memoryMapRotatedLogs;
+        this.preallocator = preallocator;
+        this.readerLogVersionBridge = new ReaderLogVersionBridge( fileSystem, logFiles, memoryMapRotatedLogs );
     }
 
     @Override
@@ -105,8 +132,18 @@ public class PhysicalLogFile implements LogFile, Lifecycle
 
         long lastLogVersionUsed = logVersionRepository.getCurrentLogVersion();
         channel = createLogChannelForVersion( lastLogVersionUsed );
-        // Move to the end
-        channel.position( channel.size() );
+        // Move to the end. The log file may still have preallocated space after its entries, also when preallocation
+        // has been turned off since the database was last shut down without cutting the file to its contents
+        long endOfLog = channel.size();
+        if ( preallocator != null || endsWithZero( channel ) )
+        {
+            endOfLog = endOfEntries( lastLogVersionUsed );
+            if ( preallocator == null && endOfLog < channel.size() )
+            {
+                channel.truncate( endOfLog );
+            }
+        }
+        channel.position( endOfLog );
 
         writer = new PositionAwarePhysicalFlushableChannel( channel );
     }
@@ -125,6 +162,12 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     {
         if ( writer != null )
         {
+            if ( preallocator != null )
+            {
+                // Leave the log file as long as its contents, the preallocated space is reallocated on startup
+                writer.prepareForFlush().flush();
+                channel.truncate( channel.position() );
+            }
             writer.close();
         }
         if ( channel != null )
@@ -196,6 +239,16 @@ public class PhysicalLogFile implements LogFile, Lifecycle
      */
     private PhysicalLogVersionedStoreChannel rotate( LogVersionedStoreChannel currentLog ) throws IOException
     {
+        if ( preallocator != null )
+        {
+            /*
+             * A preallocated log file is larger than its contents. Cut off the preallocated space before the
+             * new log version is set, so that readers reach the end of this file, and continue into the next one.
+             */
+            writer.prepareForFlush().flush();
+            currentLog.truncate( currentLog.position() );
+            currentLog.force( false );
+        }
         /*
          * The store is now flushed. If we fail now the recovery code will open the
          * current log file and replay everything. That's unnecessary but totally ok.
@@ -234,21 +287,75 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     private PhysicalLogVersionedStoreChannel createLogChannelForVersion( long forVersion ) throws IOException
     {
         File toOpen = logFiles.getLogFileForVersion( forVersion );
+        if ( preallocator != null && !fileSystem.fileExists( toOpen ) )
+        {
+            preallocator.reuse( toOpen );
+        }
         StoreChannel storeChannel = fileSystem.open( toOpen, "rw" );
         LogHeader header = readLogHeader( headerBuffer, storeChannel, false, toOpen );
-        if ( header == null )
+        if ( header == null || header.logFormatVersion == 0 )
         {
-            // Either the header is not there in full or the file was new. Don't care
+            // Either the header is not there in full, the file was new, or it is a preallocated file that never
+            // got its header written. Don't care
             long lastTxId = lastCommittedId.get();
             writeLogHeader( headerBuffer, forVersion, lastTxId );
             logHeaderCache.putHeader( forVersion, lastTxId );
+            storeChannel.position( 0 );
             storeChannel.writeAll( headerBuffer );
             monitor.opened( toOpen, forVersion, lastTxId, true );
+            header = null;
+        }
+        if ( preallocator != null )
+        {
+            preallocator.preallocate( storeChannel );
         }
         byte formatVersion = header == null ? CURRENT_LOG_VERSION : header.logFormatVersion;
         return new PhysicalLogVersionedStoreChannel( storeChannel, forVersion, formatVersion );
     }
 
+    /**
+     * A log file that ends with a zero byte may have preallocated space after its entries. Entries can end with a
+     * zero byte too, so this only tells whether {@link #endOfEntries(long)} has to be looked for.
+     */
+    private static boolean endsWithZero( StoreChannel channel ) throws IOException
+    {
+        long size = channel.size();
+        if ( size <= LOG_HEADER_SIZE )
+        {
+            return false;
+        }
+        ByteBuffer lastByte = ByteBuffer.allocate( 1 );
+        return channel.read( lastByte, size - 1 ) == 1 && lastByte.get( 0 ) == 0;
+    }
+
+    /**
+     * Finds the end of the log entries in the log file of the given version, which for a preallocated log file is
+     * where the first log entry that is all zeros would start. A partially written entry at the end is treated as
+     * not being there, and will be overwritten.
+     */
+    private long endOfEntries( long version ) throws IOException
+    {
+        LogEntryReader<ReadableClosablePositionAwareChannel> entryReader = new VersionAwareLogEntryReader<>();
+        LogPositionMarker marker = new LogPositionMarker();
+        try ( ReadAheadLogChannel reader = new ReadAheadLogChannel(
+                openForVersion( logFiles, fileSystem, version, false ), LogVersionBridge.NO_MORE_CHANNELS ) )
+        {
+            reader.getCurrentPosition( marker );
+            try
+            {
+                while ( entryReader.readLogEntry( reader ) != null )
+                {
+                    reader.getCurrentPosition( marker );
+                }
+            }
+            catch ( IOException e )
+            {
+                // The last entry is incomplete, so the log ends before it
+            }
+        }
+        return marker.getByteOffset();
+    }
+
     @Override
     public FlushablePositionAwareChannel getWriter()
     {
@@ -259,7 +366,7 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     public ReadableLogChannel getReader( LogPosition position ) throws IOException
     {
         PhysicalLogVersionedStoreChannel logChannel =
-                openForVersion( logFiles, fileSystem, position.getLogVersion(), false );
+                openForReading( logFiles, fileSystem, position.getLogVersion(), memoryMapRotatedLogs );
         logChannel.position( position.getByteOffset() );
         return new ReadAheadLogChannel( logChannel, readerLogVersionBridge );
     }
@@ -267,6 +374,27 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     public static PhysicalLogVersionedStoreChannel openForVersion( PhysicalLogFiles logFiles,
             FileSystemAbstraction fileSystem,
             long version, boolean write ) throws IOException
+    {
+        return openForVersion( logFiles, fileSystem, version, write, false );
+    }
+
+    /**
+     * Opens the log file of the given version for reading. If {@code memoryMapRotatedLogs} is set, and the log file
+     * has been rotated away from, then the returned channel reads the file through a memory mapping.
+     * <p>
+     * A log file is known to have been rotated once the file of the next version exists, since the next file is only
+     * created after the last contents of the previous one has been flushed,
+     * see {@link #rotate(LogVersionedStoreChannel)}.
+     */
+    public static PhysicalLogVersionedStoreChannel openForReading( PhysicalLogFiles logFiles,
+            FileSystemAbstraction fileSystem, long version, boolean memoryMapRotatedLogs ) throws IOException
+    {
+        boolean rotated = memoryMapRotatedLogs && fileSystem.fileExists( logFiles.getLogFileForVersion( version + 1 ) );
+        return openForVersion( logFiles, fileSystem, version, false, rotated );
+    }
+
+    private static PhysicalLogVersionedStoreChannel openForVersion( PhysicalLogFiles logFiles,
+            FileSystemAbstraction fileSystem, long version, boolean write, boolean mapped ) throws IOException
     {
         final File fileToOpen = logFiles.getLogFileForVersion( version );
 
@@ -284,6 +412,19 @@ public class PhysicalLogFile implements LogFile, Lifecycle
             ByteBuffer buffer = ByteBuffer.allocate( LOG_HEADER_SIZE );
             LogHeader header = readLogHeader( buffer, rawChannel, true, fileToOpen );
             assert header != null && header.logVersion == version;
+            if ( !write && CompressedLogVersionedStoreChannel.isCompressed( rawChannel ) )
+            {
+                return new CompressedLogVersionedStoreChannel( rawChannel, version, header.logFormatVersion );
+            }
+            if ( mapped )
+            {
+                PhysicalLogVersionedStoreChannel mappedChannel =
+                        MappedLogVersionedStoreChannel.tryMap( rawChannel, version, header.logFormatVersion );
+                if ( mappedChannel != null )
+                {
+                    return mappedChannel;
+                }
+            }
             return new PhysicalLogVersionedStoreChannel( rawChannel, version, header.logFormatVersion );
         }
         catch ( FileNotFoundException cause )
@@ -309,6 +450,20 @@ public class PhysicalLogFile implements LogFile, Lifecycle
         }
     }
 
+    /**
+     * Wraps a channel of a log file, that is positioned after the log header, in a channel for reading the log
+     * contents. Compressed log files are decompressed transparently.
+     */
+    public static PhysicalLogVersionedStoreChannel openForReading( StoreChannel rawChannel, LogHeader header )
+            throws IOException
+    {
+        if ( CompressedLogVersionedStoreChannel.isCompressed( rawChannel ) )
+        {
+            return new CompressedLogVersionedStoreChannel( rawChannel, header.logVersion, header.logFormatVersion );
+        }
+        return new PhysicalLogVersionedStoreChannel( rawChannel, header.logVersion, header.logFormatVersion );
+    }
+
     public static PhysicalLogVersionedStoreChannel tryOpenForVersion( PhysicalLogFiles logFiles,
             FileSystemAbstraction fileSystem, long version, boolean write )
     {
@@ -21,9 +21,11 @@ package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.regex.Pattern;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 
 import static java.lang.Math.max;
@@ -57,6 +59,8 @@ public class PhysicalLogFiles
         }
     }
 
+    public static final String RECYCLED_SUFFIX = ".recycled";
+
     private final File logBaseName;
     private final Pattern logFilePattern;
     private final FileSystemAbstraction fileSystem;
@@ -78,6 +82,14 @@ public class PhysicalLogFiles
         return new File( logBaseName.getPath() + DEFAULT_VERSION_SUFFIX + version );
     }
 
+    /**
+     * @return the pruned log file that is kept for reuse as a new log file, see {@link LogFilePreallocator}.
+     */
+    public File getRecycledLogFile()
+    {
+        return new File( logBaseName.getPath() + RECYCLED_SUFFIX );
+    }
+
     public boolean versionExists( long version )
     {
         return fileSystem.fileExists( getLogFileForVersion( version ) );
@@ -90,7 +102,21 @@ public class PhysicalLogFiles
 
     public boolean hasAnyEntries( long version )
     {
-        return fileSystem.getFileSize( getLogFileForVersion( version ) ) > LOG_HEADER_SIZE;
+        File logFile = getLogFileForVersion( version );
+        if ( fileSystem.getFileSize( logFile ) <= LOG_HEADER_SIZE )
+        {
+            return false;
+        }
+        // A preallocated log file without any entries is still larger than its header, but zeroed after it
+        try ( StoreChannel channel = fileSystem.open( logFile, "r" ) )
+        {
+            ByteBuffer firstByte = ByteBuffer.allocate( 1 );
+            return channel.read( firstByte, LOG_HEADER_SIZE ) != 1 || firstByte.get( 0 ) != 0;
+        }
+        catch ( IOException e )
+        {
+            return true;
+        }
     }
 
     public long getHighestLogVersion()
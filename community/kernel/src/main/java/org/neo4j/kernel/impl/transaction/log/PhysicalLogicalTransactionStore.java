@@ -42,13 +42,26 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     private final LogFile logFile;
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
+    private final TransactionLogIndex transactionLogIndex;
 
     public PhysicalLogicalTransactionStore( LogFile logFile, TransactionMetadataCache transactionMetadataCache,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader )
+    {
+        this( logFile, transactionMetadataCache, logEntryReader, null );
+    }
+
+    /**
+     * @param transactionLogIndex index of the transaction positions in the rotated logs, or {@code null} if the
+     * transactions that are not in the {@link TransactionMetadataCache} should always be searched for in the logs.
+     */
+    public PhysicalLogicalTransactionStore( LogFile logFile, TransactionMetadataCache transactionMetadataCache,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader,
+            TransactionLogIndex transactionLogIndex )
     {
         this.logFile = logFile;
         this.transactionMetadataCache = transactionMetadataCache;
         this.logEntryReader = logEntryReader;
+        this.transactionLogIndex = transactionLogIndex;
     }
 
     @Override
@@ -77,6 +90,19 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             LogVersionLocator headerVisitor = new LogVersionLocator( transactionIdToStartFrom );
             logFile.accept( headerVisitor );
 
+            // ask the index of the log, if it's a rotated one
+            if ( transactionLogIndex != null )
+            {
+                LogPosition position = headerVisitor.getLogPosition();
+                LogPosition indexedPosition = transactionLogIndex.startPositionOf( position.getLogVersion(),
+                        headerVisitor.getFirstTransactionIdInLog(), headerVisitor.getLastTransactionIdInLog(),
+                        transactionIdToStartFrom );
+                if ( indexedPosition != null )
+                {
+                    return new PhysicalTransactionCursor<>( logFile.getReader( indexedPosition ), logEntryReader );
+                }
+            }
+
             // ask LogFile
             TransactionPositionLocator transactionPositionLocator =
                     new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
@@ -199,6 +225,8 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     {
         private final long transactionId;
         private LogPosition foundPosition;
+        private long firstTransactionIdInLog;
+        private long lastTransactionIdInLog;
 
         public LogVersionLocator( long transactionId )
         {
@@ -213,6 +241,8 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             if ( foundIt )
             {
                 foundPosition = position;
+                this.firstTransactionIdInLog = firstTransactionIdInLog;
+                this.lastTransactionIdInLog = lastTransactionIdInLog;
             }
             return !foundIt; // continue as long we don't find it
         }
@@ -226,5 +256,15 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             }
             return foundPosition;
         }
+
+        long getFirstTransactionIdInLog()
+        {
+            return firstTransactionIdInLog;
+        }
+
+        long getLastTransactionIdInLog()
+        {
+            return lastTransactionIdInLog;
+        }
     }
 }
@@ -25,7 +25,7 @@ import java.io.IOException;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.log.entry.IncompleteLogHeaderException;
 
-import static org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.openForVersion;
+import static org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.openForReading;
 
 /**
  * {@link LogVersionBridge} naturally transitioning from one {@link LogVersionedStoreChannel} to the next,
@@ -35,11 +35,19 @@ public class ReaderLogVersionBridge implements LogVersionBridge
 {
     private final FileSystemAbstraction fileSystem;
     private final PhysicalLogFiles logFiles;
+    private final boolean memoryMapRotatedLogs;
 
     public ReaderLogVersionBridge( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles )
+    {
+        this( fileSystem, logFiles, false );
+    }
+
+    public ReaderLogVersionBridge( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles,
+            boolean memoryMapRotatedLogs )
     {
         this.fileSystem = fileSystem;
         this.logFiles = logFiles;
+        this.memoryMapRotatedLogs = memoryMapRotatedLogs;
     }
 
     @Override
@@ -48,7 +56,7 @@ public class ReaderLogVersionBridge implements LogVersionBridge
         PhysicalLogVersionedStoreChannel nextChannel;
         try
         {
-            nextChannel = openForVersion( logFiles, fileSystem, channel.getVersion() + 1, false );
+            nextChannel = openForReading( logFiles, fileSystem, channel.getVersion() + 1, memoryMapRotatedLogs );
         }
         catch ( FileNotFoundException | IncompleteLogHeaderException e )
         {
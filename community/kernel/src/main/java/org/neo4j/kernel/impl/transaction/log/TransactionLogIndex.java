@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.StandardCopyOption;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_1P_COMMIT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_START;
+
+/**
+ * Persistent index of the start positions of the transactions in rotated log files, so that the position of any
+ * transaction in a rotated log can be found without scanning the log, no matter how old the log is.
+ * <p>
+ * Every rotated log file can have an index file next to it, with the {@value #INDEX_SUFFIX} suffix. The index has
+ * a header that identifies the range of transactions in the log, followed by the byte offset of the start entry of
+ * each of those transactions, in transaction id order:
+ * <pre>
+ * [magic (8), log version (8), first transaction id (8), transaction count (8)]
+ * [start offset of first transaction (8)] ... [start offset of last transaction (8)]
+ * </pre>
+ * The index of a log file is built the first time a transaction is looked up in it, by reading through the log once.
+ * The index is only ever used if its transaction range is the same as the one the log headers say the log holds,
+ * and it is forced to disk before it gets its final name, so that a crash never leaves a partially written index.
+ */
+public class TransactionLogIndex
+{
+    public static final String INDEX_SUFFIX = ".txindex";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long MAGIC = 0x4E656F5478496478L;
+    private static final int HEADER_SIZE = 4 * Long.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1 << 13;
+
+    private final FileSystemAbstraction fileSystem;
+    private final PhysicalLogFiles logFiles;
+    private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
+
+    public TransactionLogIndex( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader )
+    {
+        this.fileSystem = fileSystem;
+        this.logFiles = logFiles;
+        this.logEntryReader = logEntryReader;
+    }
+
+    /**
+     * @return the index file of the given log file.
+     */
+    public static File indexFileFor( File logFile )
+    {
+        return new File( logFile.getPath() + INDEX_SUFFIX );
+    }
+
+    /**
+     * Find the start position of a transaction in a rotated log file, building the index of the log if it does not
+     * have one yet.
+     *
+     * @param logVersion the version of the log file that holds the transaction.
+     * @param firstTxId the id of the first transaction in that log file.
+     * @param lastTxId the id of the last transaction in that log file.
+     * @param txId the id of the transaction to find.
+     * @return the start position of the transaction, or {@code null} if the log file is not rotated yet, or the
+     * position could not be found through an index.
+     * @throws IOException if the index or the log file could not be read.
+     */
+    public LogPosition startPositionOf( long logVersion, long firstTxId, long lastTxId, long txId ) throws IOException
+    {
+        if ( txId < firstTxId || txId > lastTxId || !rotated( logVersion ) )
+        {
+            return null;
+        }
+        File indexFile = indexFileFor( logFiles.getLogFileForVersion( logVersion ) );
+        if ( !fileSystem.fileExists( indexFile ) && !build( logVersion, firstTxId, lastTxId ) )
+        {
+            return null;
+        }
+        return lookup( indexFile, logVersion, firstTxId, lastTxId, txId );
+    }
+
+    private boolean rotated( long logVersion )
+    {
+        // The next log file is only created after the previous one has been completely flushed.
+        return logFiles.versionExists( logVersion + 1 );
+    }
+
+    private LogPosition lookup( File indexFile, long logVersion, long firstTxId, long lastTxId, long txId )
+            throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.open( indexFile, "r" ) )
+        {
+            if ( channel.size() < HEADER_SIZE )
+            {
+                return null;
+            }
+            ByteBuffer header = readFully( channel, 0, HEADER_SIZE );
+            long transactionCount = lastTxId - firstTxId + 1;
+            if ( header.getLong() != MAGIC || header.getLong() != logVersion || header.getLong() != firstTxId ||
+                 header.getLong() != transactionCount || channel.size() != HEADER_SIZE + transactionCount * Long.BYTES )
+            {
+                // The index is not of the log file as it looks now
+                return null;
+            }
+            long offset = readFully( channel, HEADER_SIZE + (txId - firstTxId) * Long.BYTES, Long.BYTES ).getLong();
+            if ( offset < LOG_HEADER_SIZE )
+            {
+                // No transaction can start inside the log header, so the index is damaged
+                return null;
+            }
+            return new LogPosition( logVersion, offset );
+        }
+    }
+
+    /**
+     * Build the index of the given rotated log file, by reading through all of its transactions.
+     *
+     * @return {@code true} if the index was built, or {@code false} if the log did not hold exactly the transactions
+     * it was expected to hold.
+     */
+    synchronized boolean build( long logVersion, long firstTxId, long lastTxId ) throws IOException
+    {
+        File indexFile = indexFileFor( logFiles.getLogFileForVersion( logVersion ) );
+        if ( fileSystem.fileExists( indexFile ) )
+        {
+            // Built concurrently by someone else
+            return true;
+        }
+        File tempFile = new File( indexFile.getPath() + TEMP_SUFFIX );
+        long expectedTxId = firstTxId;
+        try ( ReadableLogChannel reader = new ReadAheadLogChannel(
+                PhysicalLogFile.openForVersion( logFiles, fileSystem, logVersion, false ), NO_MORE_CHANNELS );
+              StoreChannel index = fileSystem.create( tempFile ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( WRITE_BUFFER_SIZE );
+            buffer.putLong( MAGIC ).putLong( logVersion ).putLong( firstTxId ).putLong( lastTxId - firstTxId + 1 );
+            LogEntry logEntry;
+            LogEntryStart startEntry = null;
+            while ( (logEntry = logEntryReader.readLogEntry( reader )) != null )
+            {
+                if ( logEntry.getType() == TX_START )
+                {
+                    startEntry = logEntry.as();
+                }
+                else if ( logEntry.getType() == TX_1P_COMMIT )
+                {
+                    LogEntryCommit commit = logEntry.as();
+                    if ( startEntry == null || commit.getTxId() != expectedTxId )
+                    {
+                        break;
+                    }
+                    if ( !buffer.hasRemaining() )
+                    {
+                        buffer.flip();
+                        index.writeAll( buffer );
+                        buffer.clear();
+                    }
+                    buffer.putLong( startEntry.getStartPosition().getByteOffset() );
+                    startEntry = null;
+                    expectedTxId++;
+                }
+            }
+            buffer.flip();
+            index.writeAll( buffer );
+            index.force( false );
+        }
+
+        if ( expectedTxId != lastTxId + 1 )
+        {
+            fileSystem.deleteFile( tempFile );
+            return false;
+        }
+        fileSystem.renameFile( tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING );
+        return true;
+    }
+
+    private static ByteBuffer readFully( StoreChannel channel, long offset, int length ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( length );
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer, offset + buffer.position() ) == -1 )
+            {
+                throw new IOException( "Unexpected end of transaction log index at offset " +
+                        (offset + buffer.position()) );
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
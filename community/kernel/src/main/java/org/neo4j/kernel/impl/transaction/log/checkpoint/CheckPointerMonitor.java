@@ -19,12 +19,25 @@
  */
 package org.neo4j.kernel.impl.transaction.log.checkpoint;
 
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+
 public interface CheckPointerMonitor
 {
     long numberOfCheckPointEvents();
 
     long checkPointAccumulatedTotalTimeMillis();
 
+    /**
+     * @return the number of IOs per second that check pointing is currently allowed to perform, or
+     * {@link CheckPointTracer#UNLIMITED_IO} if the rate of check point IO is not being limited.
+     */
+    long checkPointIOLimit();
+
+    /**
+     * @return the number of times the check point IO limit has been adjusted in response to observed IO latencies.
+     */
+    long numberOfCheckPointIOLimitAdjustments();
+
     CheckPointerMonitor NULL = new CheckPointerMonitor()
     {
         @Override
@@ -38,5 +51,17 @@ public interface CheckPointerMonitor
         {
             return 0;
         }
+
+        @Override
+        public long checkPointIOLimit()
+        {
+            return CheckPointTracer.UNLIMITED_IO;
+        }
+
+        @Override
+        public long numberOfCheckPointIOLimitAdjustments()
+        {
+            return 0;
+        }
     };
 }
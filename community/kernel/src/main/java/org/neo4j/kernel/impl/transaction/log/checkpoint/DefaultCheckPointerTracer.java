@@ -43,6 +43,9 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
 
     private final AtomicLong counter = new AtomicLong();
     private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
+    private final AtomicLong ioLimitAdjustments = new AtomicLong();
+
+    private volatile long ioLimit = UNLIMITED_IO;
 
     private volatile long startTimeNanos;
 
@@ -86,6 +89,13 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
         return logCheckPointEvent;
     }
 
+    @Override
+    public void ioLimitAdjusted( long iopsLimit )
+    {
+        ioLimit = iopsLimit;
+        ioLimitAdjustments.incrementAndGet();
+    }
+
     @Override
     public long numberOfCheckPointEvents()
     {
@@ -98,6 +108,18 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
         return TimeUnit.NANOSECONDS.toMillis( accumulatedTotalTimeNanos.get() );
     }
 
+    @Override
+    public long checkPointIOLimit()
+    {
+        return ioLimit;
+    }
+
+    @Override
+    public long numberOfCheckPointIOLimitAdjustments()
+    {
+        return ioLimitAdjustments.get();
+    }
+
     private void updateCountersAndNotifyListeners()
     {
         final long lastEventTime = clock.nanos() - startTimeNanos;
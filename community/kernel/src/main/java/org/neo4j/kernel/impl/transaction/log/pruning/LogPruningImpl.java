@@ -19,24 +19,37 @@
  */
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
+import java.io.IOException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.neo4j.kernel.impl.transaction.log.LogFileCompressor;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 
 /**
- * This class listens for rotations and does log pruning.
+ * This class listens for rotations and does log pruning, and optionally compresses the remaining logs that are no
+ * longer needed for recovery.
  */
 public class LogPruningImpl implements LogPruning
 {
     private final Lock pruneLock = new ReentrantLock();
     private final LogPruneStrategy pruneStrategy;
+    private final LogFileCompressor compressor;
     private final Log msgLog;
 
     public LogPruningImpl( LogPruneStrategy pruneStrategy, LogProvider logProvider )
+    {
+        this( pruneStrategy, null, logProvider );
+    }
+
+    /**
+     * @param compressor the compressor of the pruned logs, or {@code null} if the logs should not be compressed.
+     */
+    public LogPruningImpl( LogPruneStrategy pruneStrategy, LogFileCompressor compressor, LogProvider logProvider )
     {
         this.pruneStrategy = pruneStrategy;
+        this.compressor = compressor;
         this.msgLog = logProvider.getLog( getClass() );
     }
 
@@ -52,6 +65,10 @@ public class LogPruningImpl implements LogPruning
             try
             {
                 pruneStrategy.prune( upToVersion );
+                if ( compressor != null )
+                {
+                    compressLogs( prefix, upToVersion );
+                }
             }
             finally
             {
@@ -60,4 +77,23 @@ public class LogPruningImpl implements LogPruning
             }
         }
     }
+
+    private void compressLogs( String prefix, long upToVersion )
+    {
+        // The logs below the given version are not needed for recovery, and will not be truncated by it,
+        // which is what makes it safe to compress them.
+        try
+        {
+            int compressed = compressor.compressUpTo( upToVersion );
+            if ( compressed > 0 )
+            {
+                msgLog.info( prefix + " Compressed " + compressed + " log files." );
+            }
+        }
+        catch ( IOException e )
+        {
+            // Compression is only an optimisation; the logs are left uncompressed, and can still be read.
+            msgLog.warn( prefix + " Log compression failed.", e );
+        }
+    }
 }
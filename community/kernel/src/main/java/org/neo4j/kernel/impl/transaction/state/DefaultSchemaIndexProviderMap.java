@@ -32,6 +32,7 @@ public class DefaultSchemaIndexProviderMap implements SchemaIndexProviderMap
 {
     private final SchemaIndexProvider defaultIndexProvider;
     private final Map<SchemaIndexProvider.Descriptor,SchemaIndexProvider> indexProviders = new HashMap<>();
+    private final Map<SchemaIndexProvider.Descriptor,SchemaIndexProvider> previousIndexProviders = new HashMap<>();
 
     public DefaultSchemaIndexProviderMap( SchemaIndexProvider defaultIndexProvider )
     {
@@ -53,6 +54,23 @@ public class DefaultSchemaIndexProviderMap implements SchemaIndexProviderMap
                         providerDescriptor + ". First loaded " + existing + " then " + provider );
             }
         }
+        for ( SchemaIndexProvider provider : indexProviders.values() )
+        {
+            for ( Descriptor previousDescriptor : provider.getPreviousProviderDescriptors() )
+            {
+                if ( indexProviders.containsKey( previousDescriptor ) )
+                {
+                    // The earlier version is still around as a provider of its own, so its indexes stay with it
+                    continue;
+                }
+                SchemaIndexProvider existing = previousIndexProviders.putIfAbsent( previousDescriptor, provider );
+                if ( existing != null )
+                {
+                    throw new IllegalArgumentException( "Tried to load multiple schema index providers that replace the " +
+                            "provider descriptor " + previousDescriptor + ". First loaded " + existing + " then " + provider );
+                }
+            }
+        }
     }
 
     @Override
@@ -69,6 +87,11 @@ public class DefaultSchemaIndexProviderMap implements SchemaIndexProviderMap
         {
             return provider;
         }
+        provider = previousIndexProviders.get( descriptor );
+        if ( provider != null )
+        {
+            return provider;
+        }
 
         throw new IllegalArgumentException( "Tried to get index provider for an existing index with provider " +
                 descriptor + " whereas available providers in this session being " + indexProviders +
@@ -19,7 +19,16 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.collection.primitive.PrimitiveLongResourceIterator;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.locking.Lock;
@@ -28,16 +37,26 @@ import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.StoreIdIterator;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
+import org.neo4j.unsafe.impl.internal.dragons.FeatureToggles;
 
+import static org.neo4j.helpers.NamedThreadFactory.daemon;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
 
 /**
  * Node scanner that will perform some sort of process over set of nodes
  * from nodeStore {@link NodeStore} based on node ids supplied by underlying store aware id iterator.
+ * <p>
+ * When {@link #configureParallelism(int, long) configured} with more than one worker, or with a throttle, the node
+ * ids are handed out in ascending chunks of {@link #CHUNK_SIZE} ids to a number of workers, which then process their
+ * partition of the store concurrently. {@link #process(NodeRecord)} must be thread-safe in that case.
  * @param <FAILURE>
  */
 public abstract class NodeStoreScan<FAILURE extends Exception> implements StoreScan<FAILURE>
 {
+    static final String CHUNK_SIZE_NAME = "chunk_size";
+    private static final int CHUNK_SIZE = FeatureToggles.getInteger( NodeStoreScan.class, CHUNK_SIZE_NAME, 1_000 );
+    private static final String SCAN_THREAD_NAME_PREFIX = "Index Population Scan Thread";
+
     private volatile boolean continueScanning;
     private final NodeRecord record;
 
@@ -47,6 +66,10 @@ public abstract class NodeStoreScan<FAILURE extends Exception> implements StoreS
 
     private long count;
 
+    private int workers = 1;
+    private long maxNodesPerSecond;
+    private volatile PartitionedScan partitionedScan;
+
     public abstract void process( NodeRecord loaded ) throws FAILURE;
 
     public NodeStoreScan( NodeStore nodeStore, LockService locks, long totalCount )
@@ -57,12 +80,27 @@ public abstract class NodeStoreScan<FAILURE extends Exception> implements StoreS
         this.totalCount = totalCount;
     }
 
+    @Override
+    public void configureParallelism( int workers, long maxNodesPerSecond )
+    {
+        this.workers = Math.max( 1, workers );
+        this.maxNodesPerSecond = Math.max( 0, maxNodesPerSecond );
+    }
+
     @Override
     public void run() throws FAILURE
     {
         try ( PrimitiveLongResourceIterator nodeIds = getNodeIdIterator() )
         {
             continueScanning = true;
+            if ( workers > 1 || maxNodesPerSecond > 0 )
+            {
+                PartitionedScan scan = new PartitionedScan( nodeIds, workers, maxNodesPerSecond );
+                partitionedScan = scan;
+                scan.run();
+                return;
+            }
+
             while ( continueScanning && nodeIds.hasNext() )
             {
                 long id = nodeIds.next();
@@ -89,15 +127,324 @@ public abstract class NodeStoreScan<FAILURE extends Exception> implements StoreS
         continueScanning = false;
     }
 
+    @Override
+    public void runExclusively( Runnable task )
+    {
+        PartitionedScan scan = partitionedScan;
+        if ( scan != null && scan.running )
+        {
+            scan.defer( task );
+        }
+        else
+        {
+            task.run();
+        }
+    }
+
+    /**
+     * Decides whether or not a concurrent update of the given node should be applied to the index directly, because
+     * the node has already been scanned. Updates of nodes that are yet to be scanned will be seen by the scan itself.
+     *
+     * @param nodeId id of the node that was updated.
+     * @param currentlyIndexedNodeId id of the last node that was processed, used when scanning by a single thread.
+     * @return {@code true} if the node has been scanned, otherwise {@code false}.
+     */
+    protected boolean isScanned( long nodeId, long currentlyIndexedNodeId )
+    {
+        PartitionedScan scan = partitionedScan;
+        return scan != null ? scan.isScanned( nodeId ) : nodeId <= currentlyIndexedNodeId;
+    }
+
     @Override
     public PopulationProgress getProgress()
     {
         if ( totalCount > 0 )
         {
-            return new PopulationProgress( count, totalCount );
+            PartitionedScan scan = partitionedScan;
+            return new PopulationProgress( scan != null ? scan.scannedCount() : count, totalCount );
         }
 
         // nothing to do 100% completed
         return PopulationProgress.DONE;
     }
+
+    /**
+     * @return number of nodes scanned by each of the workers, or a single element for a scan run by one thread.
+     */
+    public long[] getPartitionProgress()
+    {
+        PartitionedScan scan = partitionedScan;
+        return scan != null ? scan.partitionCounts() : new long[]{count};
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "{total=" + totalCount + ", scannedPerPartition=" +
+               Arrays.toString( getPartitionProgress() ) + "}";
+    }
+
+    /**
+     * Scan where workers grab chunks of ascending node ids from the shared id iterator. Each worker processes its
+     * chunk with the read lock of {@link #pauseLock} held for every node, so that {@link #defer(Runnable) deferred}
+     * tasks can run with all workers paused between two nodes.
+     */
+    private class PartitionedScan
+    {
+        private final PrimitiveLongIterator nodeIds;
+        private final Partition[] partitions;
+        private final long maxNodesPerSecond;
+        private final ReadWriteLock pauseLock = new ReentrantReadWriteLock();
+        private final AtomicReference<Runnable> deferredTask = new AtomicReference<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean running;
+        private long startTime;
+
+        // Guarded by this
+        private long highestHandedOutId = -1;
+        private boolean exhausted;
+
+        PartitionedScan( PrimitiveLongIterator nodeIds, int workers, long maxNodesPerSecond )
+        {
+            this.nodeIds = nodeIds;
+            this.maxNodesPerSecond = maxNodesPerSecond;
+            this.partitions = new Partition[workers];
+            for ( int i = 0; i < workers; i++ )
+            {
+                partitions[i] = new Partition();
+            }
+        }
+
+        void run() throws FAILURE
+        {
+            startTime = System.nanoTime();
+            running = true;
+            ThreadFactory threadFactory = daemon( SCAN_THREAD_NAME_PREFIX );
+            Thread[] threads = new Thread[partitions.length - 1];
+            try
+            {
+                for ( int i = 0; i < threads.length; i++ )
+                {
+                    Partition partition = partitions[i + 1];
+                    threads[i] = threadFactory.newThread( () -> scan( partition ) );
+                    threads[i].start();
+                }
+                scan( partitions[0] );
+            }
+            finally
+            {
+                awaitTermination( threads );
+                running = false;
+            }
+            runDeferredTask();
+            rethrowFailure();
+        }
+
+        private void scan( Partition partition )
+        {
+            NodeRecord record = nodeStore.newRecord();
+            try
+            {
+                while ( continueScanning && nextChunk( partition ) )
+                {
+                    scanChunk( partition, record );
+                    throttle();
+                }
+            }
+            catch ( Throwable t )
+            {
+                failure.compareAndSet( null, t );
+                continueScanning = false;
+            }
+        }
+
+        private void scanChunk( Partition partition, NodeRecord record ) throws FAILURE
+        {
+            while ( continueScanning && partition.cursor < partition.length )
+            {
+                long id = partition.ids[partition.cursor];
+                pauseLock.readLock().lock();
+                try ( Lock ignored = locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ) )
+                {
+                    partition.scanned.incrementAndGet();
+                    if ( nodeStore.getRecord( id, record, FORCE ).inUse() )
+                    {
+                        process( record );
+                    }
+                    partition.cursor++;
+                }
+                finally
+                {
+                    pauseLock.readLock().unlock();
+                }
+                runDeferredTask();
+            }
+        }
+
+        /**
+         * Fills the given partition with the next chunk of node ids.
+         *
+         * @return {@code false} if there are no more nodes to scan, otherwise {@code true}.
+         */
+        private synchronized boolean nextChunk( Partition partition )
+        {
+            partition.cursor = 0;
+            partition.length = 0;
+            // Once exhausted the iterator is not asked again, since a growing store could make it produce ids
+            // that concurrent updates already have been applied for.
+            if ( exhausted || !nodeIds.hasNext() )
+            {
+                exhausted = true;
+                highestHandedOutId = Long.MAX_VALUE;
+                return false;
+            }
+            while ( partition.length < partition.ids.length && nodeIds.hasNext() )
+            {
+                partition.ids[partition.length++] = nodeIds.next();
+            }
+            highestHandedOutId = partition.ids[partition.length - 1];
+            return true;
+        }
+
+        synchronized boolean isScanned( long nodeId )
+        {
+            if ( nodeId > highestHandedOutId )
+            {
+                return false;
+            }
+            for ( Partition partition : partitions )
+            {
+                if ( partition.isPending( nodeId ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void defer( Runnable task )
+        {
+            deferredTask.set( task );
+        }
+
+        private void runDeferredTask()
+        {
+            if ( deferredTask.get() == null )
+            {
+                return;
+            }
+            pauseLock.writeLock().lock();
+            try
+            {
+                Runnable task = deferredTask.getAndSet( null );
+                if ( task != null )
+                {
+                    task.run();
+                }
+            }
+            finally
+            {
+                pauseLock.writeLock().unlock();
+            }
+        }
+
+        private void throttle() throws InterruptedException
+        {
+            if ( maxNodesPerSecond > 0 )
+            {
+                double nanosPerNode = (double) TimeUnit.SECONDS.toNanos( 1 ) / maxNodesPerSecond;
+                long expectedNanos = (long) (scannedCount() * nanosPerNode);
+                long aheadNanos = expectedNanos - (System.nanoTime() - startTime);
+                if ( aheadNanos > 0 )
+                {
+                    TimeUnit.NANOSECONDS.sleep( aheadNanos );
+                }
+            }
+        }
+
+        private void awaitTermination( Thread[] threads )
+        {
+            boolean interrupted = false;
+            for ( Thread thread : threads )
+            {
+                while ( thread != null && thread.isAlive() )
+                {
+                    try
+                    {
+                        thread.join();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        interrupted = true;
+                        continueScanning = false;
+                    }
+                }
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @SuppressWarnings( "unchecked" )
+        private void rethrowFailure() throws FAILURE
+        {
+            Throwable t = failure.get();
+            if ( t == null )
+            {
+                return;
+            }
+            if ( t instanceof RuntimeException )
+            {
+                throw (RuntimeException) t;
+            }
+            if ( t instanceof Error )
+            {
+                throw (Error) t;
+            }
+            if ( t instanceof InterruptedException )
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            throw (FAILURE) t;
+        }
+
+        long scannedCount()
+        {
+            long scanned = 0;
+            for ( Partition partition : partitions )
+            {
+                scanned += partition.scanned.get();
+            }
+            return scanned;
+        }
+
+        long[] partitionCounts()
+        {
+            long[] counts = new long[partitions.length];
+            for ( int i = 0; i < partitions.length; i++ )
+            {
+                counts[i] = partitions[i].scanned.get();
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * The chunk of node ids currently being processed by one worker. The ids and length are written when a new chunk
+     * is handed out, the cursor is advanced while holding the read lock of the pause lock.
+     */
+    private static class Partition
+    {
+        private final long[] ids = new long[CHUNK_SIZE];
+        private final AtomicLong scanned = new AtomicLong();
+        private int length;
+        private int cursor;
+
+        boolean isPending( long nodeId )
+        {
+            return cursor < length && Arrays.binarySearch( ids, cursor, length, nodeId ) >= 0;
+        }
+    }
 }
@@ -147,7 +147,7 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends NodeStore
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate update,
             long currentlyIndexedNodeId )
     {
-        if ( update.getEntityId() <= currentlyIndexedNodeId )
+        if ( isScanned( update.getEntityId(), currentlyIndexedNodeId ) )
         {
             updater.process( update );
         }
@@ -21,10 +21,25 @@ package org.neo4j.kernel.impl.transaction.tracing;
 
 public interface CheckPointTracer
 {
+    /**
+     * The IO limit reported when the rate of check point IO is not limited.
+     */
+    long UNLIMITED_IO = -1;
+
     CheckPointTracer NULL = () -> LogCheckPointEvent.NULL;
 
     /**
      * Begin a check point write to the log
      */
     LogCheckPointEvent beginCheckPoint();
+
+    /**
+     * The IO limit of check pointing has been adjusted, in response to the IO latencies observed while flushing.
+     *
+     * @param iopsLimit the number of IOs per second that check pointing is now allowed to perform, or
+     * {@link #UNLIMITED_IO} if the rate of check point IO is no longer limited.
+     */
+    default void ioLimitAdjusted( long iopsLimit )
+    {
+    }
 }
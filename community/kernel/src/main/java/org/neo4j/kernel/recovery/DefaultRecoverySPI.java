@@ -20,6 +20,7 @@
 package org.neo4j.kernel.recovery;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -41,6 +42,8 @@ import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 
 public class DefaultRecoverySPI implements Recovery.SPI
 {
+    private static final int READ_AHEAD_TRANSACTIONS = 1_000;
+
     private final LogVersionRepository logVersionRepository;
     private final PositionToRecoverFrom positionToRecoverFrom;
     private final PhysicalLogFiles logFiles;
@@ -48,6 +51,7 @@ public class DefaultRecoverySPI implements Recovery.SPI
     private final StorageEngine storageEngine;
     private final TransactionIdStore transactionIdStore;
     private final LogicalTransactionStore logicalTransactionStore;
+    private final ThreadFactory readAheadThreadFactory;
     private Visitor<CommittedTransactionRepresentation,Exception> recoveryVisitor;
     private TransactionQueue transactionsToApply;
 
@@ -57,6 +61,21 @@ public class DefaultRecoverySPI implements Recovery.SPI
             LogVersionRepository logVersionRepository, LatestCheckPointFinder checkPointFinder,
             TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
             PositionToRecoverFrom.Monitor monitor )
+    {
+        this( storageEngine, logFiles, fs, logVersionRepository, checkPointFinder, transactionIdStore,
+                logicalTransactionStore, monitor, null );
+    }
+
+    /**
+     * @param readAheadThreadFactory creates the thread that reads the transaction log ahead of the recovery,
+     * or {@code null} if the transactions should be read by the recovering thread itself.
+     */
+    public DefaultRecoverySPI(
+            StorageEngine storageEngine,
+            PhysicalLogFiles logFiles, FileSystemAbstraction fs,
+            LogVersionRepository logVersionRepository, LatestCheckPointFinder checkPointFinder,
+            TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
+            PositionToRecoverFrom.Monitor monitor, ThreadFactory readAheadThreadFactory )
     {
         this.storageEngine = storageEngine;
         this.logFiles = logFiles;
@@ -65,6 +84,7 @@ public class DefaultRecoverySPI implements Recovery.SPI
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
         this.positionToRecoverFrom = new PositionToRecoverFrom( checkPointFinder, monitor );
+        this.readAheadThreadFactory = readAheadThreadFactory;
     }
 
     @Override
@@ -92,7 +112,10 @@ public class DefaultRecoverySPI implements Recovery.SPI
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return logicalTransactionStore.getTransactions( position );
+        TransactionCursor transactions = logicalTransactionStore.getTransactions( position );
+        return readAheadThreadFactory == null ? transactions
+                                              : new ReadAheadTransactionCursor( transactions, readAheadThreadFactory,
+                                                      READ_AHEAD_TRANSACTIONS );
     }
 
     @Override
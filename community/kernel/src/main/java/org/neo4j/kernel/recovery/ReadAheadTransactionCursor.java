@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+
+/**
+ * A {@link TransactionCursor} that reads, and thereby decodes, the transactions of another cursor on a separate
+ * thread, so that the reading of the transaction log overlaps with the application of the transactions read so far.
+ * At most {@code readAhead} transactions are buffered at any one time.
+ * <p>
+ * The wrapped cursor is owned by this cursor, and is closed when this cursor is closed.
+ */
+public class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private static final Entry END = new Entry( null, null, null );
+
+    private final TransactionCursor source;
+    private final BlockingQueue<Entry> queue;
+    private final Thread reader;
+    private volatile boolean closed;
+    private boolean exhausted;
+    private CommittedTransactionRepresentation current;
+    private LogPosition position;
+
+    public ReadAheadTransactionCursor( TransactionCursor source, ThreadFactory threadFactory, int readAhead )
+    {
+        this.source = source;
+        this.queue = new ArrayBlockingQueue<>( readAhead );
+        this.position = source.position();
+        this.reader = threadFactory.newThread( this::readAhead );
+        this.reader.start();
+    }
+
+    private void readAhead()
+    {
+        try
+        {
+            while ( source.next() )
+            {
+                if ( !offer( new Entry( source.get(), source.position(), null ) ) )
+                {
+                    return;
+                }
+            }
+            offer( END );
+        }
+        catch ( Throwable e )
+        {
+            offer( new Entry( null, null, e ) );
+        }
+    }
+
+    private boolean offer( Entry entry )
+    {
+        try
+        {
+            while ( !closed )
+            {
+                if ( queue.offer( entry, 10, TimeUnit.MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        if ( exhausted )
+        {
+            return false;
+        }
+
+        Entry entry;
+        try
+        {
+            entry = queue.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for the next transaction to be read", e );
+        }
+
+        current = entry.transaction;
+        if ( entry == END )
+        {
+            exhausted = true;
+            return false;
+        }
+        if ( entry.failure != null )
+        {
+            exhausted = true;
+            if ( entry.failure instanceof IOException )
+            {
+                throw (IOException) entry.failure;
+            }
+            throw new IOException( "Failed to read the transaction log", entry.failure );
+        }
+        position = entry.position;
+        return true;
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        queue.clear();
+        try
+        {
+            reader.join();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    private static class Entry
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final Throwable failure;
+
+        Entry( CommittedTransactionRepresentation transaction, LogPosition position, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.failure = failure;
+        }
+    }
+}
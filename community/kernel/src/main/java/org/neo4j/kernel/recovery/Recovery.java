@@ -20,6 +20,7 @@
 package org.neo4j.kernel.recovery;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
@@ -46,6 +47,17 @@ public class Recovery extends LifecycleAdapter
         default void recoveryCompleted( int numberOfRecoveredTransactions )
         { // no-op by default
         }
+
+        /**
+         * Called periodically while transactions are being recovered, and once more when all transactions have
+         * been recovered.
+         *
+         * @param numberOfRecoveredTransactions the number of transactions recovered so far.
+         * @param transactionsPerSecond the average recovery throughput since the recovery started.
+         */
+        default void recoveryProgress( long numberOfRecoveredTransactions, long transactionsPerSecond )
+        { // no-op by default
+        }
     }
 
     public interface SPI
@@ -60,6 +72,8 @@ public class Recovery extends LifecycleAdapter
                 LogPosition positionAfterLastRecoveredTransaction ) throws Exception;
     }
 
+    private static final long PROGRESS_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos( 10 );
+
     private final SPI spi;
     private final Monitor monitor;
     private int numberOfRecoveredTransactions;
@@ -86,6 +100,8 @@ public class Recovery extends LifecycleAdapter
         LogPosition recoveryToPosition;
         CommittedTransactionRepresentation lastTransaction = null;
         Visitor<CommittedTransactionRepresentation,Exception> recoveryVisitor = spi.startRecovery();
+        long startTime = System.nanoTime();
+        long nextProgressReport = startTime + PROGRESS_REPORT_INTERVAL_NANOS;
         try ( TransactionCursor transactionsToRecover = spi.getTransactions( recoveryFromPosition ) )
         {
             while ( transactionsToRecover.next() )
@@ -95,6 +111,11 @@ public class Recovery extends LifecycleAdapter
                 recoveryVisitor.visit( lastTransaction );
                 monitor.transactionRecovered( txId );
                 numberOfRecoveredTransactions++;
+                if ( System.nanoTime() - nextProgressReport >= 0 )
+                {
+                    reportProgress( startTime );
+                    nextProgressReport = System.nanoTime() + PROGRESS_REPORT_INTERVAL_NANOS;
+                }
             }
             recoveryToPosition = transactionsToRecover.position();
         }
@@ -105,9 +126,17 @@ public class Recovery extends LifecycleAdapter
         }
 
         spi.allTransactionsRecovered( lastTransaction, recoveryToPosition );
+        reportProgress( startTime );
         recoveredLog = true;
     }
 
+    private void reportProgress( long startTime )
+    {
+        long elapsedNanos = Math.max( 1, System.nanoTime() - startTime );
+        long transactionsPerSecond = numberOfRecoveredTransactions * TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+        monitor.recoveryProgress( numberOfRecoveredTransactions, transactionsPerSecond );
+    }
+
     @Override
     public void start() throws Throwable
     {
@@ -130,6 +130,15 @@ public interface StoreReadLayer
 
     PrimitiveLongIterator nodesGetForLabel( StorageStatement statement, int labelId );
 
+    /**
+     * @param statement {@link StorageStatement} to use for reading the label scan store.
+     * @param labelId the label id of the label that returned nodes are guaranteed to have.
+     * @param fromId the lowest node id to return, inclusive.
+     * @param toId the highest node id to return, exclusive.
+     * @return ids of the stored nodes with the given label in the range {@code [fromId, toId)}.
+     */
+    PrimitiveLongIterator nodesGetForLabel( StorageStatement statement, int labelId, long fromId, long toId );
+
     /**
      * Looks for a stored index by given {@code descriptor}
      *
@@ -262,6 +271,25 @@ public interface StoreReadLayer
      */
     PrimitiveLongIterator nodesGetAll();
 
+    /**
+     * @param fromId the lowest node id to return, inclusive.
+     * @param toId the highest node id to return, exclusive.
+     * @return ids of all stored nodes in the range {@code [fromId, toId)}.
+     */
+    PrimitiveLongIterator nodesGetAll( long fromId, long toId );
+
+    /**
+     * Splits the node id space into disjoint, ascending ranges that can be scanned independently of each other,
+     * for instance by parallel workers using {@link #nodesGetAll(long, long)} or
+     * {@link #nodesGetForLabel(StorageStatement, int, long, long)}.
+     *
+     * @param desiredPartitions the number of ranges to split into. Fewer ranges are returned for small stores.
+     * @return the range boundaries, where range {@code i} is {@code [boundaries[i], boundaries[i + 1])}. The first
+     * boundary is {@code 0} and the last one is {@link Long#MAX_VALUE}, so that nodes created after the split are
+     * covered as well.
+     */
+    long[] nodesGetScanPartitions( int desiredPartitions );
+
     /**
      * @return ids of all stored relationships. The returned iterator can optionally visit data about
      * each relationship returned.
@@ -19,6 +19,7 @@
  */
 package org.neo4j.storageengine.api.schema;
 
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphdb.Resource;
 
@@ -33,6 +34,21 @@ public interface LabelScanReader extends Resource
      */
     PrimitiveLongIterator nodesWithLabel( int labelId );
 
+    /**
+     * Like {@link #nodesWithLabel(int)}, but only returns the node ids in the range {@code [fromId, toId)}.
+     * Disjoint ranges can be read independently of each other, which makes it possible to scan a label in parallel.
+     *
+     * @param labelId label token id.
+     * @param fromId the lowest node id to return, inclusive.
+     * @param toId the highest node id to return, exclusive.
+     * @return node ids with the given {@code labelId} in the given range.
+     */
+    default PrimitiveLongIterator nodesWithLabel( int labelId, long fromId, long toId )
+    {
+        return PrimitiveLongCollections.filter( nodesWithLabel( labelId ),
+                nodeId -> nodeId >= fromId && nodeId < toId );
+    }
+
     /**
      * @param labelIds label token ids.
      * @return node ids with any of the given label ids.
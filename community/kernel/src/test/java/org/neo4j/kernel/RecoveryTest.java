@@ -67,6 +67,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -179,6 +181,7 @@ public class RecoveryTest
 
             InOrder order = inOrder( monitor );
             order.verify( monitor, times( 1 ) ).recoveryRequired( any( LogPosition.class ) );
+            order.verify( monitor, times( 1 ) ).recoveryProgress( eq( 2L ), anyLong() );
             order.verify( monitor, times( 1 ) ).recoveryCompleted( 2 );
             assertTrue( recoveryRequired.get() );
         }
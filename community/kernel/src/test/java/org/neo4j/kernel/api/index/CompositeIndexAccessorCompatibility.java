@@ -22,14 +22,18 @@ package org.neo4j.kernel.api.index;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.schema.LabelSchemaDescriptor;
 import org.neo4j.kernel.api.schema.index.IndexDescriptor;
 import org.neo4j.kernel.api.schema.index.IndexDescriptorFactory;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
 import org.neo4j.values.storable.Values;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.neo4j.kernel.api.index.IndexQueryHelper.exact;
 import static org.neo4j.kernel.api.schema.IndexQuery.exists;
@@ -125,11 +129,23 @@ public abstract class CompositeIndexAccessorCompatibility extends IndexAccessorC
             // Conflicting data can happen because of faulty data coercion. These faults are resolved by
             // the exact-match filtering we do on index seeks in StateHandlingStatementOperations.
 
-            updateAndCommit( asList(
-                    add( 1L, descriptor.schema(), "a", "a" ),
-                    add( 2L, descriptor.schema(), "a", "a" ) ) );
-
-            assertThat( query( exact( 0, "a" ), exact( 1, "a" ) ), equalTo( asList( 1L, 2L ) ) );
+            // Native indexes reject the conflicting entry already when it is processed, others keep both entries.
+
+            try ( IndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+            {
+                updater.process( add( 1L, descriptor.schema(), "a", "a" ) );
+                try
+                {
+                    updater.process( add( 2L, descriptor.schema(), "a", "a" ) );
+                }
+                catch ( IndexEntryConflictException e )
+                {
+                    assertEquals( 1L, e.getExistingNodeId() );
+                    assertEquals( 2L, e.getAddedNodeId() );
+                }
+            }
+
+            assertThat( query( exact( 0, "a" ), exact( 1, "a" ) ), hasItem( 1L ) );
         }
     }
 
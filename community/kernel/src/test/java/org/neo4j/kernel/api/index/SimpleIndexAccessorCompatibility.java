@@ -24,14 +24,18 @@ import org.junit.Test;
 
 import java.util.Collections;
 
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.schema.IndexQuery;
 import org.neo4j.kernel.api.schema.index.IndexDescriptor;
 import org.neo4j.kernel.api.schema.index.IndexDescriptorFactory;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.EMPTY_LIST;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.neo4j.kernel.api.schema.IndexQuery.exact;
 import static org.neo4j.kernel.api.schema.IndexQuery.exists;
@@ -140,11 +144,23 @@ public abstract class SimpleIndexAccessorCompatibility extends IndexAccessorComp
             // Conflicting data can happen because of faulty data coercion. These faults are resolved by
             // the exact-match filtering we do on index seeks in StateHandlingStatementOperations.
 
-            updateAndCommit( asList(
-                    add( 1L, descriptor.schema(), "a" ),
-                    add( 2L, descriptor.schema(), "a" ) ) );
-
-            assertThat( query( exact( 1, "a" ) ), equalTo( asList( 1L, 2L ) ) );
+            // Native indexes reject the conflicting entry already when it is processed, others keep both entries.
+
+            try ( IndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+            {
+                updater.process( add( 1L, descriptor.schema(), "a" ) );
+                try
+                {
+                    updater.process( add( 2L, descriptor.schema(), "a" ) );
+                }
+                catch ( IndexEntryConflictException e )
+                {
+                    assertEquals( 1L, e.getExistingNodeId() );
+                    assertEquals( 2L, e.getAddedNodeId() );
+                }
+            }
+
+            assertThat( query( exact( 1, "a" ) ), hasItem( 1L ) );
         }
 
         @Test
@@ -259,11 +275,23 @@ public abstract class SimpleIndexAccessorCompatibility extends IndexAccessorComp
             // Conflicting data can happen because of faulty data coercion. These faults are resolved by
             // the exact-match filtering we do on index seeks in StateHandlingStatementOperations.
 
-            updateAndCommit( asList(
-                    add( 1L, descriptor.schema(), "a" ),
-                    add( 2L, descriptor.schema(), "a" ) ) );
-
-            assertThat( query( exact( 1, "a" ) ), equalTo( asList( 1L, 2L ) ) );
+            // Native indexes reject the conflicting entry already when it is processed, others keep both entries.
+
+            try ( IndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+            {
+                updater.process( add( 1L, descriptor.schema(), "a" ) );
+                try
+                {
+                    updater.process( add( 2L, descriptor.schema(), "a" ) );
+                }
+                catch ( IndexEntryConflictException e )
+                {
+                    assertEquals( 1L, e.getExistingNodeId() );
+                    assertEquals( 2L, e.getAddedNodeId() );
+                }
+            }
+
+            assertThat( query( exact( 1, "a" ) ), hasItem( 1L ) );
         }
 
         @Test
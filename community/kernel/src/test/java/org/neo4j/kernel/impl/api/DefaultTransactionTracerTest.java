@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer.Monitor;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.test.OnDemandJobScheduler;
@@ -76,6 +77,33 @@ public class DefaultTransactionTracerTest
         verifyZeroInteractions( monitor );
     }
 
+    @Test
+    public void shouldCountEventsAndAccumulatedTotalTimeForLogForces() throws Throwable
+    {
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, jobScheduler );
+
+        triggerLogForce( tracer, 3 );
+        triggerLogForce( tracer, 5 );
+
+        assertEquals( 2, tracer.numberOfLogForceEvents() );
+        assertEquals( TimeUnit.MILLISECONDS.toNanos( 8 ), tracer.logForceAccumulatedTotalTimeNanos() );
+        assertEquals( 0, tracer.numberOfLogRotationEvents() );
+    }
+
+    private void triggerLogForce( DefaultTransactionTracer tracer, int forceDuration )
+    {
+        try ( TransactionEvent txEvent = tracer.beginTransaction();
+              CommitEvent commitEvent = txEvent.beginCommitEvent();
+              LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+        {
+            clock.forward( ThreadLocalRandom.current().nextLong( 200 ), TimeUnit.MILLISECONDS );
+            try ( LogForceEvent event = logAppendEvent.beginLogForce() )
+            {
+                clock.forward( forceDuration, TimeUnit.MILLISECONDS );
+            }
+        }
+    }
+
     private void triggerEvent( DefaultTransactionTracer tracer, int eventDuration )
     {
         try ( TransactionEvent txEvent = tracer.beginTransaction() )
@@ -49,6 +49,7 @@ import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StorageStatement;
 import org.neo4j.storageengine.api.lock.ResourceLocker;
 import org.neo4j.test.DoubleLatch;
+import org.neo4j.values.storable.Values;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.Matchers.equalTo;
@@ -609,6 +610,86 @@ public class KernelTransactionImplementationTest extends KernelTransactionTestBa
         assertSame( status, tx.getReasonIfTerminated().get() );
     }
 
+    @Test
+    public void shouldTerminateTransactionWhoseStateGrowsBeyondTransactionMemoryLimit() throws Exception
+    {
+        // given
+        memoryPool = new TransactionMemoryPool( 1024, 0 );
+        KernelTransactionImplementation tx = newTransaction( securityContext() );
+
+        // when
+        for ( int i = 0; i < 100 && !tx.getReasonIfTerminated().isPresent(); i++ )
+        {
+            tx.txState().nodeDoCreate( i );
+        }
+
+        // then
+        assertEquals( Status.Transaction.TransactionMemoryLimitExceeded, tx.getReasonIfTerminated().get() );
+        tx.close();
+        assertEquals( 0, memoryPool.reserved() );
+    }
+
+    @Test
+    public void shouldNotTerminateTransactionThatWritesTheSamePropertyRepeatedly() throws Exception
+    {
+        // given
+        memoryPool = new TransactionMemoryPool( 1024, 0 );
+        KernelTransactionImplementation tx = newTransaction( securityContext() );
+        tx.txState().nodeDoCreate( 0 );
+        tx.txState().nodeDoAddProperty( 0, 1, Values.of( 0 ) );
+
+        // when
+        for ( int i = 1; i <= 1000; i++ )
+        {
+            tx.txState().nodeDoChangeProperty( 0, 1, Values.of( i - 1 ), Values.of( i ) );
+        }
+
+        // then
+        assertFalse( tx.getReasonIfTerminated().isPresent() );
+        tx.close();
+        assertEquals( 0, memoryPool.reserved() );
+    }
+
+    @Test
+    public void shouldReportTheHeapUsageOfTheTransactionStateUntilTheTransactionIsClosed() throws Exception
+    {
+        // given
+        KernelTransactionImplementation tx = newTransaction( securityContext() );
+        assertEquals( 0, tx.estimatedHeapUsage() );
+
+        // when
+        tx.txState().nodeDoCreate( 0 );
+
+        // then
+        assertEquals( tx.txState().estimatedHeapUsage(), tx.estimatedHeapUsage() );
+        assertTrue( tx.estimatedHeapUsage() > 0 );
+        tx.close();
+        assertEquals( 0, tx.estimatedHeapUsage() );
+    }
+
+    @Test
+    public void shouldTerminateTransactionWhoseStateGrowsBeyondGlobalMemoryLimit() throws Exception
+    {
+        // given
+        memoryPool = new TransactionMemoryPool( 0, 1024 );
+        KernelTransactionImplementation first = newTransaction( securityContext() );
+        KernelTransactionImplementation second = newTransaction( securityContext() );
+        first.txState().nodeDoCreate( 0 );
+
+        // when
+        for ( int i = 0; i < 100 && !second.getReasonIfTerminated().isPresent(); i++ )
+        {
+            second.txState().nodeDoCreate( i );
+        }
+
+        // then
+        assertFalse( first.getReasonIfTerminated().isPresent() );
+        assertEquals( Status.Transaction.GlobalMemoryLimitExceeded, second.getReasonIfTerminated().get() );
+        second.close();
+        first.close();
+        assertEquals( 0, memoryPool.reserved() );
+    }
+
     @Test
     public void closedTransactionShouldHaveNoTerminationReason() throws Exception
     {
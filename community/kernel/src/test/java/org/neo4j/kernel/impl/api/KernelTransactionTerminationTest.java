@@ -337,7 +337,7 @@ public class KernelTransactionTerminationTest
                     mock( TransactionCommitProcess.class ), monitor, () -> mock( LegacyIndexTransactionState.class ),
                     mock( Pool.class ), Clocks.fakeClock(), TransactionTracer.NULL,
                     LockTracer.NONE, PageCursorTracerSupplier.NULL,
-                            mock( StorageEngine.class, RETURNS_MOCKS ), new CanWrite() );
+                            mock( StorageEngine.class, RETURNS_MOCKS ), new CanWrite(), TransactionMemoryPool.unlimited() );
 
             this.monitor = monitor;
         }
@@ -83,6 +83,7 @@ public class KernelTransactionTestBase
     protected final FakeClock clock = Clocks.fakeClock();
     protected final Pool<KernelTransactionImplementation> txPool = mock( Pool.class );
     protected final StatementOperationContainer operationContainer = mock( StatementOperationContainer.class );
+    protected TransactionMemoryPool memoryPool = TransactionMemoryPool.unlimited();
 
     private final long defaultTransactionTimeoutMillis = Config.defaults().get( GraphDatabaseSettings.transaction_timeout ).toMillis();
 
@@ -141,7 +142,7 @@ public class KernelTransactionTestBase
         return new KernelTransactionImplementation( operationContainer, schemaWriteGuard,
                 hooks, null, null, headerInformationFactory, commitProcess, transactionMonitor, legacyIndexStateSupplier,
                 txPool, clock, TransactionTracer.NULL, LockTracer.NONE, PageCursorTracerSupplier.NULL, storageEngine,
-                new CanWrite() );
+                new CanWrite(), memoryPool );
     }
 
     public class CapturingCommitProcess implements TransactionCommitProcess
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.DeadSimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.Race;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.helpers.Exceptions.contains;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+import static org.neo4j.test.Race.throwing;
+
+public class PipelinedTransactionCommitProcessTest
+{
+    private final CommitEvent commitEvent = CommitEvent.NULL;
+    private final TransactionIdStore transactionIdStore = new DeadSimpleTransactionIdStore();
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final Neo4jJobScheduler scheduler = new Neo4jJobScheduler();
+    private PipelinedTransactionCommitProcess commitProcess;
+
+    @Before
+    public void startScheduler()
+    {
+        scheduler.init();
+    }
+
+    @After
+    public void stopCommitProcess() throws Throwable
+    {
+        if ( commitProcess != null )
+        {
+            commitProcess.stop();
+        }
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldCommitConcurrentTransactionsInBatches() throws Throwable
+    {
+        // GIVEN
+        AtomicInteger appliedTransactions = new AtomicInteger();
+        AtomicInteger appliedBatches = new AtomicInteger();
+        doAnswer( invocation ->
+        {
+            appliedBatches.incrementAndGet();
+            TransactionToApply tx = invocation.getArgumentAt( 0, TransactionToApply.class );
+            while ( tx != null )
+            {
+                appliedTransactions.incrementAndGet();
+                tx = tx.next();
+            }
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+        Set<Long> committedTransactionIds = ConcurrentHashMap.newKeySet();
+
+        // WHEN
+        int threads = 8;
+        int transactionsPerThread = 200;
+        Race race = new Race();
+        race.addContestants( threads, throwing( () ->
+        {
+            for ( int i = 0; i < transactionsPerThread; i++ )
+            {
+                TransactionToApply transaction = mockedTransaction();
+                long txId = commitProcess.commit( transaction, commitEvent, INTERNAL );
+                assertEquals( txId, transaction.transactionId() );
+                committedTransactionIds.add( txId );
+            }
+        } ) );
+        race.go();
+
+        // THEN
+        int transactions = threads * transactionsPerThread;
+        assertEquals( transactions, committedTransactionIds.size() );
+        assertEquals( transactions, appliedTransactions.get() );
+        assertTrue( appliedBatches.get() <= transactions );
+        assertEquals( transactions + TransactionIdStore.BASE_TX_ID, transactionIdStore.getLastClosedTransactionId() );
+    }
+
+    @Test
+    public void shouldTraceEveryTransactionOfABatch() throws Throwable
+    {
+        // GIVEN
+        commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+        Set<CommitEvent> commitEvents = ConcurrentHashMap.newKeySet();
+
+        // WHEN
+        int threads = 8;
+        int transactionsPerThread = 50;
+        Race race = new Race();
+        race.addContestants( threads, throwing( () ->
+        {
+            for ( int i = 0; i < transactionsPerThread; i++ )
+            {
+                CommitEvent event = mock( CommitEvent.class );
+                when( event.beginLogAppend() ).thenReturn( LogAppendEvent.NULL );
+                when( event.beginStoreApply() ).thenReturn( StoreApplyEvent.NULL );
+                commitProcess.commit( mockedTransaction(), event, INTERNAL );
+                commitEvents.add( event );
+            }
+        } ) );
+        race.go();
+
+        // THEN
+        assertEquals( threads * transactionsPerThread, commitEvents.size() );
+        for ( CommitEvent event : commitEvents )
+        {
+            verify( event, times( 1 ) ).beginLogAppend();
+            verify( event, times( 1 ) ).beginStoreApply();
+        }
+    }
+
+    @Test
+    public void shouldFailWithProperMessageOnAppendException() throws Throwable
+    {
+        // GIVEN
+        TransactionAppender appender = mock( TransactionAppender.class );
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( appender ).append( any( TransactionToApply.class ),
+                any( LogAppendEvent.class ) );
+        commitProcess = startedCommitProcess( appender );
+
+        // WHEN
+        try
+        {
+            commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL );
+            fail( "Should have failed, something is wrong with the mocking in this test" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            assertThat( e.getMessage(), containsString( "Could not append transaction representation to log" ) );
+            assertTrue( contains( e, rootCause.getMessage(), rootCause.getClass() ) );
+        }
+    }
+
+    @Test
+    public void shouldCloseTransactionRegardlessOfWhetherOrNotItAppliedCorrectly() throws Throwable
+    {
+        // GIVEN
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( storageEngine ).apply(
+                any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        // WHEN
+        try
+        {
+            commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL );
+            fail( "Should have failed, something is wrong with the mocking in this test" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            assertThat( e.getMessage(), containsString( "Could not apply the transaction to the store" ) );
+            assertTrue( contains( e, rootCause.getMessage(), rootCause.getClass() ) );
+        }
+
+        // THEN
+        assertEquals( TransactionIdStore.BASE_TX_ID + 1, transactionIdStore.getLastClosedTransactionId() );
+    }
+
+    @Test
+    public void shouldCompleteTheTransactionAndKeepCommittingWhenClosingItFails() throws Throwable
+    {
+        // GIVEN
+        commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+        CommitEvent failingEvent = mock( CommitEvent.class );
+        when( failingEvent.beginLogAppend() ).thenReturn( LogAppendEvent.NULL );
+        when( failingEvent.beginStoreApply() ).thenReturn( () ->
+        {
+            throw new IllegalStateException( "Mock exception" );
+        } );
+
+        // WHEN
+        try
+        {
+            commitProcess.commit( mockedTransaction(), failingEvent, INTERNAL );
+            fail( "Should have failed, something is wrong with the mocking in this test" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            assertThat( e.getMessage(), containsString( "Could not close the transaction" ) );
+        }
+
+        // THEN
+        assertEquals( TransactionIdStore.BASE_TX_ID + 2, commitProcess.commit( mockedTransaction(), commitEvent,
+                INTERNAL ) );
+    }
+
+    @Test
+    public void shouldCommitOnCommittingThreadWhenNotStarted() throws Throwable
+    {
+        // GIVEN
+        PipelinedTransactionCommitProcess commitProcess = new PipelinedTransactionCommitProcess(
+                new TestableTransactionAppender( transactionIdStore ), storageEngine, scheduler );
+
+        // WHEN
+        long txId = commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL );
+
+        // THEN
+        assertEquals( TransactionIdStore.BASE_TX_ID + 1, txId );
+        assertEquals( txId, transactionIdStore.getLastClosedTransactionId() );
+    }
+
+    private PipelinedTransactionCommitProcess startedCommitProcess( TransactionAppender appender ) throws Throwable
+    {
+        PipelinedTransactionCommitProcess commitProcess = new PipelinedTransactionCommitProcess( appender,
+                storageEngine, scheduler );
+        commitProcess.start();
+        return commitProcess;
+    }
+
+    private TransactionToApply mockedTransaction()
+    {
+        TransactionRepresentation transaction = mock( TransactionRepresentation.class );
+        return new TransactionToApply( transaction );
+    }
+}
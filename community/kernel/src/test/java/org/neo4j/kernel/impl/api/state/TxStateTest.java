@@ -98,6 +98,82 @@ public class TxStateTest
         assertEquals( asSet( 1, 2 ), addedLabels );
     }
 
+    @Test
+    public void estimatedHeapUsageShouldGrowWithChanges() throws Exception
+    {
+        // GIVEN
+        assertEquals( 0, state.estimatedHeapUsage() );
+
+        // WHEN
+        state.nodeDoCreate( 0 );
+        long afterCreate = state.estimatedHeapUsage();
+        state.nodeDoAddLabel( 1, 0 );
+        long afterLabel = state.estimatedHeapUsage();
+        state.nodeDoAddProperty( 0, 2, Values.of( "value" ) );
+        long afterProperty = state.estimatedHeapUsage();
+
+        // THEN
+        assertTrue( afterCreate > 0 );
+        assertTrue( afterLabel > afterCreate );
+        assertTrue( afterProperty > afterLabel );
+    }
+
+    @Test
+    public void estimatedHeapUsageShouldNotGrowWhenTheSamePropertyIsWrittenAgain() throws Exception
+    {
+        // GIVEN
+        state.nodeDoCreate( 0 );
+        state.nodeDoAddProperty( 0, 2, Values.of( 0 ) );
+        long afterAdd = state.estimatedHeapUsage();
+
+        // WHEN
+        for ( int i = 1; i <= 100; i++ )
+        {
+            state.nodeDoChangeProperty( 0, 2, Values.of( i - 1 ), Values.of( i ) );
+        }
+
+        // THEN
+        assertEquals( afterAdd, state.estimatedHeapUsage() );
+    }
+
+    @Test
+    public void estimatedHeapUsageShouldShrinkWhenChangesAreUndone() throws Exception
+    {
+        // GIVEN
+        state.nodeDoCreate( 0 );
+        state.nodeDoAddLabel( 1, 0 );
+        long afterLabel = state.estimatedHeapUsage();
+
+        // WHEN
+        state.nodeDoAddProperty( 0, 2, Values.of( "value" ) );
+        state.nodeDoRemoveProperty( 0, 2, Values.of( "value" ) );
+
+        // THEN
+        assertEquals( afterLabel, state.estimatedHeapUsage() );
+    }
+
+    @Test
+    public void estimatedHeapUsageShouldNotGrowWhenTheSameChangeIsMadeAndUndoneAgain() throws Exception
+    {
+        // GIVEN
+        state.nodeDoCreate( 0 );
+        state.nodeDoAddLabel( 1, 0 );
+        state.nodeDoRemoveLabel( 1, 0 );
+        long afterUndo = state.estimatedHeapUsage();
+
+        // WHEN
+        for ( int i = 0; i < 100; i++ )
+        {
+            state.nodeDoAddLabel( 1, 0 );
+            state.nodeDoRemoveLabel( 1, 0 );
+            state.relationshipDoCreate( 10, 2, 0, 0 );
+            state.relationshipDoDelete( 10, 2, 0, 0 );
+        }
+
+        // THEN
+        assertEquals( afterUndo, state.estimatedHeapUsage() );
+    }
+
     @Test
     public void shouldGetRemovedLabels() throws Exception
     {
@@ -21,12 +21,17 @@ package org.neo4j.kernel.impl.api.store;
 
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.neo4j.collection.primitive.PrimitiveIntCollections;
 import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.storageengine.api.StorageStatement;
 
+import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.neo4j.helpers.collection.Iterators.asSet;
@@ -102,4 +107,34 @@ public class StorageLayerLabelTest extends StorageLayerTest
         assertEquals( asSet( node1.getId(), node2.getId() ), PrimitiveLongCollections.toSet( nodesForLabel1 ) );
         assertEquals( asSet( node2.getId() ), PrimitiveLongCollections.toSet( nodesForLabel2 ) );
     }
+
+    @Test
+    public void should_return_nodes_with_label_in_range() throws Exception
+    {
+        // GIVEN
+        Set<Long> labeled = new HashSet<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 200; i++ )
+            {
+                Node node = i % 3 == 0 ? db.createNode() : db.createNode( label1 );
+                if ( node.hasLabel( label1 ) )
+                {
+                    labeled.add( node.getId() );
+                }
+            }
+            tx.success();
+        }
+        int labelId = disk.labelGetForName( label1.name() );
+
+        // WHEN
+        StorageStatement statement = state.getStoreStatement();
+        Set<Long> firstRange = PrimitiveLongCollections.toSet( disk.nodesGetForLabel( statement, labelId, 0, 100 ) );
+        Set<Long> secondRange =
+                PrimitiveLongCollections.toSet( disk.nodesGetForLabel( statement, labelId, 100, Long.MAX_VALUE ) );
+
+        // THEN
+        assertEquals( labeled.stream().filter( id -> id < 100 ).collect( toSet() ), firstRange );
+        assertEquals( labeled.stream().filter( id -> id >= 100 ).collect( toSet() ), secondRange );
+    }
 }
@@ -21,6 +21,10 @@ package org.neo4j.kernel.impl.api.store;
 
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.cursor.Cursor;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.storageengine.api.NodeItem;
@@ -29,6 +33,7 @@ import org.neo4j.storageengine.api.StorageStatement;
 
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
 import static org.neo4j.graphdb.RelationshipType.withName;
 import static org.neo4j.helpers.collection.MapUtil.map;
 
@@ -57,6 +62,41 @@ public class StorageLayerNodeAndRelTest extends StorageLayerTest
         assertFalse( nodeExists( neverExisted ) );
     }
 
+    @Test
+    public void shouldScanAllNodesInDisjointPartitions() throws Exception
+    {
+        // Given
+        Set<Long> created = new HashSet<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 300; i++ )
+            {
+                created.add( db.createNode().getId() );
+            }
+            tx.success();
+        }
+
+        // When
+        long[] partitions = disk.nodesGetScanPartitions( 3 );
+
+        // Then
+        assertEquals( 4, partitions.length );
+        assertEquals( 0, partitions[0] );
+        assertEquals( Long.MAX_VALUE, partitions[partitions.length - 1] );
+        Set<Long> scanned = new HashSet<>();
+        for ( int i = 0; i < partitions.length - 1; i++ )
+        {
+            assertEquals( 0, partitions[i] % Long.SIZE );
+            long[] nodeIds = PrimitiveLongCollections.asArray( disk.nodesGetAll( partitions[i], partitions[i + 1] ) );
+            for ( long nodeId : nodeIds )
+            {
+                assertTrue( nodeId >= partitions[i] && nodeId < partitions[i + 1] );
+                assertTrue( scanned.add( nodeId ) );
+            }
+        }
+        assertEquals( created, scanned );
+    }
+
     @Test
     public void shouldTellIfRelExists() throws Exception
     {
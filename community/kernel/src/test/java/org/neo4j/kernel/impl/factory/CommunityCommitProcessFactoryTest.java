@@ -27,6 +27,7 @@ import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 
 import static org.hamcrest.Matchers.instanceOf;
@@ -38,7 +39,7 @@ public class CommunityCommitProcessFactoryTest
     @Test
     public void createReadOnlyCommitProcess()
     {
-        CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory();
+        CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory( mock( JobScheduler.class ) );
 
         Config config = Config.defaults( GraphDatabaseSettings.read_only, "true" );
 
@@ -51,7 +52,7 @@ public class CommunityCommitProcessFactoryTest
     @Test
     public void createRegularCommitProcess()
     {
-        CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory();
+        CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory( mock( JobScheduler.class ) );
 
         TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
                 mock( StorageEngine.class ), Config.defaults() );
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.schema.IndexQuery;
+import org.neo4j.kernel.api.schema.index.IndexDescriptor;
+import org.neo4j.kernel.api.schema.index.IndexDescriptorFactory;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+import org.neo4j.test.rule.fs.FileSystemRule;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.IMMEDIATE;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.add;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.change;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.remove;
+import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
+import static org.neo4j.test.rule.PageCacheRule.config;
+
+/**
+ * Tests for
+ * <ul>
+ * <li>{@link NativeSchemaCompositeIndexAccessor}</li>
+ * <li>{@link NativeSchemaCompositeIndexReader}</li>
+ * <li>{@link SchemaCompositeKey}</li>
+ * </ul>
+ */
+public class NativeSchemaCompositeIndexAccessorTest
+{
+    private static final IndexDescriptor DESCRIPTOR = IndexDescriptorFactory.forLabel( 42, 666, 667 );
+    private static final int PROP_A = 666;
+    private static final int PROP_B = 667;
+
+    private final FileSystemRule fs = new DefaultFileSystemRule();
+    private final TestDirectory directory = TestDirectory.testDirectory( getClass(), fs.get() );
+    private final PageCacheRule pageCacheRule = new PageCacheRule( config().withAccessChecks( true ) );
+    @Rule
+    public final RuleChain rules = outerRule( fs ).around( directory ).around( pageCacheRule );
+
+    private NativeSchemaCompositeIndexAccessor<SchemaCompositeKey,NativeSchemaValue> accessor;
+
+    @Before
+    public void setupAccessor() throws IOException
+    {
+        accessor = new NativeSchemaCompositeIndexAccessor<>( pageCacheRule.getPageCache( fs ),
+                directory.file( "index" ), new NonUniqueCompositeLayout( 2 ), IMMEDIATE );
+    }
+
+    @After
+    public void closeAccessor() throws IOException
+    {
+        accessor.close();
+    }
+
+    @Test
+    public void shouldReturnMatchingEntityForExactQuery() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( 1 ), Values.of( "a" ) ),
+                add( 2, DESCRIPTOR, Values.of( 1 ), Values.of( "b" ) ),
+                add( 3, DESCRIPTOR, Values.of( 1.0 ), Values.of( "b" ) ),
+                add( 4, DESCRIPTOR, Values.of( "b" ), Values.of( 1 ) ),
+                add( 5, DESCRIPTOR, Values.of( "" ), Values.of( "" ) ) );
+
+        // when
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            // then
+            assertQueryResult( reader, 1, exact( 1, "a" ) );
+            assertQueryResult( reader, 2, exact( 1, "b" ) );
+            assertQueryResult( reader, 2, exact( 1.0, "b" ) );
+            assertQueryResult( reader, 1, exact( "b", 1 ) );
+            assertQueryResult( reader, 0, exact( "a", 1 ) );
+            assertQueryResult( reader, 1, exact( "", "" ) );
+            assertQueryResult( reader, new long[]{1, 2, 3, 4, 5}, IndexQuery.exists( PROP_A ), IndexQuery.exists( PROP_B ) );
+            assertQueryResult( reader, new long[]{1, 2, 3, 4, 5}, IndexQuery.exists( PROP_B ) );
+        }
+    }
+
+    @Test
+    public void shouldReturnMatchingEntitiesForLeadingExactFollowedByRangeQuery() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( 1 ), Values.of( 10 ) ),
+                add( 2, DESCRIPTOR, Values.of( 1 ), Values.of( 20 ) ),
+                add( 3, DESCRIPTOR, Values.of( 1 ), Values.of( 30.5 ) ),
+                add( 4, DESCRIPTOR, Values.of( 1 ), Values.of( "apple" ) ),
+                add( 5, DESCRIPTOR, Values.of( 1 ), Values.of( "banana" ) ),
+                add( 6, DESCRIPTOR, Values.of( 2 ), Values.of( 20 ) ),
+                add( 7, DESCRIPTOR, Values.of( 2 ), Values.of( "apricot" ) ) );
+
+        // when
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            // then
+            IndexQuery one = IndexQuery.exact( PROP_A, 1 );
+            assertQueryResult( reader, new long[]{1, 2}, one, IndexQuery.range( PROP_B, 10, true, 20, true ) );
+            assertQueryResult( reader, new long[]{2}, one, IndexQuery.range( PROP_B, 10, false, 30.5, false ) );
+            assertQueryResult( reader, new long[]{2, 3}, one, IndexQuery.range( PROP_B, 15, true, null, false ) );
+            assertQueryResult( reader, new long[]{1, 2, 3}, one, IndexQuery.range( PROP_B, (Number) null, false, null, false ) );
+            assertQueryResult( reader, new long[]{4, 5}, one, IndexQuery.range( PROP_B, "a", true, "c", false ) );
+            assertQueryResult( reader, new long[]{5}, one, IndexQuery.range( PROP_B, "apple", false, null, false ) );
+            assertQueryResult( reader, new long[]{4}, one, IndexQuery.stringPrefix( PROP_B, "ap" ) );
+            assertQueryResult( reader, new long[0], one, IndexQuery.stringPrefix( PROP_B, StringUtils.repeat( 'a', 100 ) ) );
+            assertQueryResult( reader, new long[]{1, 2, 3, 4, 5}, one, IndexQuery.exists( PROP_B ) );
+            assertQueryResult( reader, new long[]{7}, IndexQuery.exact( PROP_A, 2 ), IndexQuery.stringPrefix( PROP_B, "" ) );
+        }
+    }
+
+    @Test
+    public void shouldReturnMatchingEntitiesForRangeOnFirstPropertyQuery() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( 1 ), Values.of( "x" ) ),
+                add( 2, DESCRIPTOR, Values.of( 2 ), Values.of( 5 ) ),
+                add( 3, DESCRIPTOR, Values.of( 3 ), Values.of( "y" ) ),
+                add( 4, DESCRIPTOR, Values.of( "ab" ), Values.of( 5 ) ) );
+
+        // when
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            // then
+            IndexQuery exists = IndexQuery.exists( PROP_B );
+            assertQueryResult( reader, new long[]{1, 2}, IndexQuery.range( PROP_A, 1, true, 3, false ), exists );
+            assertQueryResult( reader, new long[]{2, 3}, IndexQuery.range( PROP_A, 1, false, 3, true ), exists );
+            assertQueryResult( reader, new long[]{4}, IndexQuery.stringPrefix( PROP_A, "a" ), exists );
+        }
+    }
+
+    @Test
+    public void shouldHandleChangeAndRemove() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( 1 ), Values.of( "a" ) ),
+                add( 2, DESCRIPTOR, Values.of( 2 ), Values.of( "b" ) ) );
+
+        // when
+        processAll( change( 1, DESCRIPTOR, new Value[]{Values.of( 1 ), Values.of( "a" )},
+                        new Value[]{Values.of( 1 ), Values.of( "c" )} ),
+                remove( 2, DESCRIPTOR, Values.of( 2 ), Values.of( "b" ) ) );
+
+        // then
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            assertQueryResult( reader, 0, exact( 1, "a" ) );
+            assertQueryResult( reader, 0, exact( 2, "b" ) );
+            assertQueryResult( reader, 1, exact( 1, "c" ) );
+        }
+    }
+
+    @Test
+    public void shouldOnlyFitNumbersAndShortStrings() throws Exception
+    {
+        assertTrue( SchemaCompositeKey.fits( Values.of( 1 ), Values.of( "a" ) ) );
+        assertTrue( SchemaCompositeKey.fits( Values.of( StringUtils.repeat( 'a', SchemaCompositeKey.MAX_STRING_BYTES ) ),
+                Values.of( 1.5 ) ) );
+        assertFalse( SchemaCompositeKey.fits( Values.of( 1 ),
+                Values.of( StringUtils.repeat( 'a', SchemaCompositeKey.MAX_STRING_BYTES + 1 ) ) ) );
+        assertFalse( SchemaCompositeKey.fits( Values.of( 1 ), Values.of( true ) ) );
+        assertFalse( SchemaCompositeKey.fits( Values.of( 1 ), Values.of( new int[]{1, 2} ) ) );
+        Value[] tooMany = new Value[SchemaCompositeKey.MAX_SLOTS + 1];
+        Arrays.fill( tooMany, Values.of( 1 ) );
+        assertFalse( SchemaCompositeKey.fits( tooMany ) );
+    }
+
+    @Test
+    public void shouldRoundTripKeyThroughLayout() throws Exception
+    {
+        // given
+        NonUniqueCompositeLayout layout = new NonUniqueCompositeLayout( 3 );
+        SchemaCompositeKey key = layout.newKey();
+        key.from( 10, Values.of( "åäö" ), Values.of( 2.5 ), Values.of( Long.MAX_VALUE ) );
+
+        // when
+        SchemaCompositeKey copy = layout.newKey();
+        layout.copyKey( key, copy );
+
+        // then
+        assertEquals( 0, layout.compare( key, copy ) );
+        assertArrayEquals( new Value[]{Values.of( "åäö" ), Values.of( 2.5 ), Values.of( Long.MAX_VALUE )},
+                copy.asValues() );
+        assertEquals( 10, copy.entityId );
+    }
+
+    private static IndexQuery[] exact( Object a, Object b )
+    {
+        return new IndexQuery[]{IndexQuery.exact( PROP_A, a ), IndexQuery.exact( PROP_B, b )};
+    }
+
+    private void assertQueryResult( IndexReader reader, int expectedCount, IndexQuery... query ) throws Exception
+    {
+        long[] actual = PrimitiveLongCollections.asArray( reader.query( query ) );
+        assertEquals( Arrays.toString( query ), expectedCount, actual.length );
+    }
+
+    private void assertQueryResult( IndexReader reader, long[] expectedEntityIds, IndexQuery... query ) throws Exception
+    {
+        long[] actual = PrimitiveLongCollections.asArray( reader.query( query ) );
+        Arrays.sort( actual );
+        assertArrayEquals( Arrays.toString( query ), expectedEntityIds, actual );
+    }
+
+    @SafeVarargs
+    private final void processAll( IndexEntryUpdate<IndexDescriptor>... updates )
+            throws IOException, IndexEntryConflictException
+    {
+        try ( IndexUpdater updater = accessor.newUpdater( ONLINE ) )
+        {
+            for ( IndexEntryUpdate<IndexDescriptor> update : updates )
+            {
+                updater.process( update );
+            }
+        }
+    }
+}
@@ -72,11 +72,11 @@ import static org.neo4j.values.storable.Values.of;
  * Tests for
  * <ul>
  * <li>{@link NativeSchemaNumberIndexAccessor}</li>
- * <li>{@link NativeSchemaNumberIndexUpdater}</li>
+ * <li>{@link NativeSchemaIndexUpdater}</li>
  * <li>{@link NativeSchemaNumberIndexReader}</li>
  * </ul>
  */
-public abstract class NativeSchemaNumberIndexAccessorTest<KEY extends SchemaNumberKey, VALUE extends SchemaNumberValue>
+public abstract class NativeSchemaNumberIndexAccessorTest<KEY extends SchemaNumberKey, VALUE extends NativeSchemaValue>
         extends SchemaNumberIndexTestUtil<KEY,VALUE>
 {
     private NativeSchemaNumberIndexAccessor<KEY,VALUE> accessor;
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.schema.IndexQuery;
+import org.neo4j.kernel.api.schema.index.IndexDescriptor;
+import org.neo4j.kernel.api.schema.index.IndexDescriptorFactory;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+import org.neo4j.test.rule.fs.FileSystemRule;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.IMMEDIATE;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.add;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.change;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.remove;
+import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
+import static org.neo4j.test.rule.PageCacheRule.config;
+
+/**
+ * Tests for
+ * <ul>
+ * <li>{@link NativeSchemaStringIndexAccessor}</li>
+ * <li>{@link NativeSchemaStringIndexReader}</li>
+ * <li>{@link SchemaStringKey}</li>
+ * </ul>
+ */
+public class NativeSchemaStringIndexAccessorTest
+{
+    private static final IndexDescriptor DESCRIPTOR = IndexDescriptorFactory.forLabel( 42, 666 );
+    private static final int PROP = DESCRIPTOR.schema().getPropertyId();
+
+    private final FileSystemRule fs = new DefaultFileSystemRule();
+    private final TestDirectory directory = TestDirectory.testDirectory( getClass(), fs.get() );
+    private final PageCacheRule pageCacheRule = new PageCacheRule( config().withAccessChecks( true ) );
+    @Rule
+    public final RuleChain rules = outerRule( fs ).around( directory ).around( pageCacheRule );
+
+    private NativeSchemaStringIndexAccessor<SchemaStringKey,NativeSchemaValue> accessor;
+
+    @Before
+    public void setupAccessor() throws IOException
+    {
+        accessor = new NativeSchemaStringIndexAccessor<>( pageCacheRule.getPageCache( fs ), directory.file( "index" ),
+                new NonUniqueStringLayout(), IMMEDIATE );
+    }
+
+    @After
+    public void closeAccessor() throws IOException
+    {
+        accessor.close();
+    }
+
+    @Test
+    public void shouldReturnMatchingEntityForExactQuery() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( "a" ) ),
+                add( 2, DESCRIPTOR, Values.of( "b" ) ),
+                add( 3, DESCRIPTOR, Values.of( "b" ) ),
+                add( 4, DESCRIPTOR, Values.of( "" ) ) );
+
+        // when
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            // then
+            assertQueryResult( reader, IndexQuery.exact( PROP, "a" ), 1 );
+            assertQueryResult( reader, IndexQuery.exact( PROP, "b" ), 2, 3 );
+            assertQueryResult( reader, IndexQuery.exact( PROP, "" ), 4 );
+            assertQueryResult( reader, IndexQuery.exact( PROP, "c" ) );
+            assertQueryResult( reader, IndexQuery.exists( PROP ), 1, 2, 3, 4 );
+        }
+    }
+
+    @Test
+    public void shouldReturnMatchingEntitiesForRangeQuery() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( "a" ) ),
+                add( 2, DESCRIPTOR, Values.of( "ab" ) ),
+                add( 3, DESCRIPTOR, Values.of( "b" ) ),
+                add( 4, DESCRIPTOR, Values.of( "å" ) ),
+                add( 5, DESCRIPTOR, Values.of( "😀" ) ) );
+
+        // when
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            // then
+            assertQueryResult( reader, IndexQuery.range( PROP, "a", true, "b", true ), 1, 2, 3 );
+            assertQueryResult( reader, IndexQuery.range( PROP, "a", false, "b", false ), 2 );
+            assertQueryResult( reader, IndexQuery.range( PROP, "ab", true, null, false ), 2, 3, 4, 5 );
+            assertQueryResult( reader, IndexQuery.range( PROP, null, false, "ab", false ), 1 );
+            assertQueryResult( reader, IndexQuery.range( PROP, "b", false, "😀", false ), 4 );
+            assertQueryResult( reader, IndexQuery.range( PROP, (String) null, false, null, false ), 1, 2, 3, 4, 5 );
+        }
+    }
+
+    @Test
+    public void shouldReturnMatchingEntitiesForPrefixSuffixAndContainsQuery() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( "apa" ) ),
+                add( 2, DESCRIPTOR, Values.of( "apple" ) ),
+                add( 3, DESCRIPTOR, Values.of( "ap" ) ),
+                add( 4, DESCRIPTOR, Values.of( "banana" ) ),
+                add( 5, DESCRIPTOR, Values.of( "aq" ) ) );
+
+        // when
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            // then
+            assertQueryResult( reader, IndexQuery.stringPrefix( PROP, "ap" ), 1, 2, 3 );
+            assertQueryResult( reader, IndexQuery.stringPrefix( PROP, "" ), 1, 2, 3, 4, 5 );
+            assertQueryResult( reader, IndexQuery.stringPrefix( PROP, "c" ) );
+            assertQueryResult( reader, IndexQuery.stringPrefix( PROP, StringUtils.repeat( 'a', 200 ) ) );
+            assertQueryResult( reader, IndexQuery.stringSuffix( PROP, "a" ), 1, 4 );
+            assertQueryResult( reader, IndexQuery.stringContains( PROP, "an" ), 4 );
+            assertQueryResult( reader, IndexQuery.stringContains( PROP, "p" ), 1, 2, 3 );
+        }
+    }
+
+    @Test
+    public void shouldHandleChangeAndRemove() throws Exception
+    {
+        // given
+        processAll( add( 1, DESCRIPTOR, Values.of( "a" ) ),
+                add( 2, DESCRIPTOR, Values.of( "b" ) ) );
+
+        // when
+        processAll( change( 1, DESCRIPTOR, Values.of( "a" ), Values.of( "c" ) ),
+                remove( 2, DESCRIPTOR, Values.of( "b" ) ) );
+
+        // then
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            assertQueryResult( reader, IndexQuery.exact( PROP, "a" ) );
+            assertQueryResult( reader, IndexQuery.exact( PROP, "b" ) );
+            assertQueryResult( reader, IndexQuery.exact( PROP, "c" ), 1 );
+        }
+    }
+
+    @Test
+    public void shouldOnlyFitStringsWithinMaxEncodedLength() throws Exception
+    {
+        assertTrue( SchemaStringKey.fits( Values.of( StringUtils.repeat( 'a', SchemaStringKey.MAX_BYTES ) ) ) );
+        assertTrue( SchemaStringKey.fits( Values.of( 'a' ) ) );
+        assertFalse( SchemaStringKey.fits( Values.of( StringUtils.repeat( 'a', SchemaStringKey.MAX_BYTES + 1 ) ) ) );
+        // two bytes per char when encoded
+        assertFalse( SchemaStringKey.fits( Values.of( StringUtils.repeat( 'å', SchemaStringKey.MAX_BYTES ) ) ) );
+        assertFalse( SchemaStringKey.fits( Values.of( 1 ) ) );
+    }
+
+    @Test
+    public void shouldRoundTripKeyThroughLayout() throws Exception
+    {
+        // given
+        NonUniqueStringLayout layout = new NonUniqueStringLayout();
+        SchemaStringKey key = layout.newKey();
+        key.from( 10, Values.of( "åäö" ) );
+
+        // when
+        SchemaStringKey copy = layout.newKey();
+        layout.copyKey( key, copy );
+
+        // then
+        assertEquals( 0, layout.compare( key, copy ) );
+        assertEquals( Values.of( "åäö" ), copy.asValue() );
+        assertEquals( 10, copy.entityId );
+    }
+
+    private void assertQueryResult( IndexReader reader, IndexQuery query, long... expectedEntityIds ) throws Exception
+    {
+        long[] actual = PrimitiveLongCollections.asArray( reader.query( query ) );
+        Arrays.sort( actual );
+        assertArrayEquals( query.toString(), expectedEntityIds, actual );
+    }
+
+    @SafeVarargs
+    private final void processAll( IndexEntryUpdate<IndexDescriptor>... updates )
+            throws IOException, IndexEntryConflictException
+    {
+        try ( IndexUpdater updater = accessor.newUpdater( ONLINE ) )
+        {
+            for ( IndexEntryUpdate<IndexDescriptor> update : updates )
+            {
+                updater.process( update );
+            }
+        }
+    }
+}
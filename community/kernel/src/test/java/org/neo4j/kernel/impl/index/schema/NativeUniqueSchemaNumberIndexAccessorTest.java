@@ -20,10 +20,10 @@
 package org.neo4j.kernel.impl.index.schema;
 
 public class NativeUniqueSchemaNumberIndexAccessorTest
-        extends NativeSchemaNumberIndexAccessorTest<SchemaNumberKey,SchemaNumberValue>
+        extends NativeSchemaNumberIndexAccessorTest<SchemaNumberKey,NativeSchemaValue>
 {
     @Override
-    protected LayoutTestUtil<SchemaNumberKey,SchemaNumberValue> createLayoutTestUtil()
+    protected LayoutTestUtil<SchemaNumberKey,NativeSchemaValue> createLayoutTestUtil()
     {
         return new UniqueLayoutTestUtil();
     }
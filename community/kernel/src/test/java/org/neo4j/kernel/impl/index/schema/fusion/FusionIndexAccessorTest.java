@@ -44,42 +44,65 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
-import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexTestHelp.verifyFusionCloseThrowIfBothThrow;
+import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexTestHelp.verifyFusionCloseThrowIfAllThrow;
 import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexTestHelp.verifyFusionCloseThrowOnSingleCloseThrow;
 import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexTestHelp.verifyOtherIsClosedOnSingleThrow;
 
 public class FusionIndexAccessorTest
 {
-    private IndexAccessor nativeAccessor;
+    private IndexAccessor numberAccessor;
+    private IndexAccessor stringAccessor;
+    private IndexAccessor compositeAccessor;
     private IndexAccessor luceneAccessor;
     private FusionIndexAccessor fusionIndexAccessor;
 
     @Before
     public void setup()
     {
-        nativeAccessor = mock( IndexAccessor.class );
+        numberAccessor = mock( IndexAccessor.class );
+        stringAccessor = mock( IndexAccessor.class );
+        compositeAccessor = mock( IndexAccessor.class );
         luceneAccessor = mock( IndexAccessor.class );
-        fusionIndexAccessor = new FusionIndexAccessor( nativeAccessor, luceneAccessor, new NativeSelector() );
+        fusionIndexAccessor = new FusionIndexAccessor( numberAccessor, stringAccessor, compositeAccessor,
+                luceneAccessor, new NativeSelector() );
+        // Most tests only care about some of the parts, the composite part is empty unless stated otherwise
+        mockSingleAllEntriesReader( compositeAccessor, new long[0] );
     }
 
     /* drop */
 
     @Test
-    public void dropMustDropNativeAndLucene() throws Exception
+    public void dropMustDropAll() throws Exception
     {
         // when
-        // ... both drop successful
+        // ... all drop successful
         fusionIndexAccessor.drop();
         // then
-        verify( nativeAccessor, times( 1 ) ).drop();
+        verify( numberAccessor, times( 1 ) ).drop();
+        verify( stringAccessor, times( 1 ) ).drop();
+        verify( compositeAccessor, times( 1 ) ).drop();
         verify( luceneAccessor, times( 1 ) ).drop();
     }
 
     @Test
-    public void dropMustThrowIfDropNativeFail() throws Exception
+    public void dropMustThrowIfDropNumberFail() throws Exception
     {
         // when
-        verifyFailOnSingleDropFailure( nativeAccessor, fusionIndexAccessor );
+        verifyFailOnSingleDropFailure( numberAccessor, fusionIndexAccessor );
+    }
+
+    @Test
+    public void dropMustThrowIfDropStringFail() throws Exception
+    {
+        // when
+        verifyFailOnSingleDropFailure( stringAccessor, fusionIndexAccessor );
+    }
+
+    @Test
+    public void dropMustThrowIfDropCompositeFail() throws Exception
+    {
+        // when
+        verifyFailOnSingleDropFailure( compositeAccessor, fusionIndexAccessor );
     }
 
     @Test
@@ -106,12 +129,16 @@ public class FusionIndexAccessorTest
     }
 
     @Test
-    public void dropMustThrowIfBothFail() throws Exception
+    public void dropMustThrowIfAllFail() throws Exception
     {
         // given
-        IOException nativeFailure = new IOException( "native" );
+        IOException numberFailure = new IOException( "number" );
+        IOException stringFailure = new IOException( "string" );
+        IOException compositeFailure = new IOException( "composite" );
         IOException luceneFailure = new IOException( "lucene" );
-        doThrow( nativeFailure ).when( nativeAccessor ).drop();
+        doThrow( numberFailure ).when( numberAccessor ).drop();
+        doThrow( stringFailure ).when( stringAccessor ).drop();
+        doThrow( compositeFailure ).when( compositeAccessor ).drop();
         doThrow( luceneFailure ).when( luceneAccessor ).drop();
 
         try
@@ -123,21 +150,24 @@ public class FusionIndexAccessorTest
         catch ( IOException e )
         {
             // then
-            assertThat( e, anyOf( sameInstance( nativeFailure ), sameInstance( luceneFailure ) ) );
+            assertThat( e, anyOf( sameInstance( numberFailure ), sameInstance( stringFailure ),
+                    sameInstance( compositeFailure ), sameInstance( luceneFailure ) ) );
         }
     }
 
     /* close */
 
     @Test
-    public void closeMustCloseNativeAndLucene() throws Exception
+    public void closeMustCloseAll() throws Exception
     {
         // when
-        // ... both drop successful
+        // ... all close successful
         fusionIndexAccessor.close();
 
         // then
-        verify( nativeAccessor, times( 1 ) ).close();
+        verify( numberAccessor, times( 1 ) ).close();
+        verify( stringAccessor, times( 1 ) ).close();
+        verify( compositeAccessor, times( 1 ) ).close();
         verify( luceneAccessor, times( 1 ) ).close();
     }
 
@@ -148,140 +178,242 @@ public class FusionIndexAccessorTest
     }
 
     @Test
-    public void closeMustThrowIfNativeThrow() throws Exception
+    public void closeMustThrowIfNumberThrow() throws Exception
     {
-        verifyFusionCloseThrowOnSingleCloseThrow( nativeAccessor, fusionIndexAccessor );
+        verifyFusionCloseThrowOnSingleCloseThrow( numberAccessor, fusionIndexAccessor );
     }
 
     @Test
-    public void closeMustCloseNativeIfLuceneThrow() throws Exception
+    public void closeMustThrowIfStringThrow() throws Exception
     {
-        verifyOtherIsClosedOnSingleThrow( luceneAccessor, nativeAccessor, fusionIndexAccessor );
+        verifyFusionCloseThrowOnSingleCloseThrow( stringAccessor, fusionIndexAccessor );
     }
 
     @Test
-    public void closeMustCloseLuceneIfNativeThrow() throws Exception
+    public void closeMustCloseOthersIfLuceneThrow() throws Exception
     {
-        verifyOtherIsClosedOnSingleThrow( nativeAccessor, luceneAccessor, fusionIndexAccessor );
+        verifyOtherIsClosedOnSingleThrow( luceneAccessor, fusionIndexAccessor, numberAccessor, stringAccessor,
+                compositeAccessor );
     }
 
     @Test
-    public void closeMustThrowIfBothFail() throws Exception
+    public void closeMustCloseOthersIfNumberThrow() throws Exception
     {
-        verifyFusionCloseThrowIfBothThrow( nativeAccessor, luceneAccessor, fusionIndexAccessor );
+        verifyOtherIsClosedOnSingleThrow( numberAccessor, fusionIndexAccessor, stringAccessor, compositeAccessor,
+                luceneAccessor );
+    }
+
+    @Test
+    public void closeMustCloseOthersIfStringThrow() throws Exception
+    {
+        verifyOtherIsClosedOnSingleThrow( stringAccessor, fusionIndexAccessor, numberAccessor, compositeAccessor,
+                luceneAccessor );
+    }
+
+    @Test
+    public void closeMustCloseOthersIfCompositeThrow() throws Exception
+    {
+        verifyOtherIsClosedOnSingleThrow( compositeAccessor, fusionIndexAccessor, numberAccessor, stringAccessor,
+                luceneAccessor );
+    }
+
+    @Test
+    public void closeMustThrowIfAllFail() throws Exception
+    {
+        verifyFusionCloseThrowIfAllThrow( fusionIndexAccessor, numberAccessor, stringAccessor, compositeAccessor,
+                luceneAccessor );
     }
 
     // newAllEntriesReader
 
     @Test
-    public void allEntriesReaderMustCombineResultFromNativeAndLucene() throws Exception
+    public void allEntriesReaderMustCombineResultFromAll() throws Exception
     {
         // given
-        long[] nativeEntries = {0, 1, 2, 5, 6};
+        long[] numberEntries = {0, 1, 6, 13, 14};
+        long[] stringEntries = {2, 5, 9};
         long[] luceneEntries = {3, 4, 7, 8};
-        mockAllEntriesReaders( nativeEntries, luceneEntries );
+        mockAllEntriesReaders( numberEntries, stringEntries, luceneEntries );
 
         // when
         Set<Long> result = Iterables.asSet( fusionIndexAccessor.newAllEntriesReader() );
 
         // then
-        assertResultContainsAll( result, nativeEntries );
+        assertResultContainsAll( result, numberEntries );
+        assertResultContainsAll( result, stringEntries );
         assertResultContainsAll( result, luceneEntries );
     }
 
     @Test
-    public void allEntriesReaderMustCombineResultFromNativeAndLuceneWithEmptyNative() throws Exception
+    public void allEntriesReaderMustIncludeResultFromComposite() throws Exception
     {
         // given
-        long[] nativeEntries = new long[0];
+        long[] numberEntries = {0, 1};
+        long[] stringEntries = {2};
+        long[] compositeEntries = {10, 11, 12};
+        long[] luceneEntries = {3, 4};
+        mockAllEntriesReaders( numberEntries, stringEntries, luceneEntries );
+        mockSingleAllEntriesReader( compositeAccessor, compositeEntries );
+
+        // when
+        BoundedIterable<Long> allEntriesReader = fusionIndexAccessor.newAllEntriesReader();
+        Set<Long> result = Iterables.asSet( allEntriesReader );
+
+        // then
+        assertResultContainsAll( result, numberEntries );
+        assertResultContainsAll( result, stringEntries );
+        assertResultContainsAll( result, compositeEntries );
+        assertResultContainsAll( result, luceneEntries );
+        assertThat( allEntriesReader.maxCount(), is( 8L ) );
+    }
+
+    @Test
+    public void allEntriesReaderMustCombineResultFromAllWithEmptyNumber() throws Exception
+    {
+        // given
+        long[] numberEntries = new long[0];
+        long[] stringEntries = {2, 5, 9};
         long[] luceneEntries = {3, 4, 7, 8};
-        mockAllEntriesReaders( nativeEntries, luceneEntries );
+        mockAllEntriesReaders( numberEntries, stringEntries, luceneEntries );
 
         // when
         Set<Long> result = Iterables.asSet( fusionIndexAccessor.newAllEntriesReader() );
 
         // then
-        assertResultContainsAll( result, nativeEntries );
+        assertResultContainsAll( result, numberEntries );
+        assertResultContainsAll( result, stringEntries );
         assertResultContainsAll( result, luceneEntries );
     }
 
     @Test
-    public void allEntriesReaderMustCombineResultFromNativeAndLuceneWithEmptyLucene() throws Exception
+    public void allEntriesReaderMustCombineResultFromAllWithEmptyString() throws Exception
     {
         // given
-        long[] nativeEntries = {0, 1, 2, 5, 6};
-        long[] luceneEntries = new long[0];
-        mockAllEntriesReaders( nativeEntries, luceneEntries );
+        long[] numberEntries = {0, 1, 6, 13, 14};
+        long[] stringEntries = new long[0];
+        long[] luceneEntries = {3, 4, 7, 8};
+        mockAllEntriesReaders( numberEntries, stringEntries, luceneEntries );
 
         // when
         Set<Long> result = Iterables.asSet( fusionIndexAccessor.newAllEntriesReader() );
 
         // then
-        assertResultContainsAll( result, nativeEntries );
+        assertResultContainsAll( result, numberEntries );
+        assertResultContainsAll( result, stringEntries );
         assertResultContainsAll( result, luceneEntries );
     }
 
     @Test
-    public void allEntriesReaderMustCombineResultFromNativeAndLuceneBothEmpty() throws Exception
+    public void allEntriesReaderMustCombineResultFromAllWithEmptyLucene() throws Exception
     {
         // given
-        long[] nativeEntries = new long[0];
+        long[] numberEntries = {0, 1, 6, 13, 14};
+        long[] stringEntries = {2, 5, 9};
         long[] luceneEntries = new long[0];
-        mockAllEntriesReaders( nativeEntries, luceneEntries );
+        mockAllEntriesReaders( numberEntries, stringEntries, luceneEntries );
 
         // when
         Set<Long> result = Iterables.asSet( fusionIndexAccessor.newAllEntriesReader() );
 
         // then
-        assertResultContainsAll( result, nativeEntries );
+        assertResultContainsAll( result, numberEntries );
+        assertResultContainsAll( result, stringEntries );
         assertResultContainsAll( result, luceneEntries );
+    }
+
+    @Test
+    public void allEntriesReaderMustCombineResultFromAllEmpty() throws Exception
+    {
+        // given
+        mockAllEntriesReaders( new long[0], new long[0], new long[0] );
+
+        // when
+        Set<Long> result = Iterables.asSet( fusionIndexAccessor.newAllEntriesReader() );
+
+        // then
         assertTrue( result.isEmpty() );
     }
 
     @Test
-    public void allEntriesReaderMustCloseBothNativeAndLucene() throws Exception
+    public void allEntriesReaderMustCloseAll() throws Exception
     {
         // given
-        BoundedIterable<Long> nativeAllEntriesReader = mockSingleAllEntriesReader( nativeAccessor, new long[0] );
+        BoundedIterable<Long> numberAllEntriesReader = mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        BoundedIterable<Long> stringAllEntriesReader = mockSingleAllEntriesReader( stringAccessor, new long[0] );
         BoundedIterable<Long> luceneAllEntriesReader = mockSingleAllEntriesReader( luceneAccessor, new long[0] );
 
         // when
         fusionIndexAccessor.newAllEntriesReader().close();
 
         // then
-        verify( nativeAllEntriesReader, times( 1 ) ).close();
+        verify( numberAllEntriesReader, times( 1 ) ).close();
+        verify( stringAllEntriesReader, times( 1 ) ).close();
         verify( luceneAllEntriesReader, times( 1 ) ).close();
     }
 
     @Test
-    public void allEntriesReaderMustCloseNativeIfLuceneThrow() throws Exception
+    public void allEntriesReaderMustCloseOthersIfLuceneThrow() throws Exception
+    {
+        // given
+        BoundedIterable<Long> numberAllEntriesReader = mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        BoundedIterable<Long> stringAllEntriesReader = mockSingleAllEntriesReader( stringAccessor, new long[0] );
+        BoundedIterable<Long> luceneAllEntriesReader = mockSingleAllEntriesReader( luceneAccessor, new long[0] );
+
+        // then
+        BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
+        verifyOtherIsClosedOnSingleThrow( luceneAllEntriesReader, fusionAllEntriesReader,
+                numberAllEntriesReader, stringAllEntriesReader );
+    }
+
+    @Test
+    public void allEntriesReaderMustCloseOthersIfNumberThrow() throws Exception
     {
         // given
-        BoundedIterable<Long> nativeAllEntriesReader = mockSingleAllEntriesReader( nativeAccessor, new long[0] );
+        BoundedIterable<Long> numberAllEntriesReader = mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        BoundedIterable<Long> stringAllEntriesReader = mockSingleAllEntriesReader( stringAccessor, new long[0] );
         BoundedIterable<Long> luceneAllEntriesReader = mockSingleAllEntriesReader( luceneAccessor, new long[0] );
 
         // then
         BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
-        verifyOtherIsClosedOnSingleThrow( luceneAllEntriesReader, nativeAllEntriesReader, fusionAllEntriesReader );
+        verifyOtherIsClosedOnSingleThrow( numberAllEntriesReader, fusionAllEntriesReader,
+                stringAllEntriesReader, luceneAllEntriesReader );
     }
 
     @Test
-    public void allEntriesReaderMustCloseLuceneIfNativeThrow() throws Exception
+    public void allEntriesReaderMustCloseOthersIfStringThrow() throws Exception
     {
         // given
-        BoundedIterable<Long> nativeAllEntriesReader = mockSingleAllEntriesReader( nativeAccessor, new long[0] );
+        BoundedIterable<Long> numberAllEntriesReader = mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        BoundedIterable<Long> stringAllEntriesReader = mockSingleAllEntriesReader( stringAccessor, new long[0] );
         BoundedIterable<Long> luceneAllEntriesReader = mockSingleAllEntriesReader( luceneAccessor, new long[0] );
 
         // then
         BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
-        verifyOtherIsClosedOnSingleThrow( nativeAllEntriesReader, luceneAllEntriesReader, fusionAllEntriesReader );
+        verifyOtherIsClosedOnSingleThrow( stringAllEntriesReader, fusionAllEntriesReader,
+                numberAllEntriesReader, luceneAllEntriesReader );
+    }
+
+    @Test
+    public void allEntriesReaderMustCloseOthersIfCompositeThrow() throws Exception
+    {
+        // given
+        BoundedIterable<Long> numberAllEntriesReader = mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        BoundedIterable<Long> stringAllEntriesReader = mockSingleAllEntriesReader( stringAccessor, new long[0] );
+        BoundedIterable<Long> compositeAllEntriesReader = mockSingleAllEntriesReader( compositeAccessor, new long[0] );
+        BoundedIterable<Long> luceneAllEntriesReader = mockSingleAllEntriesReader( luceneAccessor, new long[0] );
+
+        // then
+        BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
+        verifyOtherIsClosedOnSingleThrow( compositeAllEntriesReader, fusionAllEntriesReader,
+                numberAllEntriesReader, stringAllEntriesReader, luceneAllEntriesReader );
     }
 
     @Test
     public void allEntriesReaderMustThrowIfLuceneThrow() throws Exception
     {
         // given
-        mockSingleAllEntriesReader( nativeAccessor, new long[0] );
+        mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        mockSingleAllEntriesReader( stringAccessor, new long[0] );
         BoundedIterable<Long> luceneAllEntriesReader = mockSingleAllEntriesReader( luceneAccessor, new long[0] );
 
         // then
@@ -290,23 +422,64 @@ public class FusionIndexAccessorTest
     }
 
     @Test
-    public void allEntriesReaderMustThrowIfNativeThrow() throws Exception
+    public void allEntriesReaderMustThrowIfNumberThrow() throws Exception
     {
         // given
-        BoundedIterable<Long> nativeAllEntriesReader = mockSingleAllEntriesReader( nativeAccessor, new long[0] );
+        BoundedIterable<Long> numberAllEntriesReader = mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        mockSingleAllEntriesReader( stringAccessor, new long[0] );
         mockSingleAllEntriesReader( luceneAccessor, new long[0] );
 
         // then
         BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
-        FusionIndexTestHelp.verifyFusionCloseThrowOnSingleCloseThrow( nativeAllEntriesReader, fusionAllEntriesReader );
+        FusionIndexTestHelp.verifyFusionCloseThrowOnSingleCloseThrow( numberAllEntriesReader, fusionAllEntriesReader );
+    }
+
+    @Test
+    public void allEntriesReaderMustThrowIfStringThrow() throws Exception
+    {
+        // given
+        mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        BoundedIterable<Long> stringAllEntriesReader = mockSingleAllEntriesReader( stringAccessor, new long[0] );
+        mockSingleAllEntriesReader( luceneAccessor, new long[0] );
 
+        // then
+        BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
+        FusionIndexTestHelp.verifyFusionCloseThrowOnSingleCloseThrow( stringAllEntriesReader, fusionAllEntriesReader );
+    }
+
+    @Test
+    public void allEntriesReaderMustReportUnknownMaxCountIfNumberReportUnknownMaxCount() throws Exception
+    {
+        // given
+        mockSingleAllEntriesReaderWithUnknownMaxCount( numberAccessor, new long[0] );
+        mockSingleAllEntriesReader( stringAccessor, new long[0] );
+        mockSingleAllEntriesReader( luceneAccessor, new long[0] );
+
+        // then
+        BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
+        assertThat( fusionAllEntriesReader.maxCount(), is( BoundedIterable.UNKNOWN_MAX_COUNT ) );
+    }
+
+    @Test
+    public void allEntriesReaderMustReportUnknownMaxCountIfStringReportUnknownMaxCount() throws Exception
+    {
+        // given
+        mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        mockSingleAllEntriesReaderWithUnknownMaxCount( stringAccessor, new long[0] );
+        mockSingleAllEntriesReader( luceneAccessor, new long[0] );
+
+        // then
+        BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
+        assertThat( fusionAllEntriesReader.maxCount(), is( BoundedIterable.UNKNOWN_MAX_COUNT ) );
     }
 
     @Test
-    public void allEntriesReaderMustReportUnknownMaxCountIfNativeReportUnknownMaxCount() throws Exception
+    public void allEntriesReaderMustReportUnknownMaxCountIfCompositeReportUnknownMaxCount() throws Exception
     {
         // given
-        mockSingleAllEntriesReaderWithUnknownMaxCount( nativeAccessor, new long[0] );
+        mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        mockSingleAllEntriesReader( stringAccessor, new long[0] );
+        mockSingleAllEntriesReaderWithUnknownMaxCount( compositeAccessor, new long[0] );
         mockSingleAllEntriesReader( luceneAccessor, new long[0] );
 
         // then
@@ -318,8 +491,9 @@ public class FusionIndexAccessorTest
     public void allEntriesReaderMustReportUnknownMaxCountIfLuceneReportUnknownMaxCount() throws Exception
     {
         // given
+        mockSingleAllEntriesReader( numberAccessor, new long[0] );
+        mockSingleAllEntriesReader( stringAccessor, new long[0] );
         mockSingleAllEntriesReaderWithUnknownMaxCount( luceneAccessor, new long[0] );
-        mockSingleAllEntriesReader( nativeAccessor, new long[0] );
 
         // then
         BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
@@ -327,27 +501,29 @@ public class FusionIndexAccessorTest
     }
 
     @Test
-    public void allEntriesReaderMustReportFusionMaxCountOfNativeAndLucene() throws Exception
+    public void allEntriesReaderMustReportFusionMaxCountOfAll() throws Exception
     {
-        mockSingleAllEntriesReader( nativeAccessor, new long[]{1, 2} );
-        mockSingleAllEntriesReader( luceneAccessor, new long[]{3, 4} );
+        mockSingleAllEntriesReader( numberAccessor, new long[]{1, 2} );
+        mockSingleAllEntriesReader( stringAccessor, new long[]{3} );
+        mockSingleAllEntriesReader( luceneAccessor, new long[]{4, 5} );
 
         // then
         BoundedIterable<Long> fusionAllEntriesReader = fusionIndexAccessor.newAllEntriesReader();
-        assertThat( fusionAllEntriesReader.maxCount(), is( 4L ) );
+        assertThat( fusionAllEntriesReader.maxCount(), is( 5L ) );
     }
 
-    private void assertResultContainsAll( Set<Long> result, long[] nativeEntries )
+    private void assertResultContainsAll( Set<Long> result, long[] numberEntries )
     {
-        for ( long nativeEntry : nativeEntries )
+        for ( long entry : numberEntries )
         {
-            assertTrue( "Expected to contain " + nativeEntry + ", but was " + result, result.contains( nativeEntry ) );
+            assertTrue( "Expected to contain " + entry + ", but was " + result, result.contains( entry ) );
         }
     }
 
-    private void mockAllEntriesReaders( long[] nativeEntries, long[] luceneEntries )
+    private void mockAllEntriesReaders( long[] numberEntries, long[] stringEntries, long[] luceneEntries )
     {
-        mockSingleAllEntriesReader( nativeAccessor, nativeEntries );
+        mockSingleAllEntriesReader( numberAccessor, numberEntries );
+        mockSingleAllEntriesReader( stringAccessor, stringEntries );
         mockSingleAllEntriesReader( luceneAccessor, luceneEntries );
     }
 
@@ -52,37 +52,74 @@ import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexTestHelp.veri
 
 public class FusionIndexPopulatorTest
 {
-    private IndexPopulator nativePopulator;
+    private IndexPopulator numberPopulator;
+    private IndexPopulator stringPopulator;
+    private IndexPopulator compositePopulator;
     private IndexPopulator lucenePopulator;
+    private IndexPopulator[] allPopulators;
     private FusionIndexPopulator fusionIndexPopulator;
 
     @Before
     public void mockComponents()
     {
-        nativePopulator = mock( IndexPopulator.class );
+        numberPopulator = mock( IndexPopulator.class );
+        stringPopulator = mock( IndexPopulator.class );
+        compositePopulator = mock( IndexPopulator.class );
         lucenePopulator = mock( IndexPopulator.class );
-        fusionIndexPopulator = new FusionIndexPopulator( nativePopulator, lucenePopulator, new NativeSelector() );
+        allPopulators = new IndexPopulator[]{numberPopulator, stringPopulator, compositePopulator, lucenePopulator};
+        fusionIndexPopulator = new FusionIndexPopulator( numberPopulator, stringPopulator, compositePopulator, lucenePopulator,
+                new NativeSelector() );
     }
 
     /* create */
 
     @Test
-    public void createMustCreateBothNativeAndLucene() throws Exception
+    public void createMustCreateAll() throws Exception
     {
         // when
         fusionIndexPopulator.create();
 
         // then
-        verify( nativePopulator, times( 1 ) ).create();
+        verify( numberPopulator, times( 1 ) ).create();
+        verify( stringPopulator, times( 1 ) ).create();
+        verify( compositePopulator, times( 1 ) ).create();
         verify( lucenePopulator, times( 1 ) ).create();
     }
 
     @Test
-    public void createMustThrowIfCreateNativeThrow() throws Exception
+    public void createMustThrowIfCreateNumberThrow() throws Exception
     {
         // given
         IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( nativePopulator ).create();
+        doThrow( failure ).when( numberPopulator ).create();
+
+        verifyCallFail( failure, () ->
+        {
+            fusionIndexPopulator.create();
+            return null;
+        } );
+    }
+
+    @Test
+    public void createMustThrowIfCreateStringThrow() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "fail" );
+        doThrow( failure ).when( stringPopulator ).create();
+
+        verifyCallFail( failure, () ->
+        {
+            fusionIndexPopulator.create();
+            return null;
+        } );
+    }
+
+    @Test
+    public void createMustThrowIfCreateCompositeThrow() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "fail" );
+        doThrow( failure ).when( compositePopulator ).create();
 
         verifyCallFail( failure, () ->
         {
@@ -108,22 +145,52 @@ public class FusionIndexPopulatorTest
     /* drop */
 
     @Test
-    public void dropMustDropBothNativeAndLucene() throws Exception
+    public void dropMustDropAll() throws Exception
     {
         // when
         fusionIndexPopulator.drop();
 
         // then
-        verify( nativePopulator, times( 1 ) ).drop();
+        verify( numberPopulator, times( 1 ) ).drop();
+        verify( stringPopulator, times( 1 ) ).drop();
+        verify( compositePopulator, times( 1 ) ).drop();
         verify( lucenePopulator, times( 1 ) ).drop();
     }
 
     @Test
-    public void dropMustThrowIfDropNativeThrow() throws Exception
+    public void dropMustThrowIfDropNumberThrow() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "fail" );
+        doThrow( failure ).when( numberPopulator ).drop();
+
+        verifyCallFail( failure, () ->
+        {
+            fusionIndexPopulator.drop();
+            return null;
+        } );
+    }
+
+    @Test
+    public void dropMustThrowIfDropStringThrow() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "fail" );
+        doThrow( failure ).when( stringPopulator ).drop();
+
+        verifyCallFail( failure, () ->
+        {
+            fusionIndexPopulator.drop();
+            return null;
+        } );
+    }
+
+    @Test
+    public void dropMustThrowIfDropCompositeThrow() throws Exception
     {
         // given
         IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( nativePopulator ).drop();
+        doThrow( failure ).when( compositePopulator ).drop();
 
         verifyCallFail( failure, () ->
         {
@@ -152,49 +219,61 @@ public class FusionIndexPopulatorTest
     public void addMustSelectCorrectPopulator() throws Exception
     {
         // given
-        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNative();
+        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNumber();
+        Value[] stringValues = FusionIndexTestHelp.valuesSupportedByString();
         Value[] otherValues = FusionIndexTestHelp.valuesNotSupportedByNative();
         Value[] allValues = FusionIndexTestHelp.allValues();
 
-        // Add with native for number values
+        // Add with number for number values
         for ( Value numberValue : numberValues )
         {
-            verifyAddWithCorrectPopulator( nativePopulator, lucenePopulator, numberValue );
+            verifyAddWithCorrectPopulator( numberPopulator, numberValue );
+        }
+
+        // Add with string for string values
+        for ( Value stringValue : stringValues )
+        {
+            verifyAddWithCorrectPopulator( stringPopulator, stringValue );
         }
 
         // Add with lucene for other values
         for ( Value otherValue : otherValues )
         {
-            verifyAddWithCorrectPopulator( lucenePopulator, nativePopulator, otherValue );
+            verifyAddWithCorrectPopulator( lucenePopulator, otherValue );
         }
 
-        // All composite values should go to lucene
+        // Composite values made up of numbers and short strings should go to composite, the rest to lucene
         for ( Value firstValue : allValues )
         {
             for ( Value secondValue : allValues )
             {
-                verifyAddWithCorrectPopulator( lucenePopulator, nativePopulator, firstValue, secondValue );
+                IndexPopulator expected =
+                        FusionIndexTestHelp.supportedByComposite( firstValue, secondValue ) ? compositePopulator
+                                                                                             : lucenePopulator;
+                verifyAddWithCorrectPopulator( expected, firstValue, secondValue );
             }
         }
     }
 
-    private void verifyAddWithCorrectPopulator( IndexPopulator correctPopulator, IndexPopulator wrongPopulator, Value... numberValues )
+    private void verifyAddWithCorrectPopulator( IndexPopulator correctPopulator, Value... values )
             throws IndexEntryConflictException, IOException
     {
-        Collection<IndexEntryUpdate<LabelSchemaDescriptor>> update = asList( add( numberValues ) );
+        Collection<IndexEntryUpdate<LabelSchemaDescriptor>> update = asList( add( values ) );
         fusionIndexPopulator.add( update );
-        verify( correctPopulator, times( 1 ) ).add( update );
-        verify( wrongPopulator, times( 0 ) ).add( update );
+        for ( IndexPopulator populator : allPopulators )
+        {
+            verify( populator, times( populator == correctPopulator ? 1 : 0 ) ).add( update );
+        }
     }
 
     /* verifyDeferredConstraints */
 
     @Test
-    public void verifyDeferredConstraintsMustThrowIfNativeThrow() throws Exception
+    public void verifyDeferredConstraintsMustThrowIfNumberThrow() throws Exception
     {
         // given
         IndexEntryConflictException failure = mock( IndexEntryConflictException.class );
-        doThrow( failure ).when( nativePopulator ).verifyDeferredConstraints( any() );
+        doThrow( failure ).when( numberPopulator ).verifyDeferredConstraints( any() );
 
         verifyCallFail( failure, () ->
         {
@@ -204,11 +283,11 @@ public class FusionIndexPopulatorTest
     }
 
     @Test
-    public void verifyDeferredConstraintsMustThrowIfLuceneThrow() throws Exception
+    public void verifyDeferredConstraintsMustThrowIfStringThrow() throws Exception
     {
         // given
         IndexEntryConflictException failure = mock( IndexEntryConflictException.class );
-        doThrow( failure ).when( lucenePopulator ).verifyDeferredConstraints( any() );
+        doThrow( failure ).when( stringPopulator ).verifyDeferredConstraints( any() );
 
         verifyCallFail( failure, () ->
         {
@@ -217,110 +296,121 @@ public class FusionIndexPopulatorTest
         } );
     }
 
-    /* close */
-
-    @Test
-    public void successfulCloseMustCloseBothNativeAndLucene() throws Exception
-    {
-        // when
-        closeAndVerifyPropagation( nativePopulator, lucenePopulator, fusionIndexPopulator, true );
-    }
-
     @Test
-    public void unsuccessfulCloseMustCloseBothNativeAndLucene() throws Exception
-    {
-        // when
-        closeAndVerifyPropagation( nativePopulator, lucenePopulator, fusionIndexPopulator, false );
-    }
-
-    private void closeAndVerifyPropagation( IndexPopulator nativePopulator, IndexPopulator lucenePopulator,
-            FusionIndexPopulator fusionIndexPopulator, boolean populationCompletedSuccessfully ) throws IOException
-    {
-        fusionIndexPopulator.close( populationCompletedSuccessfully );
-
-        // then
-        verify( nativePopulator, times( 1 ) ).close( populationCompletedSuccessfully );
-        verify( lucenePopulator, times( 1 ) ).close( populationCompletedSuccessfully );
-    }
-
-    @Test
-    public void closeMustThrowIfCloseNativeThrow() throws Exception
+    public void verifyDeferredConstraintsMustThrowIfCompositeThrow() throws Exception
     {
         // given
-        IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( nativePopulator ).close( anyBoolean() );
+        IndexEntryConflictException failure = mock( IndexEntryConflictException.class );
+        doThrow( failure ).when( compositePopulator ).verifyDeferredConstraints( any() );
 
         verifyCallFail( failure, () ->
         {
-            fusionIndexPopulator.close( anyBoolean() );
+            fusionIndexPopulator.verifyDeferredConstraints( null );
             return null;
         } );
     }
 
     @Test
-    public void closeMustThrowIfCloseLuceneThrow() throws Exception
+    public void verifyDeferredConstraintsMustThrowIfLuceneThrow() throws Exception
     {
         // given
-        IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( lucenePopulator ).close( anyBoolean() );
+        IndexEntryConflictException failure = mock( IndexEntryConflictException.class );
+        doThrow( failure ).when( lucenePopulator ).verifyDeferredConstraints( any() );
 
         verifyCallFail( failure, () ->
         {
-            fusionIndexPopulator.close( anyBoolean() );
+            fusionIndexPopulator.verifyDeferredConstraints( null );
             return null;
         } );
     }
 
+    /* close */
+
     @Test
-    public void closeMustCloseNativeIfLuceneThrow() throws Exception
+    public void successfulCloseMustCloseAll() throws Exception
     {
-        // given
-        IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( lucenePopulator ).close( anyBoolean() );
+        // when
+        closeAndVerifyPropagation( true );
+    }
 
+    @Test
+    public void unsuccessfulCloseMustCloseAll() throws Exception
+    {
         // when
-        try
-        {
-            fusionIndexPopulator.close( true );
-            fail( "Should have failed" );
-        }
-        catch ( IOException ignore )
-        {
-        }
+        closeAndVerifyPropagation( false );
+    }
+
+    private void closeAndVerifyPropagation( boolean populationCompletedSuccessfully ) throws IOException
+    {
+        fusionIndexPopulator.close( populationCompletedSuccessfully );
 
         // then
-        verify( nativePopulator, times( 1 ) ).close( true );
+        for ( IndexPopulator populator : allPopulators )
+        {
+            verify( populator, times( 1 ) ).close( populationCompletedSuccessfully );
+        }
     }
 
     @Test
-    public void closeMustCloseLuceneIfNativeThrow() throws Exception
+    public void closeMustThrowIfAnyThrow() throws Exception
     {
-        // given
-        IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( nativePopulator ).close( anyBoolean() );
-
-        // when
-        try
+        for ( int i = 0; i < allPopulators.length; i++ )
         {
-            fusionIndexPopulator.close( true );
-            fail( "Should have failed" );
+            // given
+            mockComponents();
+            IndexPopulator failingPopulator = allPopulators[i];
+            IOException failure = new IOException( "fail" );
+            doThrow( failure ).when( failingPopulator ).close( anyBoolean() );
+
+            verifyCallFail( failure, () ->
+            {
+                fusionIndexPopulator.close( anyBoolean() );
+                return null;
+            } );
         }
-        catch ( IOException ignore )
+    }
+
+    @Test
+    public void closeMustCloseOthersIfAnyThrow() throws Exception
+    {
+        for ( int i = 0; i < allPopulators.length; i++ )
         {
-        }
+            // given
+            mockComponents();
+            IndexPopulator failingPopulator = allPopulators[i];
+            IOException failure = new IOException( "fail" );
+            doThrow( failure ).when( failingPopulator ).close( anyBoolean() );
 
-        // then
-        verify( lucenePopulator, times( 1 ) ).close( true );
+            // when
+            try
+            {
+                fusionIndexPopulator.close( true );
+                fail( "Should have failed" );
+            }
+            catch ( IOException ignore )
+            {
+            }
+
+            // then
+            for ( IndexPopulator populator : allPopulators )
+            {
+                verify( populator, times( 1 ) ).close( true );
+            }
+        }
     }
 
     @Test
-    public void closeMustThrowIfBothThrow() throws Exception
+    public void closeMustThrowIfAllThrow() throws Exception
     {
         // given
-        IOException nativeFailure = new IOException( "native" );
+        IOException numberFailure = new IOException( "number" );
+        IOException stringFailure = new IOException( "string" );
+        IOException compositeFailure = new IOException( "composite" );
         IOException luceneFailure = new IOException( "lucene" );
-        doThrow( nativeFailure ).when( nativePopulator ).close( anyBoolean() );
-        doThrow( luceneFailure ).when( lucenePopulator).close( anyBoolean() );
+        doThrow( numberFailure ).when( numberPopulator ).close( anyBoolean() );
+        doThrow( stringFailure ).when( stringPopulator ).close( anyBoolean() );
+        doThrow( compositeFailure ).when( compositePopulator ).close( anyBoolean() );
+        doThrow( luceneFailure ).when( lucenePopulator ).close( anyBoolean() );
 
         try
         {
@@ -331,30 +421,33 @@ public class FusionIndexPopulatorTest
         catch ( IOException e )
         {
             // then
-            assertThat( e, anyOf( sameInstance( nativeFailure ), sameInstance( luceneFailure ) ) );
+            assertThat( e, anyOf( sameInstance( numberFailure ), sameInstance( stringFailure ),
+                    sameInstance( compositeFailure ), sameInstance( luceneFailure ) ) );
         }
     }
 
     /* markAsFailed */
 
     @Test
-    public void markAsFailedMustMarkBothNativeAndLucene() throws Exception
+    public void markAsFailedMustMarkAll() throws Exception
     {
         // when
         String failureMessage = "failure";
         fusionIndexPopulator.markAsFailed( failureMessage );
 
         // then
-        verify( nativePopulator, times( 1 ) ).markAsFailed( failureMessage );
+        verify( numberPopulator, times( 1 ) ).markAsFailed( failureMessage );
+        verify( stringPopulator, times( 1 ) ).markAsFailed( failureMessage );
+        verify( compositePopulator, times( 1 ) ).markAsFailed( failureMessage );
         verify( lucenePopulator, times( 1 ) ).markAsFailed( failureMessage );
     }
 
     @Test
-    public void markAsFailedMustThrowIfNativeThrow() throws Exception
+    public void markAsFailedMustThrowIfNumberThrow() throws Exception
     {
         // given
         IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( nativePopulator ).markAsFailed( anyString() );
+        doThrow( failure ).when( numberPopulator ).markAsFailed( anyString() );
 
         // then
         verifyCallFail( failure, () ->
@@ -365,11 +458,11 @@ public class FusionIndexPopulatorTest
     }
 
     @Test
-    public void markAsFailedMustThrowIfLuceneThrow() throws Exception
+    public void markAsFailedMustThrowIfStringThrow() throws Exception
     {
         // given
         IOException failure = new IOException( "fail" );
-        doThrow( failure ).when( lucenePopulator ).markAsFailed( anyString() );
+        doThrow( failure ).when( stringPopulator ).markAsFailed( anyString() );
 
         // then
         verifyCallFail( failure, () ->
@@ -380,43 +473,53 @@ public class FusionIndexPopulatorTest
     }
 
     @Test
-    public void shouldIncludeSampleOnCorrectPopulator() throws Exception
+    public void markAsFailedMustThrowIfLuceneThrow() throws Exception
     {
         // given
-        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNative();
-        Value[] otherValues = FusionIndexTestHelp.valuesNotSupportedByNative();
+        IOException failure = new IOException( "fail" );
+        doThrow( failure ).when( lucenePopulator ).markAsFailed( anyString() );
 
-        for ( Value value : numberValues )
+        // then
+        verifyCallFail( failure, () ->
         {
-            // when
-            IndexEntryUpdate<LabelSchemaDescriptor> update = add( value );
-            fusionIndexPopulator.includeSample( update );
+            fusionIndexPopulator.markAsFailed( anyString() );
+            return null;
+        } );
+    }
 
-            // then
-            verify( nativePopulator ).includeSample( update );
-            reset( nativePopulator );
-        }
+    @Test
+    public void shouldIncludeSampleOnCorrectPopulator() throws Exception
+    {
+        // given
+        verifyIncludeSampleOnCorrectPopulator( numberPopulator, FusionIndexTestHelp.valuesSupportedByNumber() );
+        verifyIncludeSampleOnCorrectPopulator( stringPopulator, FusionIndexTestHelp.valuesSupportedByString() );
+        verifyIncludeSampleOnCorrectPopulator( lucenePopulator, FusionIndexTestHelp.valuesNotSupportedByNative() );
+    }
 
-        for ( Value value : otherValues )
+    private void verifyIncludeSampleOnCorrectPopulator( IndexPopulator correctPopulator, Value[] values )
+    {
+        for ( Value value : values )
         {
             // when
             IndexEntryUpdate<LabelSchemaDescriptor> update = add( value );
             fusionIndexPopulator.includeSample( update );
 
             // then
-            verify( lucenePopulator ).includeSample( update );
-            reset( lucenePopulator );
+            verify( correctPopulator ).includeSample( update );
+            reset( correctPopulator );
         }
     }
 
     @Test
-    public void shouldConfigureSamplingOnBothPopulators() throws Exception
+    public void shouldConfigureSamplingOnAllPopulators() throws Exception
     {
         // when
         fusionIndexPopulator.configureSampling( true );
 
         // then
-        verify( nativePopulator ).configureSampling( true );
+        verify( numberPopulator ).configureSampling( true );
+        verify( stringPopulator ).configureSampling( true );
+        verify( compositePopulator ).configureSampling( true );
         verify( lucenePopulator ).configureSampling( true );
     }
 }
@@ -47,29 +47,37 @@ import static org.mockito.Mockito.when;
 
 public class FusionIndexReaderTest
 {
-    private IndexReader nativeReader;
+    private IndexReader numberReader;
+    private IndexReader stringReader;
+    private IndexReader compositeReader;
     private IndexReader luceneReader;
     private FusionIndexReader fusionIndexReader;
     private static final int PROP_KEY = 1;
+    private static final int OTHER_PROP_KEY = 2;
 
     @Before
     public void setup()
     {
-        nativeReader = mock( IndexReader.class );
+        numberReader = mock( IndexReader.class );
+        stringReader = mock( IndexReader.class );
+        compositeReader = mock( IndexReader.class );
         luceneReader = mock( IndexReader.class );
-        fusionIndexReader = new FusionIndexReader( nativeReader, luceneReader, new NativeSelector() );
+        fusionIndexReader = new FusionIndexReader( numberReader, stringReader, compositeReader, luceneReader,
+                new NativeSelector() );
     }
 
     /* close */
 
     @Test
-    public void closeMustCloseBothNativeAndLucene() throws Exception
+    public void closeMustCloseAll() throws Exception
     {
         // when
         fusionIndexReader.close();
 
         // then
-        verify( nativeReader, times( 1 ) ).close();
+        verify( numberReader, times( 1 ) ).close();
+        verify( stringReader, times( 1 ) ).close();
+        verify( compositeReader, times( 1 ) ).close();
         verify( luceneReader, times( 1 ) ).close();
     }
 
@@ -79,35 +87,50 @@ public class FusionIndexReaderTest
     public void countIndexedNodesMustSelectCorrectReader() throws Exception
     {
         // given
-        Value[] nativeValues = FusionIndexTestHelp.valuesSupportedByNative();
+        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNumber();
+        Value[] stringValues = FusionIndexTestHelp.valuesSupportedByString();
         Value[] otherValues = FusionIndexTestHelp.valuesNotSupportedByNative();
         Value[] allValues = FusionIndexTestHelp.allValues();
 
         // when
-        for ( Value nativeValue : nativeValues )
+        for ( Value numberValue : numberValues )
         {
-            verifyCountIndexedNodesWithCorrectReader( nativeReader, luceneReader, nativeValue );
+            verifyCountIndexedNodesWithCorrectReader( numberReader, numberValue );
+        }
+
+        for ( Value stringValue : stringValues )
+        {
+            verifyCountIndexedNodesWithCorrectReader( stringReader, stringValue );
         }
 
         for ( Value otherValue : otherValues )
         {
-            verifyCountIndexedNodesWithCorrectReader( luceneReader, nativeReader, otherValue );
+            verifyCountIndexedNodesWithCorrectReader( luceneReader, otherValue );
         }
 
         for ( Value firstValue : allValues )
         {
             for ( Value secondValue : allValues )
             {
-                verifyCountIndexedNodesWithCorrectReader( luceneReader, nativeReader, firstValue, secondValue );
+                IndexReader expected =
+                        FusionIndexTestHelp.supportedByComposite( firstValue, secondValue ) ? compositeReader
+                                                                                             : luceneReader;
+                verifyCountIndexedNodesWithCorrectReader( expected, firstValue, secondValue );
             }
         }
     }
 
-    private void verifyCountIndexedNodesWithCorrectReader( IndexReader correct, IndexReader wrong, Value... nativeValue )
+    private void verifyCountIndexedNodesWithCorrectReader( IndexReader correct, Value... values )
     {
-        fusionIndexReader.countIndexedNodes( 0, nativeValue );
-        verify( correct, times( 1 ) ).countIndexedNodes( 0, nativeValue );
-        verify( wrong, times( 0 ) ).countIndexedNodes( 0, nativeValue );
+        fusionIndexReader.countIndexedNodes( 0, values );
+        verify( correct, times( 1 ) ).countIndexedNodes( 0, values );
+        for ( IndexReader reader : allReaders() )
+        {
+            if ( reader != correct )
+            {
+                verify( reader, times( 0 ) ).countIndexedNodes( 0, values );
+            }
+        }
     }
 
     /* query */
@@ -116,83 +139,161 @@ public class FusionIndexReaderTest
     public void mustSelectLuceneForCompositePredicate() throws Exception
     {
         // then
-        verifyQueryWithCorrectReader( luceneReader, nativeReader, any( IndexQuery.class ), any( IndexQuery.class ) );
+        verifyQueryWithCorrectReader( luceneReader, any( IndexQuery.class ), any( IndexQuery.class ) );
+    }
+
+    @Test
+    public void mustSelectCompositeForCompositeExactPredicateWithNativeValues() throws Exception
+    {
+        // given
+        Value[] compositeValues = FusionIndexTestHelp.valuesSupportedByComposite();
+        for ( Value firstValue : compositeValues )
+        {
+            for ( Value secondValue : compositeValues )
+            {
+                IndexQuery first = IndexQuery.exact( PROP_KEY, firstValue );
+                IndexQuery second = IndexQuery.exact( OTHER_PROP_KEY, secondValue );
+
+                // then
+                setup();
+                verifyQueryWithCorrectReader( compositeReader, first, second );
+            }
+        }
+    }
+
+    @Test
+    public void mustSelectLuceneForCompositeExactPredicateWithOtherValue() throws Exception
+    {
+        // given
+        for ( Value otherValue : FusionIndexTestHelp.valuesNotSupportedByNative() )
+        {
+            IndexQuery first = IndexQuery.exact( PROP_KEY, 1 );
+            IndexQuery second = IndexQuery.exact( OTHER_PROP_KEY, otherValue );
+
+            // then
+            setup();
+            verifyQueryWithCorrectReader( luceneReader, first, second );
+        }
+    }
+
+    @Test
+    public void mustSelectLuceneForCompositeRangePredicate() throws Exception
+    {
+        // given
+        IndexQuery first = IndexQuery.exact( PROP_KEY, 1 );
+        IndexQuery second = IndexQuery.range( OTHER_PROP_KEY, 0, true, 1, false );
+
+        // then
+        verifyQueryWithCorrectReader( luceneReader, first, second );
+    }
+
+    @Test
+    public void mustCombineCompositeAndLuceneForCompositeExistsPredicate() throws Exception
+    {
+        // given
+        IndexQuery first = IndexQuery.exists( PROP_KEY );
+        IndexQuery second = IndexQuery.exists( OTHER_PROP_KEY );
+        when( compositeReader.query( first, second ) ).thenReturn( Primitive.iterator( 0L, 2L ) );
+        when( luceneReader.query( first, second ) ).thenReturn( Primitive.iterator( 1L ) );
+
+        // when
+        PrimitiveLongSet resultSet = PrimitiveLongCollections.asSet( fusionIndexReader.query( first, second ) );
+
+        // then
+        for ( long i = 0L; i < 3L; i++ )
+        {
+            assertTrue( "Expected to contain " + i + ", but was " + resultSet, resultSet.contains( i ) );
+        }
+        verifyNoMoreInteractions( numberReader, stringReader );
     }
 
     @Test
-    public void mustSelectNativeForExactPredicateWithNumberValue() throws Exception
+    public void mustSelectNumberForExactPredicateWithNumberValue() throws Exception
     {
         // given
-        for ( Object numberValue : FusionIndexTestHelp.valuesSupportedByNative() )
+        for ( Object numberValue : FusionIndexTestHelp.valuesSupportedByNumber() )
         {
             IndexQuery indexQuery = IndexQuery.exact( PROP_KEY, numberValue );
 
             // then
-            verifyQueryWithCorrectReader( nativeReader, luceneReader, indexQuery );
+            verifyQueryWithCorrectReader( numberReader, indexQuery );
         }
     }
 
     @Test
-    public void mustSelectLuceneForExactPredicateWithNonNumberValue() throws Exception
+    public void mustSelectStringForExactPredicateWithStringValue() throws Exception
     {
         // given
-        for ( Object nonNumberValue : FusionIndexTestHelp.valuesNotSupportedByNative() )
+        for ( Object stringValue : FusionIndexTestHelp.valuesSupportedByString() )
         {
-            IndexQuery indexQuery = IndexQuery.exact( PROP_KEY, nonNumberValue );
+            IndexQuery indexQuery = IndexQuery.exact( PROP_KEY, stringValue );
 
             // then
-            verifyQueryWithCorrectReader( luceneReader, nativeReader, indexQuery );
+            verifyQueryWithCorrectReader( stringReader, indexQuery );
         }
     }
 
     @Test
-    public void mustSelectLuceneForRangeStringPredicate() throws Exception
+    public void mustSelectLuceneForExactPredicateWithOtherValue() throws Exception
     {
         // given
-        StringRangePredicate stringRange = IndexQuery.range( PROP_KEY, "abc", true, "def", false );
+        for ( Object otherValue : FusionIndexTestHelp.valuesNotSupportedByNative() )
+        {
+            IndexQuery indexQuery = IndexQuery.exact( PROP_KEY, otherValue );
 
-        // then
-        verifyQueryWithCorrectReader( luceneReader, nativeReader, stringRange );
+            // then
+            verifyQueryWithCorrectReader( luceneReader, indexQuery );
+        }
     }
 
     @Test
-    public void mustSelectNativeForRangeNumericPredicate() throws Exception
+    public void mustSelectNumberForRangeNumericPredicate() throws Exception
     {
         // given
         NumberRangePredicate numberRange = IndexQuery.range( PROP_KEY, 0, true, 1, false );
 
         // then
-        verifyQueryWithCorrectReader( nativeReader, luceneReader, numberRange );
+        verifyQueryWithCorrectReader( numberReader, numberRange );
+    }
+
+    @Test
+    public void mustCombineStringAndLuceneForRangeStringPredicate() throws Exception
+    {
+        // given
+        StringRangePredicate stringRange = IndexQuery.range( PROP_KEY, "abc", true, "def", false );
+
+        // then
+        verifyQueryCombinesStringAndLucene( stringRange );
     }
 
     @Test
-    public void mustSelectLuceneForStringPrefixPredicate() throws Exception
+    public void mustCombineStringAndLuceneForStringPrefixPredicate() throws Exception
     {
         // given
         StringPrefixPredicate stringPrefix = IndexQuery.stringPrefix( PROP_KEY, "abc" );
 
         // then
-        verifyQueryWithCorrectReader( luceneReader, nativeReader, stringPrefix );
+        verifyQueryCombinesStringAndLucene( stringPrefix );
     }
 
     @Test
-    public void mustSelectLuceneForStringSuffixPredicate() throws Exception
+    public void mustCombineStringAndLuceneForStringSuffixPredicate() throws Exception
     {
         // given
-        StringSuffixPredicate stringPrefix = IndexQuery.stringSuffix( PROP_KEY, "abc" );
+        StringSuffixPredicate stringSuffix = IndexQuery.stringSuffix( PROP_KEY, "abc" );
 
         // then
-        verifyQueryWithCorrectReader( luceneReader, nativeReader, stringPrefix );
+        verifyQueryCombinesStringAndLucene( stringSuffix );
     }
 
     @Test
-    public void mustSelectLuceneForStringContainsPredicate() throws Exception
+    public void mustCombineStringAndLuceneForStringContainsPredicate() throws Exception
     {
         // given
         StringContainsPredicate stringContains = IndexQuery.stringContains( PROP_KEY, "abc" );
 
         // then
-        verifyQueryWithCorrectReader( luceneReader, nativeReader, stringContains );
+        verifyQueryCombinesStringAndLucene( stringContains );
     }
 
     @Test
@@ -200,7 +301,9 @@ public class FusionIndexReaderTest
     {
         // given
         IndexQuery.ExistsPredicate exists = IndexQuery.exists( PROP_KEY );
-        when( nativeReader.query( exists ) ).thenReturn( Primitive.iterator( 0L, 1L, 3L, 4L, 7L ) );
+        when( numberReader.query( exists ) ).thenReturn( Primitive.iterator( 0L, 1L, 3L, 4L, 7L ) );
+        when( stringReader.query( exists ) ).thenReturn( Primitive.iterator( 8L, 9L ) );
+        when( compositeReader.query( exists ) ).thenReturn( Primitive.iterator( 10L, 11L ) );
         when( luceneReader.query( exists ) ).thenReturn( Primitive.iterator( 2L, 5L, 6L ) );
 
         // when
@@ -208,13 +311,30 @@ public class FusionIndexReaderTest
 
         // then
         PrimitiveLongSet resultSet = PrimitiveLongCollections.asSet( result );
-        for ( long i = 0L; i < 8L; i++ )
+        for ( long i = 0L; i < 12L; i++ )
         {
             assertTrue( "Expected to contain " + i + ", but was " + resultSet, resultSet.contains( i ) );
         }
     }
 
-    private void verifyQueryWithCorrectReader( IndexReader expectedReader, IndexReader unexpectedReader, IndexQuery... indexQuery )
+    private void verifyQueryCombinesStringAndLucene( IndexQuery indexQuery ) throws IndexNotApplicableKernelException
+    {
+        // given
+        when( stringReader.query( indexQuery ) ).thenReturn( Primitive.iterator( 0L, 2L ) );
+        when( luceneReader.query( indexQuery ) ).thenReturn( Primitive.iterator( 1L ) );
+
+        // when
+        PrimitiveLongSet resultSet = PrimitiveLongCollections.asSet( fusionIndexReader.query( indexQuery ) );
+
+        // then
+        for ( long i = 0L; i < 3L; i++ )
+        {
+            assertTrue( "Expected to contain " + i + ", but was " + resultSet, resultSet.contains( i ) );
+        }
+        verifyNoMoreInteractions( numberReader, compositeReader );
+    }
+
+    private void verifyQueryWithCorrectReader( IndexReader expectedReader, IndexQuery... indexQuery )
             throws IndexNotApplicableKernelException
     {
         // when
@@ -222,6 +342,17 @@ public class FusionIndexReaderTest
 
         // then
         verify( expectedReader, times( 1 ) ).query( indexQuery );
-        verifyNoMoreInteractions( unexpectedReader );
+        for ( IndexReader reader : allReaders() )
+        {
+            if ( reader != expectedReader )
+            {
+                verifyNoMoreInteractions( reader );
+            }
+        }
+    }
+
+    private IndexReader[] allReaders()
+    {
+        return new IndexReader[]{numberReader, stringReader, compositeReader, luceneReader};
     }
 }
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.index.schema.fusion;
 
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.mockito.Mockito;
 
 import java.io.IOException;
@@ -31,8 +32,7 @@ import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
-import static org.hamcrest.Matchers.sameInstance;
-import static org.hamcrest.core.AnyOf.anyOf;
+import static org.hamcrest.Matchers.isOneOf;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -53,11 +53,16 @@ class FusionIndexTestHelp
                     Values.floatValue( 5.6f ),
                     Values.doubleValue( 7.8 )
             };
-    private static final Value[] otherValues = new Value[]
+    private static final Value[] stringValues = new Value[]
             {
-                    Values.booleanValue( true ),
                     Values.charValue( 'a' ),
                     Values.stringValue( "bcd" ),
+                    Values.stringValue( "" )
+            };
+    private static final Value[] otherValues = new Value[]
+            {
+                    Values.booleanValue( true ),
+                    Values.stringValue( StringUtils.repeat( 'x', 1000 ) ),
                     Values.booleanArray( new boolean[2] ),
                     Values.byteArray( new byte[]{1, 2} ),
                     Values.shortArray( new short[]{3, 4} ),
@@ -70,19 +75,45 @@ class FusionIndexTestHelp
                     Values.NO_VALUE
             };
 
-    static Value[] valuesSupportedByNative()
+    static Value[] valuesSupportedByNumber()
     {
         return numberValues;
     }
 
+    static Value[] valuesSupportedByString()
+    {
+        return stringValues;
+    }
+
     static Value[] valuesNotSupportedByNative()
     {
         return otherValues;
     }
 
+    static Value[] valuesSupportedByComposite()
+    {
+        return ArrayUtils.addAll( numberValues, stringValues );
+    }
+
+    /**
+     * @return whether or not the given values, as a composite value, is expected to go to the native composite index.
+     */
+    static boolean supportedByComposite( Value... values )
+    {
+        Value[] compositeValues = valuesSupportedByComposite();
+        for ( Value value : values )
+        {
+            if ( !ArrayUtils.contains( compositeValues, value ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     static Value[] allValues()
     {
-        return ArrayUtils.addAll( numberValues, otherValues );
+        return ArrayUtils.addAll( ArrayUtils.addAll( numberValues, stringValues ), otherValues );
     }
 
     static void verifyCallFail( Exception expectedFailure, Callable failingCall ) throws Exception
@@ -134,8 +165,8 @@ class FusionIndexTestHelp
         return IndexEntryUpdate.change( 0, indexKey, before, after );
     }
 
-    static void verifyOtherIsClosedOnSingleThrow( AutoCloseable failingCloseable, AutoCloseable successfulCloseable,
-            AutoCloseable fusionCloseable ) throws Exception
+    static void verifyOtherIsClosedOnSingleThrow( AutoCloseable failingCloseable, AutoCloseable fusionCloseable,
+            AutoCloseable... successfulCloseables ) throws Exception
     {
         IOException failure = new IOException( "fail" );
         doThrow( failure ).when( failingCloseable ).close();
@@ -151,7 +182,10 @@ class FusionIndexTestHelp
         }
 
         // then
-        verify( successfulCloseable, Mockito.times( 1 ) ).close();
+        for ( AutoCloseable successfulCloseable : successfulCloseables )
+        {
+            verify( successfulCloseable, Mockito.times( 1 ) ).close();
+        }
     }
 
     static void verifyFusionCloseThrowOnSingleCloseThrow( AutoCloseable failingCloseable, AutoCloseable fusionCloseable )
@@ -170,14 +204,16 @@ class FusionIndexTestHelp
         }
     }
 
-    static void verifyFusionCloseThrowIfBothThrow( AutoCloseable nativeCloseable, AutoCloseable luceneCloseable,
-            AutoCloseable fusionCloseable ) throws Exception
+    static void verifyFusionCloseThrowIfAllThrow( AutoCloseable fusionCloseable, AutoCloseable... autoCloseables )
+            throws Exception
     {
         // given
-        IOException nativeFailure = new IOException( "native" );
-        IOException luceneFailure = new IOException( "lucene" );
-        doThrow( nativeFailure ).when( nativeCloseable ).close();
-        doThrow( luceneFailure ).when( luceneCloseable ).close();
+        IOException[] failures = new IOException[autoCloseables.length];
+        for ( int i = 0; i < autoCloseables.length; i++ )
+        {
+            failures[i] = new IOException( "unknown" );
+            doThrow( failures[i] ).when( autoCloseables[i] ).close();
+        }
 
         try
         {
@@ -188,7 +224,7 @@ class FusionIndexTestHelp
         catch ( IOException e )
         {
             // then
-            assertThat( e, anyOf( sameInstance( nativeFailure ), sameInstance( luceneFailure ) ) );
+            assertThat( e, isOneOf( failures ) );
         }
     }
 }
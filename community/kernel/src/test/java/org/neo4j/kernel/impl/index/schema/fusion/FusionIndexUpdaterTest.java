@@ -43,29 +43,38 @@ import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexTestHelp.remo
 
 public class FusionIndexUpdaterTest
 {
-    private IndexUpdater nativeUpdater;
+    private IndexUpdater numberUpdater;
+    private IndexUpdater stringUpdater;
+    private IndexUpdater compositeUpdater;
     private IndexUpdater luceneUpdater;
+    private IndexUpdater[] allUpdaters;
     private FusionIndexUpdater fusionIndexUpdater;
 
     @Before
     public void setup()
     {
-        nativeUpdater = mock( IndexUpdater.class );
+        numberUpdater = mock( IndexUpdater.class );
+        stringUpdater = mock( IndexUpdater.class );
+        compositeUpdater = mock( IndexUpdater.class );
         luceneUpdater = mock( IndexUpdater.class );
-        fusionIndexUpdater = new FusionIndexUpdater( nativeUpdater, luceneUpdater, new NativeSelector() );
+        allUpdaters = new IndexUpdater[]{numberUpdater, stringUpdater, compositeUpdater, luceneUpdater};
+        fusionIndexUpdater = new FusionIndexUpdater( numberUpdater, stringUpdater, compositeUpdater, luceneUpdater,
+                new NativeSelector() );
     }
 
     /* remove */
 
     @Test
-    public void removeMustRemoveFromBothNativeAndLucene() throws Exception
+    public void removeMustRemoveFromAll() throws Exception
     {
         // when
         PrimitiveLongSet nodeIds = asPrimitiveSet( 1, 2, 3 );
         fusionIndexUpdater.remove( nodeIds );
 
         // then
-        verify( nativeUpdater, times( 1 ) ).remove( nodeIds );
+        verify( numberUpdater, times( 1 ) ).remove( nodeIds );
+        verify( stringUpdater, times( 1 ) ).remove( nodeIds );
+        verify( compositeUpdater, times( 1 ) ).remove( nodeIds );
         verify( luceneUpdater, times( 1 ) ).remove( nodeIds );
     }
 
@@ -85,23 +94,32 @@ public class FusionIndexUpdaterTest
     public void processMustSelectCorrectForAdd() throws Exception
     {
         // given
-        Value[] supportedByNative = FusionIndexTestHelp.valuesSupportedByNative();
-        Value[] notSupportedByNative = FusionIndexTestHelp.valuesNotSupportedByNative();
+        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNumber();
+        Value[] stringValues = FusionIndexTestHelp.valuesSupportedByString();
+        Value[] otherValues = FusionIndexTestHelp.valuesNotSupportedByNative();
         Value[] allValues = FusionIndexTestHelp.allValues();
 
         // when
-        // ... value supported by native
-        for ( Value value : supportedByNative )
+        // ... value supported by number
+        for ( Value value : numberValues )
         {
             //then
-            verifyAddWithCorrectUpdater( nativeUpdater, luceneUpdater, value );
+            verifyAddWithCorrectUpdater( numberUpdater, value );
+        }
+
+        // when
+        // ... value supported by string
+        for ( Value value : stringValues )
+        {
+            //then
+            verifyAddWithCorrectUpdater( stringUpdater, value );
         }
 
         // when
         // ... value not supported by native
-        for ( Value value : notSupportedByNative )
+        for ( Value value : otherValues )
         {
-            verifyAddWithCorrectUpdater( luceneUpdater, nativeUpdater, value );
+            verifyAddWithCorrectUpdater( luceneUpdater, value );
         }
 
         // when
@@ -110,7 +128,10 @@ public class FusionIndexUpdaterTest
         {
             for ( Value secondValue : allValues )
             {
-                verifyAddWithCorrectUpdater( luceneUpdater, nativeUpdater, firstValue, secondValue );
+                IndexUpdater expected =
+                        FusionIndexTestHelp.supportedByComposite( firstValue, secondValue ) ? compositeUpdater
+                                                                                             : luceneUpdater;
+                verifyAddWithCorrectUpdater( expected, firstValue, secondValue );
             }
         }
     }
@@ -119,23 +140,32 @@ public class FusionIndexUpdaterTest
     public void processMustSelectCorrectForRemove() throws Exception
     {
         // given
-        Value[] supportedByNative = FusionIndexTestHelp.valuesSupportedByNative();
-        Value[] notSupportedByNative = FusionIndexTestHelp.valuesNotSupportedByNative();
+        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNumber();
+        Value[] stringValues = FusionIndexTestHelp.valuesSupportedByString();
+        Value[] otherValues = FusionIndexTestHelp.valuesNotSupportedByNative();
         Value[] allValues = FusionIndexTestHelp.allValues();
 
         // when
-        // ... value supported by native
-        for ( Value value : supportedByNative )
+        // ... value supported by number
+        for ( Value value : numberValues )
         {
             //then
-            verifyRemoveWithCorrectUpdater( nativeUpdater, luceneUpdater, value );
+            verifyRemoveWithCorrectUpdater( numberUpdater, value );
+        }
+
+        // when
+        // ... value supported by string
+        for ( Value value : stringValues )
+        {
+            //then
+            verifyRemoveWithCorrectUpdater( stringUpdater, value );
         }
 
         // when
         // ... value not supported by native
-        for ( Value value : notSupportedByNative )
+        for ( Value value : otherValues )
         {
-            verifyRemoveWithCorrectUpdater( luceneUpdater, nativeUpdater, value );
+            verifyRemoveWithCorrectUpdater( luceneUpdater, value );
         }
 
         // when
@@ -144,98 +174,113 @@ public class FusionIndexUpdaterTest
         {
             for ( Value secondValue : allValues )
             {
-                verifyRemoveWithCorrectUpdater( luceneUpdater, nativeUpdater, firstValue, secondValue );
+                IndexUpdater expected =
+                        FusionIndexTestHelp.supportedByComposite( firstValue, secondValue ) ? compositeUpdater
+                                                                                             : luceneUpdater;
+                verifyRemoveWithCorrectUpdater( expected, firstValue, secondValue );
             }
         }
     }
 
     @Test
-    public void processMustSelectCorrectForChangeSupportedByNative() throws Exception
+    public void processMustSelectCorrectForChangeSupportedByNumber() throws Exception
     {
-        // given
-        Value[] supportedByNative = FusionIndexTestHelp.valuesSupportedByNative();
+        verifyChangeWithCorrectUpdaterNotMixed( numberUpdater, FusionIndexTestHelp.valuesSupportedByNumber() );
+    }
 
-        // when
-        // ... before - supported
-        // ... after - supported
-        for ( Value before : supportedByNative )
-        {
-            for ( Value after : supportedByNative )
-            {
-                verifyChangeWithCorrectUpdaterNotMixed( nativeUpdater, luceneUpdater, before, after );
-            }
-        }
+    @Test
+    public void processMustSelectCorrectForChangeSupportedByString() throws Exception
+    {
+        verifyChangeWithCorrectUpdaterNotMixed( stringUpdater, FusionIndexTestHelp.valuesSupportedByString() );
     }
 
     @Test
     public void processMustSelectCorrectForChangeNotSupportedByNative() throws Exception
     {
-        // given
-        Value[] notSupportedByNative = FusionIndexTestHelp.valuesNotSupportedByNative();
+        verifyChangeWithCorrectUpdaterNotMixed( luceneUpdater, FusionIndexTestHelp.valuesNotSupportedByNative() );
+    }
 
+    @Test
+    public void processMustSelectCorrectForChangeFromNumberToLucene() throws Exception
+    {
         // when
-        // ... before - not supported
+        // ... before - number
         // ... after - not supported
-        for ( Value before : notSupportedByNative )
-        {
-            for ( Value after : notSupportedByNative )
-            {
-                verifyChangeWithCorrectUpdaterNotMixed( luceneUpdater, nativeUpdater, before, after );
-            }
-        }
+        verifyChangeWithCorrectUpdaterMixed( numberUpdater, luceneUpdater, FusionIndexTestHelp.valuesSupportedByNumber(),
+                FusionIndexTestHelp.valuesNotSupportedByNative() );
     }
 
     @Test
-    public void processMustSelectCorrectForChangeFromNativeToLucene() throws Exception
+    public void processMustSelectCorrectForChangeFromLuceneToNumber() throws Exception
     {
-        // given
-        Value[] supportedByNative = FusionIndexTestHelp.valuesSupportedByNative();
-        Value[] notSupportedByNative = FusionIndexTestHelp.valuesNotSupportedByNative();
+        // when
+        // ... before - not supported
+        // ... after - number
+        verifyChangeWithCorrectUpdaterMixed( luceneUpdater, numberUpdater, FusionIndexTestHelp.valuesNotSupportedByNative(),
+                FusionIndexTestHelp.valuesSupportedByNumber() );
+    }
 
+    @Test
+    public void processMustSelectCorrectForChangeFromStringToLucene() throws Exception
+    {
         // when
-        // ... before - supported
+        // ... before - string
         // ... after - not supported
-        verifyChangeWithCorrectUpdaterMixed( nativeUpdater, luceneUpdater, supportedByNative, notSupportedByNative );
+        verifyChangeWithCorrectUpdaterMixed( stringUpdater, luceneUpdater, FusionIndexTestHelp.valuesSupportedByString(),
+                FusionIndexTestHelp.valuesNotSupportedByNative() );
     }
 
     @Test
-    public void processMustSelectCorrectForChangeFromLuceneToNative() throws Exception
+    public void processMustSelectCorrectForChangeFromNumberToString() throws Exception
     {
-        // given
-        Value[] supportedByNative = FusionIndexTestHelp.valuesSupportedByNative();
-        Value[] notSupportedByNative = FusionIndexTestHelp.valuesNotSupportedByNative();
-
         // when
-        // ... before - not supported
-        // ... after - supported
-        verifyChangeWithCorrectUpdaterMixed( luceneUpdater, nativeUpdater, notSupportedByNative, supportedByNative );
+        // ... before - number
+        // ... after - string
+        verifyChangeWithCorrectUpdaterMixed( numberUpdater, stringUpdater, FusionIndexTestHelp.valuesSupportedByNumber(),
+                FusionIndexTestHelp.valuesSupportedByString() );
     }
 
-    private void verifyAddWithCorrectUpdater( IndexUpdater correctPopulator, IndexUpdater wrongPopulator, Value... numberValues )
+    private void verifyAddWithCorrectUpdater( IndexUpdater correctUpdater, Value... values )
             throws IndexEntryConflictException, IOException
     {
-        IndexEntryUpdate<LabelSchemaDescriptor> update = add( numberValues );
+        IndexEntryUpdate<LabelSchemaDescriptor> update = add( values );
         fusionIndexUpdater.process( update );
-        verify( correctPopulator, times( 1 ) ).process( update );
-        verify( wrongPopulator, times( 0 ) ).process( update );
+        verifyProcessedOnlyBy( correctUpdater, update );
     }
 
-    private void verifyRemoveWithCorrectUpdater( IndexUpdater correctPopulator, IndexUpdater wrongPopulator, Value... numberValues )
+    private void verifyRemoveWithCorrectUpdater( IndexUpdater correctUpdater, Value... values )
             throws IndexEntryConflictException, IOException
     {
-        IndexEntryUpdate<LabelSchemaDescriptor> update = FusionIndexTestHelp.remove( numberValues );
+        IndexEntryUpdate<LabelSchemaDescriptor> update = FusionIndexTestHelp.remove( values );
         fusionIndexUpdater.process( update );
-        verify( correctPopulator, times( 1 ) ).process( update );
-        verify( wrongPopulator, times( 0 ) ).process( update );
+        verifyProcessedOnlyBy( correctUpdater, update );
     }
 
-    private void verifyChangeWithCorrectUpdaterNotMixed( IndexUpdater correctPopulator, IndexUpdater wrongPopulator, Value before,
-            Value after ) throws IndexEntryConflictException, IOException
+    private void verifyChangeWithCorrectUpdaterNotMixed( IndexUpdater correctUpdater, Value[] values )
+            throws IndexEntryConflictException, IOException
     {
-        IndexEntryUpdate<LabelSchemaDescriptor> update = FusionIndexTestHelp.change( before, after );
-        fusionIndexUpdater.process( update );
-        verify( correctPopulator, times( 1 ) ).process( update );
-        verify( wrongPopulator, times( 0 ) ).process( update );
+        for ( Value before : values )
+        {
+            for ( Value after : values )
+            {
+                IndexEntryUpdate<LabelSchemaDescriptor> update = FusionIndexTestHelp.change( before, after );
+                fusionIndexUpdater.process( update );
+                verifyProcessedOnlyBy( correctUpdater, update );
+            }
+        }
+    }
+
+    private void verifyProcessedOnlyBy( IndexUpdater correctUpdater, IndexEntryUpdate<LabelSchemaDescriptor> update )
+            throws IOException, IndexEntryConflictException
+    {
+        verify( correctUpdater, times( 1 ) ).process( update );
+        for ( IndexUpdater updater : allUpdaters )
+        {
+            if ( updater != correctUpdater )
+            {
+                verify( updater, times( 0 ) ).process( update );
+            }
+        }
     }
 
     private void verifyChangeWithCorrectUpdaterMixed( IndexUpdater expectRemoveFrom, IndexUpdater expectAddTo, Value[] beforeValues,
@@ -261,43 +306,60 @@ public class FusionIndexUpdaterTest
     /* close */
 
     @Test
-    public void closeMustCloseBothNativeAndLucene() throws Exception
+    public void closeMustCloseAll() throws Exception
     {
         // when
         fusionIndexUpdater.close();
 
         // then
-        verify( nativeUpdater, times( 1 ) ).close();
-        verify( luceneUpdater, times( 1 ) ).close();
+        for ( IndexUpdater updater : allUpdaters )
+        {
+            verify( updater, times( 1 ) ).close();
+        }
+    }
+
+    @Test
+    public void closeMustThrowIfAnyThrow() throws Exception
+    {
+        for ( int i = 0; i < allUpdaters.length; i++ )
+        {
+            setup();
+            FusionIndexTestHelp.verifyFusionCloseThrowOnSingleCloseThrow( allUpdaters[i], fusionIndexUpdater );
+        }
     }
 
     @Test
-    public void closeMustThrowIfLuceneThrow() throws Exception
+    public void closeMustCloseOthersIfLuceneThrow() throws Exception
     {
-        FusionIndexTestHelp.verifyFusionCloseThrowOnSingleCloseThrow( luceneUpdater, fusionIndexUpdater );
+        FusionIndexTestHelp.verifyOtherIsClosedOnSingleThrow( luceneUpdater, fusionIndexUpdater, numberUpdater, stringUpdater,
+                compositeUpdater );
     }
 
     @Test
-    public void closeMustThrowIfNativeThrow() throws Exception
+    public void closeMustCloseOthersIfNumberThrow() throws Exception
     {
-        FusionIndexTestHelp.verifyFusionCloseThrowOnSingleCloseThrow( nativeUpdater, fusionIndexUpdater );
+        FusionIndexTestHelp.verifyOtherIsClosedOnSingleThrow( numberUpdater, fusionIndexUpdater, stringUpdater, compositeUpdater,
+                luceneUpdater );
     }
 
     @Test
-    public void closeMustCloseNativeIfLuceneThrow() throws Exception
+    public void closeMustCloseOthersIfStringThrow() throws Exception
     {
-        FusionIndexTestHelp.verifyOtherIsClosedOnSingleThrow( luceneUpdater, nativeUpdater, fusionIndexUpdater );
+        FusionIndexTestHelp.verifyOtherIsClosedOnSingleThrow( stringUpdater, fusionIndexUpdater, numberUpdater, compositeUpdater,
+                luceneUpdater );
     }
 
     @Test
-    public void closeMustCloseLuceneIfNativeThrow() throws Exception
+    public void closeMustCloseOthersIfCompositeThrow() throws Exception
     {
-        FusionIndexTestHelp.verifyOtherIsClosedOnSingleThrow( nativeUpdater, luceneUpdater, fusionIndexUpdater );
+        FusionIndexTestHelp.verifyOtherIsClosedOnSingleThrow( compositeUpdater, fusionIndexUpdater, numberUpdater, stringUpdater,
+                luceneUpdater );
     }
 
     @Test
-    public void closeMustThrowIfBothThrow() throws Exception
+    public void closeMustThrowIfAllThrow() throws Exception
     {
-        FusionIndexTestHelp.verifyFusionCloseThrowIfBothThrow( nativeUpdater, luceneUpdater, fusionIndexUpdater );
+        FusionIndexTestHelp.verifyFusionCloseThrowIfAllThrow( fusionIndexUpdater, numberUpdater, stringUpdater,
+                compositeUpdater, luceneUpdater );
     }
 }
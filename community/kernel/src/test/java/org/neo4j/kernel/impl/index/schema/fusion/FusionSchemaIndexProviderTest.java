@@ -48,15 +48,23 @@ public class FusionSchemaIndexProviderTest
 {
     private static final SchemaIndexProvider.Descriptor DESCRIPTOR = new SchemaIndexProvider.Descriptor( "test-fusion", "1" );
 
-    private SchemaIndexProvider nativeProvider;
+    private SchemaIndexProvider numberProvider;
+    private SchemaIndexProvider stringProvider;
+    private SchemaIndexProvider compositeProvider;
     private SchemaIndexProvider luceneProvider;
+    private SchemaIndexProvider[] allProviders;
 
     @Before
     public void setup()
     {
-        nativeProvider = mock( SchemaIndexProvider.class );
+        numberProvider = mock( SchemaIndexProvider.class );
+        stringProvider = mock( SchemaIndexProvider.class );
+        compositeProvider = mock( SchemaIndexProvider.class );
         luceneProvider = mock( SchemaIndexProvider.class );
-        when( nativeProvider.getProviderDescriptor() ).thenReturn( new SchemaIndexProvider.Descriptor( "native", "1" ) );
+        allProviders = new SchemaIndexProvider[]{numberProvider, stringProvider, compositeProvider, luceneProvider};
+        when( numberProvider.getProviderDescriptor() ).thenReturn( new SchemaIndexProvider.Descriptor( "number", "1" ) );
+        when( stringProvider.getProviderDescriptor() ).thenReturn( new SchemaIndexProvider.Descriptor( "string", "1" ) );
+        when( compositeProvider.getProviderDescriptor() ).thenReturn( new SchemaIndexProvider.Descriptor( "composite", "1" ) );
         when( luceneProvider.getProviderDescriptor() ).thenReturn( new SchemaIndexProvider.Descriptor( "lucene", "1" ) );
     }
 
@@ -67,41 +75,59 @@ public class FusionSchemaIndexProviderTest
     public void mustSelectCorrectTargetForAllGivenValueCombinations() throws Exception
     {
         // given
-        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNative();
+        Value[] numberValues = FusionIndexTestHelp.valuesSupportedByNumber();
+        Value[] stringValues = FusionIndexTestHelp.valuesSupportedByString();
         Value[] otherValues = FusionIndexTestHelp.valuesNotSupportedByNative();
         Value[] allValues = FusionIndexTestHelp.allValues();
 
-        // Number values should go to native provider
+        // Number values should go to number provider
         Selector selector = new NativeSelector();
         for ( Value numberValue : numberValues )
         {
             // when
-            SchemaIndexProvider selected = selector.select( nativeProvider, luceneProvider, numberValue );
+            SchemaIndexProvider selected =
+                    selector.select( numberProvider, stringProvider, compositeProvider, luceneProvider, numberValue );
 
             // then
-            assertSame( nativeProvider, selected );
+            assertSame( numberProvider, selected );
+        }
+
+        // String values should go to string provider
+        for ( Value stringValue : stringValues )
+        {
+            // when
+            SchemaIndexProvider selected =
+                    selector.select( numberProvider, stringProvider, compositeProvider, luceneProvider, stringValue );
+
+            // then
+            assertSame( stringProvider, selected );
         }
 
         // Other values should go to lucene provider
         for ( Value otherValue : otherValues )
         {
             // when
-            SchemaIndexProvider selected = selector.select( nativeProvider, luceneProvider, otherValue );
+            SchemaIndexProvider selected =
+                    selector.select( numberProvider, stringProvider, compositeProvider, luceneProvider, otherValue );
 
             // then
             assertSame( luceneProvider, selected );
         }
 
-        // All composite values should go to lucene
+        // Composite values made up of numbers and short strings should go to composite provider, the rest to lucene
         for ( Value firstValue : allValues )
         {
             for ( Value secondValue : allValues )
             {
                 // when
-                SchemaIndexProvider selected = selector.select( nativeProvider, luceneProvider, firstValue, secondValue );
+                SchemaIndexProvider selected = selector.select( numberProvider, stringProvider, compositeProvider,
+                        luceneProvider, firstValue, secondValue );
 
                 // then
-                assertSame( luceneProvider, selected );
+                SchemaIndexProvider expected =
+                        FusionIndexTestHelp.supportedByComposite( firstValue, secondValue ) ? compositeProvider
+                                                                                             : luceneProvider;
+                assertSame( expected, selected );
             }
         }
     }
@@ -110,10 +136,20 @@ public class FusionSchemaIndexProviderTest
     public void mustCombineSamples() throws Exception
     {
         // given
-        int nativeIndexSize = random.nextInt( 0, 1_000_000 );
-        int nativeUniqueValues = random.nextInt( 0, 1_000_000 );
-        int nativeSampleSize = random.nextInt( 0, 1_000_000 );
-        IndexSample nativeSample = new IndexSample( nativeIndexSize, nativeUniqueValues, nativeSampleSize );
+        int numberIndexSize = random.nextInt( 0, 1_000_000 );
+        int numberUniqueValues = random.nextInt( 0, 1_000_000 );
+        int numberSampleSize = random.nextInt( 0, 1_000_000 );
+        IndexSample numberSample = new IndexSample( numberIndexSize, numberUniqueValues, numberSampleSize );
+
+        int stringIndexSize = random.nextInt( 0, 1_000_000 );
+        int stringUniqueValues = random.nextInt( 0, 1_000_000 );
+        int stringSampleSize = random.nextInt( 0, 1_000_000 );
+        IndexSample stringSample = new IndexSample( stringIndexSize, stringUniqueValues, stringSampleSize );
+
+        int compositeIndexSize = random.nextInt( 0, 1_000_000 );
+        int compositeUniqueValues = random.nextInt( 0, 1_000_000 );
+        int compositeSampleSize = random.nextInt( 0, 1_000_000 );
+        IndexSample compositeSample = new IndexSample( compositeIndexSize, compositeUniqueValues, compositeSampleSize );
 
         int luceneIndexSize = random.nextInt( 0, 1_000_000 );
         int luceneUniqueValues = random.nextInt( 0, 1_000_000 );
@@ -121,12 +157,16 @@ public class FusionSchemaIndexProviderTest
         IndexSample luceneSample = new IndexSample( luceneIndexSize, luceneUniqueValues, luceneSampleSize );
 
         // when
-        IndexSample fusionSample = FusionSchemaIndexProvider.combineSamples( nativeSample, luceneSample );
+        IndexSample fusionSample = FusionSchemaIndexProvider.combineSamples( numberSample, stringSample, compositeSample,
+                luceneSample );
 
         // then
-        assertEquals( nativeIndexSize + luceneIndexSize, fusionSample.indexSize() );
-        assertEquals( nativeUniqueValues + luceneUniqueValues, fusionSample.uniqueValues() );
-        assertEquals( nativeSampleSize + luceneSampleSize, fusionSample.sampleSize() );
+        assertEquals( numberIndexSize + stringIndexSize + compositeIndexSize + luceneIndexSize,
+                fusionSample.indexSize() );
+        assertEquals( numberUniqueValues + stringUniqueValues + compositeUniqueValues + luceneUniqueValues,
+                fusionSample.uniqueValues() );
+        assertEquals( numberSampleSize + stringSampleSize + compositeSampleSize + luceneSampleSize,
+                fusionSample.sampleSize() );
     }
 
     @Test
@@ -137,10 +177,11 @@ public class FusionSchemaIndexProviderTest
 
         // when
         // ... no failure
-        IllegalStateException nativeThrow = new IllegalStateException( "no native failure" );
-        IllegalStateException luceneThrow = new IllegalStateException( "no lucene failure" );
-        when( nativeProvider.getPopulationFailure( anyLong() ) ).thenThrow( nativeThrow );
-        when( luceneProvider.getPopulationFailure( anyLong() ) ).thenThrow( luceneThrow );
+        for ( SchemaIndexProvider provider : allProviders )
+        {
+            when( provider.getPopulationFailure( anyLong() ) ).thenThrow( new IllegalStateException( "no failure" ) );
+        }
+
         // then
         try
         {
@@ -153,103 +194,99 @@ public class FusionSchemaIndexProviderTest
     }
 
     @Test
-    public void getPopulationFailureMustReportFailureWhenNativeFailure() throws Exception
+    public void getPopulationFailureMustReportFailureWhenAnyFailure() throws Exception
     {
-        FusionSchemaIndexProvider fusionSchemaIndexProvider = fusionProvider();
-
-        // when
-        // ... native failure
-        String nativeFailure = "native failure";
-        IllegalStateException luceneThrow = new IllegalStateException( "no lucene failure" );
-        when( nativeProvider.getPopulationFailure( anyLong() ) ).thenReturn( nativeFailure );
-        when( luceneProvider.getPopulationFailure( anyLong() ) ).thenThrow( luceneThrow );
-        // then
-        assertThat( fusionSchemaIndexProvider.getPopulationFailure( 0 ), containsString( nativeFailure ) );
-    }
+        for ( int i = 0; i < allProviders.length; i++ )
+        {
+            // given
+            setup();
+            SchemaIndexProvider failingProvider = allProviders[i];
+            FusionSchemaIndexProvider fusionSchemaIndexProvider = fusionProvider();
 
-    @Test
-    public void getPopulationFailureMustReportFailureWhenLuceneFailure() throws Exception
-    {
-        FusionSchemaIndexProvider fusionSchemaIndexProvider = fusionProvider();
+            // when
+            // ... one failure
+            String failure = failingProvider.getProviderDescriptor().getKey() + " failure";
+            for ( SchemaIndexProvider provider : allProviders )
+            {
+                if ( provider == failingProvider )
+                {
+                    when( provider.getPopulationFailure( anyLong() ) ).thenReturn( failure );
+                }
+                else
+                {
+                    when( provider.getPopulationFailure( anyLong() ) ).thenThrow( new IllegalStateException( "no failure" ) );
+                }
+            }
 
-        // when
-        // ... lucene failure
-        String luceneFailure = "lucene failure";
-        IllegalStateException nativeThrow = new IllegalStateException( "no native failure" );
-        when( nativeProvider.getPopulationFailure( anyLong() ) ).thenThrow( nativeThrow );
-        when( luceneProvider.getPopulationFailure( anyLong() ) ).thenReturn( luceneFailure );
-        // then
-        assertThat( fusionSchemaIndexProvider.getPopulationFailure( 0 ), containsString( luceneFailure ) );
+            // then
+            assertThat( fusionSchemaIndexProvider.getPopulationFailure( 0 ), containsString( failure ) );
+        }
     }
 
     @Test
-    public void getPopulationFailureMustReportFailureWhenBothFailure() throws Exception
+    public void getPopulationFailureMustReportFailureWhenAllFailure() throws Exception
     {
         FusionSchemaIndexProvider fusionSchemaIndexProvider = fusionProvider();
 
         // when
-        // ... native and lucene failure
+        // ... number, string, composite and lucene failure
+        String numberFailure = "number failure";
+        String stringFailure = "string failure";
+        String compositeFailure = "composite failure";
         String luceneFailure = "lucene failure";
-        String nativeFailure = "native failure";
-        when( nativeProvider.getPopulationFailure( anyLong() ) ).thenReturn( nativeFailure );
+        when( numberProvider.getPopulationFailure( anyLong() ) ).thenReturn( numberFailure );
+        when( stringProvider.getPopulationFailure( anyLong() ) ).thenReturn( stringFailure );
+        when( compositeProvider.getPopulationFailure( anyLong() ) ).thenReturn( compositeFailure );
         when( luceneProvider.getPopulationFailure( anyLong() ) ).thenReturn( luceneFailure );
+
         // then
         String populationFailure = fusionSchemaIndexProvider.getPopulationFailure( 0 );
-        assertThat( populationFailure, containsString( nativeFailure ) );
+        assertThat( populationFailure, containsString( numberFailure ) );
+        assertThat( populationFailure, containsString( stringFailure ) );
+        assertThat( populationFailure, containsString( compositeFailure ) );
         assertThat( populationFailure, containsString( luceneFailure ) );
     }
 
     @Test
     public void shouldReportFailedIfAnyIsFailed() throws Exception
     {
-        // given
-        SchemaIndexProvider provider = fusionProvider();
-        IndexDescriptor indexDescriptor = IndexDescriptorFactory.forLabel( 1, 1 );
-
-        for ( InternalIndexState state : InternalIndexState.values() )
-        {
-            // when
-            setInitialState( nativeProvider, InternalIndexState.FAILED );
-            setInitialState( luceneProvider, state );
-            InternalIndexState failed1 = provider.getInitialState( 0, indexDescriptor );
-
-            setInitialState( nativeProvider, state );
-            setInitialState( luceneProvider, InternalIndexState.FAILED );
-            InternalIndexState failed2 = provider.getInitialState( 0, indexDescriptor );
-
-            // then
-            assertEquals( InternalIndexState.FAILED, failed1 );
-            assertEquals( InternalIndexState.FAILED, failed2 );
-        }
+        verifyInitialStateDominatesOthers( InternalIndexState.FAILED, InternalIndexState.values() );
     }
 
     @Test
     public void shouldReportPopulatingIfAnyIsPopulating() throws Exception
+    {
+        verifyInitialStateDominatesOthers( InternalIndexState.POPULATING,
+                array( InternalIndexState.ONLINE, InternalIndexState.POPULATING ) );
+    }
+
+    private void verifyInitialStateDominatesOthers( InternalIndexState dominatingState, InternalIndexState[] otherStates )
     {
         // given
         SchemaIndexProvider provider = fusionProvider();
         IndexDescriptor indexDescriptor = IndexDescriptorFactory.forLabel( 1, 1 );
 
-        for ( InternalIndexState state : array( InternalIndexState.ONLINE, InternalIndexState.POPULATING ) )
+        for ( SchemaIndexProvider dominatingProvider : allProviders )
         {
-            // when
-            setInitialState( nativeProvider, InternalIndexState.POPULATING );
-            setInitialState( luceneProvider, state );
-            InternalIndexState failed1 = provider.getInitialState( 0, indexDescriptor );
-
-            setInitialState( nativeProvider, state );
-            setInitialState( luceneProvider, InternalIndexState.POPULATING );
-            InternalIndexState failed2 = provider.getInitialState( 0, indexDescriptor );
+            for ( InternalIndexState state : otherStates )
+            {
+                // when
+                for ( SchemaIndexProvider other : allProviders )
+                {
+                    setInitialState( other, other == dominatingProvider ? dominatingState : state );
+                }
+                InternalIndexState initialState = provider.getInitialState( 0, indexDescriptor );
 
-            // then
-            assertEquals( InternalIndexState.POPULATING, failed1 );
-            assertEquals( InternalIndexState.POPULATING, failed2 );
+                // then
+                assertEquals( dominatingState, initialState );
+            }
         }
     }
 
     private FusionSchemaIndexProvider fusionProvider()
     {
-        return new FusionSchemaIndexProvider( nativeProvider, luceneProvider, new NativeSelector(), DESCRIPTOR, 10 );
+        return new FusionSchemaIndexProvider( numberProvider, stringProvider, compositeProvider, luceneProvider,
+                new NativeSelector(), DESCRIPTOR, 10 );
     }
 
     private void setInitialState( SchemaIndexProvider mockedProvider, InternalIndexState state )
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.neo4j.kernel.impl.api.BatchTransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class ParallelNeoStoreBatchTransactionApplierTest
+{
+    private final NeoStores neoStores = mock( NeoStores.class );
+    private final NodeStore nodeStore = mock( NodeStore.class );
+    private final RelationshipStore relationshipStore = mock( RelationshipStore.class );
+    private final PropertyStore propertyStore = mock( PropertyStore.class );
+    private final RelationshipGroupStore relationshipGroupStore = mock( RelationshipGroupStore.class );
+    private final LockService lockService = mock( LockService.class );
+    private final TransactionToApply transaction = mock( TransactionToApply.class );
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        when( neoStores.getNodeStore() ).thenReturn( nodeStore );
+        when( neoStores.getRelationshipStore() ).thenReturn( relationshipStore );
+        when( neoStores.getPropertyStore() ).thenReturn( propertyStore );
+        when( neoStores.getRelationshipGroupStore() ).thenReturn( relationshipGroupStore );
+        when( lockService.acquireNodeLock( anyLong(), any() ) ).thenReturn( LockService.NO_LOCK );
+        when( transaction.transactionId() ).thenReturn( 1L );
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteRecordsOfEachStoreInTransactionOrder() throws Exception
+    {
+        // given
+        BatchTransactionApplier applier = newApplier();
+        List<RelationshipGroupRecord> groups = new ArrayList<>();
+        List<RelationshipRecord> relationships = new ArrayList<>();
+
+        // when
+        for ( int tx = 0; tx < 2_500; tx++ )
+        {
+            try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+            {
+                RelationshipGroupRecord group = new RelationshipGroupRecord( tx % 7 );
+                group.setInUse( tx % 2 == 0 );
+                groups.add( group );
+                txApplier.visitRelationshipGroupCommand(
+                        new Command.RelationshipGroupCommand( new RelationshipGroupRecord( tx % 7 ), group ) );
+
+                RelationshipRecord relationship = new RelationshipRecord( tx % 3 );
+                relationship.setInUse( tx % 2 == 1 );
+                relationships.add( relationship );
+                txApplier.visitRelationshipCommand(
+                        new Command.RelationshipCommand( new RelationshipRecord( tx % 3 ), relationship ) );
+            }
+        }
+        applier.close();
+
+        // then
+        ArgumentCaptor<RelationshipGroupRecord> writtenGroups = ArgumentCaptor.forClass( RelationshipGroupRecord.class );
+        verify( relationshipGroupStore, times( groups.size() ) ).updateRecord( writtenGroups.capture() );
+        assertEquals( groups, writtenGroups.getAllValues() );
+        ArgumentCaptor<RelationshipRecord> writtenRelationships = ArgumentCaptor.forClass( RelationshipRecord.class );
+        verify( relationshipStore, times( relationships.size() ) ).updateRecord( writtenRelationships.capture() );
+        assertEquals( relationships, writtenRelationships.getAllValues() );
+        verifyZeroInteractions( propertyStore );
+    }
+
+    @Test
+    public void shouldWriteNodeRecordsOnTheApplyingThread() throws Exception
+    {
+        // given
+        BatchTransactionApplier applier = newApplier();
+        NodeRecord after = new NodeRecord( 1 );
+        after.setInUse( true );
+
+        // when
+        try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+        {
+            txApplier.visitNodeCommand( new Command.NodeCommand( new NodeRecord( 1 ), after ) );
+
+            // then
+            verify( nodeStore ).updateRecord( after );
+        }
+        applier.close();
+    }
+
+    @Test
+    public void shouldWritePropertyRecordsOnTheApplyingThread() throws Exception
+    {
+        // given
+        BatchTransactionApplier applier = newApplier();
+        PropertyRecord after = new PropertyRecord( 1 );
+        after.setInUse( true );
+
+        // when
+        try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+        {
+            txApplier.visitPropertyCommand( new Command.PropertyCommand( new PropertyRecord( 1 ), after ) );
+
+            // then
+            verify( propertyStore ).updateRecord( after );
+        }
+        applier.close();
+    }
+
+    @Test
+    public void shouldFailOnCloseIfRecordsCouldNotBeWritten() throws Exception
+    {
+        // given
+        RuntimeException failure = new RuntimeException( "Could not write" );
+        doThrow( failure ).when( relationshipStore ).updateRecord( any( RelationshipRecord.class ) );
+        BatchTransactionApplier applier = newApplier();
+        try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+        {
+            RelationshipRecord relationship = new RelationshipRecord( 1 );
+            txApplier.visitRelationshipCommand(
+                    new Command.RelationshipCommand( new RelationshipRecord( 1 ), relationship ) );
+        }
+
+        try
+        {
+            // when
+            applier.close();
+            fail( "Should have failed" );
+        }
+        catch ( UnderlyingStorageException e )
+        {
+            // then
+            assertSame( failure, e.getCause() );
+        }
+    }
+
+    private BatchTransactionApplier newApplier()
+    {
+        return new ParallelNeoStoreBatchTransactionApplier( neoStores, mock( CacheAccessBackDoor.class ), lockService,
+                executor );
+    }
+}
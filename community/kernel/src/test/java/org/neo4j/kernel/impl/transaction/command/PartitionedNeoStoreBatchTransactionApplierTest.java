@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PartitionedNeoStoreBatchTransactionApplierTest
+{
+    private static final int THRESHOLD = 10;
+
+    private final NeoStores neoStores = mock( NeoStores.class );
+    private final RelationshipStore relationshipStore = mock( RelationshipStore.class );
+    private final PropertyStore propertyStore = mock( PropertyStore.class );
+    private final LockService lockService = mock( LockService.class );
+    private final TransactionToApply transaction = mock( TransactionToApply.class );
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        when( neoStores.getRelationshipStore() ).thenReturn( relationshipStore );
+        when( neoStores.getPropertyStore() ).thenReturn( propertyStore );
+        when( relationshipStore.getRecordsPerPage() ).thenReturn( 8 );
+        when( propertyStore.getRecordsPerPage() ).thenReturn( 8 );
+        when( lockService.acquireNodeLock( anyLong(), any() ) ).thenReturn( LockService.NO_LOCK );
+        when( lockService.acquireRelationshipLock( anyLong(), any() ) ).thenReturn( LockService.NO_LOCK );
+        when( transaction.transactionId() ).thenReturn( 1L );
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteRecordsOfSmallTransactionsOnTheApplyingThread() throws Exception
+    {
+        // given
+        PartitionedNeoStoreBatchTransactionApplier applier = newApplier();
+        TransactionApplier completion = applier.completion().startTx( transaction );
+
+        // when
+        try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+        {
+            for ( int i = 0; i < THRESHOLD; i++ )
+            {
+                RelationshipRecord relationship = new RelationshipRecord( i );
+                txApplier.visitRelationshipCommand(
+                        new Command.RelationshipCommand( new RelationshipRecord( i ), relationship ) );
+
+                // then
+                verify( relationshipStore ).updateRecord( relationship );
+            }
+            completion.close();
+        }
+        applier.close();
+    }
+
+    @Test
+    public void shouldWritePropertyRecordsOfLargeTransactionsOnTheApplyingThread() throws Exception
+    {
+        // given
+        PartitionedNeoStoreBatchTransactionApplier applier = newApplier();
+        TransactionApplier completion = applier.completion().startTx( transaction );
+
+        // when
+        try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+        {
+            for ( int i = 0; i < THRESHOLD * 2; i++ )
+            {
+                txApplier.visitRelationshipCommand(
+                        new Command.RelationshipCommand( new RelationshipRecord( i ), new RelationshipRecord( i ) ) );
+                PropertyRecord property = new PropertyRecord( i );
+                txApplier.visitPropertyCommand( new Command.PropertyCommand( new PropertyRecord( i ), property ) );
+
+                // then
+                verify( propertyStore ).updateRecord( property );
+            }
+            completion.close();
+        }
+        applier.close();
+    }
+
+    @Test
+    public void shouldWriteAllRecordsOfLargeTransactionInParallelBeforeItIsCompleted() throws Exception
+    {
+        // given
+        PartitionedNeoStoreBatchTransactionApplier applier = newApplier();
+        TransactionApplier completion = applier.completion().startTx( transaction );
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        Set<Thread> writers = ConcurrentHashMap.newKeySet();
+        doAnswer( invocation ->
+        {
+            written.add( invocation.getArgumentAt( 0, RelationshipRecord.class ).getId() );
+            writers.add( Thread.currentThread() );
+            return null;
+        } ).when( relationshipStore ).updateRecord( any( RelationshipRecord.class ) );
+        Set<Long> relationships = new HashSet<>();
+
+        // when
+        try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+        {
+            for ( long id = 0; id < 10_000; id++ )
+            {
+                relationships.add( id );
+                txApplier.visitRelationshipCommand(
+                        new Command.RelationshipCommand( new RelationshipRecord( id ), new RelationshipRecord( id ) ) );
+            }
+            completion.close();
+
+            // then
+            assertEquals( relationships, written );
+        }
+        applier.close();
+        assertTrue( writers.contains( Thread.currentThread() ) );
+        writers.remove( Thread.currentThread() );
+        assertFalse( writers.isEmpty() );
+    }
+
+    @Test
+    public void shouldFailOnCompletionIfRecordsCouldNotBeWritten() throws Exception
+    {
+        // given
+        RuntimeException failure = new RuntimeException( "Could not write" );
+        PartitionedNeoStoreBatchTransactionApplier applier = newApplier();
+        TransactionApplier completion = applier.completion().startTx( transaction );
+        try ( TransactionApplier txApplier = applier.startTx( transaction, new LockGroup() ) )
+        {
+            for ( int i = 0; i < THRESHOLD * 2; i++ )
+            {
+                txApplier.visitRelationshipCommand(
+                        new Command.RelationshipCommand( new RelationshipRecord( i ), new RelationshipRecord( i ) ) );
+                if ( i == THRESHOLD - 1 )
+                {
+                    doThrow( failure ).when( relationshipStore ).updateRecord( any( RelationshipRecord.class ) );
+                }
+            }
+
+            try
+            {
+                // when
+                completion.close();
+                fail( "Should have failed" );
+            }
+            catch ( UnderlyingStorageException e )
+            {
+                // then
+                assertSame( failure, e.getCause() );
+            }
+        }
+        applier.close();
+    }
+
+    private PartitionedNeoStoreBatchTransactionApplier newApplier()
+    {
+        return new PartitionedNeoStoreBatchTransactionApplier( neoStores, mock( CacheAccessBackDoor.class ),
+                lockService, executor, 4, THRESHOLD );
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.DeadSimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.Monitor;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class LogFileCompressorTest
+{
+    private static final int BLOCK_SIZE = 128;
+    private static final int LONGS_PER_VERSION = 1_000;
+
+    private final TestDirectory directory = TestDirectory.testDirectory();
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    private final LifeRule life = new LifeRule( true );
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( directory ).around( fileSystemRule ).around( life );
+
+    private FileSystemAbstraction fs;
+    private PhysicalLogFiles logFiles;
+    private PhysicalLogFile logFile;
+    private LogPosition[] versionStarts;
+
+    @Before
+    public void writeLogs() throws Exception
+    {
+        fs = fileSystemRule.get();
+        logFiles = new PhysicalLogFiles( directory.directory(), "log", fs );
+        logFile = life.add( new PhysicalLogFile( fs, logFiles, Long.MAX_VALUE, () -> 1L,
+                new DeadSimpleLogVersionRepository( 0L ), mock( Monitor.class ), new LogHeaderCache( 10 ) ) );
+
+        // Three log versions, each with a sequence of longs, of which the first two are rotated
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        LogPositionMarker marker = new LogPositionMarker();
+        versionStarts = new LogPosition[3];
+        for ( int version = 0; version < versionStarts.length; version++ )
+        {
+            if ( version > 0 )
+            {
+                logFile.rotate();
+            }
+            writer.getCurrentPosition( marker );
+            versionStarts[version] = marker.newPosition();
+            for ( int i = 0; i < LONGS_PER_VERSION; i++ )
+            {
+                writer.putLong( value( version, i ) );
+            }
+            writer.prepareForFlush().flush();
+        }
+    }
+
+    @Test
+    public void shouldCompressLogsBelowGivenVersion() throws Exception
+    {
+        // GIVEN
+        long sizeBefore = fs.getFileSize( logFiles.getLogFileForVersion( 0 ) );
+        LogFileCompressor compressor = new LogFileCompressor( fs, logFiles, BLOCK_SIZE );
+
+        // WHEN
+        int compressed = compressor.compressUpTo( 2 );
+
+        // THEN
+        assertEquals( 2, compressed );
+        assertTrue( isCompressed( 0 ) );
+        assertTrue( isCompressed( 1 ) );
+        assertFalse( isCompressed( 2 ) );
+        assertTrue( fs.getFileSize( logFiles.getLogFileForVersion( 0 ) ) < sizeBefore );
+        assertEquals( 0, compressor.compressUpTo( 2 ) );
+    }
+
+    @Test
+    public void shouldReadCompressedLogsTransparently() throws Exception
+    {
+        // GIVEN
+        new LogFileCompressor( fs, logFiles, BLOCK_SIZE ).compressUpTo( 2 );
+
+        // WHEN reading from the start of the first version, across into the uncompressed current version
+        try ( ReadableLogChannel reader = logFile.getReader( versionStarts[0] ) )
+        {
+            // THEN
+            for ( int version = 0; version < versionStarts.length; version++ )
+            {
+                for ( int i = 0; i < LONGS_PER_VERSION; i++ )
+                {
+                    assertEquals( value( version, i ), reader.getLong() );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadFromPositionsWithinCompressedLog() throws Exception
+    {
+        // GIVEN
+        new LogFileCompressor( fs, logFiles, BLOCK_SIZE ).compressUpTo( 2 );
+
+        // WHEN reading from positions in the middle of, and at the edges of, the compressed blocks
+        for ( int i : new int[]{LONGS_PER_VERSION - 1, 0, 15, 16, 17, 500, 333} )
+        {
+            LogPosition position = new LogPosition( 1, versionStarts[1].getByteOffset() + i * Long.BYTES );
+            try ( ReadableLogChannel reader = logFile.getReader( position ) )
+            {
+                // THEN
+                assertEquals( value( 1, i ), reader.getLong() );
+                LogPositionMarker marker = new LogPositionMarker();
+                reader.getCurrentPosition( marker );
+                assertEquals( new LogPosition( 1, position.getByteOffset() + Long.BYTES ), marker.newPosition() );
+            }
+        }
+    }
+
+    private boolean isCompressed( long version ) throws Exception
+    {
+        File file = logFiles.getLogFileForVersion( version );
+        try ( StoreChannel channel = fs.open( file, "r" ) )
+        {
+            return CompressedLogVersionedStoreChannel.isCompressed( channel );
+        }
+    }
+
+    private static long value( int version, int i )
+    {
+        // Values that compress, but not to nothing
+        return version * 1_000_000L + i;
+    }
+}
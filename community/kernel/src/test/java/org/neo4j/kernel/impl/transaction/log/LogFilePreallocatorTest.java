@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogFilePreallocatorTest
+{
+    private static final int FILE_SIZE = 100_000;
+
+    private final TestDirectory directory = TestDirectory.testDirectory();
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( directory ).around( fileSystemRule );
+
+    @Test
+    public void shouldRecycleZeroedPrunedLogFileAsNewLogFile() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), "log", fs );
+        LogFilePreallocator preallocator = new LogFilePreallocator( fs, logFiles, FILE_SIZE );
+        File prunedFile = logFiles.getLogFileForVersion( 0 );
+        writeOnes( fs, prunedFile, FILE_SIZE + 10 );
+
+        // WHEN
+        assertTrue( preallocator.recycle( prunedFile ) );
+        File newFile = logFiles.getLogFileForVersion( 5 );
+        assertTrue( preallocator.reuse( newFile ) );
+
+        // THEN
+        assertFalse( fs.fileExists( prunedFile ) );
+        assertFalse( fs.fileExists( logFiles.getRecycledLogFile() ) );
+        assertEquals( FILE_SIZE, fs.getFileSize( newFile ) );
+        try ( StoreChannel channel = fs.open( newFile, "r" ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( FILE_SIZE );
+            while ( buffer.hasRemaining() && channel.read( buffer ) != -1 )
+            {
+                // Keep reading until the whole file is read
+            }
+            for ( int i = 0; i < FILE_SIZE; i++ )
+            {
+                assertEquals( 0, buffer.get( i ) );
+            }
+        }
+    }
+
+    @Test
+    public void shouldOnlyKeepOneRecycledLogFile() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), "log", fs );
+        LogFilePreallocator preallocator = new LogFilePreallocator( fs, logFiles, FILE_SIZE );
+        writeOnes( fs, logFiles.getLogFileForVersion( 0 ), 100 );
+        writeOnes( fs, logFiles.getLogFileForVersion( 1 ), 100 );
+
+        // WHEN
+        assertTrue( preallocator.recycle( logFiles.getLogFileForVersion( 0 ) ) );
+        boolean recycledSecond = preallocator.recycle( logFiles.getLogFileForVersion( 1 ) );
+
+        // THEN
+        assertFalse( recycledSecond );
+        assertTrue( fs.fileExists( logFiles.getLogFileForVersion( 1 ) ) );
+        assertTrue( preallocator.reuse( logFiles.getLogFileForVersion( 2 ) ) );
+        assertFalse( preallocator.reuse( logFiles.getLogFileForVersion( 3 ) ) );
+    }
+
+    private static void writeOnes( FileSystemAbstraction fs, File file, int size ) throws Exception
+    {
+        try ( StoreChannel channel = fs.create( file ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( size );
+            while ( buffer.hasRemaining() )
+            {
+                buffer.put( (byte) 1 );
+            }
+            buffer.flip();
+            channel.writeAll( buffer );
+        }
+    }
+}
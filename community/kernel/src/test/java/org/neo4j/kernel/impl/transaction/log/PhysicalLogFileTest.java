@@ -26,6 +26,7 @@ import org.junit.rules.RuleChain;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -34,13 +35,16 @@ import org.neo4j.kernel.impl.transaction.DeadSimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.DeadSimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.Monitor;
 import org.neo4j.kernel.impl.transaction.log.entry.IncompleteLogHeaderException;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.test.rule.TestDirectory;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -186,6 +190,177 @@ public class PhysicalLogFileTest
         }
     }
 
+    @Test
+    public void shouldReadRotatedLogsThroughMemoryMapping() throws Exception
+    {
+        // GIVEN
+        String name = "log";
+        FileSystemAbstraction fs = fileSystemRule.get();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        PhysicalLogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 1000,
+                transactionIdStore::getLastCommittedTransactionId, logVersionRepository, mock( Monitor.class ),
+                new LogHeaderCache( 10 ), true ) );
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        LogPositionMarker positionMarker = new LogPositionMarker();
+        writer.getCurrentPosition( positionMarker );
+        LogPosition position = positionMarker.newPosition();
+        byte[] someBytes = someBytes( 40 );
+        writer.putLong( 1L );
+        writer.put( someBytes, someBytes.length );
+        writer.prepareForFlush().flush();
+
+        // WHEN
+        logFile.rotate();
+        writer.putLong( 2L );
+        writer.prepareForFlush().flush();
+
+        // THEN
+        try ( ReadAheadLogChannel reader = (ReadAheadLogChannel) logFile.getReader( position ) )
+        {
+            assertTrue( reader.channel instanceof MappedLogVersionedStoreChannel );
+            assertEquals( 1L, reader.getLong() );
+            assertArrayEquals( someBytes, readBytes( reader, 40 ) );
+            assertEquals( 2L, reader.getLong() );
+            assertFalse( "The current log file must not be mapped",
+                    reader.channel instanceof MappedLogVersionedStoreChannel );
+        }
+    }
+
+    @Test
+    public void shouldNotReadFromMappedLogFileOnceClosed() throws Exception
+    {
+        // GIVEN
+        String name = "log";
+        FileSystemAbstraction fs = fileSystemRule.get();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        PhysicalLogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 1000,
+                transactionIdStore::getLastCommittedTransactionId, logVersionRepository, mock( Monitor.class ),
+                new LogHeaderCache( 10 ), true ) );
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        LogPositionMarker positionMarker = new LogPositionMarker();
+        writer.getCurrentPosition( positionMarker );
+        writer.putLong( 1L );
+        writer.prepareForFlush().flush();
+        logFile.rotate();
+        ReadAheadLogChannel reader = (ReadAheadLogChannel) logFile.getReader( positionMarker.newPosition() );
+        LogVersionedStoreChannel channel = reader.channel;
+        assertTrue( channel instanceof MappedLogVersionedStoreChannel );
+
+        // WHEN
+        reader.close();
+
+        // THEN
+        try
+        {
+            channel.read( ByteBuffer.allocate( Long.BYTES ) );
+            fail( "Should not read from a closed mapping" );
+        }
+        catch ( ClosedChannelException e )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldPreallocateLogFilesAndCutThemToTheirContentsOnRotationAndShutdown() throws Exception
+    {
+        // GIVEN
+        String name = "log";
+        FileSystemAbstraction fs = fileSystemRule.get();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        PhysicalLogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 1000,
+                transactionIdStore::getLastCommittedTransactionId, logVersionRepository, mock( Monitor.class ),
+                new LogHeaderCache( 10 ), false, new LogFilePreallocator( fs, logFiles, 1000 ) ) );
+        assertEquals( 1000, fs.getFileSize( logFiles.getLogFileForVersion( 1 ) ) );
+        assertFalse( logFiles.hasAnyEntries( 1 ) );
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        writer.putLong( -1L );
+        writer.prepareForFlush().flush();
+        assertTrue( logFiles.hasAnyEntries( 1 ) );
+
+        // WHEN
+        logFile.rotate();
+        writer.putLong( -1L );
+
+        // THEN
+        assertEquals( LogHeader.LOG_HEADER_SIZE + 8, fs.getFileSize( logFiles.getLogFileForVersion( 1 ) ) );
+        assertEquals( 1000, fs.getFileSize( logFiles.getLogFileForVersion( 2 ) ) );
+        life.shutdown();
+        assertEquals( LogHeader.LOG_HEADER_SIZE + 8, fs.getFileSize( logFiles.getLogFileForVersion( 2 ) ) );
+    }
+
+    @Test
+    public void shouldContinueAfterTheLastEntryOfPreallocatedLogFile() throws Exception
+    {
+        // GIVEN a log that was not shut down cleanly, and still has its preallocated space
+        String name = "log";
+        FileSystemAbstraction fs = fileSystemRule.get();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        PhysicalLogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 1000,
+                transactionIdStore::getLastCommittedTransactionId, logVersionRepository, mock( Monitor.class ),
+                new LogHeaderCache( 10 ), false, new LogFilePreallocator( fs, logFiles, 1000 ) ) );
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        new LogEntryWriter( writer ).writeCheckPointEntry( new LogPosition( 1, LogHeader.LOG_HEADER_SIZE ) );
+        writer.prepareForFlush().flush();
+        LogPositionMarker endOfEntries = new LogPositionMarker();
+        writer.getCurrentPosition( endOfEntries );
+
+        // WHEN
+        LifeSupport restartLife = new LifeSupport();
+        PhysicalLogFile restartedLogFile = restartLife.add( new PhysicalLogFile( fs, logFiles, 1000,
+                transactionIdStore::getLastCommittedTransactionId, logVersionRepository, mock( Monitor.class ),
+                new LogHeaderCache( 10 ), false, new LogFilePreallocator( fs, logFiles, 1000 ) ) );
+        restartLife.start();
+        try
+        {
+            // THEN
+            LogPositionMarker position = new LogPositionMarker();
+            restartedLogFile.getWriter().getCurrentPosition( position );
+            assertEquals( endOfEntries.newPosition(), position.newPosition() );
+            assertEquals( 1000, fs.getFileSize( logFiles.getLogFileForVersion( 1 ) ) );
+        }
+        finally
+        {
+            restartLife.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCutPreallocatedSpaceWhenRestartedWithoutPreallocation() throws Exception
+    {
+        // GIVEN a log that was not shut down cleanly, and still has its preallocated space
+        String name = "log";
+        FileSystemAbstraction fs = fileSystemRule.get();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        PhysicalLogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 1000,
+                transactionIdStore::getLastCommittedTransactionId, logVersionRepository, mock( Monitor.class ),
+                new LogHeaderCache( 10 ), false, new LogFilePreallocator( fs, logFiles, 1000 ) ) );
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        new LogEntryWriter( writer ).writeCheckPointEntry( new LogPosition( 1, LogHeader.LOG_HEADER_SIZE ) );
+        writer.prepareForFlush().flush();
+        LogPositionMarker endOfEntries = new LogPositionMarker();
+        writer.getCurrentPosition( endOfEntries );
+
+        // WHEN restarted with preallocation turned off
+        LifeSupport restartLife = new LifeSupport();
+        PhysicalLogFile restartedLogFile = restartLife.add( new PhysicalLogFile( fs, logFiles, 1000,
+                transactionIdStore::getLastCommittedTransactionId, logVersionRepository, mock( Monitor.class ),
+                new LogHeaderCache( 10 ), false ) );
+        restartLife.start();
+        try
+        {
+            // THEN
+            LogPositionMarker position = new LogPositionMarker();
+            restartedLogFile.getWriter().getCurrentPosition( position );
+            assertEquals( endOfEntries.newPosition(), position.newPosition() );
+            assertEquals( endOfEntries.getByteOffset(), fs.getFileSize( logFiles.getLogFileForVersion( 1 ) ) );
+        }
+        finally
+        {
+            restartLife.shutdown();
+        }
+    }
+
     @Test
     public void shouldVisitLogFile() throws Exception
     {
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.DeadSimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.DeadSimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.Monitor;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.internal.DatabaseHealth;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.DEFAULT_NAME;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+import static org.neo4j.kernel.impl.util.IdOrderingQueue.BYPASS;
+
+public class TransactionLogIndexTest
+{
+    private static final int TRANSACTIONS_PER_LOG = 10;
+    private static final int LOG_VERSIONS = 3;
+
+    private final TestDirectory directory = TestDirectory.testDirectory();
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    private final LifeRule life = new LifeRule( true );
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( directory ).around( fileSystemRule ).around( life );
+
+    private FileSystemAbstraction fs;
+    private PhysicalLogFiles logFiles;
+    private PhysicalLogFile logFile;
+    private final VersionAwareLogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader =
+            new VersionAwareLogEntryReader<>();
+
+    @Before
+    public void appendTransactions() throws Exception
+    {
+        fs = fileSystemRule.get();
+        logFiles = new PhysicalLogFiles( directory.directory(), DEFAULT_NAME, fs );
+        TransactionIdStore transactionIdStore = new DeadSimpleTransactionIdStore();
+        logFile = life.add( new PhysicalLogFile( fs, logFiles, Long.MAX_VALUE,
+                transactionIdStore::getLastCommittedTransactionId, new DeadSimpleLogVersionRepository( 0 ),
+                mock( Monitor.class ), new LogHeaderCache( 10 ) ) );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFile, NO_ROTATION,
+                new TransactionMetadataCache( 100 ), transactionIdStore, BYPASS, mock( DatabaseHealth.class ) ) );
+
+        for ( int version = 0; version < LOG_VERSIONS; version++ )
+        {
+            if ( version > 0 )
+            {
+                logFile.rotate();
+            }
+            for ( int i = 0; i < TRANSACTIONS_PER_LOG; i++ )
+            {
+                PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation(
+                        Collections.singletonList( new Command.NodeCommand( new NodeRecord( i ), new NodeRecord( i ) ) ) );
+                transaction.setHeader( new byte[0], 1, 1, 0, 0, 0, -1 );
+                long txId = appender.append( new TransactionToApply( transaction ), LogAppendEvent.NULL );
+                transactionIdStore.transactionCommitted( txId, 0, 0 );
+                transactionIdStore.transactionClosed( txId, 0, 0 );
+            }
+        }
+    }
+
+    @Test
+    public void shouldFindTransactionsInRotatedLogsThroughIndex() throws Exception
+    {
+        // GIVEN
+        LogicalTransactionStore store = new PhysicalLogicalTransactionStore( logFile,
+                new TransactionMetadataCache( 100 ), logEntryReader,
+                new TransactionLogIndex( fs, logFiles, logEntryReader ) );
+
+        // WHEN/THEN every transaction can be found, no matter where in the logs it is
+        long lastTxId = TransactionIdStore.BASE_TX_ID + LOG_VERSIONS * TRANSACTIONS_PER_LOG;
+        for ( long txId = TransactionIdStore.BASE_TX_ID + 1; txId <= lastTxId; txId++ )
+        {
+            try ( TransactionCursor cursor = store.getTransactions( txId ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( txId, cursor.get().getCommitEntry().getTxId() );
+            }
+        }
+        assertTrue( indexFile( 0 ).exists() );
+        assertTrue( indexFile( 1 ).exists() );
+        assertFalse( "The current log must not be indexed", indexFile( 2 ).exists() );
+    }
+
+    @Test
+    public void shouldLookUpStartPositionsInIndex() throws Exception
+    {
+        // GIVEN the second log, with transactions 12 to 21
+        TransactionLogIndex index = new TransactionLogIndex( fs, logFiles, logEntryReader );
+        LogPosition position = index.startPositionOf( 1, 12, 21, 15 );
+
+        // WHEN
+        try ( TransactionCursor cursor = new PhysicalTransactionCursor<>( logFile.getReader( position ),
+                logEntryReader ) )
+        {
+            // THEN
+            assertTrue( cursor.next() );
+            assertEquals( 15, cursor.get().getCommitEntry().getTxId() );
+        }
+    }
+
+    @Test
+    public void shouldNotUseIndexOfOtherTransactionRange() throws Exception
+    {
+        // GIVEN
+        TransactionLogIndex index = new TransactionLogIndex( fs, logFiles, logEntryReader );
+        assertNotNull( index.startPositionOf( 1, 12, 21, 15 ) );
+
+        // WHEN/THEN
+        assertNull( index.startPositionOf( 1, 13, 21, 15 ) );
+        assertNull( index.startPositionOf( 1, 12, 22, 15 ) );
+    }
+
+    @Test
+    public void shouldNotBuildIndexOfLogWithOtherTransactionsThanExpected() throws Exception
+    {
+        // GIVEN
+        TransactionLogIndex index = new TransactionLogIndex( fs, logFiles, logEntryReader );
+
+        // WHEN
+        LogPosition position = index.startPositionOf( 1, 12, 26, 15 );
+
+        // THEN
+        assertNull( position );
+        assertFalse( indexFile( 1 ).exists() );
+    }
+
+    @Test
+    public void shouldNotUseDamagedIndex() throws Exception
+    {
+        // GIVEN an index of the second log, where the start offset of transaction 15 is zeroed out
+        TransactionLogIndex index = new TransactionLogIndex( fs, logFiles, logEntryReader );
+        assertNotNull( index.startPositionOf( 1, 12, 21, 15 ) );
+        try ( StoreChannel channel = fs.open( indexFile( 1 ), "rw" ) )
+        {
+            channel.writeAll( ByteBuffer.allocate( Long.BYTES ), 4 * Long.BYTES + (15 - 12) * Long.BYTES );
+        }
+
+        // WHEN/THEN
+        assertNull( index.startPositionOf( 1, 12, 21, 15 ) );
+        assertNotNull( index.startPositionOf( 1, 12, 21, 16 ) );
+    }
+
+    private File indexFile( long version )
+    {
+        return TransactionLogIndex.indexFileFor( logFiles.getLogFileForVersion( version ) );
+    }
+}
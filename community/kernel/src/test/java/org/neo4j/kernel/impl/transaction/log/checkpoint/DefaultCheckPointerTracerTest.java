@@ -25,6 +25,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.kernel.impl.transaction.log.checkpoint.DefaultCheckPointerTracer.Monitor;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.test.OnDemandJobScheduler;
 import org.neo4j.time.Clocks;
@@ -72,6 +73,21 @@ public class DefaultCheckPointerTracerTest
         verifyZeroInteractions( monitor );
     }
 
+    @Test
+    public void shouldKeepTrackOfIOLimitAdjustments() throws Throwable
+    {
+        DefaultCheckPointerTracer tracer = new DefaultCheckPointerTracer( clock, monitor, jobScheduler );
+
+        assertEquals( CheckPointTracer.UNLIMITED_IO, tracer.checkPointIOLimit() );
+        assertEquals( 0, tracer.numberOfCheckPointIOLimitAdjustments() );
+
+        tracer.ioLimitAdjusted( 300 );
+        tracer.ioLimitAdjusted( 150 );
+
+        assertEquals( 150, tracer.checkPointIOLimit() );
+        assertEquals( 2, tracer.numberOfCheckPointIOLimitAdjustments() );
+    }
+
     private void triggerEvent( DefaultCheckPointerTracer tracer, int eventDuration )
     {
         clock.forward( ThreadLocalRandom.current().nextLong( 200 ), TimeUnit.MILLISECONDS );
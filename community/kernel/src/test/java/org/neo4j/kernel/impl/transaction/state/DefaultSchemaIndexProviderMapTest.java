@@ -23,11 +23,13 @@ import org.junit.Test;
 
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 public class DefaultSchemaIndexProviderMapTest
 {
@@ -52,4 +54,22 @@ public class DefaultSchemaIndexProviderMapTest
             // then good
         }
     }
+
+    @Test
+    public void shouldOpenIndexesOfPreviousProviderVersionsWithTheCurrentProvider() throws Exception
+    {
+        // given
+        SchemaIndexProvider.Descriptor previous = new SchemaIndexProvider.Descriptor( "provider", "1.1" );
+        SchemaIndexProvider.Descriptor current = new SchemaIndexProvider.Descriptor( "provider", "1.2" );
+        SchemaIndexProvider provider = mock( SchemaIndexProvider.class );
+        when( provider.getProviderDescriptor() ).thenReturn( current );
+        when( provider.getPreviousProviderDescriptors() ).thenReturn( singletonList( previous ) );
+
+        // when
+        DefaultSchemaIndexProviderMap map = new DefaultSchemaIndexProviderMap( provider );
+
+        // then
+        assertSame( provider, map.apply( current ) );
+        assertSame( provider, map.apply( previous ) );
+    }
 }
@@ -22,7 +22,12 @@ package org.neo4j.kernel.impl.transaction.state;
 import org.junit.Test;
 
 import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
@@ -34,8 +39,11 @@ import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.transaction.state.storeview.NodeStoreScan;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 
+import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.RETURNS_MOCKS;
@@ -94,6 +102,138 @@ public class NodeStoreScanTest
         scan.run();
     }
 
+    @Test
+    public void shouldScanEachNodeOnceWithMultipleWorkers() throws Throwable
+    {
+        // given
+        final int total = 10_000;
+        givenInUseNodes( total );
+        Set<Long> scanned = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        NodeStoreScan<RuntimeException> scan = new TestNodeStoreScan( total )
+        {
+            @Override
+            public void process( NodeRecord node )
+            {
+                if ( !scanned.add( node.getId() ) )
+                {
+                    duplicates.incrementAndGet();
+                }
+            }
+        };
+        scan.configureParallelism( 4, 0 );
+
+        // when
+        scan.run();
+
+        // then
+        assertEquals( LongStream.range( 0, total ).boxed().collect( toSet() ), scanned );
+        assertEquals( 0, duplicates.get() );
+        PopulationProgress progress = scan.getProgress();
+        assertEquals( total, progress.getCompleted() );
+        assertEquals( total, progress.getTotal() );
+        long[] partitionProgress = scan.getPartitionProgress();
+        assertEquals( 4, partitionProgress.length );
+        assertEquals( total, LongStream.of( partitionProgress ).sum() );
+    }
+
+    @Test
+    public void shouldRunExclusiveTaskWhileNoWorkerIsProcessingNodes() throws Throwable
+    {
+        // given
+        final int total = 10_000;
+        givenInUseNodes( total );
+        AtomicInteger processing = new AtomicInteger();
+        AtomicInteger tasksRun = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        NodeStoreScan<RuntimeException> scan = new TestNodeStoreScan( total )
+        {
+            @Override
+            public void process( NodeRecord node )
+            {
+                processing.incrementAndGet();
+                if ( node.getId() % 1_000 == 0 )
+                {
+                    runExclusively( () ->
+                    {
+                        overlapped.compareAndSet( false, processing.get() != 0 );
+                        tasksRun.incrementAndGet();
+                    } );
+                }
+                processing.decrementAndGet();
+            }
+        };
+        scan.configureParallelism( 4, 0 );
+
+        // when
+        scan.run();
+
+        // then
+        assertTrue( tasksRun.get() > 0 );
+        assertFalse( overlapped.get() );
+    }
+
+    @Test
+    public void shouldThrottleScan() throws Throwable
+    {
+        // given
+        final int total = 200;
+        givenInUseNodes( total );
+        NodeStoreScan<RuntimeException> scan = new TestNodeStoreScan( total )
+        {
+            @Override
+            public void process( NodeRecord node )
+            {
+                // no-op
+            }
+        };
+        scan.configureParallelism( 1, 1_000 );
+
+        // when
+        long start = System.nanoTime();
+        scan.run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertTrue( "Scan of " + total + " nodes took only " + elapsedMillis + "ms", elapsedMillis >= 150 );
+        assertEquals( total, scan.getProgress().getCompleted() );
+    }
+
+    private void givenInUseNodes( long total )
+    {
+        when( nodeStore.getHighId() ).thenReturn( total );
+        when( nodeStore.newRecord() ).thenAnswer( invocation -> new NodeRecord( -1 ) );
+        when( nodeStore.getRecord( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ) ) ).thenAnswer(
+                invocation ->
+                {
+                    NodeRecord record = invocation.getArgumentAt( 1, NodeRecord.class );
+                    record.setId( invocation.getArgumentAt( 0, Long.class ) );
+                    record.setInUse( true );
+                    return record;
+                } );
+    }
+
+    private abstract class TestNodeStoreScan extends NodeStoreScan<RuntimeException>
+    {
+        TestNodeStoreScan( long totalCount )
+        {
+            super( NodeStoreScanTest.this.nodeStore, NodeStoreScanTest.this.locks, totalCount );
+        }
+
+        @Override
+        public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate update,
+                long currentlyIndexedNodeId )
+        {
+            // no-op
+        }
+
+        @Override
+        public void configure( Collection populations )
+        {
+            // no-op
+        }
+    }
+
     private static class PercentageSupplier implements Supplier<Float>
     {
         private StoreScan storeScan;
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class ReadAheadTransactionCursorTest
+{
+    @Test
+    public void shouldReadAllTransactionsWithTheirPositions() throws Exception
+    {
+        // given
+        StubTransactionCursor source = new StubTransactionCursor( 100, -1 );
+
+        // when
+        try ( TransactionCursor cursor = new ReadAheadTransactionCursor( source, Thread::new, 3 ) )
+        {
+            // then
+            assertEquals( new LogPosition( 0, 0 ), cursor.position() );
+            for ( int i = 0; i < 100; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertSame( source.transactions[i], cursor.get() );
+                assertEquals( new LogPosition( 0, i + 1 ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+            assertFalse( cursor.next() );
+            assertEquals( new LogPosition( 0, 100 ), cursor.position() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    public void shouldPropagateFailureToReadTransaction() throws Exception
+    {
+        // given
+        StubTransactionCursor source = new StubTransactionCursor( 10, 5 );
+
+        try ( TransactionCursor cursor = new ReadAheadTransactionCursor( source, Thread::new, 3 ) )
+        {
+            for ( int i = 0; i < 5; i++ )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            // when
+            cursor.next();
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertEquals( "Failed reading transaction 5", e.getMessage() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    public void shouldStopReadingAheadAndCloseSourceWhenClosedEarly() throws Exception
+    {
+        // given
+        StubTransactionCursor source = new StubTransactionCursor( 1_000, -1 );
+        TransactionCursor cursor = new ReadAheadTransactionCursor( source, Thread::new, 2 );
+        assertTrue( cursor.next() );
+
+        // when
+        cursor.close();
+
+        // then
+        assertTrue( source.closed );
+        assertTrue( source.read < 1_000 );
+    }
+
+    private static class StubTransactionCursor implements TransactionCursor
+    {
+        private final CommittedTransactionRepresentation[] transactions;
+        private final int failAt;
+        private volatile int read;
+        private volatile boolean closed;
+
+        StubTransactionCursor( int count, int failAt )
+        {
+            this.transactions = new CommittedTransactionRepresentation[count];
+            for ( int i = 0; i < count; i++ )
+            {
+                transactions[i] = mock( CommittedTransactionRepresentation.class );
+            }
+            this.failAt = failAt;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( read == failAt )
+            {
+                throw new IOException( "Failed reading transaction " + read );
+            }
+            if ( read == transactions.length )
+            {
+                return false;
+            }
+            read++;
+            return true;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions[read - 1];
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return new LogPosition( 0, read );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
@@ -128,7 +128,7 @@ public class NeoStoreDataSourceRule extends ExternalResource
                 fs, transactionMonitor, databaseHealth,
                 mock( PhysicalLogFile.Monitor.class ), TransactionHeaderInformationFactory.DEFAULT,
                 new StartupStatisticsProvider(), null,
-                new CommunityCommitProcessFactory(), mock( InternalAutoIndexing.class ), pageCache,
+                new CommunityCommitProcessFactory( jobScheduler ), mock( InternalAutoIndexing.class ), pageCache,
                 new StandardConstraintSemantics(), monitors,
                 new Tracers( "null", NullLog.getInstance(), monitors, jobScheduler ),
                 mock( Procedures.class ),
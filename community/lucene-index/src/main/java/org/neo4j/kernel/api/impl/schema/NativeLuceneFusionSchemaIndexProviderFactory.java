@@ -30,7 +30,9 @@ import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.impl.factory.OperationalMode;
+import org.neo4j.kernel.impl.index.schema.NativeSchemaCompositeIndexProvider;
 import org.neo4j.kernel.impl.index.schema.NativeSchemaNumberIndexProvider;
+import org.neo4j.kernel.impl.index.schema.NativeSchemaStringIndexProvider;
 import org.neo4j.kernel.impl.index.schema.NativeSelector;
 import org.neo4j.kernel.impl.index.schema.fusion.FusionSchemaIndexProvider;
 import org.neo4j.kernel.impl.spi.KernelContext;
@@ -43,7 +45,10 @@ public class NativeLuceneFusionSchemaIndexProviderFactory
     public static final String KEY = LuceneSchemaIndexProviderFactory.KEY + "+" + NativeSchemaNumberIndexProvider.KEY;
     private static final int PRIORITY = LuceneSchemaIndexProvider.PRIORITY + 1;
 
-    private static final SchemaIndexProvider.Descriptor DESCRIPTOR = new SchemaIndexProvider.Descriptor( KEY, "0.1" );
+    private static final SchemaIndexProvider.Descriptor DESCRIPTOR = new SchemaIndexProvider.Descriptor( KEY, "1.0" );
+    // Only had the number and lucene parts. Its indexes are rebuilt, since they lack the string and composite parts.
+    private static final SchemaIndexProvider.Descriptor NUMBER_ONLY_DESCRIPTOR =
+            new SchemaIndexProvider.Descriptor( KEY, "0.1" );
 
     public interface Dependencies extends LuceneSchemaIndexProviderFactory.Dependencies
     {
@@ -75,13 +80,18 @@ public class NativeLuceneFusionSchemaIndexProviderFactory
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
     {
         boolean readOnly = isReadOnly( config, operationalMode );
-        NativeSchemaNumberIndexProvider nativeProvider =
+        NativeSchemaNumberIndexProvider numberProvider =
                 new NativeSchemaNumberIndexProvider( pageCache, storeDir, logProvider, recoveryCleanupWorkCollector, readOnly );
+        NativeSchemaStringIndexProvider stringProvider =
+                new NativeSchemaStringIndexProvider( pageCache, storeDir, logProvider, recoveryCleanupWorkCollector, readOnly );
+        NativeSchemaCompositeIndexProvider compositeProvider = new NativeSchemaCompositeIndexProvider( pageCache,
+                storeDir, logProvider, recoveryCleanupWorkCollector, readOnly );
         LuceneSchemaIndexProvider luceneProvider = LuceneSchemaIndexProviderFactory.create( fs, storeDir, logProvider, config,
                 operationalMode );
         boolean useNativeIndex = config.get( GraphDatabaseSettings.enable_native_schema_index );
         int priority = useNativeIndex ? PRIORITY : 0;
-        return new FusionSchemaIndexProvider( nativeProvider, luceneProvider, new NativeSelector(), DESCRIPTOR, priority );
+        return new FusionSchemaIndexProvider( numberProvider, stringProvider, compositeProvider, luceneProvider,
+                new NativeSelector(), DESCRIPTOR, priority, NUMBER_ONLY_DESCRIPTOR );
     }
 
     private static boolean isReadOnly( Config config, OperationalMode operationalMode )
@@ -33,6 +33,7 @@ import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.impl.index.schema.NativeSchemaNumberIndexProvider;
+import org.neo4j.kernel.impl.index.schema.NativeSchemaStringIndexProvider;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.test.rule.DatabaseRule;
 import org.neo4j.test.rule.EmbeddedDatabaseRule;
@@ -72,6 +73,21 @@ public class FusionIndexIT
         verifyContent();
     }
 
+    @Test
+    public void mustRebuildFusionIndexIfNativeStringPartIsMissing() throws Exception
+    {
+        // given
+        initializeIndexWithDataAndShutdown();
+
+        // when
+        SchemaIndexProvider.Descriptor descriptor = NativeSchemaStringIndexProvider.NATIVE_STRING_PROVIDER_DESCRIPTOR;
+        deleteIndexFilesFor( descriptor );
+
+        // then
+        // ... should rebuild
+        verifyContent();
+    }
+
     @Test
     public void mustRebuildFusionIndexIfLucenePartIsMissing() throws Exception
     {
@@ -96,8 +112,10 @@ public class FusionIndexIT
         // when
         SchemaIndexProvider.Descriptor luceneDescriptor = LuceneSchemaIndexProviderFactory.PROVIDER_DESCRIPTOR;
         SchemaIndexProvider.Descriptor nativeDescriptor = NativeSchemaNumberIndexProvider.NATIVE_PROVIDER_DESCRIPTOR;
+        SchemaIndexProvider.Descriptor nativeStringDescriptor = NativeSchemaStringIndexProvider.NATIVE_STRING_PROVIDER_DESCRIPTOR;
         deleteIndexFilesFor( luceneDescriptor );
         deleteIndexFilesFor( nativeDescriptor );
+        deleteIndexFilesFor( nativeStringDescriptor );
 
         // then
         // ... should rebuild
@@ -452,6 +452,12 @@ public class QueryExecutionLocks
             return readOperations.nodesGetForLabel( labelId );
         }
 
+        @Override
+        public PrimitiveLongIterator nodesGetForLabel( int labelId, long fromId, long toId )
+        {
+            return readOperations.nodesGetForLabel( labelId, fromId, toId );
+        }
+
         @Override
         public PrimitiveLongIterator indexQuery( IndexDescriptor index, IndexQuery... predicates )
                 throws IndexNotFoundKernelException, IndexNotApplicableKernelException
@@ -465,6 +471,18 @@ public class QueryExecutionLocks
             return readOperations.nodesGetAll();
         }
 
+        @Override
+        public PrimitiveLongIterator nodesGetAll( long fromId, long toId )
+        {
+            return readOperations.nodesGetAll( fromId, toId );
+        }
+
+        @Override
+        public long[] nodesGetScanPartitions( int desiredPartitions )
+        {
+            return readOperations.nodesGetScanPartitions( desiredPartitions );
+        }
+
         @Override
         public PrimitiveLongIterator relationshipsGetAll()
         {
@@ -33,4 +33,10 @@ public interface PrimitiveLongObjectMap<VALUE> extends PrimitiveLongCollection
      * Visit the entries of this map, until all have been visited or the visitor returns 'true'.
      */
     <E extends Exception> void visitEntries( PrimitiveLongObjectVisitor<VALUE, E> visitor ) throws E;
+
+    /**
+     * @return the values of this map, in no particular order. The map must not be modified while the values are
+     * being iterated.
+     */
+    Iterable<VALUE> values();
 }
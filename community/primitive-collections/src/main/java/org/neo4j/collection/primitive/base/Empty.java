@@ -19,6 +19,8 @@
  */
 package org.neo4j.collection.primitive.base;
 
+import java.util.Collections;
+
 import org.neo4j.collection.primitive.PrimitiveCollection;
 import org.neo4j.collection.primitive.PrimitiveIntCollection;
 import org.neo4j.collection.primitive.PrimitiveIntCollections;
@@ -198,6 +200,12 @@ public class Empty
         {   // No entries to visit
         }
 
+        @Override
+        public Iterable<T> values()
+        {
+            return Collections.emptyList();
+        }
+
         @Override
         public <E extends Exception> void visitKeys( PrimitiveLongVisitor<E> visitor ) throws E
         {   // No keys to visit
@@ -87,6 +87,12 @@ public class PrimitiveLongObjectHashMap<VALUE> extends AbstractLongHopScotchColl
         }
     }
 
+    @Override
+    public Iterable<VALUE> values()
+    {
+        return () -> new TableValueIterator<>( table );
+    }
+
     @SuppressWarnings( "EqualsWhichDoesntCheckParameterClass" ) // yes it does
     @Override
     public boolean equals( Object other )
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.collection.primitive.hopscotch;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the values of the entries in a {@link Table}. The table must not be modified during iteration.
+ */
+class TableValueIterator<VALUE> implements Iterator<VALUE>
+{
+    private final Table<VALUE> table;
+    private final long nullKey;
+    private final int max;
+    private int i;
+
+    TableValueIterator( Table<VALUE> table )
+    {
+        this.table = table;
+        this.nullKey = table.nullKey();
+        this.max = table.capacity();
+        findNext();
+    }
+
+    private void findNext()
+    {
+        while ( i < max && table.key( i ) == nullKey )
+        {
+            i++;
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return i < max;
+    }
+
+    @Override
+    public VALUE next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+        VALUE value = table.value( i++ );
+        findNext();
+        return value;
+    }
+}
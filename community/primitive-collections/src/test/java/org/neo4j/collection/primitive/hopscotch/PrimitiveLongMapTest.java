@@ -21,6 +21,7 @@ package org.neo4j.collection.primitive.hopscotch;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -43,6 +44,7 @@ import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
 import org.neo4j.collection.primitive.PrimitiveLongObjectVisitor;
 import org.neo4j.collection.primitive.PrimitiveLongVisitor;
 
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -437,6 +439,28 @@ public class PrimitiveLongMapTest
         assertEquals( "value after removing should be -1", -1, valueAfter );
     }
 
+    @Test
+    public void longObjectMapValuesMustContainAllValues() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<Integer> map = Primitive.longObjectMap();
+        List<Integer> expected = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            map.put( i * 31L, i );
+            expected.add( i );
+        }
+        map.remove( 0 );
+        expected.remove( Integer.valueOf( 0 ) );
+
+        // WHEN
+        List<Integer> values = new ArrayList<>();
+        map.values().forEach( values::add );
+
+        // THEN
+        assertThat( values, containsInAnyOrder( expected.toArray() ) );
+    }
+
     @Test
     public void shouldOnlyContainAddedValues_3() throws Exception
     {
@@ -46,20 +46,48 @@ class AggregationAcceptanceTest extends ExecutionEngineFunSuite with CypherCompa
     result1.size should equal(result2.size)
   }
 
+  test("should aggregate over all nodes and label scans without grouping") {
+    (1 to 300).foreach { i =>
+      if (i % 2 == 0) createLabeledNode(Map("age" -> i), "Person") else createNode("age" -> i)
+    }
+
+    val labelScan = succeedWith(Configs.Interpreted,
+      "MATCH (n:Person) RETURN count(*) AS c, sum(n.age) AS s, min(n.age) AS min, max(n.age) AS max, size(collect(n)) AS size")
+    labelScan.toList should equal(List(Map("c" -> 150, "s" -> 22650, "min" -> 2, "max" -> 300, "size" -> 150)))
+
+    val allNodesScan = succeedWith(Configs.Interpreted,
+      "MATCH (n) WHERE n.age > 100 RETURN count(n.age) AS c, sum(n.age) AS s")
+    allNodesScan.toList should equal(List(Map("c" -> 200, "s" -> 40100)))
+  }
+
   test("distinct aggregation on single node") {
     val node1 = createNode()
     val node2 = createNode()
     relate(node1, node2)
     relate(node2, node1)
-    val result = succeedWith(Configs.AllExceptSleipnir, "MATCH (a)--() RETURN DISTINCT a")
+    val result = succeedWith(Configs.All, "MATCH (a)--() RETURN DISTINCT a")
     result.toList should equal(List(Map("a" -> node1), Map("a" -> node2)))
   }
 
-  test("distinct aggregation on array property") {
+  test("distinct and grouping on an optional node should treat all nulls as one key") {
+    val a1 = createLabeledNode("A")
+    createLabeledNode("A")
+    createLabeledNode("A")
+    val b = createNode()
+    relate(a1, b)
+
+    val distinct = succeedWith(Configs.Interpreted, "MATCH (a:A) OPTIONAL MATCH (a)-->(b) RETURN DISTINCT b")
+    distinct.toList should contain theSameElementsAs List(Map("b" -> b), Map("b" -> null))
+
+    val grouped = succeedWith(Configs.Interpreted, "MATCH (a:A) OPTIONAL MATCH (a)-->(b) RETURN b, count(a) AS c")
+    grouped.toList should contain theSameElementsAs List(Map("b" -> b, "c" -> 1), Map("b" -> null, "c" -> 2))
+  }
+
+    test("distinct aggregation on array property") {
     createNode("prop"-> Array(42))
     createNode("prop"-> Array(42))
     createNode("prop"-> Array(1337))
-    val result = succeedWith(Configs.AllExceptSleipnir, "MATCH (a) RETURN DISTINCT a.prop")
+    val result = succeedWith(Configs.All, "MATCH (a) RETURN DISTINCT a.prop")
     result.toComparableResult.toSet should equal(Set(Map("a.prop" -> List(1337)), Map("a.prop" -> List(42))))
   }
 
@@ -85,7 +113,7 @@ class AggregationAcceptanceTest extends ExecutionEngineFunSuite with CypherCompa
     val node3 = createNode()
     val r1 = relate(node1, node2)
     val r2 = relate(node1, node3)
-    val result = succeedWith(Configs.AllExceptSleipnir, "MATCH (a:Person)-[r]->() WITH r as s WITH count(s) as c RETURN c")
+    val result = succeedWith(Configs.All, "MATCH (a:Person)-[r]->() WITH r as s WITH count(s) as c RETURN c")
     result.toList should equal(List(Map("c" -> 2L)))
   }
 
@@ -107,7 +135,7 @@ class AggregationAcceptanceTest extends ExecutionEngineFunSuite with CypherCompa
   test("combine simple aggregation with sorting (cannot use count store)") {
     val node1 = createNode(Map("prop" -> 1))
     val node2 = createNode(Map("prop" -> 2))
-    val result = succeedWith(Configs.AllExceptSleipnir, "MATCH (a) RETURN count(a.prop) ORDER BY count(a.prop)")
+    val result = succeedWith(Configs.All, "MATCH (a) RETURN count(a.prop) ORDER BY count(a.prop)")
     result.toList should equal(List(Map("count(a.prop)" -> 2)))
   }
 
@@ -122,7 +150,7 @@ class AggregationAcceptanceTest extends ExecutionEngineFunSuite with CypherCompa
     val node1 = createNode()
     val node2 = createNode()
     val r1 = relate(node1, node2)
-    val result = succeedWith(Configs.AllExceptSleipnir, "MATCH (a)-[r]-(b) RETURN count(r) ORDER BY count(r)")
+    val result = succeedWith(Configs.All, "MATCH (a)-[r]-(b) RETURN count(r) ORDER BY count(r)")
     result.toList should equal(List(Map("count(r)" -> 2)))
   }
 }
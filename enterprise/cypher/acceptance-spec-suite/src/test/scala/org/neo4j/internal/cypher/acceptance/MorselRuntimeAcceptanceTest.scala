@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.cypher.acceptance
+
+import org.neo4j.cypher.internal.InternalExecutionResult
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.InternalPlanDescription.Arguments.Runtime
+import org.neo4j.cypher.{CypherException, ExecutionEngineFunSuite}
+
+class MorselRuntimeAcceptanceTest extends ExecutionEngineFunSuite with CypherComparisonSupport {
+
+  override protected def initTest(): Unit = {
+    super.initTest()
+    val people = (1 to 100).map(i => createLabeledNode(Map("age" -> i), "Person"))
+    people.sliding(2).foreach { case Seq(a, b) => relate(a, b, "KNOWS") }
+    (1 to 50).foreach(i => createNode("age" -> i))
+  }
+
+  test("should merge sorted morsels") {
+    shouldMatchInterpretedInOrder("MATCH (n:Person) WHERE n.age > 10 RETURN n.age AS age ORDER BY age")
+  }
+
+  test("should merge the top rows of morsels") {
+    shouldMatchInterpretedInOrder("MATCH (n:Person) RETURN n.age AS age ORDER BY age DESC LIMIT 3")
+  }
+
+  test("should combine grouped aggregations of morsels") {
+    shouldMatchInterpreted(
+      "MATCH (n:Person)-[:KNOWS]->(m) RETURN m.age % 3 AS k, count(*) AS c, sum(n.age) AS s, min(m.age) AS min")
+  }
+
+  test("should merge distinct rows of morsels") {
+    shouldMatchInterpreted("MATCH (n) RETURN DISTINCT n.age % 5 AS bucket")
+  }
+
+  test("should produce the rows of all morsels without a breaker") {
+    shouldMatchInterpreted("MATCH (n) WHERE n.age < 20 RETURN n.age AS age")
+  }
+
+  test("should execute the rest of the query on the merged morsels") {
+    shouldMatchInterpretedInOrder(
+      "MATCH (n:Person) WITH n.age % 10 AS k, count(*) AS c WHERE k > 4 RETURN k, c ORDER BY k")
+  }
+
+  test("should not support aggregations that cannot be combined") {
+    a[CypherException] should be thrownBy execute("CYPHER runtime=morsel MATCH (n:Person) RETURN avg(n.age)")
+  }
+
+  test("should not support updating queries") {
+    a[CypherException] should be thrownBy execute("CYPHER runtime=morsel MATCH (n:Person) SET n.seen = true")
+  }
+
+  private def shouldMatchInterpreted(query: String): Unit = {
+    val (morsel, interpreted) = executeInBothRuntimes(query)
+    morsel.toComparableResult should contain theSameElementsAs interpreted.toComparableResult
+  }
+
+  private def shouldMatchInterpretedInOrder(query: String): Unit = {
+    val (morsel, interpreted) = executeInBothRuntimes(query)
+    morsel.toComparableResult should equal(interpreted.toComparableResult)
+  }
+
+  private def executeInBothRuntimes(query: String): (InternalExecutionResult, InternalExecutionResult) = {
+    val morsel = execute(s"CYPHER runtime=morsel $query")
+    morsel.executionPlanDescription().arguments.collect {
+      case Runtime(runtime) => runtime should equal("MORSEL")
+    }
+    (morsel, execute(s"CYPHER runtime=interpreted $query"))
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.compiled.EnterpriseRuntimeContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.executionplan._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.morsel.{MorselPipeBuilder, MorselPipeline}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.phases.CompilationState
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.Pipe
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.{Id, LogicalPlanIdentificationBuilder}
+import org.neo4j.cypher.internal.compiler.v3_3.CypherCompilerConfiguration
+import org.neo4j.cypher.internal.compiler.v3_3.phases.{CompilationContains, LogicalPlanState}
+import org.neo4j.cypher.internal.compiler.v3_3.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans.{IndexUsage, LogicalPlan}
+import org.neo4j.cypher.internal.compiler.v3_3.spi.{GraphStatistics, PlanContext}
+import org.neo4j.cypher.internal.frontend.v3_3.notification.InternalNotification
+import org.neo4j.cypher.internal.frontend.v3_3.phases.CompilationPhaseTracer.CompilationPhase.PIPE_BUILDING
+import org.neo4j.cypher.internal.frontend.v3_3.phases.{CompilationPhaseTracer, Monitors, Phase}
+import org.neo4j.cypher.internal.frontend.v3_3.{CypherException, PlannerName}
+import org.neo4j.cypher.internal.spi.v3_3.QueryContext
+import org.neo4j.values.AnyValue
+
+/**
+  * Builds execution plans for the morsel runtime, which executes read-only queries in parallel. The node scan at the
+  * bottom of a query is split into morsels, and the streaming operators on top of the scan, up to and including the
+  * first breaker, are executed per morsel by the workers of the query. The partial results of the breakers in the
+  * morsels are then merged on the calling thread, which executes the rest of the query as usual.
+  *
+  * Queries that the morsel runtime does not support have no execution plan, so that another runtime can be used.
+  */
+object BuildMorselExecutionPlan extends Phase[EnterpriseRuntimeContext, LogicalPlanState, CompilationState] {
+  override def phase: CompilationPhaseTracer.CompilationPhase = PIPE_BUILDING
+
+  override def description = "create morsel execution plan"
+
+  override def postConditions = Set(CompilationContains[ExecutionPlan])
+
+  override def process(from: LogicalPlanState, context: EnterpriseRuntimeContext): CompilationState = {
+    val runtimeSuccessRateMonitor = context.monitors.newMonitor[NewRuntimeSuccessRateMonitor]()
+    try {
+      if (from.periodicCommit.isDefined)
+        throw new CantCompileQueryException("Periodic commit is not supported by the morsel runtime")
+
+      val logicalPlan = from.logicalPlan
+      val pipeline = MorselPipeline(logicalPlan)
+      val idMap = LogicalPlanIdentificationBuilder(logicalPlan)
+      val converters = new ExpressionConverters(CommunityExpressionConverter)
+      val executionPlanBuilder = new PipeExecutionPlanBuilder(context.clock, context.monitors,
+                                                              expressionConverters = converters,
+                                                              pipeBuilderFactory = MorselPipeBuilderFactory(pipeline))
+      val pipeBuildContext = PipeExecutionBuilderContext(context.metrics.cardinality, from.semanticTable(),
+                                                         from.plannerName)
+      val pipeInfo = executionPlanBuilder.build(None, logicalPlan, idMap)(pipeBuildContext, context.planContext)
+      val PipeInfo(pipe: Pipe, updating, periodicCommitInfo, fp, planner) = pipeInfo
+      val columns = from.statement().returnColumns
+      val resultBuilderFactory = DefaultExecutionResultBuilderFactory(pipeInfo, columns, logicalPlan, idMap)
+      val func = BuildInterpretedExecutionPlan.getExecutionPlanFunction(periodicCommitInfo, from.queryText, updating,
+                                                                        resultBuilderFactory,
+                                                                        context.notificationLogger,
+                                                                        MorselRuntimeName)
+      val fingerprint = context.createFingerprintReference(fp)
+      val execPlan = MorselExecutionPlan(fingerprint, planner, logicalPlan.indexUsage, func, pipe, context.config)
+      new CompilationState(from, Some(execPlan))
+    } catch {
+      case e: CypherException =>
+        runtimeSuccessRateMonitor.unableToHandlePlan(from.logicalPlan, new CantCompileQueryException(cause = e))
+        new CompilationState(from, None)
+    }
+  }
+
+  case class MorselExecutionPlan(fingerprint: PlanFingerprintReference,
+                                 plannerUsed: PlannerName,
+                                 override val plannedIndexUsage: Seq[IndexUsage],
+                                 runFunction: (QueryContext, ExecutionMode, Map[String, AnyValue]) => InternalExecutionResult,
+                                 pipe: Pipe,
+                                 config: CypherCompilerConfiguration) extends executionplan.ExecutionPlan {
+
+    override def run(queryContext: QueryContext, planType: ExecutionMode,
+                     params: Map[String, AnyValue]): InternalExecutionResult =
+      runFunction(queryContext, planType, params)
+
+    override def isPeriodicCommit: Boolean = false
+
+    override def isStale(lastTxId: () => Long, statistics: GraphStatistics): Boolean = fingerprint
+      .isStale(lastTxId, statistics)
+
+    override def runtimeUsed: RuntimeName = MorselRuntimeName
+
+    override def notifications(planContext: PlanContext): Seq[InternalNotification] =
+      BuildInterpretedExecutionPlan.checkForNotifications(pipe, planContext, config)
+  }
+
+  case class MorselPipeBuilderFactory(pipeline: MorselPipeline) extends PipeBuilderFactory {
+    def apply(monitors: Monitors, recurse: LogicalPlan => Pipe, readOnly: Boolean, idMap: Map[LogicalPlan, Id],
+              expressionConverters: ExpressionConverters)
+             (implicit context: PipeExecutionBuilderContext, planContext: PlanContext): PipeBuilder = {
+
+      // The morsels of a query are executed in transactions of their own, which can only read
+      if (!readOnly)
+        throw new CantCompileQueryException("Only read-only queries are supported by the morsel runtime")
+
+      val fallback = CommunityPipeBuilder(monitors, recurse, readOnly, idMap, expressionConverters,
+                                          recursePipes(recurse, planContext))
+
+      new MorselPipeBuilder(fallback, pipeline, idMap)
+    }
+  }
+}
@@ -72,6 +72,19 @@ object EnterpriseRuntimeBuilder extends RuntimeBuilder[Transformer[EnterpriseRun
               pickInterpretedExecutionPlan()
           )
 
+      case Some(MorselRuntimeName) if useErrorsOverWarnings =>
+        BuildMorselExecutionPlan andThen
+          If[EnterpriseRuntimeContext, LogicalPlanState, CompilationState](_.maybeExecutionPlan.isEmpty)(
+            Do((_, _) => throw new InvalidArgumentException("The given query is not currently supported in the selected runtime"))
+          )
+
+      case Some(MorselRuntimeName) =>
+        BuildMorselExecutionPlan andThen
+          If[EnterpriseRuntimeContext, LogicalPlanState, CompilationState](_.maybeExecutionPlan.isEmpty)(
+            Do((_: EnterpriseRuntimeContext).notificationLogger.log(RuntimeUnsupportedNotification)) andThen
+              pickInterpretedExecutionPlan()
+          )
+
       case Some(x) =>
         throw new InvalidArgumentException(s"This version of Neo4j does not support requested runtime: $x")
     }
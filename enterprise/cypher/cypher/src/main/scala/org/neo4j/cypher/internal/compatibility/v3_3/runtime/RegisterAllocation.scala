@@ -19,9 +19,7 @@
  */
 package org.neo4j.cypher.internal.compatibility.v3_3.runtime
 
-import org.neo4j.cypher.internal.compiler.v3_3.planner.CantCompileQueryException
 import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans._
-import org.neo4j.cypher.internal.frontend.v3_3.ast.Expression
 import org.neo4j.cypher.internal.frontend.v3_3.symbols._
 import org.neo4j.cypher.internal.frontend.v3_3.{InternalException, ast => parserAst}
 import org.neo4j.cypher.internal.ir.v3_3.IdName
@@ -130,22 +128,19 @@ object RegisterAllocation {
   private def allocate(lp: LogicalPlan, nullable: Boolean, incomingPipeline: PipelineInformation): PipelineInformation =
     lp match {
       case Aggregation(_, groupingExpressions, aggregationExpressions) =>
+        // The outgoing rows hold only the grouping keys and the results of the aggregations
         val newPipeline = PipelineInformation.empty
 
-        def addExpressions(groupingExpressions: Map[String, Expression]): Unit = {
-          groupingExpressions foreach {
-            case (_, parserAst.Variable(ident)) =>
-              val slotInfo = incomingPipeline(ident)
-              newPipeline.add(ident, slotInfo)
-            case (_, exp) =>
-              // TODO: Support this properly. Requires actually using the expression and supporting aggregation
-              //newPipeline.newReference(key, nullable = true, CTAny)
-              throw new CantCompileQueryException(s"Aggregations over expressions are not yet supported: $exp")
-          }
+        groupingExpressions foreach {
+          case (key, parserAst.Variable(ident)) =>
+            incomingPipeline(ident) match {
+              case LongSlot(_, slotNullable, typ, _) => newPipeline.newLong(key, slotNullable, typ)
+              case RefSlot(_, slotNullable, typ, _) => newPipeline.newReference(key, slotNullable, typ)
+            }
+          case (key, _) =>
+            newPipeline.newReference(key, nullable = true, CTAny)
         }
-
-        addExpressions(groupingExpressions)
-        addExpressions(aggregationExpressions)
+        aggregationExpressions.keys.foreach(key => newPipeline.newReference(key, nullable = true, CTAny))
         newPipeline
 
       case Expand(_, _, _, _, IdName(to), IdName(relName), ExpandAll) =>
@@ -164,7 +159,10 @@ object RegisterAllocation {
 
       case _: ProduceResult |
            _: Selection |
-           _: Skip
+           _: Limit |
+           _: Skip |
+           _: Sort |
+           _: Top
       =>
         incomingPipeline
 
@@ -214,6 +212,15 @@ object RegisterAllocation {
           newPipeline.newReference(edge, nullable, CTList(CTRelationship))
           newPipeline
 
+        case VarExpand(_, _, _, _, _, _, IdName(edge), _, ExpandInto, IdName(tempNode), IdName(tempEdge), _, _, _) =>
+          val newPipeline = incomingPipeline.deepClone()
+
+          incomingPipeline.newLong(tempNode, nullable = false, CTNode)
+          incomingPipeline.newLong(tempEdge, nullable = false, CTRelationship)
+
+          newPipeline.newReference(edge, nullable, CTList(CTRelationship))
+          newPipeline
+
       case CreateNode(_, IdName(name), _, _) =>
         incomingPipeline.newLong(name, nullable = false, CTNode)
         incomingPipeline
@@ -253,6 +260,17 @@ object RegisterAllocation {
         }
         cartesianProductPipeline
 
+      case _: NodeHashJoin |
+           _: ValueHashJoin =>
+        // The joined rows are the rows of the left hand side, extended with the slots only found on the right hand side
+        val joinPipeline = lhsPipeline.deepClone()
+        rhsPipeline.foreachSlot {
+          case (k, slot) if joinPipeline.get(k).isEmpty =>
+            joinPipeline.add(k, slot)
+          case _ =>
+        }
+        joinPipeline
+
       case p => throw new RegisterAllocationFailed(s"Don't know how to handle $p")
     }
 
@@ -22,7 +22,7 @@ package org.neo4j.cypher.internal.compatibility.v3_3.runtime
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ast._
 import org.neo4j.cypher.internal.compiler.v3_3.ast.NestedPlanExpression
 import org.neo4j.cypher.internal.compiler.v3_3.planner.CantCompileQueryException
-import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans.{LogicalPlan, Projection, VarExpand}
+import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans.{Aggregation, LogicalPlan, Projection, ValueHashJoin, VarExpand}
 import org.neo4j.cypher.internal.compiler.v3_3.spi.TokenContext
 import org.neo4j.cypher.internal.frontend.v3_3.Foldable._
 import org.neo4j.cypher.internal.frontend.v3_3.ast._
@@ -89,6 +89,45 @@ class RegisteredRewriter(tokenContext: TokenContext) {
 
         newPlan
 
+      case oldPlan@Aggregation(source, groupingExpressions, aggregationExpressions) =>
+        /*
+        The grouping keys and aggregations are evaluated on the incoming rows, and only their results are written to
+        the outgoing rows. We need to use the incoming pipeline info for rewriting the expressions
+         */
+        val incomingPipeline = pipelineInformation(source)
+        val rewriter = rewriteCreator(incomingPipeline, oldPlan)
+
+        val newGroupingExpressions = groupingExpressions collect {
+          case (column, expression) => column -> expression.endoRewrite(rewriter)
+        }
+        val newAggregationExpressions = aggregationExpressions collect {
+          case (column, expression) => column -> expression.endoRewrite(rewriter)
+        }
+
+        val newPlan = oldPlan.copy(groupingExpressions = newGroupingExpressions,
+                                   aggregationExpression = newAggregationExpressions)(oldPlan.solved)
+        newPipelineInfo += (newPlan -> pipelineInformation(oldPlan))
+
+        rewrites += (oldPlan -> newPlan)
+
+        newPlan
+
+      case oldPlan@ValueHashJoin(lhs, rhs, join@Equals(lhsExpression, rhsExpression)) =>
+        /*
+        The two sides of the join predicate are evaluated on the rows of their own side of the join, before the rows
+        are joined. We need to use the pipeline info of each side for rewriting them
+         */
+        val lhsRewriter = rewriteCreator(pipelineInformation(lhs), oldPlan)
+        val rhsRewriter = rewriteCreator(pipelineInformation(rhs), oldPlan)
+
+        val newJoin = Equals(lhsExpression.endoRewrite(lhsRewriter), rhsExpression.endoRewrite(rhsRewriter))(join.position)
+        val newPlan = oldPlan.copy(join = newJoin)(oldPlan.solved)
+        newPipelineInfo += (newPlan -> pipelineInformation(oldPlan))
+
+        rewrites += (oldPlan -> newPlan)
+
+        newPlan
+
       case oldPlan: LogicalPlan =>
         val information = pipelineInformation(oldPlan)
         val rewriter = rewriteCreator(information, oldPlan)
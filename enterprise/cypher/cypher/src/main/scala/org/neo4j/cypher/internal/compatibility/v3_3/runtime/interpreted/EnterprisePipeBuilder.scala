@@ -19,17 +19,18 @@
  */
 package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted
 
-import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ast.{NodeFromRegister, RelationshipFromRegister}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ast.{NodeFromRegister, NullCheck, RelationshipFromRegister}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.convert.ExpressionConverters
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates.{Predicate, True}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.{expressions => commandExpressions}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.executionplan.builders.prepare.KeyTokenResolver
-import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes.{Ascending => AscendingColumn, Descending => DescendingColumn, _}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.{expressions => registerExpressions}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{IndexSeekModeFactory, LazyLabel, LazyTypes, Pipe, _}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{LongSlot, PipeBuilder, PipeExecutionBuilderContext, PipelineInformation, _}
 import org.neo4j.cypher.internal.compiler.v3_3.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.compiler.v3_3.planner.logical
 import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans._
 import org.neo4j.cypher.internal.compiler.v3_3.spi.PlanContext
 import org.neo4j.cypher.internal.frontend.v3_3.ast.Expression
@@ -152,15 +153,16 @@ class EnterprisePipeBuilder(fallback: PipeBuilder,
 
       case Optional(inner, symbols) =>
         val nullableKeys = inner.availableSymbols -- symbols
-        val nullableOffsets = nullableKeys.map(k => pipeline.getLongOffsetFor(k.name))
-        OptionalRegisteredPipe(source, nullableOffsets.toSeq, pipeline)(id)
+        val nullableSlots = nullableKeys.toSeq.map(k => pipeline(k.name))
+        val nullableOffsets = nullableSlots.collect { case LongSlot(offset, _, _, _) => offset }
+        val nullableRefOffsets = nullableSlots.collect { case RefSlot(offset, _, _, _) => offset }
+        OptionalRegisteredPipe(source, nullableOffsets, pipeline, nullableRefOffsets)(id)
 
       case Projection(_, expressions) =>
-        val expressionsWithOffsets = expressions map {
-          case (k, e:NodeFromRegister) =>
-            val offset = pipeline.getLongOffsetFor(k)
-            offset -> convertExpressions(e)
-          case (k, e) =>
+        // Variables that are projected to themselves already have a slot, which may be a long slot, so only the
+        // expressions that were given new reference slots need to be evaluated
+        val expressionsWithOffsets = expressions collect {
+          case (k, e) if pipeline(k).isInstanceOf[RefSlot] =>
             val offset = pipeline.getReferenceOffsetFor(k)
             offset -> convertExpressions(e)
         }
@@ -186,6 +188,52 @@ class EnterprisePipeBuilder(fallback: PipeBuilder,
         val endOffset = pipeline(endNode).offset
         MergeCreateRelationshipRegisterPipe(source, idName.name, fromOffset, LazyType(typ)(context.semanticTable), endOffset,pipeline, props.map(convertExpressions))(id = id)
 
+      case Aggregation(_, groupingExpressions, aggregationExpressions) if aggregationExpressions.isEmpty =>
+        DistinctRegisterPipe(source, groupingSlots(groupingExpressions, pipeline), pipeline)(id)
+
+      case Aggregation(sourcePlan, groupingExpressions, aggregationExpressions) =>
+        val aggregations = aggregationExpressions.map {
+          case (key, expression) =>
+            val aggregation = convertExpressions(expression) match {
+              case e: commandExpressions.AggregationExpression => e
+              case _ => throw new CantCompileQueryException(s"Unsupported aggregation: $expression")
+            }
+            pipeline.getReferenceOffsetFor(key) -> aggregation
+        }
+
+        val (scan, predicate) = source match {
+          case FilterPipe(scanPipe, filter) => (scanPipe, Some(filter))
+          case _ => (source, None)
+        }
+        val canScanInParallel =
+          readOnly && groupingExpressions.isEmpty && aggregations.values.forall(ParallelNodeScanAggregation.canCombine) &&
+            plan.leaves.forall(_.argumentIds.isEmpty)
+        val scanPipeline = pipelines(sourcePlan)
+        (scan, canScanInParallel) match {
+          case (AllNodesScanRegisterPipe(column, _), true) =>
+            NodeScanAggregationRegisterPipe(source, scanPipeline.getLongOffsetFor(column), None, predicate,
+              aggregations, scanPipeline, pipeline)(id)
+          case (NodesByLabelScanRegisterPipe(column, label, _), true) =>
+            NodeScanAggregationRegisterPipe(source, scanPipeline.getLongOffsetFor(column), Some(label), predicate,
+              aggregations, scanPipeline, pipeline)(id)
+          case _ =>
+            EagerAggregationRegisterPipe(source, groupingSlots(groupingExpressions, pipeline),
+              aggregations, pipeline)(id)
+        }
+
+      case Sort(_, sortItems) =>
+        SortRegisterPipe(source, sortItems.map(translateColumnOrder(pipeline, _)))(id)
+
+      case Top(_, sortItems, frontEndAst.SignedDecimalIntegerLiteral("1")) =>
+        Top1RegisterPipe(source, sortItems.map(translateColumnOrder(pipeline, _)))(id)
+
+      case Top(_, sortItems, limit) =>
+        TopNRegisterPipe(source, sortItems.map(translateColumnOrder(pipeline, _)), convertExpressions(limit))(id)
+
+      case Limit(_, frontEndAst.SignedDecimalIntegerLiteral("1"), IncludeTies) if source.isInstanceOf[SortRegisterPipe] =>
+        val SortRegisterPipe(inner, orderBy) = source
+        Top1WithTiesRegisterPipe(inner, orderBy)(id)
+
       // Pipes that do not themselves read/write registers/slots should be fine to use the fallback (non-register aware pipes)
       case _: Selection |
            _: Limit |
@@ -198,6 +246,55 @@ class EnterprisePipeBuilder(fallback: PipeBuilder,
     }
   }
 
+  private def translateColumnOrder(pipeline: PipelineInformation, s: logical.SortDescription): ColumnOrder = s match {
+    case logical.Ascending(IdName(name)) => AscendingColumn(pipeline(name))
+    case logical.Descending(IdName(name)) => DescendingColumn(pipeline(name))
+  }
+
+  /*
+  Grouping keys that are nodes or relationships are copied from the long slot that the expression reads. All other
+  grouping keys are evaluated on the incoming rows.
+   */
+  private def groupingSlots(groupingExpressions: Map[String, frontEndAst.Expression],
+                            pipeline: PipelineInformation): GroupingSlots = {
+    val longs = Seq.newBuilder[(Int, Int)]
+    val references = Seq.newBuilder[(Int, commandExpressions.Expression)]
+    groupingExpressions.foreach {
+      case (key, expression) =>
+        pipeline(key) match {
+          case LongSlot(to, _, _, _) =>
+            longs += longOffsetOf(expression) -> to
+          case RefSlot(to, _, _, _) =>
+            references += to -> convertExpressions(expression)
+        }
+    }
+    GroupingSlots(longs.result(), references.result())
+  }
+
+  private def longOffsetOf(expression: frontEndAst.Expression): Int = expression match {
+    case NodeFromRegister(offset, _) => offset
+    case RelationshipFromRegister(offset, _) => offset
+    case NullCheck(offset, _) => offset
+    case _ => throw new CantCompileQueryException(s"Unsupported grouping key: $expression")
+  }
+
+  /*
+  The slots of the right hand side of a join that are not on the left hand side, as (from, to) offsets
+   */
+  private def slotsToCopy(lhsPipeline: PipelineInformation, rhsPipeline: PipelineInformation,
+                          pipeline: PipelineInformation): (Seq[(Int, Int)], Seq[(Int, Int)]) = {
+    val longs = Seq.newBuilder[(Int, Int)]
+    val references = Seq.newBuilder[(Int, Int)]
+    rhsPipeline.foreachSlot {
+      case (key, LongSlot(offset, _, _, _)) if lhsPipeline.get(key).isEmpty =>
+        longs += offset -> pipeline.getLongOffsetFor(key)
+      case (key, RefSlot(offset, _, _, _)) if lhsPipeline.get(key).isEmpty =>
+        references += offset -> pipeline.getReferenceOffsetFor(key)
+      case _ =>
+    }
+    (longs.result().sortBy(_._1), references.result().sortBy(_._1))
+  }
+
   private def createProjectionsForResult(columns: Seq[String], pipelineInformation1: PipelineInformation) = {
     val runtimeColumns: Seq[(String, commandExpressions.Expression)] = columns map {
       k =>
@@ -231,11 +328,25 @@ class EnterprisePipeBuilder(fallback: PipeBuilder,
     implicit val table: SemanticTable = context.semanticTable
 
     val id = idMap.getOrElse(plan, new Id)
+    val pipeline = pipelines(plan)
 
     plan match {
       case Apply(_, _) =>
         ApplyRegisterPipe(lhs, rhs)(id)
 
+      case NodeHashJoin(nodes, lhsPlan, rhsPlan) =>
+        val lhsPipeline = pipelines(lhsPlan)
+        val rhsPipeline = pipelines(rhsPlan)
+        val nodeNames = nodes.toIndexedSeq.map(_.name)
+        val (longsToCopy, refsToCopy) = slotsToCopy(lhsPipeline, rhsPipeline, pipeline)
+        NodeHashJoinRegisterPipe(nodeNames.map(lhsPipeline.getLongOffsetFor), nodeNames.map(rhsPipeline.getLongOffsetFor),
+          lhs, rhs, pipeline, longsToCopy, refsToCopy)(id)
+
+      case ValueHashJoin(lhsPlan, rhsPlan, frontEndAst.Equals(lhsExpression, rhsExpression)) =>
+        val (longsToCopy, refsToCopy) = slotsToCopy(pipelines(lhsPlan), pipelines(rhsPlan), pipeline)
+        ValueHashJoinRegisterPipe(convertExpressions(lhsExpression), convertExpressions(rhsExpression), lhs, rhs,
+          pipeline, longsToCopy, refsToCopy)(id)
+
       case _ => throw new CantCompileQueryException(s"Unsupported logical plan operator: $plan")
     }
   }
@@ -30,6 +30,11 @@ object EnterpriseExpressionConverters extends ExpressionConverter {
     expression match {
       case runtimeAst.NodeFromRegister(offset, _) =>
         Some(runtimeExpression.NodeFromRegister(offset))
+      case runtimeAst.RelationshipFromRegister(offset, _) =>
+        Some(runtimeExpression.RelationshipFromRegister(offset))
+      case runtimeAst.NullCheck(offset, inner) =>
+        val a = self.toCommandExpression(inner)
+        Some(runtimeExpression.NullCheck(offset, a))
       case runtimeAst.ReferenceFromRegister(offset) =>
         Some(runtimeExpression.ReferenceFromRegister(offset))
       case runtimeAst.NodeProperty(offset, token, _) =>
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.QueryState
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{Comparer, ExecutionContext, LongSlot, RefSlot, Slot}
+import org.neo4j.values.AnyValue
+
+/*
+The order of a column of the rows, given by the slot of the column. Long slots hold node and relationship ids, that are
+compared directly, with null after all other ids, just like nodes and relationships are ordered in the map based
+runtime. Reference slots are compared by the orderability of their values.
+ */
+sealed trait ColumnOrder {
+  def slot: Slot
+
+  def compareIds(a: Long, b: Long): Int
+
+  def compareValues(a: AnyValue, b: AnyValue)(implicit qtx: QueryState): Int
+}
+
+case class Ascending(slot: Slot) extends ColumnOrder with Comparer {
+  override def compareIds(a: Long, b: Long): Int = ColumnOrder.compareIds(a, b)
+
+  override def compareValues(a: AnyValue, b: AnyValue)(implicit qtx: QueryState): Int =
+    compareForOrderability(Some("ORDER BY"), a, b)
+}
+
+case class Descending(slot: Slot) extends ColumnOrder with Comparer {
+  override def compareIds(a: Long, b: Long): Int = ColumnOrder.compareIds(b, a)
+
+  override def compareValues(a: AnyValue, b: AnyValue)(implicit qtx: QueryState): Int =
+    compareForOrderability(Some("ORDER BY"), b, a)
+}
+
+object ColumnOrder {
+  def compareIds(a: Long, b: Long): Int =
+    if (a == b) 0
+    else if (a == -1) 1
+    else if (b == -1) -1
+    else java.lang.Long.compare(a, b)
+}
+
+class ExecutionContextOrdering(order: Seq[ColumnOrder])(implicit qtx: QueryState) extends Ordering[ExecutionContext] {
+  assert(order.nonEmpty)
+
+  private val columns = order.toArray
+
+  override def compare(a: ExecutionContext, b: ExecutionContext): Int = {
+    var i = 0
+    while (i < columns.length) {
+      val column = columns(i)
+      val cmp = column.slot match {
+        case LongSlot(offset, _, _, _) => column.compareIds(a.getLongAt(offset), b.getLongAt(offset))
+        case RefSlot(offset, _, _, _) => column.compareValues(a.getRefAt(offset), b.getRefAt(offset))
+      }
+      if (cmp != 0)
+        return cmp
+      i += 1
+    }
+    0
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import org.neo4j.collection.primitive.Primitive
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.PrimitiveExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, PipelineInformation}
+
+import scala.collection.mutable
+
+/*
+Distinct writes the grouping keys of each incoming row to a new row, and only lets through the first row of each
+distinct set of keys. The keys that have already been seen are kept in a primitive set, when the only key is a node or
+a relationship, except for null, which is kept track of by itself.
+ */
+case class DistinctRegisterPipe(source: Pipe, groupings: GroupingSlots, pipelineInformation: PipelineInformation)
+                               (val id: Id = new Id) extends PipeWithSource(source) {
+
+  groupings.registerOwningPipe(this)
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+
+    if (groupings.isSingleLong) {
+      val seen = Primitive.longSet()
+      var seenNull = false
+      input.filter { row =>
+        val key = groupings.singleLong(row)
+        // -1 is both null and the reserved key of primitive sets, so null is kept track of outside of the set
+        if (key == -1) {
+          val first = !seenNull
+          seenNull = true
+          first
+        } else {
+          seen.add(key)
+        }
+      }.map(project)
+    } else {
+      val seen = mutable.Set[GroupingKey]()
+      input.map(project).filter(row => seen.add(groupings.key(row)))
+    }
+  }
+
+  private def project(incoming: ExecutionContext)(implicit state: QueryState): ExecutionContext = {
+    val outgoing = PrimitiveExecutionContext(pipelineInformation)
+    groupings.project(incoming, outgoing)
+    outgoing
+  }
+}
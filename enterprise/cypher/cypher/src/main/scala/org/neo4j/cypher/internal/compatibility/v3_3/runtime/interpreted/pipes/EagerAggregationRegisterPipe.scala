@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import java.util
+
+import org.neo4j.collection.primitive.Primitive
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.AggregationExpression
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.PrimitiveExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.aggregation.AggregationFunction
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, PipelineInformation}
+
+import scala.collection.JavaConverters._
+
+/*
+Eager aggregation writes the grouping keys of the first incoming row of each group to a new row, and the results of
+the aggregations of the group to the reference slots given by the aggregations, once all incoming rows have been
+consumed. The groups are kept in a primitive map, when the only grouping key is a node or a relationship, except for the
+group of null, which is kept by itself.
+ */
+case class EagerAggregationRegisterPipe(source: Pipe, groupings: GroupingSlots,
+                                        aggregations: Map[Int, AggregationExpression],
+                                        pipelineInformation: PipelineInformation)
+                                       (val id: Id = new Id) extends PipeWithSource(source) {
+
+  groupings.registerOwningPipe(this)
+  aggregations.values.foreach(_.registerOwningPipe(this))
+
+  private val offsets = aggregations.keys.toArray
+  private val aggregationExpressions = offsets.map(aggregations)
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+
+    val groups: Iterable[Group] =
+      if (groupings.isEmpty) {
+        val group = newGroup()
+        input.foreach(row => group(row))
+        // Without grouping keys there is always exactly one group, even when there are no incoming rows
+        Iterable(group)
+      } else if (groupings.isSingleLong) {
+        val groups = Primitive.longObjectMap[Group]()
+        // -1 is both null and the reserved key of primitive maps, so the null group is kept outside of the map
+        var nullGroup: Group = null
+        input.foreach { row =>
+          val key = groupings.singleLong(row)
+          var group = if (key == -1) nullGroup else groups.get(key)
+          if (group == null) {
+            group = newGroup()
+            groupings.project(row, group.row)
+            if (key == -1) nullGroup = group else groups.put(key, group)
+          }
+          group(row)
+        }
+        groups.values().asScala ++ Option(nullGroup)
+      } else {
+        val groups = new util.HashMap[GroupingKey, Group]()
+        input.foreach { row =>
+          val outgoing = PrimitiveExecutionContext(pipelineInformation)
+          groupings.project(row, outgoing)
+          val key = groupings.key(outgoing)
+          var group = groups.get(key)
+          if (group == null) {
+            group = new Group(outgoing, aggregationExpressions.map(_.createAggregationFunction))
+            groups.put(key, group)
+          }
+          group(row)
+        }
+        groups.values().asScala
+      }
+
+    groups.iterator.map(_.result())
+  }
+
+  private def newGroup(): Group =
+    new Group(PrimitiveExecutionContext(pipelineInformation), aggregationExpressions.map(_.createAggregationFunction))
+
+  private class Group(val row: ExecutionContext, functions: Array[AggregationFunction]) {
+    def apply(incoming: ExecutionContext)(implicit state: QueryState): Unit = {
+      var i = 0
+      while (i < functions.length) {
+        functions(i)(incoming)(state)
+        i += 1
+      }
+    }
+
+    def result()(implicit state: QueryState): ExecutionContext = {
+      var i = 0
+      while (i < functions.length) {
+        row.setRefAt(offsets(i), functions(i).result)
+        i += 1
+      }
+      row
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import java.util
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.Expression
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{Pipe, QueryState}
+import org.neo4j.values.AnyValue
+
+/*
+The grouping keys of a distinct or an aggregation. Keys that are nodes or relationships are copied from long slots of
+the incoming rows to long slots of the outgoing rows, and all other keys are evaluated and written to reference slots
+of the outgoing rows.
+ */
+case class GroupingSlots(longs: Seq[(Int, Int)], references: Seq[(Int, Expression)]) {
+
+  private val longsFrom = longs.map(_._1).toArray
+  private val longsTo = longs.map(_._2).toArray
+  private val referencesTo = references.map(_._1).toArray
+  private val referenceExpressions = references.map(_._2).toArray
+
+  def isEmpty: Boolean = longs.isEmpty && references.isEmpty
+
+  /*
+  When the only key is a node or a relationship, the groups can be kept in primitive collections keyed by its id
+   */
+  def isSingleLong: Boolean = longs.size == 1 && references.isEmpty
+
+  def registerOwningPipe(pipe: Pipe): Unit = referenceExpressions.foreach(_.registerOwningPipe(pipe))
+
+  def singleLong(incoming: ExecutionContext): Long = incoming.getLongAt(longsFrom(0))
+
+  /*
+  Writes the grouping keys of the incoming row to the outgoing row
+   */
+  def project(incoming: ExecutionContext, outgoing: ExecutionContext)(implicit state: QueryState): Unit = {
+    var i = 0
+    while (i < longsTo.length) {
+      outgoing.setLongAt(longsTo(i), incoming.getLongAt(longsFrom(i)))
+      i += 1
+    }
+    i = 0
+    while (i < referencesTo.length) {
+      outgoing.setRefAt(referencesTo(i), referenceExpressions(i)(incoming))
+      i += 1
+    }
+  }
+
+  /*
+  The grouping keys of an outgoing row, that the grouping keys have been projected to
+   */
+  def key(outgoing: ExecutionContext): GroupingKey =
+    new GroupingKey(longsTo.map(outgoing.getLongAt), referencesTo.map(outgoing.getRefAt))
+}
+
+class GroupingKey(private val longs: Array[Long], private val references: Array[AnyValue]) {
+
+  override def hashCode(): Int =
+    31 * util.Arrays.hashCode(longs) + util.Arrays.hashCode(references.asInstanceOf[Array[AnyRef]])
+
+  override def equals(other: Any): Boolean = other match {
+    case that: GroupingKey =>
+      util.Arrays.equals(longs, that.longs) &&
+        util.Arrays.equals(references.asInstanceOf[Array[AnyRef]], that.references.asInstanceOf[Array[AnyRef]])
+    case _ => false
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import java.util
+
+import org.neo4j.collection.primitive.Primitive
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, PipelineInformation}
+import org.neo4j.values.AnyValue
+
+import scala.collection.JavaConverters._
+
+/*
+Joins the rows of both sides on the node ids in the given long slots. The rows of the left hand side are kept in a
+primitive map keyed by node id when joining on a single node, which is by far the most common case.
+ */
+case class NodeHashJoinRegisterPipe(lhsOffsets: Seq[Int], rhsOffsets: Seq[Int], left: Pipe, right: Pipe,
+                                    pipelineInformation: PipelineInformation,
+                                    longsToCopy: Seq[(Int, Int)], refsToCopy: Seq[(Int, Int)])
+                                   (val id: Id = new Id) extends PipeWithSource(left) with RegisterHashJoin {
+
+  private val lhsKeys = lhsOffsets.toArray
+  private val rhsKeys = rhsOffsets.toArray
+
+  override protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    if (input.isEmpty)
+      return Iterator.empty
+
+    val rhsIterator = right.createResults(state)
+
+    if (rhsIterator.isEmpty)
+      return Iterator.empty
+
+    if (lhsKeys.length == 1)
+      joinOnSingleNode(input, rhsIterator)
+    else
+      joinOnNodes(input, rhsIterator)
+  }
+
+  private def joinOnSingleNode(input: Iterator[ExecutionContext],
+                               rhsIterator: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
+    val lhsOffset = lhsKeys(0)
+    val rhsOffset = rhsKeys(0)
+    val table = Primitive.longObjectMap[util.ArrayList[ExecutionContext]]()
+
+    input.foreach { row =>
+      val nodeId = row.getLongAt(lhsOffset)
+      if (nodeId != -1) {
+        var rows = table.get(nodeId)
+        if (rows == null) {
+          rows = new util.ArrayList[ExecutionContext](1)
+          table.put(nodeId, rows)
+        }
+        rows.add(row)
+      }
+    }
+
+    if (table.isEmpty)
+      return Iterator.empty
+
+    rhsIterator.flatMap { rhs =>
+      val nodeId = rhs.getLongAt(rhsOffset)
+      val rows = if (nodeId == -1) null else table.get(nodeId)
+      if (rows == null) Iterator.empty else rows.iterator().asScala.map(lhs => join(lhs, rhs))
+    }
+  }
+
+  private def joinOnNodes(input: Iterator[ExecutionContext],
+                          rhsIterator: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
+    val table = new util.HashMap[GroupingKey, util.ArrayList[ExecutionContext]]()
+
+    input.foreach { row =>
+      computeKey(row, lhsKeys).foreach { key =>
+        var rows = table.get(key)
+        if (rows == null) {
+          rows = new util.ArrayList[ExecutionContext](1)
+          table.put(key, rows)
+        }
+        rows.add(row)
+      }
+    }
+
+    if (table.isEmpty)
+      return Iterator.empty
+
+    rhsIterator.flatMap { rhs =>
+      val rows = computeKey(rhs, rhsKeys).map(table.get).orNull
+      if (rows == null) Iterator.empty else rows.iterator().asScala.map(lhs => join(lhs, rhs))
+    }
+  }
+
+  private def computeKey(row: ExecutionContext, offsets: Array[Int]): Option[GroupingKey] = {
+    val key = new Array[Long](offsets.length)
+    var i = 0
+    while (i < offsets.length) {
+      key(i) = row.getLongAt(offsets(i))
+      if (key(i) == -1)
+        return None
+      i += 1
+    }
+    Some(new GroupingKey(key, NodeHashJoinRegisterPipe.NO_REFERENCES))
+  }
+}
+
+object NodeHashJoinRegisterPipe {
+  private val NO_REFERENCES = new Array[AnyValue](0)
+}
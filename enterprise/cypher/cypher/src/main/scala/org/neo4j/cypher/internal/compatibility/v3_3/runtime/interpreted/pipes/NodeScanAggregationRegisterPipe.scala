@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.AggregationExpression
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates.Predicate
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.PrimitiveExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, PipelineInformation}
+import org.neo4j.values.AnyValue
+
+/*
+Aggregation without grouping directly on top of an all nodes scan or label scan, for read-only queries. The scan is
+aggregated in parallel partitions, unless the query is profiled or the pipe is on the right hand side of an Apply, in
+which case the source pipe is aggregated as is.
+The aggregated values are written to the reference slots given by the aggregations.
+ */
+case class NodeScanAggregationRegisterPipe(source: Pipe, nodeOffset: Int, label: Option[LazyLabel],
+                                           predicate: Option[Predicate], aggregations: Map[Int, AggregationExpression],
+                                           scanPipelineInformation: PipelineInformation,
+                                           pipelineInformation: PipelineInformation)
+                                          (val id: Id = new Id) extends PipeWithSource(source) {
+
+  aggregations.values.foreach(_.registerOwningPipe(this))
+  predicate.foreach(_.registerOwningPipe(this))
+
+  private val offsets = aggregations.keys.toIndexedSeq
+  private val aggregationExpressions = offsets.map(aggregations)
+
+  override def createResults(state: QueryState): Iterator[ExecutionContext] =
+    if (ParallelNodeScanAggregation.canRunInParallel(state)) {
+      val values = ParallelNodeScanAggregation.aggregate(state, label, predicate, aggregationExpressions) {
+        (nodeId, partitionState) =>
+          val context = PrimitiveExecutionContext(scanPipelineInformation)
+          partitionState.copyArgumentStateTo(context)
+          context.setLongAt(nodeOffset, nodeId)
+          context
+      }
+      Iterator.single(newResult(values))
+    } else {
+      super.createResults(state)
+    }
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
+    // The source pipe already applies the predicate
+    Iterator.single(newResult(ParallelNodeScanAggregation.aggregateRows(input, None, aggregationExpressions)(state)))
+
+  private def newResult(values: Seq[AnyValue]): ExecutionContext = {
+    val result = PrimitiveExecutionContext(pipelineInformation)
+    offsets.zip(values).foreach {
+      case (offset, value) => result.setRefAt(offset, value)
+    }
+    result
+  }
+}
@@ -23,9 +23,11 @@ import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.Primitiv
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{Pipe, PipeWithSource, QueryState}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, PipelineInformation}
+import org.neo4j.values.storable.Values
 
 case class OptionalRegisteredPipe(source: Pipe, nullableOffsets: Seq[Int],
-                                  pipelineInformation: PipelineInformation)
+                                  pipelineInformation: PipelineInformation,
+                                  nullableRefOffsets: Seq[Int] = Seq.empty)
                                  (val id: Id = new Id)
   extends PipeWithSource(source) with Pipe {
 
@@ -34,6 +36,7 @@ case class OptionalRegisteredPipe(source: Pipe, nullableOffsets: Seq[Int],
     state.copyArgumentStateTo(context)
     // TODO: This can probably be done with java.util.Arrays.fill knowing the first offset
     nullableOffsets.foreach(offset => context.setLongAt(offset, -1))
+    nullableRefOffsets.foreach(offset => context.setRefAt(offset, Values.NO_VALUE))
     context
   }
 
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.PrimitiveExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, PipelineInformation}
+
+/*
+The rows of the register hash joins are the rows of the left hand side, extended with the slots that are only found on
+the right hand side. The slots to copy from the right hand side are given as pairs of (from, to) offsets.
+ */
+trait RegisterHashJoin {
+  def pipelineInformation: PipelineInformation
+
+  def longsToCopy: Seq[(Int, Int)]
+
+  def refsToCopy: Seq[(Int, Int)]
+
+  private lazy val longsFrom = longsToCopy.map(_._1).toArray
+  private lazy val longsTo = longsToCopy.map(_._2).toArray
+  private lazy val refsFrom = refsToCopy.map(_._1).toArray
+  private lazy val refsTo = refsToCopy.map(_._2).toArray
+
+  protected def join(lhs: ExecutionContext, rhs: ExecutionContext): ExecutionContext = {
+    val result = PrimitiveExecutionContext(pipelineInformation)
+    result.copyFrom(lhs)
+    var i = 0
+    while (i < longsFrom.length) {
+      result.setLongAt(longsTo(i), rhs.getLongAt(longsFrom(i)))
+      i += 1
+    }
+    i = 0
+    while (i < refsFrom.length) {
+      result.setRefAt(refsTo(i), rhs.getRefAt(refsFrom(i)))
+      i += 1
+    }
+    result
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.Expression
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.values.storable.NumberValue
+
+/*
+ * The register versions of the top pipes. The rows are compared directly by their slots, instead of extracting the
+ * sorted columns of each row into an array first.
+ */
+case class TopNRegisterPipe(source: Pipe, orderBy: Seq[ColumnOrder], countExpression: Expression)
+                           (val id: Id = new Id) extends PipeWithSource(source) {
+
+  countExpression.registerOwningPipe(this)
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+    if (input.isEmpty)
+      Iterator.empty
+    else if (orderBy.isEmpty)
+      input
+    else {
+      val first = input.next()
+      val count = countExpression(first).asInstanceOf[NumberValue].longValue().toInt
+
+      if (count <= 0) {
+        Iterator.empty
+      } else {
+        val lessThan = new ExecutionContextOrdering(orderBy)
+
+        var result = new Array[ExecutionContext](count)
+        result(0) = first
+        var last: Int = 0
+
+        while (last < count - 1 && input.hasNext) {
+          last += 1
+          result(last) = input.next()
+        }
+
+        if (input.isEmpty) {
+          result.slice(0, last + 1).sorted(lessThan).iterator
+        } else {
+          result = result.sorted(lessThan)
+
+          input.foreach {
+            ctx =>
+              if (lessThan.compare(ctx, result(last)) < 0) {
+                val idx = java.util.Arrays.binarySearch(result, ctx, lessThan)
+                val insertPosition = if (idx < 0) -idx - 1 else idx + 1
+                if (insertPosition >= 0 && insertPosition < count) {
+                  Array.copy(result, insertPosition, result, insertPosition + 1, count - insertPosition - 1)
+                  result(insertPosition) = ctx
+                }
+              }
+          }
+          result.toIterator
+        }
+      }
+    }
+  }
+}
+
+case class Top1RegisterPipe(source: Pipe, orderBy: Seq[ColumnOrder])
+                           (val id: Id = new Id) extends PipeWithSource(source) {
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+    if (input.isEmpty)
+      Iterator.empty
+    else if (orderBy.isEmpty)
+      input
+    else {
+      val lessThan = new ExecutionContextOrdering(orderBy)
+
+      var result = input.next()
+      input.foreach {
+        ctx =>
+          if (lessThan.compare(ctx, result) < 0) {
+            result = ctx
+          }
+      }
+      Iterator.single(result)
+    }
+  }
+}
+
+case class Top1WithTiesRegisterPipe(source: Pipe, orderBy: Seq[ColumnOrder])
+                                   (val id: Id = new Id) extends PipeWithSource(source) {
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+    if (input.isEmpty)
+      Iterator.empty
+    else {
+      val lessThan = new ExecutionContextOrdering(orderBy)
+
+      var best = input.next()
+      var matchingRows = Vector.newBuilder[ExecutionContext]
+      matchingRows += best
+
+      input.foreach {
+        ctx =>
+          val comparison = lessThan.compare(ctx, best)
+          if (comparison < 0) { // Found a new best
+            best = ctx
+            matchingRows = Vector.newBuilder[ExecutionContext]
+            matchingRows += ctx
+          }
+
+          if (comparison == 0) { // Found a tie
+            matchingRows += ctx
+          }
+      }
+      matchingRows.result().iterator
+    }
+  }
+}
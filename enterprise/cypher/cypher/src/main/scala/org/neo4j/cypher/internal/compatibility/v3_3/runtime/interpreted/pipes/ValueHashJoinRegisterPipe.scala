@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import java.util
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.Expression
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.{ExecutionContext, PipelineInformation}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+
+import scala.collection.JavaConverters._
+
+/*
+Joins the rows of both sides on the values of the given expressions, which are evaluated on the rows of their own side.
+ */
+case class ValueHashJoinRegisterPipe(lhsExpression: Expression, rhsExpression: Expression, left: Pipe, right: Pipe,
+                                     pipelineInformation: PipelineInformation,
+                                     longsToCopy: Seq[(Int, Int)], refsToCopy: Seq[(Int, Int)])
+                                    (val id: Id = new Id) extends PipeWithSource(left) with RegisterHashJoin {
+
+  lhsExpression.registerOwningPipe(this)
+  rhsExpression.registerOwningPipe(this)
+
+  override protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+
+    if (input.isEmpty)
+      return Iterator.empty
+
+    val rhsIterator = right.createResults(state)
+
+    if (rhsIterator.isEmpty)
+      return Iterator.empty
+
+    val table = new util.HashMap[AnyValue, util.ArrayList[ExecutionContext]]()
+
+    input.foreach { row =>
+      val key = lhsExpression(row)
+      if (key != Values.NO_VALUE) {
+        var rows = table.get(key)
+        if (rows == null) {
+          rows = new util.ArrayList[ExecutionContext](1)
+          table.put(key, rows)
+        }
+        rows.add(row)
+      }
+    }
+
+    if (table.isEmpty)
+      return Iterator.empty
+
+    rhsIterator.flatMap { rhs =>
+      val key = rhsExpression(rhs)
+      val rows = if (key == Values.NO_VALUE) null else table.get(key)
+      if (rows == null) Iterator.empty else rows.iterator().asScala.map(lhs => join(lhs, rhs))
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.morsel
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+
+import scala.collection.mutable
+
+/**
+  * Executes a pipeline, from the scan at its bottom up to and including the breaker at its top, once for every morsel
+  * of the scan. The morsels are executed in parallel by the workers of the query context, each with a state of its
+  * own, and the partial results of the morsels are then merged into the result of the pipeline.
+  *
+  * Profiled queries, and pipelines on the right hand side of an Apply, execute the pipeline as a single morsel on the
+  * calling thread, see [[ParallelNodeScanAggregation.canRunInParallel]].
+  */
+case class MorselPipe(pipeline: Pipe, morsels: Morsels, partialResults: PartialResults)
+                     (val id: Id = new Id) extends Pipe {
+
+  override def createResults(state: QueryState): Iterator[ExecutionContext] =
+    if (ParallelNodeScanAggregation.canRunInParallel(state)) internalCreateResults(state)
+    else pipeline.createResults(state)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    // A worker closes its transaction once its morsel is done, so the rows of the morsel have to be produced by then
+    val partials = morsels.execute(state)(morselState => MorselRows(pipeline.createResults(morselState), morselState))
+    partialResults.merge(partials.map(_.rows(state)), state)
+  }
+}
+
+/**
+  * The rows that a morsel has produced, kept until the partial results of all morsels are merged. The rows count
+  * against the memory budget of the query, and once it is exceeded they are spilled to a file, which is read back on
+  * the calling thread when the partial results are merged.
+  */
+private class MorselRows(tracker: OperatorMemoryTracker) {
+  private val buffer = mutable.ArrayBuffer[ExecutionContext]()
+  private var bufferSize = 0L
+  private var spillFile: SpillFile = _
+
+  private def add(row: ExecutionContext): Unit = {
+    val size = SpillFile.estimatedHeapUsage(row)
+    buffer += row
+    bufferSize += size
+    tracker.allocate(size)
+    if (tracker.isExceeded) {
+      if (spillFile == null) {
+        spillFile = tracker.newSpillFile()
+      }
+      buffer.foreach(spillFile.write)
+      buffer.clear()
+      tracker.release(bufferSize)
+      bufferSize = 0
+    }
+  }
+
+  def rows(state: QueryState): Iterator[ExecutionContext] = {
+    val spilled = if (spillFile == null) Iterator.empty else spillFile.rows(state)
+    tracker.closeWhenExhausted(spilled ++ buffer.iterator)
+  }
+}
+
+private object MorselRows {
+  def apply(rows: Iterator[ExecutionContext], state: QueryState): MorselRows = {
+    val morselRows = new MorselRows(state.memoryTracker.newOperatorTracker())
+    rows.foreach(morselRows.add)
+    morselRows
+  }
+}
+
+/**
+  * Splits the scan at the bottom of a pipeline into morsels, and executes the pipeline once for each of them.
+  */
+sealed trait Morsels {
+  def execute[T](state: QueryState)(work: QueryState => T): Seq[T]
+}
+
+case object AllNodesMorsels extends Morsels {
+  override def execute[T](state: QueryState)(work: QueryState => T): Seq[T] =
+    state.query.parallelNodeScan(None, (query, nodes) => state.inWorkerState(query, Some(nodes))(work))
+}
+
+case class LabelMorsels(label: LazyLabel) extends Morsels {
+  override def execute[T](state: QueryState)(work: QueryState => T): Seq[T] = label.getOptId(state.query) match {
+    case Some(labelId) =>
+      state.query.parallelNodeScan(Some(labelId.id), (query, nodes) => state.inWorkerState(query, Some(nodes))(work))
+    case None =>
+      Seq(state.inWorkerState(state.query, Some(PrimitiveLongCollections.emptyIterator()))(work))
+  }
+}
+
+/**
+  * For scans that cannot be split, the whole scan is a single morsel that is executed on the calling thread.
+  */
+case object SingleMorsel extends Morsels {
+  override def execute[T](state: QueryState)(work: QueryState => T): Seq[T] = Seq(work(state))
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.morsel
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.PipeBuilder
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.Literal
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.cypher.internal.compiler.v3_3.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans.{Limit => LimitPlan, _}
+import org.neo4j.cypher.internal.ir.v3_3.IdName
+
+/**
+  * Builds the pipes of a plan for the morsel runtime. The pipes of the morsel pipeline of the plan are wrapped in a
+  * [[MorselPipe]], which executes them once per morsel. All other pipes are built by the fallback builder, and
+  * execute on the merged result of the pipeline as usual.
+  */
+class MorselPipeBuilder(fallback: PipeBuilder, pipeline: MorselPipeline, idMap: Map[LogicalPlan, Id])
+  extends PipeBuilder {
+
+  override def build(plan: LogicalPlan): Pipe = {
+    val pipe = if (plan eq pipeline.scan) buildScan(plan) else fallback.build(plan)
+    inMorsels(plan, pipe)
+  }
+
+  override def build(plan: LogicalPlan, source: Pipe): Pipe =
+    inMorsels(plan, fallback.build(plan, source))
+
+  // Only plans that are nested in expressions have two children, and they are not executed in morsels
+  override def build(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe =
+    fallback.build(plan, lhs, rhs)
+
+  private def buildScan(plan: LogicalPlan): Pipe = {
+    val id = idMap.getOrElse(plan, new Id)
+    plan match {
+      case AllNodesScan(IdName(ident), _) =>
+        MorselScanPipe(ident, None)(id = id)
+
+      case NodeByLabelScan(IdName(ident), label, _) =>
+        MorselScanPipe(ident, Some(LazyLabel(label)))(id = id)
+
+      case _ =>
+        fallback.build(plan)
+    }
+  }
+
+  private def inMorsels(plan: LogicalPlan, pipe: Pipe): Pipe =
+    if (plan eq pipeline.top) MorselPipe(pipe, morsels, partialResults(pipe))() else pipe
+
+  private def morsels: Morsels = pipeline.scan match {
+    case _: AllNodesScan => AllNodesMorsels
+    case NodeByLabelScan(_, label, _) => LabelMorsels(LazyLabel(label))
+    case _ => SingleMorsel
+  }
+
+  private def partialResults(pipe: Pipe): PartialResults = pipe match {
+    case EagerAggregationPipe(_, keyExpressions, aggregations) =>
+      if (!aggregations.values.forall(ParallelNodeScanAggregation.canCombine))
+        throw new CantCompileQueryException(s"Unsupported aggregation in morsels: ${aggregations.values.mkString(", ")}")
+      CombinedAggregates(keyExpressions.toIndexedSeq, aggregations)
+
+    case distinct: DistinctPipe =>
+      DistinctRows(distinct.keyNames)
+
+    case SortPipe(_, orderBy) =>
+      SortedRuns(orderBy)
+
+    case TopNPipe(_, orderBy, countExpression) =>
+      TopOfSortedRuns(orderBy, countExpression)
+
+    case Top1Pipe(_, orderBy) =>
+      TopOfSortedRuns(orderBy, Literal(1))
+
+    case _ =>
+      ConcatenatedRows
+  }
+}
+
+/**
+  * The morsel pipeline of a plan: the node scan at the bottom of the plan, and the plan at the top of the pipeline.
+  * The top is the breaker that merges the partial results of the morsels, or, if there is no breaker, the last of the
+  * streaming operators on top of the scan.
+  */
+case class MorselPipeline(scan: LogicalPlan, top: LogicalPlan)
+
+object MorselPipeline {
+
+  /**
+    * Finds the morsel pipeline of a plan, or throws a [[CantCompileQueryException]] if the plan is not supported by
+    * the morsel runtime. Only plans without branches are supported that start with a node scan, followed by streaming
+    * operators and then either a breaker or the end of the query.
+    */
+  def apply(plan: LogicalPlan): MorselPipeline = {
+    val operators = bottomUp(plan)
+    val scan = operators.head
+    if (!isScan(scan))
+      unsupported(scan)
+
+    // Ties are only included for a limit directly on top of a sort, which would not be a sort pipe in morsels
+    operators.foreach {
+      case limit@LimitPlan(_, _, IncludeTies) => unsupported(limit)
+      case _ =>
+    }
+
+    val streaming = operators.tail.takeWhile(isStreaming)
+    val top = operators.drop(streaming.size + 1).headOption match {
+      case Some(breaker) if isBreaker(breaker) => breaker
+      case None | Some(_: ProduceResult) => streaming.lastOption.getOrElse(scan)
+      case Some(other) => unsupported(other)
+    }
+    MorselPipeline(scan, top)
+  }
+
+  private def bottomUp(plan: LogicalPlan): Seq[LogicalPlan] =
+    if (plan.rhs.isDefined) unsupported(plan)
+    else plan.lhs.map(bottomUp).getOrElse(Seq.empty) :+ plan
+
+  private def isScan(plan: LogicalPlan): Boolean = plan match {
+    case AllNodesScan(_, arguments) => arguments.isEmpty
+    case NodeByLabelScan(_, _, arguments) => arguments.isEmpty
+    case NodeIndexScan(_, _, _, arguments) => arguments.isEmpty
+    case _ => false
+  }
+
+  private def isStreaming(plan: LogicalPlan): Boolean = plan match {
+    case _: Selection | _: Projection => true
+    case Expand(_, _, _, _, _, _, ExpandAll) => true
+    case OptionalExpand(_, _, _, _, _, _, ExpandAll, _) => true
+    case _ => false
+  }
+
+  private def isBreaker(plan: LogicalPlan): Boolean = plan match {
+    case _: Aggregation | _: Sort | _: Top => true
+    case _ => false
+  }
+
+  private def unsupported(plan: LogicalPlan): Nothing =
+    throw new CantCompileQueryException(s"Unsupported logical plan operator in morsels: $plan")
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.morsel
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.helpers.JavaConversionSupport
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{LazyLabel, Pipe, QueryState}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.Id
+import org.neo4j.values.AnyValues
+
+/**
+  * Scans all nodes, or all nodes with a label. When executed for a morsel, only the nodes of the morsel are produced.
+  */
+case class MorselScanPipe(ident: String, label: Option[LazyLabel])(val id: Id = new Id) extends Pipe {
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    state.morsel.orElse(scan(state)) match {
+      case Some(nodes) =>
+        val baseContext = state.createOrGetInitialContext()
+        JavaConversionSupport.mapToScalaENFXSafe(nodes)(nodeId =>
+          baseContext.newWith1(ident, AnyValues.asNodeValue(state.query.nodeOps.getById(nodeId))))
+      case None =>
+        Iterator.empty
+    }
+
+  private def scan(state: QueryState): Option[PrimitiveLongIterator] = label match {
+    case None => Some(state.query.nodeOps.allPrimitive)
+    case Some(lazyLabel) => lazyLabel.getOptId(state.query).map(labelId => state.query.getNodesByLabelPrimitive(labelId.id))
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.morsel
+
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions.{AggregationExpression, Expression}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.{ParallelNodeScanAggregation, QueryState, SortDescription}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
+import org.neo4j.values.virtual.VirtualValues
+
+import scala.collection.mutable
+
+/**
+  * Merges the partial results of the morsels of a pipeline, given in morsel order, into the result of the pipeline.
+  */
+sealed trait PartialResults {
+  def merge(partials: Seq[Iterator[ExecutionContext]], state: QueryState): Iterator[ExecutionContext]
+}
+
+/**
+  * Pipelines without a breaker produce the rows of all morsels.
+  */
+case object ConcatenatedRows extends PartialResults {
+  override def merge(partials: Seq[Iterator[ExecutionContext]], state: QueryState): Iterator[ExecutionContext] =
+    partials.iterator.flatten
+}
+
+/**
+  * Every morsel has its own distinct rows, and rows that are in more than one morsel are only kept once.
+  */
+case class DistinctRows(keyNames: Seq[String]) extends PartialResults {
+  override def merge(partials: Seq[Iterator[ExecutionContext]], state: QueryState): Iterator[ExecutionContext] = {
+    val seen = mutable.Set[AnyValue]()
+    partials.iterator.flatten.filter(row => seen.add(VirtualValues.list(keyNames.map(row): _*)))
+  }
+}
+
+/**
+  * Every morsel has aggregated its own groups, and groups that are in more than one morsel are combined. Only
+  * aggregations that [[ParallelNodeScanAggregation.canCombine]] are supported.
+  */
+case class CombinedAggregates(keyNames: Seq[String], aggregations: Map[String, AggregationExpression])
+  extends PartialResults {
+
+  override def merge(partials: Seq[Iterator[ExecutionContext]], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+    val groups = mutable.LinkedHashMap[AnyValue, mutable.ArrayBuffer[ExecutionContext]]()
+    partials.foreach(_.foreach { row =>
+      groups.getOrElseUpdate(VirtualValues.list(keyNames.map(row): _*), mutable.ArrayBuffer()) += row
+    })
+
+    groups.valuesIterator.map {
+      case rows if rows.size == 1 => rows.head
+      case rows =>
+        val result = ExecutionContext.empty
+        keyNames.foreach(key => result += key -> rows.head(key))
+        aggregations.foreach {
+          case (name, aggregation) => result += name -> ParallelNodeScanAggregation.combine(aggregation, rows.map(_ (name)))
+        }
+        result
+    }
+  }
+}
+
+/**
+  * Every morsel has sorted its own rows, and the sorted morsels are merged.
+  */
+case class SortedRuns(orderBy: Seq[SortDescription]) extends PartialResults {
+  override def merge(partials: Seq[Iterator[ExecutionContext]], state: QueryState): Iterator[ExecutionContext] =
+    PartialResults.mergeSorted(partials, orderBy)(state)
+}
+
+/**
+  * Every morsel has kept its own top rows in order, and the top rows of the merged morsels are kept.
+  */
+case class TopOfSortedRuns(orderBy: Seq[SortDescription], countExpression: Expression) extends PartialResults {
+  override def merge(partials: Seq[Iterator[ExecutionContext]], state: QueryState): Iterator[ExecutionContext] = {
+    val merged = PartialResults.mergeSorted(partials, orderBy)(state).buffered
+    if (merged.hasNext)
+      merged.take(countExpression(merged.head)(state).asInstanceOf[NumberValue].longValue().toInt)
+    else
+      Iterator.empty
+  }
+}
+
+object PartialResults {
+
+  def mergeSorted(runs: Seq[Iterator[ExecutionContext]], orderBy: Seq[SortDescription])
+                 (implicit state: QueryState): Iterator[ExecutionContext] = {
+    val rowOrdering = new Ordering[ExecutionContext] {
+      override def compare(a: ExecutionContext, b: ExecutionContext): Int = {
+        val sortItems = orderBy.iterator
+        var cmp = 0
+        while (cmp == 0 && sortItems.hasNext) {
+          val sortItem = sortItems.next()
+          cmp = sortItem.compareAny(a(sortItem.id), b(sortItem.id))
+        }
+        cmp
+      }
+    }
+    // The priority queue dequeues its greatest element first, so the run with the smallest next row has to be greatest
+    val heads = mutable.PriorityQueue.empty[BufferedIterator[ExecutionContext]](
+      Ordering.by[BufferedIterator[ExecutionContext], ExecutionContext](_.head)(rowOrdering).reverse)
+    runs.map(_.buffered).filter(_.hasNext).foreach(heads.enqueue(_))
+
+    new Iterator[ExecutionContext] {
+      override def hasNext: Boolean = heads.nonEmpty
+
+      override def next(): ExecutionContext = {
+        val run = heads.dequeue()
+        val row = run.next()
+        if (run.hasNext)
+          heads.enqueue(run)
+        row
+      }
+    }
+  }
+}
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compatibility.v3_3.runtime
 
 import org.neo4j.cypher.internal.compiler.v3_3.planner.LogicalPlanningTestSupport2
 import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans._
+import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.{Ascending, Descending}
 import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.{plans => logicalPlans}
 import org.neo4j.cypher.internal.frontend.v3_3.ast._
 import org.neo4j.cypher.internal.frontend.v3_3.symbols._
@@ -272,7 +273,7 @@ class RegisterAllocationTest extends CypherFunSuite with LogicalPlanningTestSupp
     allocations(leaf) shouldNot be theSameInstanceAs allocations(distinct)
   }
 
-  ignore("optional travels through aggregation used for distinct") {
+  test("optional travels through aggregation used for distinct") {
     // given OPTIONAL MATCH (x) RETURN DISTINCT x, x.propertyKey
     val leaf = NodeByLabelScan(x, LABEL, Set.empty)(solved)
     val optional = Optional(leaf)(solved)
@@ -294,7 +295,7 @@ class RegisterAllocationTest extends CypherFunSuite with LogicalPlanningTestSupp
     )))
   }
 
-  ignore("optional travels through aggregation") {
+  test("optional travels through aggregation") {
     // given OPTIONAL MATCH (x) RETURN DISTINCT x, x.propertyKey
     val leaf = NodeByLabelScan(x, LABEL, Set.empty)(solved)
     val optional = Optional(leaf)(solved)
@@ -319,6 +320,68 @@ class RegisterAllocationTest extends CypherFunSuite with LogicalPlanningTestSupp
     )))
   }
 
+  test("sort and top keep the incoming pipeline") {
+    // given MATCH (x) RETURN x ORDER BY x LIMIT 10
+    val leaf = NodeByLabelScan(x, LABEL, Set.empty)(solved)
+    val sort = Sort(leaf, Seq(Ascending(x)))(solved)
+    val top = Top(leaf, Seq(Descending(x)), literalInt(10))(solved)
+
+    // when
+    val sortAllocations = RegisterAllocation.allocateRegisters(sort)
+    val topAllocations = RegisterAllocation.allocateRegisters(top)
+
+    // then
+    sortAllocations(sort) shouldBe theSameInstanceAs(sortAllocations(leaf))
+    topAllocations(top) shouldBe theSameInstanceAs(topAllocations(leaf))
+  }
+
+  test("node hash join") {
+    // given MATCH (x)-[r]->(y) MATCH (y)<-[r2]-(z) joined on y
+    val r2 = IdName("r2")
+    val lhsLeaf = NodeByLabelScan(x, LABEL, Set.empty)(solved)
+    val lhs = Expand(lhsLeaf, x, SemanticDirection.OUTGOING, Seq.empty, y, r, ExpandAll)(solved)
+    val rhsLeaf = AllNodesScan(z, Set.empty)(solved)
+    val rhsProjection = Projection(rhsLeaf, Map("z.prop" -> prop("z", "prop")))(solved)
+    val rhs = Expand(rhsProjection, z, SemanticDirection.OUTGOING, Seq.empty, y, r2, ExpandAll)(solved)
+    val join = NodeHashJoin(Set(y), lhs, rhs)(solved)
+
+    // when
+    val allocations = RegisterAllocation.allocateRegisters(join)
+
+    // then
+    allocations(lhs) should equal(PipelineInformation(numberOfLongs = 3, numberOfReferences = 0, slots = Map(
+      "x" -> LongSlot(0, nullable = false, CTNode, "x"),
+      "r" -> LongSlot(1, nullable = false, CTRelationship, "r"),
+      "y" -> LongSlot(2, nullable = false, CTNode, "y")
+    )))
+    allocations(join) should equal(PipelineInformation(numberOfLongs = 5, numberOfReferences = 1, slots = Map(
+      "x" -> LongSlot(0, nullable = false, CTNode, "x"),
+      "r" -> LongSlot(1, nullable = false, CTRelationship, "r"),
+      "y" -> LongSlot(2, nullable = false, CTNode, "y"),
+      "z" -> LongSlot(3, nullable = false, CTNode, "z"),
+      "r2" -> LongSlot(4, nullable = false, CTRelationship, "r2"),
+      "z.prop" -> RefSlot(0, nullable = true, CTAny, "z.prop")
+    )))
+    allocations(join) shouldNot be theSameInstanceAs allocations(lhs)
+  }
+
+  test("value hash join") {
+    // given MATCH (x), (y) WHERE x.prop = y.prop
+    val lhs = NodeByLabelScan(x, LABEL, Set.empty)(solved)
+    val rhs = AllNodesScan(y, Set.empty)(solved)
+    val join = ValueHashJoin(lhs, rhs, Equals(prop("x", "prop"), prop("y", "prop"))(pos))(solved)
+
+    // when
+    val allocations = RegisterAllocation.allocateRegisters(join)
+
+    // then
+    allocations should have size 3
+    allocations(join) should equal(PipelineInformation(numberOfLongs = 2, numberOfReferences = 0, slots = Map(
+      "x" -> LongSlot(0, nullable = false, CTNode, "x"),
+      "y" -> LongSlot(1, nullable = false, CTNode, "y")
+    )))
+  }
+
   test("labelscan with projection") {
     // given
     val leaf = NodeByLabelScan(x, LABEL, Set.empty)(solved)
@@ -28,12 +28,13 @@ import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.values.KeyToken
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.values.TokenType.PropertyKey
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.compiled.EnterpriseRuntimeContext
-import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.expressions.{EnterpriseExpressionConverters, NodeProperty, RelationshipProperty}
-import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes.{AllNodesScanRegisterPipe, ExpandAllRegisterPipe, ExpandIntoRegisterPipe, NodesByLabelScanRegisterPipe, _}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.expressions.{EnterpriseExpressionConverters, NodeProperty, NullCheck, RelationshipProperty}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes.{AllNodesScanRegisterPipe, ExpandAllRegisterPipe, ExpandIntoRegisterPipe, NodesByLabelScanRegisterPipe, Ascending => AscendingColumn, _}
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes._
 import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.LogicalPlanIdentificationBuilder
 import org.neo4j.cypher.internal.compiled_runtime.v3_3.codegen.CompiledRuntimeContextHelper
 import org.neo4j.cypher.internal.compiler.v3_3.planner.LogicalPlanningTestSupport2
+import org.neo4j.cypher.internal.compiler.v3_3.planner.logical
 import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans
 import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans._
 import org.neo4j.cypher.internal.compiler.v3_3.spi.PlanContext
@@ -419,7 +420,7 @@ class EnterprisePipeBuilderTest extends CypherFunSuite with LogicalPlanningTestS
     )())
   }
 
-  ignore("aggregation used for distinct") {
+  test("aggregation used for distinct") {
     // given
     val leaf = NodeByLabelScan(x, LabelName("label")(pos), Set.empty)(solved)
     val distinct = Aggregation(leaf, Map("x" -> varFor("x")), Map.empty)(solved)
@@ -428,14 +429,15 @@ class EnterprisePipeBuilderTest extends CypherFunSuite with LogicalPlanningTestS
     val pipe = build(distinct)
 
     // then
-    pipe should equal(DistinctPipe(
-      NodesByLabelScanRegisterPipe("x", LazyLabel("label"),
-        PipelineInformation(Map("x" -> LongSlot(0, nullable = false, CTNode, "x")), numberOfLongs = 1, numberOfReferences = 0))(),
-      Map("x" -> commands.expressions.Variable("x"))
+    val pipeline = PipelineInformation(Map("x" -> LongSlot(0, nullable = false, CTNode, "x")), numberOfLongs = 1, numberOfReferences = 0)
+    pipe should equal(DistinctRegisterPipe(
+      NodesByLabelScanRegisterPipe("x", LazyLabel("label"), pipeline)(),
+      GroupingSlots(longs = Seq(0 -> 0), references = Seq.empty),
+      pipeline
     )())
   }
 
-  ignore("optional travels through aggregation used for distinct") {
+  test("optional travels through aggregation used for distinct") {
     // given OPTIONAL MATCH (x) RETURN DISTINCT x, x.propertyKey
     val leaf = NodeByLabelScan(x, LabelName("label")(pos), Set.empty)(solved)
     val optional = Optional(leaf)(solved)
@@ -451,13 +453,16 @@ class EnterprisePipeBuilderTest extends CypherFunSuite with LogicalPlanningTestS
     val labelScan = NodesByLabelScanRegisterPipe("x", LazyLabel("label"),
       pipelineInformation)()
     val optionalPipe = OptionalRegisteredPipe(labelScan, Seq(0), pipelineInformation)()
-    pipe should equal(DistinctPipe(
+    pipe should equal(DistinctRegisterPipe(
       optionalPipe,
-      Map("x" -> Variable("x"), "x.propertyKey" -> Property(Variable("x"), KeyToken.Resolved("propertyKey", 0, PropertyKey)))
+      GroupingSlots(longs = Seq(0 -> 0), references = Seq(0 -> NullCheck(0, NodeProperty(0, 0)))),
+      PipelineInformation(numberOfLongs = 1, numberOfReferences = 1, slots = Map(
+        "x" -> LongSlot(0, nullable = true, CTNode, "x"),
+        "x.propertyKey" -> RefSlot(0, nullable = true, CTAny, "x.propertyKey")))
     )())
   }
 
-  ignore("optional travels through aggregation") {
+  test("optional travels through aggregation") {
     // given OPTIONAL MATCH (x) RETURN x, x.propertyKey, count(*)
     val leaf = NodeByLabelScan(x, LabelName("label")(pos), Set.empty)(solved)
     val optional = Optional(leaf)(solved)
@@ -471,10 +476,74 @@ class EnterprisePipeBuilderTest extends CypherFunSuite with LogicalPlanningTestS
     // then
     val pipelineInfo = PipelineInformation(Map("x" -> LongSlot(0, nullable = true, CTNode, "x")), numberOfLongs = 1, numberOfReferences = 0)
     val nodeByLabelScan = NodesByLabelScanRegisterPipe("x", LazyLabel("label"), pipelineInfo)()
-    pipe should equal(EagerAggregationPipe(
+    pipe should equal(EagerAggregationRegisterPipe(
       OptionalRegisteredPipe(nodeByLabelScan, Seq(0), pipelineInfo)(),
-      keyExpressions = Set("x", "x.propertyKey"),
-      aggregations = Map("count" -> commands.expressions.CountStar())
+      GroupingSlots(longs = Seq(0 -> 0), references = Seq(0 -> NullCheck(0, NodeProperty(0, 0)))),
+      aggregations = Map(1 -> commands.expressions.CountStar()),
+      PipelineInformation(numberOfLongs = 1, numberOfReferences = 2, slots = Map(
+        "x" -> LongSlot(0, nullable = true, CTNode, "x"),
+        "x.propertyKey" -> RefSlot(0, nullable = true, CTAny, "x.propertyKey"),
+        "count" -> RefSlot(1, nullable = true, CTAny, "count")))
+    )())
+  }
+
+  test("sort on a node") {
+    // given MATCH (x:label) RETURN x ORDER BY x
+    val leaf = NodeByLabelScan(x, LabelName("label")(pos), Set.empty)(solved)
+    val sort = Sort(leaf, Seq(logical.Ascending(x)))(solved)
+
+    // when
+    val pipe = build(sort)
+
+    // then
+    val pipeline = PipelineInformation(Map("x" -> LongSlot(0, nullable = false, CTNode, "x")), numberOfLongs = 1, numberOfReferences = 0)
+    pipe should equal(SortRegisterPipe(
+      NodesByLabelScanRegisterPipe("x", LazyLabel("label"), pipeline)(),
+      Seq(AscendingColumn(LongSlot(0, nullable = false, CTNode, "x")))
+    )())
+  }
+
+  test("node hash join") {
+    // given MATCH (x:label1) MATCH (z)-[r]->(x) joined on x
+    val lhs = NodeByLabelScan(x, LABEL, Set.empty)(solved)
+    val rhsLeaf = AllNodesScan(z, Set.empty)(solved)
+    val rhs = Expand(rhsLeaf, z, SemanticDirection.OUTGOING, Seq.empty, x, r, ExpandAll)(solved)
+    val join = NodeHashJoin(Set(x), lhs, rhs)(solved)
+
+    // when
+    val pipe = build(join)
+
+    // then
+    val joinPipe = pipe.asInstanceOf[NodeHashJoinRegisterPipe]
+    val pipeline = joinPipe.pipelineInformation
+    joinPipe.lhsOffsets should equal(Seq(0))
+    joinPipe.rhsOffsets should equal(Seq(2))
+    joinPipe.longsToCopy should equal(Seq(0 -> pipeline.getLongOffsetFor("z"), 1 -> pipeline.getLongOffsetFor("r")))
+    joinPipe.refsToCopy shouldBe empty
+    pipeline.numberOfLongs should equal(3)
+  }
+
+  test("aggregation without grouping over labelscan") {
+    // given MATCH (x:label) RETURN count(*)
+    val leaf = NodeByLabelScan(x, LabelName("label")(pos), Set.empty)(solved)
+    val aggregation = Aggregation(leaf,
+      groupingExpressions = Map.empty,
+      aggregationExpression = Map("count" -> CountStar()(pos)))(solved)
+
+    // when
+    val pipe = build(aggregation)
+
+    // then
+    val scanPipeline = PipelineInformation(Map("x" -> LongSlot(0, nullable = false, CTNode, "x")), numberOfLongs = 1, numberOfReferences = 0)
+    val labelScan = NodesByLabelScanRegisterPipe("x", LazyLabel("label"), scanPipeline)()
+    pipe should equal(NodeScanAggregationRegisterPipe(
+      labelScan,
+      nodeOffset = 0,
+      label = Some(LazyLabel("label")),
+      predicate = None,
+      aggregations = Map(0 -> commands.expressions.CountStar()),
+      scanPipeline,
+      PipelineInformation(Map("count" -> RefSlot(0, nullable = true, CTAny, "count")), numberOfLongs = 0, numberOfReferences = 1)
     )())
   }
 
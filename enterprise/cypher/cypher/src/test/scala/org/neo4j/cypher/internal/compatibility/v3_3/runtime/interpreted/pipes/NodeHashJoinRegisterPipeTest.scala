@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.pipes
+
+import org.mockito.Mockito.verifyZeroInteractions
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.PipelineInformation
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.interpreted.PrimitiveExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes.QueryStateHelper
+import org.neo4j.cypher.internal.frontend.v3_3.symbols._
+import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.stringValue
+
+class NodeHashJoinRegisterPipeTest extends CypherFunSuite {
+
+  private val lhsPipeline = PipelineInformation.empty
+    .newLong("a", nullable = true, CTNode)
+    .newReference("x", nullable = true, CTAny)
+
+  private val rhsPipeline = PipelineInformation.empty
+    .newLong("b", nullable = false, CTNode)
+    .newLong("a", nullable = true, CTNode)
+
+  private val outputPipeline = lhsPipeline.deepClone()
+    .newLong("b", nullable = false, CTNode)
+
+  private def join(lhs: List[Map[String, Any]], rhs: List[Map[String, Any]]) = {
+    val pipe = NodeHashJoinRegisterPipe(
+      lhsOffsets = Seq(lhsPipeline.getLongOffsetFor("a")),
+      rhsOffsets = Seq(rhsPipeline.getLongOffsetFor("a")),
+      FakeRegisterPipe(lhs.iterator, lhsPipeline),
+      FakeRegisterPipe(rhs.iterator, rhsPipeline),
+      outputPipeline,
+      longsToCopy = Seq(rhsPipeline.getLongOffsetFor("b") -> outputPipeline.getLongOffsetFor("b")),
+      refsToCopy = Seq.empty)()
+
+    pipe.createResults(QueryStateHelper.empty).map {
+      case c: PrimitiveExecutionContext =>
+        (c.getLongAt(outputPipeline.getLongOffsetFor("a")),
+          c.getLongAt(outputPipeline.getLongOffsetFor("b")),
+          c.getRefAt(outputPipeline.getReferenceOffsetFor("x")))
+    }.toList
+  }
+
+  test("should join rows on the node id") {
+    val lhs = List(Map("a" -> 1, "x" -> "one"), Map("a" -> 2, "x" -> "two"), Map("a" -> 3, "x" -> "three"))
+    val rhs = List(Map("b" -> 10, "a" -> 2), Map("b" -> 11, "a" -> 1), Map("b" -> 12, "a" -> 2), Map("b" -> 13, "a" -> 4))
+
+    join(lhs, rhs) should contain theSameElementsAs List(
+      (1L, 11L, stringValue("one")),
+      (2L, 10L, stringValue("two")),
+      (2L, 12L, stringValue("two")))
+  }
+
+  test("should not join on null nodes") {
+    val lhs = List(Map("a" -> null, "x" -> "null"), Map("a" -> 1, "x" -> "one"))
+    val rhs = List(Map("b" -> 10, "a" -> null), Map("b" -> 11, "a" -> 1))
+
+    join(lhs, rhs) should equal(List((1L, 11L, stringValue("one"))))
+  }
+
+  test("should not pull from the right hand side when the left hand side is empty") {
+    val rhs = mock[Iterator[Map[String, Any]]]
+
+    NodeHashJoinRegisterPipe(Seq(0), Seq(1), FakeRegisterPipe(Iterator.empty, lhsPipeline),
+      FakeRegisterPipe(rhs, rhsPipeline), outputPipeline, Seq.empty, Seq.empty)()
+      .createResults(QueryStateHelper.empty) shouldBe empty
+    verifyZeroInteractions(rhs)
+  }
+}
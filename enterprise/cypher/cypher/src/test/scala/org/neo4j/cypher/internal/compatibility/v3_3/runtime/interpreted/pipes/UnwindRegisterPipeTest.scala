@@ -90,9 +90,8 @@ case class FakeRegisterPipe(data: Iterator[Map[String, Any]], pipeline: Pipeline
   extends Pipe with MockitoSugar {
 
   def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
-    val result = PrimitiveExecutionContext(pipeline)
-
     data.map { values =>
+      val result = PrimitiveExecutionContext(pipeline)
       values foreach {
         case (key, value) =>
           pipeline(key) match {
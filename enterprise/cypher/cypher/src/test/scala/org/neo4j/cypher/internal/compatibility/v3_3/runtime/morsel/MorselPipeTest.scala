@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.morsel
+
+import java.nio.file.Files
+
+import org.mockito.Matchers.anyLong
+import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.collection.primitive.{PrimitiveLongCollections, PrimitiveLongIterator}
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.ExecutionContext
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.expressions._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.commands.predicates.GreaterThan
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.pipes._
+import org.neo4j.cypher.internal.compatibility.v3_3.runtime.planDescription.InternalPlanDescription
+import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.spi.v3_3.{Operations, QueryContext, QueryContextAdaptation}
+import org.neo4j.graphdb.Node
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
+
+class MorselPipeTest extends CypherFunSuite {
+
+  private val morsels = Seq(Seq(1L, 4L, 7L), Seq.empty, Seq(2L, 3L, 8L), Seq(5L, 6L))
+  private val scan = MorselScanPipe("n", None)()
+  private val nodeId = IdFunction(Variable("n"))
+
+  test("should produce the rows of all morsels without a breaker") {
+    val pipeline = FilterPipe(scan, GreaterThan(nodeId, Literal(3)))()
+
+    ids(execute(MorselPipe(pipeline, AllNodesMorsels, ConcatenatedRows)()), "n") should equal(Seq(4L, 7L, 8L, 5L, 6L))
+  }
+
+  test("should combine the groups that are aggregated in more than one morsel") {
+    val pipeline = EagerAggregationPipe(ProjectionPipe(scan, Map("k" -> Modulo(nodeId, Literal(2))))(), Set("k"),
+      Map("count" -> CountStar(), "sum" -> Sum(nodeId), "max" -> Max(nodeId)))()
+
+    val result = execute(MorselPipe(pipeline, AllNodesMorsels,
+      CombinedAggregates(Seq("k"), pipeline.aggregations))()).map(row => values(row, "k", "count", "sum", "max"))
+
+    result should contain theSameElementsAs Seq(Seq(1L, 4L, 16L, 7L), Seq(0L, 4L, 20L, 8L))
+  }
+
+  test("should aggregate without grouping keys over empty morsels") {
+    val pipeline = EagerAggregationPipe(scan, Set.empty, Map("count" -> CountStar()))()
+
+    val result = execute(MorselPipe(pipeline, LabelMorsels(LazyLabel("Missing")),
+      CombinedAggregates(Seq.empty, pipeline.aggregations))())
+
+    result.map(row => values(row, "count")) should equal(Seq(Seq(0L)))
+  }
+
+  test("should keep rows that are distinct in more than one morsel once") {
+    val pipeline = DistinctPipe(scan, Map("k" -> Modulo(nodeId, Literal(3))))()
+
+    ids(execute(MorselPipe(pipeline, AllNodesMorsels, DistinctRows(pipeline.keyNames))()), "k") should
+      contain theSameElementsAs Seq(0L, 1L, 2L)
+  }
+
+  test("should merge sorted morsels") {
+    val pipeline = SortPipe(ProjectionPipe(scan, Map("id" -> nodeId))(), Seq(Descending("id")))()
+
+    ids(execute(MorselPipe(pipeline, AllNodesMorsels, SortedRuns(pipeline.orderBy))()), "id") should
+      equal(Seq(8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L))
+  }
+
+  test("should keep the top rows of the merged morsels") {
+    val pipeline = TopNPipe(ProjectionPipe(scan, Map("id" -> nodeId))(), List(Ascending("id")), Literal(3))()
+
+    ids(execute(MorselPipe(pipeline, AllNodesMorsels, TopOfSortedRuns(pipeline.sortDescription, Literal(3)))()),
+      "id") should equal(Seq(1L, 2L, 3L))
+  }
+
+  test("should execute the pipeline as a single morsel when profiled") {
+    val pipeline = SortPipe(ProjectionPipe(scan, Map("id" -> nodeId))(), Seq(Ascending("id")))()
+    val context = new MorselQueryContext(failOnParallelScan = true)
+    val state = QueryStateHelper.emptyWith(query = context, decorator = PassThroughDecorator)
+
+    ids(MorselPipe(pipeline, AllNodesMorsels, SortedRuns(pipeline.orderBy))().createResults(state).toList, "id") should
+      equal(1L to 8L)
+  }
+
+  test("should spill the rows of morsels beyond the memory budget of the query") {
+    val pipeline = ProjectionPipe(scan, Map("id" -> nodeId))()
+    val tracker = new QueryMemoryTracker(1, Files.createTempDirectory("cypher-spill").toFile)
+    val state = QueryStateHelper.emptyWith(query = new MorselQueryContext(failOnParallelScan = false),
+      memoryTracker = tracker)
+
+    ids(MorselPipe(pipeline, AllNodesMorsels, SortedRuns(Seq(Ascending("id"))))().createResults(state).toList, "id") should
+      equal(1L to 8L)
+    tracker.spillFileCount should be > 0
+    tracker.estimatedHeapUsage should equal(0)
+  }
+
+  private def execute(pipe: Pipe): Seq[ExecutionContext] =
+    pipe.createResults(QueryStateHelper.emptyWith(query = new MorselQueryContext(failOnParallelScan = false))).toList
+
+  private def ids(rows: Seq[ExecutionContext], column: String): Seq[Long] = rows.map(row => values(row, column).head)
+
+  private def values(row: ExecutionContext, columns: String*): Seq[Long] =
+    columns.map(column => asLong(row(column)))
+
+  private def asLong(value: AnyValue): Long = value.asInstanceOf[NumberValue].longValue()
+
+  private class MorselQueryContext(failOnParallelScan: Boolean) extends QueryContext with QueryContextAdaptation {
+    override val nodeOps: Operations[Node] = {
+      val ops = mock[Operations[Node]]
+      when(ops.getById(anyLong())).thenAnswer(new Answer[Node] {
+        override def answer(invocation: InvocationOnMock): Node = {
+          val node = mock[Node]
+          when(node.getId).thenReturn(invocation.getArgumentAt(0, classOf[java.lang.Long]).longValue())
+          node
+        }
+      })
+      when(ops.allPrimitive).thenAnswer(new Answer[PrimitiveLongIterator] {
+        override def answer(invocation: InvocationOnMock): PrimitiveLongIterator =
+          PrimitiveLongCollections.iterator(morsels.flatten.sorted: _*)
+      })
+      ops
+    }
+
+    override def getOptLabelId(labelName: String): Option[Int] = None
+
+    override def parallelNodeScan[T](labelId: Option[Int], work: (QueryContext, PrimitiveLongIterator) => T): Seq[T] = {
+      if (failOnParallelScan)
+        fail("should not scan in parallel")
+      morsels.map(nodes => work(this, PrimitiveLongCollections.iterator(nodes: _*)))
+    }
+  }
+
+  private object PassThroughDecorator extends PipeDecorator {
+    override def decorate(pipe: Pipe, state: QueryState): QueryState = state
+
+    override def decorate(pipe: Pipe, iter: Iterator[ExecutionContext]): Iterator[ExecutionContext] = iter
+
+    override def decorate(plan: InternalPlanDescription, isProfileReady: => Boolean): InternalPlanDescription = plan
+
+    override def innerDecorator(pipe: Pipe): PipeDecorator = this
+  }
+}
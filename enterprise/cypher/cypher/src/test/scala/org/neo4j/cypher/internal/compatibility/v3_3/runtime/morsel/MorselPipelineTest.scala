@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_3.runtime.morsel
+
+import org.neo4j.cypher.internal.compiler.v3_3.planner.logical.plans.{Limit => LimitPlan, _}
+import org.neo4j.cypher.internal.compiler.v3_3.planner.{CantCompileQueryException, LogicalPlanningTestSupport2}
+import org.neo4j.cypher.internal.frontend.v3_3.ast._
+import org.neo4j.cypher.internal.frontend.v3_3.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.ir.v3_3.IdName
+
+class MorselPipelineTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
+
+  private val x = IdName("x")
+  private val y = IdName("y")
+  private val label = LabelName("label")(pos)
+  private val countStar = Map("c" -> CountStar()(pos))
+
+  test("should execute streaming operators and the breaker on top of them in morsels") {
+    val scan = NodeByLabelScan(x, label, Set.empty)(solved)
+    val selection = Selection(Seq(True()(pos)), scan)(solved)
+    val aggregation = Aggregation(selection, Map.empty, countStar)(solved)
+    val sort = Sort(aggregation, Seq(Ascending(IdName("c"))))(solved)
+
+    MorselPipeline(ProduceResult(Seq("c"), sort)) should equal(MorselPipeline(scan, aggregation))
+  }
+
+  test("should execute streaming operators in morsels when there is no breaker") {
+    val scan = AllNodesScan(x, Set.empty)(solved)
+    val projection = Projection(scan, Map("x" -> varFor("x")))(solved)
+
+    MorselPipeline(ProduceResult(Seq("x"), projection)) should equal(MorselPipeline(scan, projection))
+    MorselPipeline(ProduceResult(Seq("x"), scan)) should equal(MorselPipeline(scan, scan))
+  }
+
+  test("should not support plans that do not start with a node scan") {
+    val seek = NodeByIdSeek(x, ManySeekableArgs(ListLiteral(Seq(SignedDecimalIntegerLiteral("1")(pos)))(pos)), Set.empty)(solved)
+
+    a[CantCompileQueryException] should be thrownBy MorselPipeline(ProduceResult(Seq("x"), seek))
+  }
+
+  test("should not support operators between the scan and the breaker that are not streaming") {
+    val scan = AllNodesScan(x, Set.empty)(solved)
+    val limit = LimitPlan(scan, SignedDecimalIntegerLiteral("10")(pos), DoNotIncludeTies)(solved)
+
+    a[CantCompileQueryException] should be thrownBy MorselPipeline(Aggregation(limit, Map.empty, countStar)(solved))
+  }
+
+  test("should not support plans with branches") {
+    val product = CartesianProduct(AllNodesScan(x, Set.empty)(solved), AllNodesScan(y, Set.empty)(solved))(solved)
+
+    a[CantCompileQueryException] should be thrownBy MorselPipeline(ProduceResult(Seq("x", "y"), product))
+  }
+}
@@ -119,11 +119,9 @@ public class EnterpriseBuiltInDbmsProcedures
                 .getKernelTransactionBoundToThisThread( true );
     }
 
-    /*
-    This surface is hidden in 3.1, to possibly be completely removed or reworked later
-    ==================================================================================
-     */
-    //@Procedure( name = "dbms.listTransactions", mode = DBMS )
+    @Description( "List the number of running transactions of each user, and the estimated heap usage of " +
+                  "their transaction state." )
+    @Procedure( name = "dbms.listTransactions", mode = DBMS )
     public Stream<TransactionResult> listTransactions()
             throws InvalidArgumentsException, IOException
     {
@@ -133,10 +131,13 @@ public class EnterpriseBuiltInDbmsProcedures
             getActiveTransactions( graph.getDependencyResolver() )
                 .stream()
                 .filter( tx -> !tx.terminationReason().isPresent() )
-                .map( tx -> tx.securityContext().subject().username() )
         );
     }
 
+    /*
+    This surface is hidden in 3.1, to possibly be completely removed or reworked later
+    ==================================================================================
+     */
     //@Procedure( name = "dbms.terminateTransactionsForUser", mode = DBMS )
     public Stream<TransactionTerminationResult> terminateTransactionsForUser( @Name( "username" ) String username )
             throws InvalidArgumentsException, IOException
@@ -267,6 +268,7 @@ public class EnterpriseBuiltInDbmsProcedures
         {
             return name.startsWith( "dbms.security." ) && ADMIN_PROCEDURES.contains( procedureName ) ||
                    name.equals( "dbms.listConfig" ) ||
+                   name.equals( "dbms.listTransactions" ) ||
                    name.equals( "dbms.setConfigValue" );
         }
     }
@@ -460,13 +462,14 @@ public class EnterpriseBuiltInDbmsProcedures
         return dependencyResolver.resolveDependency( BoltConnectionTracker.class );
     }
 
-    public static Stream<TransactionResult> countTransactionByUsername( Stream<String> usernames )
+    public static Stream<TransactionResult> countTransactionByUsername( Stream<KernelTransactionHandle> transactions )
     {
-        return usernames
-            .collect( Collectors.groupingBy( Function.identity(), Collectors.counting() ) )
+        return transactions
+            .collect( Collectors.groupingBy( tx -> tx.securityContext().subject().username() ) )
             .entrySet()
             .stream()
-            .map( entry -> new TransactionResult( entry.getKey(), entry.getValue() )
+            .map( entry -> new TransactionResult( entry.getKey(), (long) entry.getValue().size(),
+                    entry.getValue().stream().mapToLong( KernelTransactionHandle::estimatedHeapUsage ).sum() )
         );
     }
 
@@ -522,11 +525,13 @@ public class EnterpriseBuiltInDbmsProcedures
     {
         public final String username;
         public final Long activeTransactions;
+        public final Long estimatedHeapUsage;
 
-        TransactionResult( String username, Long activeTransactions )
+        TransactionResult( String username, Long activeTransactions, Long estimatedHeapUsage )
         {
             this.username = username;
             this.activeTransactions = activeTransactions;
+            this.estimatedHeapUsage = estimatedHeapUsage;
         }
     }
 
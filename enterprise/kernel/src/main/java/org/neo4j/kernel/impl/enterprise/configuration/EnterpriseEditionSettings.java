@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.enterprise.configuration;
 
+import java.time.Duration;
 import java.util.List;
 
 import org.neo4j.configuration.Description;
@@ -27,7 +28,10 @@ import org.neo4j.configuration.LoadableConfig;
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.kernel.impl.store.id.IdType;
 
+import static org.neo4j.kernel.configuration.Settings.BOOLEAN;
+import static org.neo4j.kernel.configuration.Settings.DURATION;
 import static org.neo4j.kernel.configuration.Settings.STRING;
+import static org.neo4j.kernel.configuration.Settings.TRUE;
 import static org.neo4j.kernel.configuration.Settings.list;
 import static org.neo4j.kernel.configuration.Settings.optionsIgnoreCase;
 import static org.neo4j.kernel.configuration.Settings.setting;
@@ -50,4 +54,15 @@ public class EnterpriseEditionSettings implements LoadableConfig
     @Internal
     public static final Setting<String> security_module = setting( "unsupported.dbms.security.module", STRING,
             ENTERPRISE_SECURITY_MODULE_ID );
+
+    @Description( "Page cache can be configured to periodically take a profile of which pages are loaded, and use " +
+                  "that profile to load the same pages again in the background after a restart. This reduces the " +
+                  "time it takes for the page cache to get up to speed. This setting allows disabling that behavior." )
+    public static final Setting<Boolean> pagecache_warmup_enabled =
+            setting( "dbms.memory.pagecache.warmup.enable", BOOLEAN, TRUE );
+
+    @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
+                  "warmup after a restart, reducing the mean time to performance." )
+    public static final Setting<Duration> pagecache_warmup_profiling_interval =
+            setting( "dbms.memory.pagecache.warmup.profile.interval", DURATION, "1m" );
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjLongConsumer;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.LogForceMonitor;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * An {@link IOLimiter} that adjusts the IOPS limit of check pointing to the IO latencies that the rest of the
+ * database observes while the check point is flushing.
+ * <p>
+ * At regular intervals during a flush, the average latency of page faults and of transaction log forces is computed
+ * from the {@link PageCacheCounters} and the {@link LogForceMonitor}. If the worse of the two exceeds the configured
+ * {@link GraphDatabaseSettings#check_point_iops_latency_target latency target}, the limit is cut back, and if it stays
+ * well below the target, or if no foreground IO is happening at all, the limit is raised again. Every change of the
+ * limit is reported to the {@link CheckPointTracer}.
+ * <p>
+ * The actual rate limiting is delegated to a {@link ConfigurableIOLimiter}.
+ */
+public class AdaptiveIOLimiter implements IOLimiter
+{
+    static final int MIN_IOPS = 100;
+    static final int MAX_IOPS = 1_000_000;
+    static final long ADJUSTMENT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos( 500 );
+
+    private static final long NO_SAMPLES = -1;
+    private static final double BACK_OFF_FACTOR = 0.5;
+    private static final double SPEED_UP_FACTOR = 1.25;
+
+    private final ConfigurableIOLimiter limiter;
+    private final long latencyTargetNanos;
+    private final PageCacheCounters pageCacheCounters;
+    private final LogForceMonitor logForceMonitor;
+    private final CheckPointTracer tracer;
+    private final SystemNanoClock clock;
+    private final AtomicInteger disabledCount = new AtomicInteger();
+
+    private volatile int iopsLimit;
+    private volatile long lastSampleNanos;
+    private long lastFaults;
+    private long lastFaultNanos;
+    private long lastForces;
+    private long lastForceNanos;
+
+    public AdaptiveIOLimiter( Config config, PageCacheCounters pageCacheCounters, LogForceMonitor logForceMonitor,
+            CheckPointTracer tracer )
+    {
+        this( config, pageCacheCounters, logForceMonitor, tracer, Clocks.nanoClock(), LockSupport::parkNanos );
+    }
+
+    // Only visible for testing
+    AdaptiveIOLimiter( Config config, PageCacheCounters pageCacheCounters, LogForceMonitor logForceMonitor,
+            CheckPointTracer tracer, SystemNanoClock clock, ObjLongConsumer<Object> pauseNanos )
+    {
+        this.latencyTargetNanos = config.get( GraphDatabaseSettings.check_point_iops_latency_target ).toNanos();
+        this.pageCacheCounters = pageCacheCounters;
+        this.logForceMonitor = logForceMonitor;
+        this.tracer = tracer;
+        this.clock = clock;
+
+        Integer configuredIops = config.get( GraphDatabaseSettings.check_point_iops_limit );
+        int initialIops = configuredIops == null || configuredIops < 1 ? MAX_IOPS : clamp( configuredIops );
+        this.iopsLimit = initialIops;
+        this.limiter = new ConfigurableIOLimiter( initialIops, pauseNanos );
+        this.lastSampleNanos = clock.nanos();
+        tracer.ioLimitAdjusted( initialIops );
+    }
+
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable ) throws IOException
+    {
+        if ( disabledCount.get() == 0 && clock.nanos() - lastSampleNanos >= ADJUSTMENT_INTERVAL_NANOS )
+        {
+            maybeAdjustLimit();
+        }
+        return limiter.maybeLimitIO( previousStamp, recentlyCompletedIOs, flushable );
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        disabledCount.incrementAndGet();
+        limiter.disableLimit();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        limiter.enableLimit();
+        disabledCount.decrementAndGet();
+    }
+
+    /**
+     * @return the number of IOs per second that this limiter currently allows.
+     */
+    public int iopsLimit()
+    {
+        return iopsLimit;
+    }
+
+    private synchronized void maybeAdjustLimit()
+    {
+        long now = clock.nanos();
+        long elapsed = now - lastSampleNanos;
+        if ( elapsed < ADJUSTMENT_INTERVAL_NANOS )
+        {
+            // Someone else adjusted the limit while we were waiting for the monitor.
+            return;
+        }
+
+        long faults = pageCacheCounters.faults();
+        long faultNanos = pageCacheCounters.faultNanos();
+        long forces = logForceMonitor.numberOfLogForceEvents();
+        long forceNanos = logForceMonitor.logForceAccumulatedTotalTimeNanos();
+
+        // A sample window much longer than the adjustment interval spans the time in between check points, where
+        // the latencies tell us nothing about the impact of our flushing. We just start a new window in that case.
+        if ( elapsed < 2 * ADJUSTMENT_INTERVAL_NANOS )
+        {
+            long latency = Math.max(
+                    averageNanos( faultNanos - lastFaultNanos, faults - lastFaults ),
+                    averageNanos( forceNanos - lastForceNanos, forces - lastForces ) );
+            adjustLimit( latency );
+        }
+
+        lastFaults = faults;
+        lastFaultNanos = faultNanos;
+        lastForces = forces;
+        lastForceNanos = forceNanos;
+        lastSampleNanos = now;
+    }
+
+    private void adjustLimit( long observedLatencyNanos )
+    {
+        int current = iopsLimit;
+        int next;
+        if ( observedLatencyNanos > latencyTargetNanos )
+        {
+            next = clamp( (long) (current * BACK_OFF_FACTOR) );
+        }
+        else if ( observedLatencyNanos < latencyTargetNanos / 2 )
+        {
+            // This also covers the case where no foreground IO happened at all, since then there is nobody
+            // to disturb.
+            next = clamp( (long) Math.ceil( current * SPEED_UP_FACTOR ) );
+        }
+        else
+        {
+            return;
+        }
+
+        if ( next != current )
+        {
+            iopsLimit = next;
+            limiter.setIOPSLimit( next );
+            tracer.ioLimitAdjusted( next );
+        }
+    }
+
+    private static long averageNanos( long totalNanos, long count )
+    {
+        return count > 0 ? totalNanos / count : NO_SAMPLES;
+    }
+
+    private static int clamp( long iops )
+    {
+        return (int) Math.max( MIN_IOPS, Math.min( MAX_IOPS, iops ) );
+    }
+}
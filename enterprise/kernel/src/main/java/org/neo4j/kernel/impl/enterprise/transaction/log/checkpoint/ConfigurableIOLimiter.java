@@ -40,7 +40,9 @@ public class ConfigurableIOLimiter implements IOLimiter
     private static final int TIME_BITS = 32;
     private static final long TIME_MASK = (1L << TIME_BITS) - 1;
 
-    private final int iopq; // IOs per quantum
+    private static final int QUANTUMS_PER_SECOND = (int) (TimeUnit.SECONDS.toMillis( 1 ) / QUANTUM_MILLIS);
+
+    private volatile int iopq; // IOs per quantum
     private final ObjLongConsumer<Object> pauseNanos;
 
     @SuppressWarnings( "unused" ) // Updated via disableCountUpdater
@@ -53,10 +55,13 @@ public class ConfigurableIOLimiter implements IOLimiter
 
     // Only visible for testing
     ConfigurableIOLimiter( Config config, ObjLongConsumer<Object> pauseNanos )
+    {
+        this( config.get( GraphDatabaseSettings.check_point_iops_limit ), pauseNanos );
+    }
+
+    ConfigurableIOLimiter( Integer iops, ObjLongConsumer<Object> pauseNanos )
     {
         this.pauseNanos = pauseNanos;
-        int quantumsPerSecond = (int) (TimeUnit.SECONDS.toMillis( 1 ) / QUANTUM_MILLIS);
-        Integer iops = config.get( GraphDatabaseSettings.check_point_iops_limit );
         if ( iops == null || iops < 1 )
         {
             iopq = NO_LIMIT;
@@ -64,9 +69,17 @@ public class ConfigurableIOLimiter implements IOLimiter
         }
         else
         {
-            this.iopq = iops / quantumsPerSecond;
+            setIOPSLimit( iops );
         }
+    }
 
+    /**
+     * Change the number of IOs per second this limiter allows. Only applicable to limiters that were created with
+     * a limit in the first place, since limiters without one are permanently disabled.
+     */
+    void setIOPSLimit( int iops )
+    {
+        this.iopq = iops / QUANTUMS_PER_SECOND;
     }
 
     // The stamp is in two 32-bit parts:
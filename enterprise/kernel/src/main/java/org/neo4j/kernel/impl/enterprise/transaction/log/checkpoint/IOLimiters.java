@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.LogForceMonitor;
+import org.neo4j.kernel.monitoring.tracing.Tracers;
+
+public class IOLimiters
+{
+    private IOLimiters()
+    {
+    }
+
+    /**
+     * Create the {@link IOLimiter} used for check pointing. This is an {@link AdaptiveIOLimiter} if a
+     * {@link GraphDatabaseSettings#check_point_iops_latency_target latency target} has been configured, and a
+     * {@link ConfigurableIOLimiter} with a fixed limit otherwise.
+     */
+    public static IOLimiter createCheckPointIOLimiter( Config config, Tracers tracers )
+    {
+        if ( config.get( GraphDatabaseSettings.check_point_iops_latency_target ) == null )
+        {
+            return new ConfigurableIOLimiter( config );
+        }
+        LogForceMonitor logForceMonitor = tracers.transactionTracer instanceof LogForceMonitor
+                                          ? (LogForceMonitor) tracers.transactionTracer : LogForceMonitor.NULL;
+        return new AdaptiveIOLimiter( config, tracers.pageCacheTracer, logForceMonitor, tracers.checkPointTracer );
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * The page cache warmer profiles the page cache to figure out what data is in memory and what is not, and uses those
+ * profiles to load in a guess of the hot data, so the page cache can get up to speed more quickly after a restart.
+ * <p>
+ * A profile is a gzip compressed bitmap with one bit per file page, where a set bit means that the page was in memory
+ * when the profile was taken. The profiles are kept in the {@value #PROFILES_DIRECTORY} directory of the store, in a
+ * directory structure that mirrors the location of the mapped files. This way all mapped files, both store files and
+ * the {@code GBPTree} files of native indexes, get their own profile.
+ * <p>
+ * The reheating of the individual files is done in parallel, and each file is loaded in ascending page order with the
+ * {@link PagedFile#PF_READ_AHEAD} hint, so that the page cache can turn the warmup into large sequential reads.
+ */
+public class PageCacheWarmer
+{
+    public static final String PROFILES_DIRECTORY = "profiles";
+    public static final String SUFFIX_CACHEPROF = ".cacheprof";
+    private static final String SUFFIX_CACHEPROF_TMP = ".cacheprof.tmp";
+
+    // The number of pages we load before we report the page faults of the warmup to the global page cache tracer.
+    private static final int REPORT_PAGE_COUNT = 1 << 13;
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final PageCursorTracerSupplier pageCursorTracerSupplier;
+    private final Executor executor;
+    private final File storeDir;
+    private final File profilesDir;
+    private final int parallelism;
+    private final Lock ioLock = new ReentrantLock();
+    private volatile boolean stopped;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache,
+            PageCursorTracerSupplier pageCursorTracerSupplier, Executor executor, File storeDir )
+    {
+        this( fs, pageCache, pageCursorTracerSupplier, executor, storeDir,
+                Runtime.getRuntime().availableProcessors() );
+    }
+
+    PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, PageCursorTracerSupplier pageCursorTracerSupplier,
+            Executor executor, File storeDir, int parallelism )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.pageCursorTracerSupplier = pageCursorTracerSupplier;
+        this.executor = executor;
+        this.storeDir = canonical( storeDir );
+        this.profilesDir = new File( this.storeDir, PROFILES_DIRECTORY );
+        this.parallelism = Math.max( 1, parallelism );
+    }
+
+    public void start()
+    {
+        stopped = false;
+    }
+
+    public void stop()
+    {
+        if ( stopped )
+        {
+            return;
+        }
+        stopped = true;
+        // Any ongoing profile or reheat will notice the stopped flag and finish quickly. We wait for it by taking
+        // the IO lock, so that no mappings are kept open by us once we have been stopped.
+        ioLock.lock();
+        ioLock.unlock();
+    }
+
+    /**
+     * Reheat the page cache based on the existing profiles.
+     *
+     * @return the number of pages that were loaded, or empty if the warmer was stopped.
+     * @throws IOException if the profiles could not be read, or the pages could not be loaded.
+     */
+    public OptionalLong reheat() throws IOException
+    {
+        ioLock.lock();
+        try
+        {
+            if ( stopped )
+            {
+                return OptionalLong.empty();
+            }
+            List<PagedFile> files = pageCache.listExistingMappings();
+            try
+            {
+                return OptionalLong.of( reheat( files ) );
+            }
+            finally
+            {
+                closeAll( files );
+            }
+        }
+        finally
+        {
+            ioLock.unlock();
+        }
+    }
+
+    private long reheat( List<PagedFile> files ) throws IOException
+    {
+        Iterator<PagedFile> work = files.iterator();
+        List<FutureTask<Long>> tasks = new ArrayList<>();
+        int workers = Math.min( parallelism, files.size() );
+        for ( int i = 0; i < workers; i++ )
+        {
+            FutureTask<Long> task = new FutureTask<>( () -> reheatFiles( work ) );
+            tasks.add( task );
+            executor.execute( task );
+        }
+
+        long pagesLoaded = 0;
+        IOException exception = null;
+        for ( FutureTask<Long> task : tasks )
+        {
+            try
+            {
+                pagesLoaded += task.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                exception = chain( exception, new IOException( "Interrupted while reheating the page cache", e ) );
+            }
+            catch ( ExecutionException e )
+            {
+                Throwable cause = e.getCause();
+                exception = chain( exception, cause instanceof IOException ? (IOException) cause
+                                                                          : new IOException( cause ) );
+            }
+        }
+        if ( exception != null )
+        {
+            throw exception;
+        }
+        return pagesLoaded;
+    }
+
+    private long reheatFiles( Iterator<PagedFile> work ) throws IOException
+    {
+        long pagesLoaded = 0;
+        PagedFile file;
+        while ( !stopped && (file = next( work )) != null )
+        {
+            pagesLoaded += reheat( file );
+        }
+        return pagesLoaded;
+    }
+
+    private static PagedFile next( Iterator<PagedFile> work )
+    {
+        synchronized ( work )
+        {
+            return work.hasNext() ? work.next() : null;
+        }
+    }
+
+    private long reheat( PagedFile file ) throws IOException
+    {
+        File profile = profileFile( file );
+        if ( profile == null || !fs.fileExists( profile ) )
+        {
+            return 0;
+        }
+
+        long pagesLoaded = 0;
+        try ( InputStream input = new GZIPInputStream( fs.openAsInputStream( profile ) );
+              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+        {
+            long pageId = 0;
+            int b;
+            while ( (b = input.read()) != -1 )
+            {
+                for ( int i = 0; i < Byte.SIZE; i++, pageId++ )
+                {
+                    if ( (b & (1 << i)) == 0 )
+                    {
+                        continue;
+                    }
+                    if ( stopped || !cursor.next( pageId ) )
+                    {
+                        // We have either been stopped, or the file has shrunk since the profile was taken.
+                        return pagesLoaded;
+                    }
+                    pagesLoaded++;
+                    if ( pagesLoaded % REPORT_PAGE_COUNT == 0 )
+                    {
+                        reportPageCursorEvents();
+                    }
+                }
+            }
+        }
+        finally
+        {
+            reportPageCursorEvents();
+        }
+        return pagesLoaded;
+    }
+
+    /**
+     * Take a profile of the pages that are currently in memory, for all of the mapped files, and write them to the
+     * profile files.
+     *
+     * @return the number of pages that were in memory, or empty if the warmer was stopped.
+     * @throws IOException if the profiles could not be written.
+     */
+    public OptionalLong profile() throws IOException
+    {
+        ioLock.lock();
+        try
+        {
+            if ( stopped )
+            {
+                return OptionalLong.empty();
+            }
+            List<PagedFile> files = pageCache.listExistingMappings();
+            try
+            {
+                long pagesInMemory = 0;
+                for ( PagedFile file : files )
+                {
+                    if ( stopped )
+                    {
+                        return OptionalLong.empty();
+                    }
+                    pagesInMemory += profile( file );
+                }
+                return OptionalLong.of( pagesInMemory );
+            }
+            finally
+            {
+                closeAll( files );
+            }
+        }
+        finally
+        {
+            ioLock.unlock();
+        }
+    }
+
+    private long profile( PagedFile file ) throws IOException
+    {
+        File profile = profileFile( file );
+        if ( profile == null )
+        {
+            return 0;
+        }
+        File tmpProfile = new File( profile.getParentFile(),
+                profile.getName().replace( SUFFIX_CACHEPROF, SUFFIX_CACHEPROF_TMP ) );
+        fs.mkdirs( profile.getParentFile() );
+
+        long pagesInMemory = 0;
+        try ( OutputStream output = new GZIPOutputStream( fs.openAsOutputStream( tmpProfile, false ) );
+              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            int stepper = 0;
+            int b = 0;
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    pagesInMemory++;
+                    b |= 1 << stepper;
+                }
+                stepper++;
+                if ( stepper == Byte.SIZE )
+                {
+                    if ( stopped )
+                    {
+                        break;
+                    }
+                    output.write( b );
+                    b = 0;
+                    stepper = 0;
+                }
+            }
+            if ( stepper != 0 )
+            {
+                output.write( b );
+            }
+        }
+        finally
+        {
+            reportPageCursorEvents();
+        }
+
+        if ( stopped )
+        {
+            // Don't replace a complete profile with a partial one.
+            fs.deleteFile( tmpProfile );
+        }
+        else
+        {
+            fs.renameFile( tmpProfile, profile, StandardCopyOption.REPLACE_EXISTING );
+        }
+        return pagesInMemory;
+    }
+
+    /**
+     * @return the profile file for the given paged file, or {@code null} if the paged file is not within the store.
+     */
+    File profileFile( PagedFile file )
+    {
+        File mappedFile = canonical( file.file() );
+        String storePath = storeDir.getPath() + File.separator;
+        String mappedPath = mappedFile.getPath();
+        if ( !mappedPath.startsWith( storePath ) )
+        {
+            return null;
+        }
+        return new File( profilesDir, mappedPath.substring( storePath.length() ) + SUFFIX_CACHEPROF );
+    }
+
+    private void reportPageCursorEvents()
+    {
+        // The page cursor tracers of background threads are never reported by any transaction, so we report them
+        // ourselves, to make the progress of the warmup visible in the page cache statistics.
+        pageCursorTracerSupplier.get().reportEvents();
+    }
+
+    private static void closeAll( List<PagedFile> files ) throws IOException
+    {
+        IOException exception = null;
+        for ( PagedFile file : files )
+        {
+            try
+            {
+                file.close();
+            }
+            catch ( IOException e )
+            {
+                exception = chain( exception, e );
+            }
+        }
+        if ( exception != null )
+        {
+            throw exception;
+        }
+    }
+
+    private static IOException chain( IOException initial, IOException current )
+    {
+        if ( initial == null )
+        {
+            return current;
+        }
+        initial.addSuppressed( current );
+        return initial;
+    }
+
+    private static File canonical( File file )
+    {
+        try
+        {
+            return file.getCanonicalFile();
+        }
+        catch ( IOException e )
+        {
+            return file.getAbsoluteFile();
+        }
+    }
+}
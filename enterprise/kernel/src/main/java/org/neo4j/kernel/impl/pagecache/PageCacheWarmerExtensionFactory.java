@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.AvailabilityGuard;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.extension.KernelExtensionFactory;
+import org.neo4j.kernel.impl.logging.LogService;
+import org.neo4j.kernel.impl.spi.KernelContext;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.kernel.monitoring.tracing.Tracers;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.scheduler.JobScheduler.Groups.pageCacheIOHelper;
+
+@Service.Implementation( KernelExtensionFactory.class )
+public class PageCacheWarmerExtensionFactory
+        extends KernelExtensionFactory<PageCacheWarmerExtensionFactory.Dependencies>
+{
+    public interface Dependencies
+    {
+        JobScheduler jobScheduler();
+
+        AvailabilityGuard availabilityGuard();
+
+        PageCache pageCache();
+
+        FileSystemAbstraction fileSystemAbstraction();
+
+        Tracers tracers();
+
+        LogService logService();
+
+        Monitors monitors();
+
+        Config config();
+    }
+
+    public PageCacheWarmerExtensionFactory()
+    {
+        super( "pagecachewarmer" );
+    }
+
+    @Override
+    public Lifecycle newInstance( KernelContext context, Dependencies deps ) throws Throwable
+    {
+        JobScheduler scheduler = deps.jobScheduler();
+        Log log = deps.logService().getInternalLog( PageCacheWarmer.class );
+        Monitors monitors = deps.monitors();
+        monitors.addMonitorListener( new PageCacheWarmerLoggingMonitor( log ) );
+        PageCacheWarmerMonitor monitor = monitors.newMonitor( PageCacheWarmerMonitor.class );
+        PageCacheWarmer warmer = new PageCacheWarmer( deps.fileSystemAbstraction(), deps.pageCache(),
+                deps.tracers().pageCursorTracerSupplier, scheduler.executor( pageCacheIOHelper ),
+                context.storeDir() );
+        return new PageCacheWarmerKernelExtension(
+                scheduler, deps.availabilityGuard(), warmer, monitor, log, deps.config() );
+    }
+}
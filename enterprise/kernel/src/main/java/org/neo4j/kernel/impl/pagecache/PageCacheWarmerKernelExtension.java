@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.AvailabilityGuard;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.scheduler.JobScheduler.Groups.pageCacheIOHelper;
+
+/**
+ * Drives the {@link PageCacheWarmer}: reheats the page cache once the database has become available, and from then on
+ * periodically takes new profiles of the page cache contents.
+ */
+class PageCacheWarmerKernelExtension extends LifecycleAdapter
+{
+    private static final long AVAILABILITY_POLL_MILLIS = 100;
+
+    private final JobScheduler scheduler;
+    private final AvailabilityGuard availabilityGuard;
+    private final PageCacheWarmer pageCacheWarmer;
+    private final PageCacheWarmerMonitor monitor;
+    private final Log log;
+    private final Config config;
+    private volatile JobScheduler.JobHandle jobHandle; // We must make sure that the job handle is safely published.
+    private volatile boolean started;
+
+    PageCacheWarmerKernelExtension( JobScheduler scheduler, AvailabilityGuard availabilityGuard,
+            PageCacheWarmer pageCacheWarmer, PageCacheWarmerMonitor monitor, Log log, Config config )
+    {
+        this.scheduler = scheduler;
+        this.availabilityGuard = availabilityGuard;
+        this.pageCacheWarmer = pageCacheWarmer;
+        this.monitor = monitor;
+        this.log = log;
+        this.config = config;
+    }
+
+    @Override
+    public void start() throws Throwable
+    {
+        if ( config.get( EnterpriseEditionSettings.pagecache_warmup_enabled ) )
+        {
+            pageCacheWarmer.start();
+            started = true;
+            scheduleTryReheat();
+        }
+    }
+
+    private void scheduleTryReheat()
+    {
+        jobHandle = scheduler.schedule( pageCacheIOHelper, this::tryReheat,
+                AVAILABILITY_POLL_MILLIS, TimeUnit.MILLISECONDS );
+    }
+
+    private void tryReheat()
+    {
+        if ( !started )
+        {
+            return;
+        }
+        if ( availabilityGuard.isAvailable() )
+        {
+            doReheat();
+        }
+        else if ( !availabilityGuard.isShutdown() )
+        {
+            scheduleTryReheat();
+        }
+    }
+
+    private void doReheat()
+    {
+        try
+        {
+            monitor.warmupStarted();
+            long start = System.currentTimeMillis();
+            OptionalLong pagesLoaded = pageCacheWarmer.reheat();
+            if ( pagesLoaded.isPresent() )
+            {
+                monitor.warmupCompleted( System.currentTimeMillis() - start, pagesLoaded.getAsLong() );
+            }
+        }
+        catch ( Exception e )
+        {
+            log.debug( "Active page cache warmup failed, " +
+                       "so it may take longer for the cache to be populated with hot data.", e );
+        }
+
+        scheduleProfile();
+    }
+
+    private synchronized void scheduleProfile()
+    {
+        if ( started )
+        {
+            long frequencyMillis = config.get( EnterpriseEditionSettings.pagecache_warmup_profiling_interval )
+                    .toMillis();
+            jobHandle = scheduler.scheduleRecurring( pageCacheIOHelper, this::doProfile,
+                    frequencyMillis, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    private void doProfile()
+    {
+        try
+        {
+            long start = System.currentTimeMillis();
+            OptionalLong pagesInMemory = pageCacheWarmer.profile();
+            if ( pagesInMemory.isPresent() )
+            {
+                monitor.profileCompleted( System.currentTimeMillis() - start, pagesInMemory.getAsLong() );
+            }
+        }
+        catch ( Exception e )
+        {
+            log.debug( "Page cache profiling failed, so no new profile of what data is hot or not was produced. " +
+                       "This may reduce the effectiveness of a future page cache warmup process.", e );
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws Throwable
+    {
+        if ( started )
+        {
+            started = false;
+            JobScheduler.JobHandle handle = jobHandle;
+            if ( handle != null )
+            {
+                handle.cancel( false );
+            }
+            pageCacheWarmer.stop();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.neo4j.logging.Log;
+
+/**
+ * Writes the progress of the {@link PageCacheWarmer} to the debug log.
+ */
+class PageCacheWarmerLoggingMonitor implements PageCacheWarmerMonitor
+{
+    private final Log log;
+
+    PageCacheWarmerLoggingMonitor( Log log )
+    {
+        this.log = log;
+    }
+
+    @Override
+    public void warmupStarted()
+    {
+        log.info( "Page cache warmup started." );
+    }
+
+    @Override
+    public void warmupCompleted( long elapsedMillis, long pagesLoaded )
+    {
+        log.info( "Page cache warmup completed. %d pages loaded. Duration: %d ms.", pagesLoaded, elapsedMillis );
+    }
+
+    @Override
+    public void profileCompleted( long elapsedMillis, long pagesInMemory )
+    {
+        log.debug( "Profiled page cache in %d ms. %d pages in memory.", elapsedMillis, pagesInMemory );
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+/**
+ * Monitor for the progress of the {@link PageCacheWarmer}.
+ */
+public interface PageCacheWarmerMonitor
+{
+    /**
+     * Called when the page cache warmup is about to begin loading pages, based on the existing profiles.
+     */
+    void warmupStarted();
+
+    /**
+     * Called when the page cache warmup has finished.
+     *
+     * @param elapsedMillis the time the warmup took, in milliseconds.
+     * @param pagesLoaded the number of pages that were loaded by the warmup.
+     */
+    void warmupCompleted( long elapsedMillis, long pagesLoaded );
+
+    /**
+     * Called when a new profile of the page cache contents has been written.
+     *
+     * @param elapsedMillis the time the profiling took, in milliseconds.
+     * @param pagesInMemory the number of pages that were found to be in memory.
+     */
+    void profileCompleted( long elapsedMillis, long pagesInMemory );
+}
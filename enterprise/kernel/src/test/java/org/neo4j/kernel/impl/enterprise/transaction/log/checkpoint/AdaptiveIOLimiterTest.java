@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint;
+
+import org.junit.Test;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.LogForceMonitor;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.kernel.monitoring.tracing.Tracers;
+import org.neo4j.logging.NullLog;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+public class AdaptiveIOLimiterTest
+{
+    private static final Flushable FLUSHABLE = () -> {};
+
+    private final FakeClock clock = Clocks.fakeClock();
+    private final DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+    private final TestLogForceMonitor logForceMonitor = new TestLogForceMonitor();
+    private final CheckPointTracer checkPointTracer = mock( CheckPointTracer.class );
+    private final AtomicLong pauseNanosCounter = new AtomicLong();
+
+    @Test
+    public void mustStartOutWithConfiguredIOPSLimit() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        assertEquals( 1000, limiter.iopsLimit() );
+        verify( checkPointTracer ).ioLimitAdjusted( 1000 );
+    }
+
+    @Test
+    public void mustBackOffWhenPageFaultLatencyExceedsTarget() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+        flushAfterAdjustmentInterval( limiter );
+
+        assertEquals( 500, limiter.iopsLimit() );
+        verify( checkPointTracer ).ioLimitAdjusted( 500 );
+    }
+
+    @Test
+    public void mustBackOffWhenLogForceLatencyExceedsTarget() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        logForceMonitor.force( 5, TimeUnit.MILLISECONDS.toNanos( 30 ) );
+        flushAfterAdjustmentInterval( limiter );
+
+        assertEquals( 500, limiter.iopsLimit() );
+    }
+
+    @Test
+    public void mustSpeedUpWhenLatenciesAreWellBelowTarget() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        logForceMonitor.force( 5, TimeUnit.MILLISECONDS.toNanos( 2 ) );
+        flushAfterAdjustmentInterval( limiter );
+
+        assertEquals( 1250, limiter.iopsLimit() );
+        verify( checkPointTracer ).ioLimitAdjusted( 1250 );
+    }
+
+    @Test
+    public void mustKeepLimitWhenLatenciesAreCloseToTarget() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 8 ) );
+        flushAfterAdjustmentInterval( limiter );
+
+        assertEquals( 1000, limiter.iopsLimit() );
+    }
+
+    @Test
+    public void mustNotAdjustMoreOftenThanTheAdjustmentInterval() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+        clock.forward( AdaptiveIOLimiter.ADJUSTMENT_INTERVAL_NANOS / 2, TimeUnit.NANOSECONDS );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, FLUSHABLE );
+
+        assertEquals( 1000, limiter.iopsLimit() );
+    }
+
+    @Test
+    public void mustNotAdjustBasedOnLatenciesObservedInBetweenCheckPoints() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+        clock.forward( 1, TimeUnit.MINUTES );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, FLUSHABLE );
+
+        assertEquals( 1000, limiter.iopsLimit() );
+
+        // But the next window is sampled as usual.
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+        flushAfterAdjustmentInterval( limiter );
+
+        assertEquals( 500, limiter.iopsLimit() );
+    }
+
+    @Test
+    public void mustNotAdjustWhileLimitIsDisabled() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+
+        limiter.disableLimit();
+        try
+        {
+            foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+            flushAfterAdjustmentInterval( limiter );
+        }
+        finally
+        {
+            limiter.enableLimit();
+        }
+
+        assertEquals( 1000, limiter.iopsLimit() );
+    }
+
+    @Test
+    public void mustStayWithinBounds() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "-1" );
+        assertEquals( AdaptiveIOLimiter.MAX_IOPS, limiter.iopsLimit() );
+
+        flushAfterAdjustmentInterval( limiter );
+        assertEquals( AdaptiveIOLimiter.MAX_IOPS, limiter.iopsLimit() );
+
+        for ( int i = 0; i < 30; i++ )
+        {
+            foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+            flushAfterAdjustmentInterval( limiter );
+        }
+        assertEquals( AdaptiveIOLimiter.MIN_IOPS, limiter.iopsLimit() );
+    }
+
+    @Test
+    public void mustRestrictIORateToAdjustedLimit() throws Exception
+    {
+        AdaptiveIOLimiter limiter = createIOLimiter( "1000" );
+        long pausedAtInitialLimit = pauseNanosFor100IOs( limiter );
+
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+        flushAfterAdjustmentInterval( limiter );
+        foregroundPageFaults( 10, TimeUnit.MILLISECONDS.toNanos( 50 ) );
+        flushAfterAdjustmentInterval( limiter );
+        assertEquals( 250, limiter.iopsLimit() );
+
+        assertThat( pauseNanosFor100IOs( limiter ), greaterThan( pausedAtInitialLimit ) );
+    }
+
+    @Test
+    public void mustCreateAdaptiveLimiterOnlyWhenLatencyTargetIsConfigured() throws Exception
+    {
+        Tracers tracers = new Tracers( "null", NullLog.getInstance(), new Monitors(), null );
+        assertThat( IOLimiters.createCheckPointIOLimiter( Config.defaults(), tracers ),
+                instanceOf( ConfigurableIOLimiter.class ) );
+        Config config = Config.defaults( stringMap(
+                GraphDatabaseSettings.check_point_iops_latency_target.name(), "10ms" ) );
+        assertThat( IOLimiters.createCheckPointIOLimiter( config, tracers ),
+                instanceOf( AdaptiveIOLimiter.class ) );
+    }
+
+    private AdaptiveIOLimiter createIOLimiter( String iopsLimit )
+    {
+        Config config = Config.defaults( stringMap(
+                GraphDatabaseSettings.check_point_iops_limit.name(), iopsLimit,
+                GraphDatabaseSettings.check_point_iops_latency_target.name(), "10ms" ) );
+        return new AdaptiveIOLimiter( config, pageCacheTracer, logForceMonitor, checkPointTracer, clock,
+                ( blocker, nanos ) -> pauseNanosCounter.getAndAdd( nanos ) );
+    }
+
+    private void foregroundPageFaults( int faults, long latencyNanos )
+    {
+        pageCacheTracer.faults( faults );
+        pageCacheTracer.faultNanos( faults * latencyNanos );
+    }
+
+    private void flushAfterAdjustmentInterval( AdaptiveIOLimiter limiter ) throws IOException
+    {
+        clock.forward( AdaptiveIOLimiter.ADJUSTMENT_INTERVAL_NANOS, TimeUnit.NANOSECONDS );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, FLUSHABLE );
+    }
+
+    private long pauseNanosFor100IOs( AdaptiveIOLimiter limiter ) throws IOException
+    {
+        long before = pauseNanosCounter.get();
+        long stamp = IOLimiter.INITIAL_STAMP;
+        for ( int i = 0; i < 100; i++ )
+        {
+            stamp = limiter.maybeLimitIO( stamp, 1, FLUSHABLE );
+        }
+        long paused = pauseNanosCounter.get() - before;
+        assertThat( paused, lessThan( TimeUnit.SECONDS.toNanos( 10 ) ) );
+        return paused;
+    }
+
+    private static class TestLogForceMonitor implements LogForceMonitor
+    {
+        private long forces;
+        private long forceNanos;
+
+        void force( int count, long latencyNanos )
+        {
+            forces += count;
+            forceNanos += count * latencyNanos;
+        }
+
+        @Override
+        public long numberOfLogForceEvents()
+        {
+            return forces;
+        }
+
+        @Override
+        public long logForceAccumulatedTotalTimeNanos()
+        {
+            return forceNanos;
+        }
+    }
+}
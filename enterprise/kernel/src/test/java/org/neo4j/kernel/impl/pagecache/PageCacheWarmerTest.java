@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+public class PageCacheWarmerTest
+{
+    private static final int PAGES = 20;
+
+    private final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+    private final PageCacheRule pageCacheRule = new PageCacheRule(
+            PageCacheRule.config().withInconsistentReads( false ) );
+    private final TestDirectory testDir = TestDirectory.testDirectory( fsRule.get() );
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( pageCacheRule ).around( fsRule ).around( testDir );
+
+    private ExecutorService executor;
+    private FileSystemAbstraction fs;
+    private File storeDir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        executor = Executors.newFixedThreadPool( 2 );
+        fs = fsRule.get();
+        storeDir = testDir.directory( "store" );
+        file = new File( storeDir, "a" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    public void mustReheatProfiledPagesAfterRestart() throws Exception
+    {
+        createFileWithPages( file );
+        long[] hotPages = {1, 3, 8, 9, 17};
+
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            touch( pf, hotPages );
+            assertThat( warmer( pageCache ).profile().getAsLong(), is( (long) hotPages.length ) );
+        }
+
+        pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertThat( warmer( pageCache ).reheat().getAsLong(), is( (long) hotPages.length ) );
+            assertPagesInMemory( pf, hotPages );
+        }
+    }
+
+    @Test
+    public void mustProfileAndReheatFilesInSubDirectoriesOfTheStore() throws Exception
+    {
+        File indexFile = new File( new File( new File( storeDir, "schema" ), "index" ), "index-1" );
+        fs.mkdirs( indexFile.getParentFile() );
+        createFileWithPages( indexFile );
+        long[] hotPages = {0, 19};
+
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( indexFile, pageCache.pageSize() ) )
+        {
+            touch( pf, hotPages );
+            PageCacheWarmer warmer = warmer( pageCache );
+            warmer.profile();
+            assertTrue( fs.fileExists( warmer.profileFile( pf ) ) );
+        }
+
+        pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( indexFile, pageCache.pageSize() ) )
+        {
+            warmer( pageCache ).reheat();
+            assertPagesInMemory( pf, hotPages );
+        }
+    }
+
+    @Test
+    public void mustNotReheatAnythingWithoutProfile() throws Exception
+    {
+        createFileWithPages( file );
+
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertThat( warmer( pageCache ).reheat().getAsLong(), is( 0L ) );
+            assertPagesInMemory( pf );
+        }
+    }
+
+    @Test
+    public void mustIgnoreFilesOutsideOfTheStore() throws Exception
+    {
+        File outside = testDir.file( "outside" );
+        createFileWithPages( outside );
+
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( outside, pageCache.pageSize() ) )
+        {
+            touch( pf, 1 );
+            PageCacheWarmer warmer = warmer( pageCache );
+            assertThat( warmer.profileFile( pf ), is( nullValue() ) );
+            assertThat( warmer.profile().getAsLong(), is( 0L ) );
+        }
+    }
+
+    @Test
+    public void mustWriteOneProfileByteForEveryEightPages() throws Exception
+    {
+        createFileWithPages( file, 16 );
+
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            touch( pf, 0, 15 );
+            PageCacheWarmer warmer = warmer( pageCache );
+            warmer.profile();
+            try ( InputStream input = new GZIPInputStream( fs.openAsInputStream( warmer.profileFile( pf ) ) ) )
+            {
+                assertThat( input.read(), is( 0b0000_0001 ) );
+                assertThat( input.read(), is( 0b1000_0000 ) );
+                assertThat( input.read(), is( -1 ) );
+            }
+        }
+    }
+
+    @Test
+    public void mustDoNothingWhenStopped() throws Exception
+    {
+        createFileWithPages( file );
+
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache );
+            warmer.stop();
+            assertFalse( warmer.profile().isPresent() );
+            assertFalse( warmer.reheat().isPresent() );
+        }
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache )
+    {
+        PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, DefaultPageCursorTracerSupplier.INSTANCE,
+                executor, storeDir, 2 );
+        warmer.start();
+        return warmer;
+    }
+
+    private void createFileWithPages( File target ) throws IOException
+    {
+        createFileWithPages( target, PAGES );
+    }
+
+    private void createFileWithPages( File target, int pages ) throws IOException
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pf = pageCache.map( target, pageCache.pageSize(), CREATE );
+              PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < pages; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    private static void touch( PagedFile pf, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertTrue( cursor.next( pageId ) );
+            }
+        }
+    }
+
+    private static void assertPagesInMemory( PagedFile pf, long... expectedPageIds ) throws IOException
+    {
+        boolean[] expected = new boolean[PAGES];
+        for ( long pageId : expectedPageIds )
+        {
+            expected[(int) pageId] = true;
+        }
+        try ( PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            for ( int i = 0; i < PAGES; i++ )
+            {
+                assertTrue( cursor.next() );
+                boolean inMemory = cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID;
+                assertThat( "page " + i + " in memory", inMemory, is( expected[i] ) );
+            }
+        }
+    }
+}
@@ -49,6 +49,12 @@ public class BoltMetrics extends LifecycleAdapter
                  "successful, failed and ignored Bolt messages." )
     public static final String MESSAGES_DONE = name( NAME_PREFIX, "messages_done" );
 
+    @Documented( "The number of messages received via Bolt that are waiting for a worker thread. With the " +
+                 "`bolt.thread_pool.enabled` worker model, this grows when all threads in the pool are busy." )
+    public static final String MESSAGES_QUEUED = name( NAME_PREFIX, "messages_queued" );
+    @Documented( "The number of messages that worker threads are processing right now." )
+    public static final String MESSAGES_IN_FLIGHT = name( NAME_PREFIX, "messages_in_flight" );
+
     @Documented( "The accumulated time messages have spent waiting for a worker thread." )
     public static final String TOTAL_QUEUE_TIME = name( NAME_PREFIX, "accumulated_queue_time" );
     @Documented( "The accumulated time worker threads have spent processing messages." )
@@ -72,6 +78,8 @@ public class BoltMetrics extends LifecycleAdapter
         registry.register( MESSAGES_RECIEVED, (Gauge<Long>) boltMonitor.messagesReceived::get );
         registry.register( MESSAGES_STARTED, (Gauge<Long>) boltMonitor.messagesStarted::get );
         registry.register( MESSAGES_DONE, (Gauge<Long>) boltMonitor.messagesDone::get );
+        registry.register( MESSAGES_QUEUED, (Gauge<Long>) boltMonitor::messagesQueued );
+        registry.register( MESSAGES_IN_FLIGHT, (Gauge<Long>) boltMonitor::messagesInFlight );
         registry.register( TOTAL_QUEUE_TIME, (Gauge<Long>) boltMonitor.queueTime::get );
         registry.register( TOTAL_PROCESSING_TIME, (Gauge<Long>) boltMonitor.processingTime::get );
     }
@@ -82,6 +90,8 @@ public class BoltMetrics extends LifecycleAdapter
         registry.remove( MESSAGES_RECIEVED );
         registry.remove( MESSAGES_STARTED );
         registry.remove( MESSAGES_DONE );
+        registry.remove( MESSAGES_QUEUED );
+        registry.remove( MESSAGES_IN_FLIGHT );
         registry.remove( TOTAL_QUEUE_TIME );
         registry.remove( TOTAL_PROCESSING_TIME );
         monitors.removeMonitorListener( boltMonitor );
@@ -101,6 +111,19 @@ public class BoltMetrics extends LifecycleAdapter
         final AtomicLong queueTime = new AtomicLong();
         final AtomicLong processingTime = new AtomicLong();
 
+        long messagesQueued()
+        {
+            // Read the later stage first, so that a message moving between the stages is never counted negatively.
+            long started = messagesStarted.get();
+            return Math.max( 0, messagesReceived.get() - started );
+        }
+
+        long messagesInFlight()
+        {
+            long done = messagesDone.get();
+            return Math.max( 0, messagesStarted.get() - done );
+        }
+
         @Override
         public void sessionStarted()
         {
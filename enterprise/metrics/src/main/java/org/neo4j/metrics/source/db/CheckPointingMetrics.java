@@ -46,6 +46,10 @@ public class CheckPointingMetrics extends LifecycleAdapter
     public static final String CHECK_POINT_TOTAL_TIME = name( CHECK_POINT_PREFIX, "total_time" );
     @Documented( "The duration of the check point event" )
     public static final String CHECK_POINT_DURATION = name( CHECK_POINT_PREFIX, "check_point_duration" );
+    @Documented( "The number of IOs per second check pointing is currently allowed to perform, or -1 if unlimited" )
+    public static final String CHECK_POINT_IO_LIMIT = name( CHECK_POINT_PREFIX, "io_limit" );
+    @Documented( "The total number of times the check point IO limit has been adjusted to the observed IO latencies" )
+    public static final String CHECK_POINT_IO_LIMIT_ADJUSTMENTS = name( CHECK_POINT_PREFIX, "io_limit_adjustments" );
 
     private final MetricRegistry registry;
     private final Monitors monitors;
@@ -74,6 +78,9 @@ public class CheckPointingMetrics extends LifecycleAdapter
         registry.register( CHECK_POINT_EVENTS, (Gauge<Long>) checkPointerMonitor::numberOfCheckPointEvents );
         registry.register( CHECK_POINT_TOTAL_TIME,
                 (Gauge<Long>) checkPointerMonitor::checkPointAccumulatedTotalTimeMillis );
+        registry.register( CHECK_POINT_IO_LIMIT, (Gauge<Long>) checkPointerMonitor::checkPointIOLimit );
+        registry.register( CHECK_POINT_IO_LIMIT_ADJUSTMENTS,
+                (Gauge<Long>) checkPointerMonitor::numberOfCheckPointIOLimitAdjustments );
     }
 
     @Override
@@ -83,5 +90,7 @@ public class CheckPointingMetrics extends LifecycleAdapter
 
         registry.remove( CHECK_POINT_EVENTS );
         registry.remove( CHECK_POINT_TOTAL_TIME );
+        registry.remove( CHECK_POINT_IO_LIMIT );
+        registry.remove( CHECK_POINT_IO_LIMIT_ADJUSTMENTS );
     }
 }
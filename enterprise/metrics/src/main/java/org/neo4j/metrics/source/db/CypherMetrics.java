@@ -37,6 +37,12 @@ public class CypherMetrics extends LifecycleAdapter
     @Documented( "The total number of times Cypher has decided to re-plan a query" )
     public static final String REPLAN_EVENTS = name( NAME_PREFIX, "replan_events" );
 
+    @Documented( "The number of queries that are currently being replanned in the background" )
+    public static final String REPLANS_IN_FLIGHT = name( NAME_PREFIX, "replans_in_flight" );
+
+    @Documented( "The total time spent planning queries, in milliseconds" )
+    public static final String PLANNING_TIME = name( NAME_PREFIX, "planning_time" );
+
     private final MetricRegistry registry;
     private final Monitors monitors;
     private final PlanCacheMetricsMonitor cacheMonitor = new PlanCacheMetricsMonitor();
@@ -52,12 +58,16 @@ public class CypherMetrics extends LifecycleAdapter
     {
         monitors.addMonitorListener( cacheMonitor );
         registry.register( REPLAN_EVENTS, (Gauge<Long>) cacheMonitor::numberOfReplans );
+        registry.register( REPLANS_IN_FLIGHT, (Gauge<Long>) cacheMonitor::numberOfReplansInFlight );
+        registry.register( PLANNING_TIME, (Gauge<Long>) cacheMonitor::planningTimeMillis );
     }
 
     @Override
     public void stop()
     {
         registry.remove( REPLAN_EVENTS );
+        registry.remove( REPLANS_IN_FLIGHT );
+        registry.remove( PLANNING_TIME );
         monitors.removeMonitorListener( cacheMonitor );
     }
 }
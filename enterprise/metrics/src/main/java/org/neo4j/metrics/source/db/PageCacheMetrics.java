@@ -47,6 +47,8 @@ public class PageCacheMetrics extends LifecycleAdapter
     public static final String PC_PAGE_FAULTS = name( PAGE_CACHE_PREFIX, "page_faults" );
     @Documented( "The total number of page hits happened in the page cache" )
     public static final String PC_HITS = name( PAGE_CACHE_PREFIX, "hits" );
+    @Documented( "The total number of times the eviction policy protected a hot page from being aged" )
+    public static final String PC_HOT_PAGES_PROTECTED = name( PAGE_CACHE_PREFIX, "hot_pages_protected" );
     @Documented( "The ratio of hits to the total number of lookups in the page cache" )
     public static final String PC_HIT_RATIO = name( PAGE_CACHE_PREFIX, "hit_ratio" );
 
@@ -69,6 +71,7 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.register( PC_HITS, (Gauge<Long>) pageCacheCounters::hits );
         registry.register( PC_FLUSHES, (Gauge<Long>) pageCacheCounters::flushes );
         registry.register( PC_EVICTION_EXCEPTIONS, (Gauge<Long>) pageCacheCounters::evictionExceptions );
+        registry.register( PC_HOT_PAGES_PROTECTED, (Gauge<Long>) pageCacheCounters::hotPagesProtected );
         registry.register( PC_HIT_RATIO, (Gauge<Double>) pageCacheCounters::hitRatio );
     }
 
@@ -82,6 +85,7 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.remove( PC_HITS );
         registry.remove( PC_FLUSHES );
         registry.remove( PC_EVICTION_EXCEPTIONS );
+        registry.remove( PC_HOT_PAGES_PROTECTED );
         registry.remove( PC_HIT_RATIO );
     }
 }
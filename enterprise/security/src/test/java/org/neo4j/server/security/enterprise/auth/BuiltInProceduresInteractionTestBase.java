@@ -58,6 +58,7 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.isA;
 import static org.junit.Assert.assertEquals;
@@ -77,20 +78,16 @@ import static org.neo4j.test.matchers.CommonMatchers.matchesOneToOneInAnyOrder;
 public abstract class BuiltInProceduresInteractionTestBase<S> extends ProcedureInteractionTestBase<S>
 {
 
-    /*
-    This surface is hidden in 3.1, to possibly be completely removed or reworked later
-    ==================================================================================
-     */
     //---------- list running transactions -----------
 
-    //@Test
+    @Test
     public void shouldListSelfTransaction()
     {
         assertSuccess( adminSubject, "CALL dbms.listTransactions()",
                 r -> assertKeyIsMap( r, "username", "activeTransactions", map( "adminSubject", "1" ) ) );
     }
 
-    //@Test
+    @Test
     public void shouldNotListTransactionsIfNotAdmin()
     {
         assertFail( noneSubject, "CALL dbms.listTransactions()", PERMISSION_DENIED );
@@ -99,7 +96,7 @@ public abstract class BuiltInProceduresInteractionTestBase<S> extends ProcedureI
         assertFail( schemaSubject, "CALL dbms.listTransactions()", PERMISSION_DENIED );
     }
 
-    //@Test
+    @Test
     public void shouldListTransactions() throws Throwable
     {
         DoubleLatch latch = new DoubleLatch( 3 );
@@ -113,6 +110,10 @@ public abstract class BuiltInProceduresInteractionTestBase<S> extends ProcedureI
         assertSuccess( adminSubject, "CALL dbms.listTransactions()",
                 r -> assertKeyIsMap( r, "username", "activeTransactions",
                         map( "adminSubject", "1", "writeSubject", "2" ) ) );
+        assertSuccess( adminSubject, "CALL dbms.listTransactions() YIELD username, estimatedHeapUsage " +
+                                     "WITH * WHERE username = 'writeSubject' RETURN estimatedHeapUsage",
+                r -> assertThat( ((Number) toRawValue( r.next().get( "estimatedHeapUsage" ) )).longValue(),
+                        greaterThan( 0L ) ) );
 
         latch.finishAndWaitForAllToFinish();
 
@@ -120,7 +121,7 @@ public abstract class BuiltInProceduresInteractionTestBase<S> extends ProcedureI
         write2.closeAndAssertSuccess();
     }
 
-    //@Test
+    @Test
     public void shouldListRestrictedTransaction()
     {
         final DoubleLatch doubleLatch = new DoubleLatch( 2 );
@@ -142,10 +143,6 @@ public abstract class BuiltInProceduresInteractionTestBase<S> extends ProcedureI
         }
     }
 
-    /*
-    ==================================================================================
-     */
-
     //---------- list running queries -----------
 
     @Test
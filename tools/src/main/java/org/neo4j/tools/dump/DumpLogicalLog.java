@@ -44,6 +44,7 @@ import org.neo4j.kernel.impl.transaction.log.FilteringIOCursor;
 import org.neo4j.kernel.impl.transaction.log.LogEntryCursor;
 import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogFile;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogFiles;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
@@ -135,8 +136,7 @@ public class DumpLogicalLog
         out.println( "Logical log format: " + logHeader.logFormatVersion + " version: " + logHeader.logVersion +
                 " with prev committed tx[" + logHeader.lastCommittedTxId + "]" );
 
-        PhysicalLogVersionedStoreChannel channel = new PhysicalLogVersionedStoreChannel(
-                fileChannel, logHeader.logVersion, logHeader.logFormatVersion );
+        PhysicalLogVersionedStoreChannel channel = PhysicalLogFile.openForReading( fileChannel, logHeader );
         ReadableClosablePositionAwareChannel logChannel = new ReadAheadLogChannel( channel, bridge,
                 DEFAULT_READ_AHEAD_SIZE );
         LogEntryReader<ReadableClosablePositionAwareChannel> entryReader = new VersionAwareLogEntryReader<>(